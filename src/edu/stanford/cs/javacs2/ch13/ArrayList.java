@@ -31,18 +31,26 @@ public class ArrayList<T> implements List<T> {
    }
 
    public void add(T value) {
-      if (count == capacity) expandCapacity();
+      if (count == capacity) ensureCapacity(count + 1);
       array.set(count++, value);
    }
 
+/*
+ * Implementation notes: add, remove, removeRange
+ * ----------------------------------------------
+ * Adding or removing an element in the middle of the list requires moving
+ * every element after it.  These methods call the shift method in
+ * GenericArray to move the whole block at once.  The remove methods also
+ * clear the slots that fall off the end, so that the array does not hold
+ * on to elements that are no longer in the list.
+ */
+
    public void add(int k, T value) {
       if (k < 0 || k > size()) {
          throw new IndexOutOfBoundsException("Index " + k + " out of bounds");
       }
-      if (count == capacity) expandCapacity();
-      for (int i = count; i > k; i--) {
-         array.set(i, array.get(i - 1));
-      }
+      if (count == capacity) ensureCapacity(count + 1);
+      array.shift(k, count, 1);
       array.set(k, value);
       count++;
    }
@@ -51,10 +59,46 @@ public class ArrayList<T> implements List<T> {
       if (k < 0 || k >= size()) {
          throw new IndexOutOfBoundsException("Index " + k + " out of bounds");
       }
-      for (int i = k + 1; i < count; i++) {
-         array.set(i - 1, array.get(i));
+      array.shift(k + 1, count, -1);
+      array.set(--count, null);
+   }
+
+/**
+ * Removes the elements from index start up to but not including end.
+ *
+ * @param start The index of the first element to remove
+ * @param end The index just past the last element to remove
+ */
+
+   public void removeRange(int start, int end) {
+      if (start < 0 || end > count || start > end) {
+         throw new IndexOutOfBoundsException("Range " + start + " to " + end +
+                                             " out of bounds");
+      }
+      array.shift(end, count, start - end);
+      array.clear(count - (end - start), count);
+      count -= end - start;
+   }
+
+/**
+ * Adds all the elements of the collection c to the end of this list.  The
+ * array is expanded at most once, and the elements of another ArrayList
+ * are copied as a single block.
+ *
+ * @param c The collection whose elements are added
+ */
+
+   public void addAll(Collection<? extends T> c) {
+      int n = c.size();
+      ensureCapacity(count + n);
+      if (c instanceof ArrayList) {
+         ((ArrayList<? extends T>) c).array.copyRange(0, array, count, n);
+         count += n;
+      } else {
+         for (T value : c) {
+            array.set(count++, value);
+         }
       }
-      count--;
    }
 
    public void remove(T value) {
@@ -101,21 +145,28 @@ public class ArrayList<T> implements List<T> {
    }
 
 /*
- * Implementation notes: expandCapacity
- * ------------------------------------
- * This private method doubles the size of the array whenever the old one
- * runs out of space.  To do so, expandCapacity allocates a new array,
- * copies the old elements to the new array, and then replaces the old
- * array with the new one.
+ * Implementation notes: ensureCapacity, trimToSize
+ * ------------------------------------------------
+ * The ensureCapacity method allocates a new array whenever the old one is
+ * too small, at least doubling its size so that a long sequence of calls
+ * to add takes linear time overall.  The grow method in GenericArray
+ * copies the old elements to the new array in a single operation.  The
+ * trimToSize method reallocates the array so that it is just large enough
+ * to hold the current elements.
  */
 
-   private void expandCapacity() {
-      capacity *= 2;
-      GenericArray<T> newArray = new GenericArray<T>(capacity);
-      for (int i = 0; i < count; i++) {
-         newArray.set(i, array.get(i));
+   public void ensureCapacity(int minCapacity) {
+      if (minCapacity > capacity) {
+         capacity = Math.max(minCapacity, 2 * capacity);
+         array = array.grow(capacity);
+      }
+   }
+
+   public void trimToSize() {
+      if (count < capacity) {
+         capacity = count;
+         array = array.grow(capacity);
       }
-      array = newArray;
    }
 
 /* Implements an iterator for the ArrayList class */
@@ -34,7 +34,7 @@ public class ArrayQueue<T> implements Queue<T> {
    }
 
    public void add(T value) {
-      if (size() == capacity - 1) expandCapacity();
+      ensureCapacity(size() + 1);
       array.set(tail, value);
       tail = (tail + 1) % capacity;
    }
@@ -51,27 +51,63 @@ public class ArrayQueue<T> implements Queue<T> {
       return array.get(head);
    }
 
+/**
+ * Adds the elements of the collection c to the end of the queue in the
+ * order in which the collection's iterator returns them.  The array is
+ * expanded at most once.
+ *
+ * @param c The collection whose elements are added
+ */
+
+   public void addAll(Collection<? extends T> c) {
+      ensureCapacity(size() + c.size());
+      for (T value : c) {
+         add(value);
+      }
+   }
+
+/*
+ * Implementation notes: ensureCapacity, trimToSize
+ * ------------------------------------------------
+ * These methods call resize to change the size of the array.  Note that
+ * the queue capacity is reached when there is still one unused element in
+ * the array.  If the queue is allowed to fill completely, the head and
+ * tail indices have the same value, and the queue appears empty.  The
+ * array must therefore have one more element than the queue can hold.
+ */
+
+   public void ensureCapacity(int minCapacity) {
+      if (minCapacity >= capacity) {
+         resize(Math.max(minCapacity + 1, 2 * capacity));
+      }
+   }
+
+   public void trimToSize() {
+      resize(size() + 1);
+   }
+
 /*
- * Implementation notes: expandCapacity
- * ------------------------------------
- * This private method doubles the size of the array whenever the old one
- * runs out of space.  To do so, expandCapacity allocates a new array,
- * copies the old elements to the new array, and then replaces the old
- * array with the new one.  Note that the queue capacity is reached when
- * there is still one unused element in the array.  If the queue is allowed
- * to fill completely, the head and tail indices have the same value, and
- * the queue appears empty.
+ * Implementation notes: resize
+ * ----------------------------
+ * This private method allocates a new array, copies the elements of the
+ * queue to the beginning of it, and then replaces the old array with the
+ * new one.  If the elements wrap around the end of the old array, they
+ * form two blocks, each of which is moved with a single call to copyRange.
  */
 
-   private void expandCapacity() {
-      GenericArray<T> newArray = new GenericArray<T>(2 * capacity);
+   private void resize(int newCapacity) {
+      GenericArray<T> newArray = new GenericArray<T>(newCapacity);
       int count = size();
-      for (int i = 0; i < count; i++) {
-         newArray.set(i, array.get((head + i) % capacity));
+      if (head <= tail) {
+         array.copyRange(head, newArray, 0, count);
+      } else {
+         int n = capacity - head;
+         array.copyRange(head, newArray, 0, n);
+         array.copyRange(0, newArray, n, tail);
       }
       head = 0;
       tail = count;
-      capacity *= 2;
+      capacity = newCapacity;
       array = newArray;
    }
 
@@ -0,0 +1,188 @@
+/*
+ * File: BlockingRingBufferQueue.java
+ * ----------------------------------
+ * This file implements a queue that wraps a RingBufferQueue and adds
+ * operations that wait until the queue has room or has an element.
+ */
+
+package edu.stanford.cs.javacs2.ch13;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class adds blocking put and take operations to a RingBufferQueue.
+ * Because the underlying queue uses no locks, a waiting thread cannot be
+ * notified when the queue changes.  It instead retries the operation,
+ * pausing between attempts in the way specified by its WaitStrategy.
+ */
+
+public class BlockingRingBufferQueue<T> implements Queue<T> {
+
+/**
+ * This type specifies how a thread waits between attempts.  SPIN retries
+ * immediately and gives the lowest latency, but it occupies a processor
+ * and should be used only when there are more processors than threads.
+ * YIELD offers the processor to other threads before retrying.  PARK
+ * sleeps for a short interval, which uses the least processor time but
+ * adds up to that interval to the latency of each wait.
+ */
+
+   public enum WaitStrategy { SPIN, YIELD, PARK }
+
+/**
+ * Creates a blocking queue with the specified capacity and wait strategy.
+ *
+ * @param capacity The minimum capacity of the queue
+ * @param strategy The way in which waiting threads pause between attempts
+ */
+
+   public BlockingRingBufferQueue(int capacity, WaitStrategy strategy) {
+      this(new RingBufferQueue<T>(capacity), strategy);
+   }
+
+/**
+ * Creates a blocking queue that wraps the specified ring buffer.
+ *
+ * @param queue The underlying ring buffer
+ * @param strategy The way in which waiting threads pause between attempts
+ */
+
+   public BlockingRingBufferQueue(RingBufferQueue<T> queue,
+                                  WaitStrategy strategy) {
+      this.queue = queue;
+      this.strategy = strategy;
+   }
+
+   public int size() {
+      return queue.size();
+   }
+
+   public boolean isEmpty() {
+      return queue.isEmpty();
+   }
+
+   public void clear() {
+      queue.clear();
+   }
+
+/**
+ * Adds the specified value to the tail of this queue, waiting for space
+ * to become available if the queue is full.
+ */
+
+   public void add(T value) {
+      put(value);
+   }
+
+   public T remove() {
+      T value = queue.poll();
+      if (value == null) throw new NoSuchElementException("Queue is empty");
+      return value;
+   }
+
+   public T peek() {
+      return queue.peek();
+   }
+
+/**
+ * Adds the value to the tail of the queue, waiting for space to become
+ * available if the queue is full.
+ *
+ * @param value The value to add, which must not be null
+ */
+
+   public void put(T value) {
+      int attempts = 0;
+      while (!queue.offer(value)) {
+         pause(attempts++);
+      }
+   }
+
+/**
+ * Removes and returns the element at the head of the queue, waiting for
+ * an element to arrive if the queue is empty.
+ *
+ * @return The first element
+ */
+
+   public T take() {
+      int attempts = 0;
+      while (true) {
+         T value = queue.poll();
+         if (value != null) return value;
+         pause(attempts++);
+      }
+   }
+
+/**
+ * Removes at least one and at most maxElements elements from the head of
+ * the queue and adds them to c, waiting for an element to arrive if the
+ * queue is empty.
+ *
+ * @param c The collection that receives the elements
+ * @param maxElements The maximum number of elements to remove
+ * @return The number of elements removed
+ */
+
+   public int drainTo(Collection<? super T> c, int maxElements) {
+      int attempts = 0;
+      while (true) {
+         int n = queue.drainTo(c, maxElements);
+         if (n > 0) return n;
+         pause(attempts++);
+      }
+   }
+
+/**
+ * Adds every element of c to the queue in the order in which the
+ * collection's iterator returns them.  If the collection fits in the
+ * queue, this method waits until there is room for all of its elements
+ * and adds them as a block.  Otherwise, it adds the elements one at a
+ * time, waiting for space whenever the queue is full.
+ *
+ * @param c The collection whose elements are added
+ */
+
+   public void putAll(Collection<? extends T> c) {
+      if (c.size() <= queue.capacity()) {
+         int attempts = 0;
+         while (!queue.offerAll(c)) {
+            pause(attempts++);
+         }
+      } else {
+         for (T value : c) {
+            put(value);
+         }
+      }
+   }
+
+/*
+ * Implementation notes: pause
+ * ---------------------------
+ * Each strategy begins by spinning for a few attempts, since the other
+ * thread is often about to finish its operation.  After that, the YIELD
+ * and PARK strategies give up the processor.
+ */
+
+   private void pause(int attempts) {
+      if (attempts < SPIN_LIMIT || strategy == WaitStrategy.SPIN) {
+         Thread.onSpinWait();
+      } else if (strategy == WaitStrategy.YIELD) {
+         Thread.yield();
+      } else {
+         LockSupport.parkNanos(PARK_NANOS);
+      }
+   }
+
+/* Constants */
+
+   private static final int SPIN_LIMIT = 100;
+   private static final long PARK_NANOS = 50000;
+
+/* Private instance variables */
+
+   private final RingBufferQueue<T> queue;
+   private final WaitStrategy strategy;
+
+}
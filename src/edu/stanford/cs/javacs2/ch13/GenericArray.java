@@ -5,12 +5,18 @@
  * Java.  The GenericArray class is a parameterized type that acts like
  * an array in terms of its primitive operations, which are limited to
  * size, get, and put.  The size of a GenericArray object is fixed at the
- * time it is created.  All operations on a GenericArray can therefore be
- * guaranteed to operate in constant time.
+ * time it is created.  All primitive operations on a GenericArray can
+ * therefore be guaranteed to operate in constant time.
+ *
+ * The class also exports a few bulk operations that move or copy a whole
+ * range of elements.  These run in linear time but are implemented using
+ * System.arraycopy, which is much faster than a loop calling get and set.
  */
 
 package edu.stanford.cs.javacs2.ch13;
 
+import java.util.Arrays;
+
 public class GenericArray<T> {
 
 /**
@@ -46,6 +52,50 @@ public class GenericArray<T> {
       array[k] = value;
    }
 
+/**
+ * Copies n elements of this array, starting at index srcPos, into the
+ * array dst, starting at index dstPos.  The destination may be this same
+ * array, in which case the two ranges may overlap.
+ */
+
+   public void copyRange(int srcPos, GenericArray<? super T> dst,
+                         int dstPos, int n) {
+      System.arraycopy(array, srcPos, dst.array, dstPos, n);
+   }
+
+/**
+ * Moves the elements from index start up to but not including end by the
+ * specified distance, which is positive to move them toward the end of
+ * the array and negative to move them toward the beginning.  Shifting is
+ * the basic operation for opening or closing a gap in a list.
+ */
+
+   public void shift(int start, int end, int distance) {
+      System.arraycopy(array, start, array, start + distance, end - start);
+   }
+
+/**
+ * Sets the elements from index start up to but not including end to null.
+ * Containers use this method to release references to removed elements
+ * so that they can be garbage-collected.
+ */
+
+   public void clear(int start, int end) {
+      Arrays.fill(array, start, end, null);
+   }
+
+/**
+ * Returns a new GenericArray with n elements, of which the first ones
+ * are copied from this array.  If n is larger than the current size, the
+ * extra elements are null; if it is smaller, the array is truncated.
+ */
+
+   public GenericArray<T> grow(int n) {
+      GenericArray<T> result = new GenericArray<T>(0);
+      result.array = Arrays.copyOf(array, n);
+      return result;
+   }
+
 /* Private instance variables */
 
    private Object[] array;
@@ -0,0 +1,132 @@
+/*
+ * File: IntArrayQueue.java
+ * ------------------------
+ * This file implements a queue of int values using a ring buffer backed
+ * by a primitive array.
+ */
+
+package edu.stanford.cs.javacs2.ch13;
+
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+public class IntArrayQueue {
+
+/**
+ * Creates a new empty queue.
+ */
+
+   public IntArrayQueue() {
+      capacity = INITIAL_CAPACITY;
+      array = new int[capacity];
+      head = 0;
+      count = 0;
+   }
+
+   public int size() {
+      return count;
+   }
+
+   public boolean isEmpty() {
+      return count == 0;
+   }
+
+   public void clear() {
+      head = count = 0;
+   }
+
+   public void add(int value) {
+      if (count == capacity) expandCapacity(count + 1);
+      array[(head + count) % capacity] = value;
+      count++;
+   }
+
+   public int remove() {
+      if (count == 0) throw new NoSuchElementException("Queue is empty");
+      int value = array[head];
+      head = (head + 1) % capacity;
+      count--;
+      return value;
+   }
+
+   public int peek() {
+      if (count == 0) throw new NoSuchElementException("Queue is empty");
+      return array[head];
+   }
+
+/*
+ * Implementation notes: addAll, toArray, forEach
+ * ----------------------------------------------
+ * The elements of the queue occupy at most two contiguous runs of the
+ * ring buffer: one from head to the end of the array and one that wraps
+ * around to the beginning.  These methods therefore transfer values with
+ * at most two array copies.
+ */
+
+   public void addAll(int[] values) {
+      if (count + values.length > capacity) {
+         expandCapacity(count + values.length);
+      }
+      int tail = (head + count) % capacity;
+      int n1 = Math.min(values.length, capacity - tail);
+      System.arraycopy(values, 0, array, tail, n1);
+      System.arraycopy(values, n1, array, 0, values.length - n1);
+      count += values.length;
+   }
+
+   public int[] toArray() {
+      int[] result = new int[count];
+      copyTo(result);
+      return result;
+   }
+
+   public void forEach(IntConsumer action) {
+      for (int i = 0; i < count; i++) {
+         action.accept(array[(head + i) % capacity]);
+      }
+   }
+
+/*
+ * Copies the elements of the queue in order to the beginning of dest.
+ */
+
+   private void copyTo(int[] dest) {
+      int n1 = Math.min(count, capacity - head);
+      System.arraycopy(array, head, dest, 0, n1);
+      System.arraycopy(array, 0, dest, n1, count - n1);
+   }
+
+/*
+ * Implementation notes: expandCapacity
+ * ------------------------------------
+ * This private method doubles the size of the array until it can hold at
+ * least minCapacity elements, unwrapping the ring buffer so that the head
+ * of the queue is at index 0 in the new array.  Because this class keeps
+ * an explicit count rather than a tail index, the array can fill
+ * completely without the queue appearing empty.
+ */
+
+   private void expandCapacity(int minCapacity) {
+      int newCapacity = capacity;
+      while (newCapacity < minCapacity) {
+         newCapacity *= 2;
+      }
+      int[] newArray = new int[newCapacity];
+      copyTo(newArray);
+      head = 0;
+      capacity = newCapacity;
+      array = newArray;
+   }
+
+/* Constants */
+
+   private static final int INITIAL_CAPACITY = 10;
+
+/* Private instance variables */
+
+   private int[] array;            /* Array of elements in the queue   */
+   private int capacity;           /* Allocated capacity of the array  */
+   private int head;               /* Index of the first queue element */
+   private int count;              /* Number of elements in the queue  */
+
+}
@@ -0,0 +1,114 @@
+/*
+ * File: IntStack.java
+ * -------------------
+ * This file implements a stack of int values that stores its elements
+ * in a primitive array rather than in a GenericArray of Integer objects.
+ */
+
+package edu.stanford.cs.javacs2.ch13;
+
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+public class IntStack {
+
+/**
+ * Creates a new empty stack.
+ */
+
+   public IntStack() {
+      capacity = INITIAL_CAPACITY;
+      array = new int[capacity];
+      count = 0;
+   }
+
+   public int size() {
+      return count;
+   }
+
+   public boolean isEmpty() {
+      return count == 0;
+   }
+
+   public void clear() {
+      count = 0;
+   }
+
+/*
+ * Implementation notes: push and pop
+ * ----------------------------------
+ * These methods manipulate the contents of the underlying array.  The push
+ * method checks the capacity; pop checks for an empty stack.
+ */
+
+   public void push(int value) {
+      if (count == capacity) expandCapacity(count + 1);
+      array[count++] = value;
+   }
+
+   public int pop() {
+      if (count == 0) throw new NoSuchElementException("Stack is empty");
+      return array[--count];
+   }
+
+   public int peek() {
+      if (count == 0) throw new NoSuchElementException("Stack is empty");
+      return array[count - 1];
+   }
+
+/*
+ * Implementation notes: addAll, toArray, forEach
+ * ----------------------------------------------
+ * The addAll method pushes the values in order, so that the last element
+ * of the array ends up on top of the stack.  Both toArray and forEach
+ * process the elements from the bottom of the stack to the top.
+ */
+
+   public void addAll(int[] values) {
+      if (count + values.length > capacity) {
+         expandCapacity(count + values.length);
+      }
+      System.arraycopy(values, 0, array, count, values.length);
+      count += values.length;
+   }
+
+   public int[] toArray() {
+      int[] result = new int[count];
+      System.arraycopy(array, 0, result, 0, count);
+      return result;
+   }
+
+   public void forEach(IntConsumer action) {
+      for (int i = 0; i < count; i++) {
+         action.accept(array[i]);
+      }
+   }
+
+/*
+ * Implementation notes: expandCapacity
+ * ------------------------------------
+ * The expandCapacity method doubles the size of the array until it can
+ * hold at least minCapacity elements and copies the old elements to the
+ * new array with a single call to System.arraycopy.
+ */
+
+   private void expandCapacity(int minCapacity) {
+      while (capacity < minCapacity) {
+         capacity *= 2;
+      }
+      int[] newArray = new int[capacity];
+      System.arraycopy(array, 0, newArray, 0, count);
+      array = newArray;
+   }
+
+/* Constants */
+
+   private static final int INITIAL_CAPACITY = 10;
+
+/* Private instance variables */
+
+   private int[] array;            /* Array of elements in the stack   */
+   private int capacity;           /* Allocated capacity of the array  */
+   private int count;              /* Actual number of elements in use */
+
+}
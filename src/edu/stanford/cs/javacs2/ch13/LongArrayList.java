@@ -0,0 +1,203 @@
+/*
+ * File: LongArrayList.java
+ * -----------------------
+ * Implements a list of long values using a primitive array as the
+ * underlying data structure.  The methods mirror those in ArrayList,
+ * but the values are stored directly in the array rather than as
+ * references to boxed Long objects.
+ */
+
+package edu.stanford.cs.javacs2.ch13;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+public class LongArrayList {
+
+   public LongArrayList() {
+      capacity = INITIAL_CAPACITY;
+      array = new long[capacity];
+      count = 0;
+   }
+
+   public int size() {
+      return count;
+   }
+
+   public boolean isEmpty() {
+      return count == 0;
+   }
+
+   public void clear() {
+      count = 0;
+   }
+
+   public void add(long value) {
+      if (count == capacity) expandCapacity(count + 1);
+      array[count++] = value;
+   }
+
+   public void add(int k, long value) {
+      if (k < 0 || k > size()) {
+         throw new IndexOutOfBoundsException("Index " + k + " out of bounds");
+      }
+      if (count == capacity) expandCapacity(count + 1);
+      System.arraycopy(array, k, array, k + 1, count - k);
+      array[k] = value;
+      count++;
+   }
+
+/*
+ * Implementation notes: remove, removeValue
+ * -----------------------------------------
+ * In ArrayList, the two remove methods are distinguished by the type of
+ * their argument.  Overloading remove on int and long would make a call
+ * like remove(3) silently select the index version, so the method that
+ * removes by value has a different name.
+ */
+
+   public void remove(int k) {
+      if (k < 0 || k >= size()) {
+         throw new IndexOutOfBoundsException("Index " + k + " out of bounds");
+      }
+      System.arraycopy(array, k + 1, array, k, count - k - 1);
+      count--;
+   }
+
+   public void removeValue(long value) {
+      remove(indexOf(value));
+   }
+
+   public boolean contains(long value) {
+      return indexOf(value) != -1;
+   }
+
+   public int indexOf(long value) {
+      for (int i = 0; i < count; i++) {
+         if (array[i] == value) return i;
+      }
+      return -1;
+   }
+
+   public long get(int k) {
+      if (k < 0 || k >= count) {
+         throw new IndexOutOfBoundsException("index " + k + " out of bounds");
+      }
+      return array[k];
+   }
+
+   public void set(int k, long value) {
+      if (k < 0 || k >= count) {
+         throw new IndexOutOfBoundsException("index " + k + " out of bounds");
+      }
+      array[k] = value;
+   }
+
+/*
+ * Implementation notes: addAll, toArray
+ * -------------------------------------
+ * These methods transfer a block of values with a single array copy.
+ * The addAll method expands the capacity at most once.
+ */
+
+   public void addAll(long[] values) {
+      if (count + values.length > capacity) {
+         expandCapacity(count + values.length);
+      }
+      System.arraycopy(values, 0, array, count, values.length);
+      count += values.length;
+   }
+
+   public long[] toArray() {
+      long[] result = new long[count];
+      System.arraycopy(array, 0, result, 0, count);
+      return result;
+   }
+
+/*
+ * Implementation notes: forEach
+ * -----------------------------
+ * This method applies the action to each element in order.  Unlike
+ * iterating with a for-each loop, it requires no iterator object and
+ * never boxes the values.
+ */
+
+   public void forEach(LongConsumer action) {
+      for (int i = 0; i < count; i++) {
+         action.accept(array[i]);
+      }
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder("[");
+      for (int i = 0; i < count; i++) {
+         if (i > 0) sb.append(", ");
+         sb.append(array[i]);
+      }
+      return sb.append("]").toString();
+   }
+
+   public PrimitiveIterator.OfLong iterator() {
+      return new LongArrayListIterator();
+   }
+
+/*
+ * Implementation notes: expandCapacity
+ * ------------------------------------
+ * This private method doubles the size of the array until it can hold at
+ * least minCapacity elements.  The existing elements are moved to the
+ * new array with a single call to System.arraycopy.
+ */
+
+   private void expandCapacity(int minCapacity) {
+      while (capacity < minCapacity) {
+         capacity *= 2;
+      }
+      long[] newArray = new long[capacity];
+      System.arraycopy(array, 0, newArray, 0, count);
+      array = newArray;
+   }
+
+/* Implements an iterator for the LongArrayList class */
+
+   private class LongArrayListIterator
+                 implements PrimitiveIterator.OfLong {
+
+   /* Creates a new iterator for this LongArrayList */
+
+      public LongArrayListIterator() {
+         currentIndex = 0;
+      }
+
+   /* Returns true if there are more elements in the LongArrayList */
+
+      public boolean hasNext() {
+         return currentIndex < count;
+      }
+
+   /* Returns the next element as a long and advances the index */
+
+      public long nextLong() {
+         if (!hasNext()) throw new NoSuchElementException("No next element");
+         return array[currentIndex++];
+      }
+
+   /* Private instance variables */
+
+      private int currentIndex;   /* The index of the current element */
+
+   }
+
+/* Constants */
+
+   private static final int INITIAL_CAPACITY = 10;
+
+/* Private instance variables */
+
+   private long[] array;
+   private int capacity;
+   private int count;
+
+}
@@ -0,0 +1,300 @@
+/*
+ * File: RingBufferQueue.java
+ * --------------------------
+ * This file implements the Queue abstraction using a bounded ring buffer
+ * that any number of producer and consumer threads can share without
+ * locks.  The design follows the multi-producer/multi-consumer queue
+ * described by Dmitry Vyukov, in which each slot carries a sequence
+ * number that tells a thread whether the slot is ready for it.
+ */
+
+package edu.stanford.cs.javacs2.ch13;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class implements a fixed-capacity queue that is safe to use from
+ * several threads at once.  The capacity is rounded up to a power of two
+ * so that slot indices can be computed with a mask.  Unlike ArrayQueue,
+ * every slot of the buffer can hold an element.  Null elements are not
+ * allowed, because poll uses null to indicate that the queue is empty.
+ */
+
+public class RingBufferQueue<T> implements Queue<T> {
+
+/**
+ * Creates an empty queue that can hold at least the specified number of
+ * elements.
+ *
+ * @param capacity The minimum capacity of the queue
+ */
+
+   public RingBufferQueue(int capacity) {
+      if (capacity < 1 || capacity > MAX_CAPACITY) {
+         throw new IllegalArgumentException("Illegal capacity: " + capacity);
+      }
+      int n = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+      mask = n - 1;
+      buffer = new GenericArray<T>(n);
+      sequence = new AtomicLongArray(n);
+      for (int i = 0; i < n; i++) {
+         sequence.set(i, i);
+      }
+      counters = new AtomicLongArray(3 * PAD);
+   }
+
+/**
+ * Returns the number of elements the queue can hold.
+ *
+ * @return The capacity of the queue
+ */
+
+   public int capacity() {
+      return mask + 1;
+   }
+
+/*
+ * Implementation notes: size, isEmpty
+ * -----------------------------------
+ * The head and tail counters increase without bound, so the number of
+ * elements is their difference and no modulo is needed.  If other threads
+ * are changing the queue, the result is a value the size passed through
+ * during the call.  Reading head first ensures that the difference is
+ * never negative; the result is clipped to the capacity in case both
+ * counters advance between the two reads.
+ */
+
+   public int size() {
+      long head = counters.get(HEAD);
+      long tail = counters.get(TAIL);
+      return (int) Math.min(tail - head, mask + 1);
+   }
+
+   public boolean isEmpty() {
+      return size() == 0;
+   }
+
+/**
+ * Removes the elements present when clear is called.  Elements added by
+ * other threads during the call may or may not be removed.
+ */
+
+   public void clear() {
+      while (poll() != null) {
+         /* Empty */
+      }
+   }
+
+/**
+ * Adds the specified value to the tail of this queue.  This method throws
+ * an IllegalStateException if the queue is full.
+ */
+
+   public void add(T value) {
+      if (!offer(value)) throw new IllegalStateException("Queue is full");
+   }
+
+   public T remove() {
+      T value = poll();
+      if (value == null) throw new NoSuchElementException("Queue is empty");
+      return value;
+   }
+
+/*
+ * Implementation notes: peek
+ * --------------------------
+ * Another thread may remove the head element at any moment, so peek reads
+ * the element and then checks that the head counter has not moved.  If it
+ * has, peek tries again with the new head.
+ */
+
+   public T peek() {
+      while (true) {
+         long pos = counters.get(HEAD);
+         int index = (int) pos & mask;
+         long seq = sequence.get(index);
+         if (seq < pos + 1) throw new NoSuchElementException("Queue is empty");
+         if (seq == pos + 1) {
+            T value = buffer.get(index);
+            if (counters.get(HEAD) == pos) return value;
+         }
+      }
+   }
+
+/*
+ * Implementation notes: offer, poll
+ * ---------------------------------
+ * The slot at position pos is free for a producer when its sequence
+ * number equals pos and full for a consumer when it equals pos + 1.  A
+ * thread that finds the slot ready claims the position by advancing the
+ * counter with compareAndSet; if another thread wins the race, it reads
+ * the counter again.  After writing or clearing the slot, the thread
+ * publishes the change by storing the next sequence number.  Because the
+ * store is volatile, a thread that sees the new sequence number also sees
+ * the element written before it.
+ */
+
+/**
+ * Adds the value to the tail of the queue if there is room.
+ *
+ * @param value The value to add, which must not be null
+ * @return true if the value was added, or false if the queue was full
+ */
+
+   public boolean offer(T value) {
+      if (value == null) throw new NullPointerException("Null element");
+      long pos = counters.get(TAIL);
+      while (true) {
+         int index = (int) pos & mask;
+         long seq = sequence.get(index);
+         if (seq == pos) {
+            if (counters.compareAndSet(TAIL, pos, pos + 1)) {
+               buffer.set(index, value);
+               sequence.set(index, pos + 1);
+               return true;
+            }
+            pos = counters.get(TAIL);
+         } else if (seq < pos) {
+            return false;
+         } else {
+            pos = counters.get(TAIL);
+         }
+      }
+   }
+
+/**
+ * Removes and returns the element at the head of the queue.
+ *
+ * @return The first element, or null if the queue is empty
+ */
+
+   public T poll() {
+      long pos = counters.get(HEAD);
+      while (true) {
+         int index = (int) pos & mask;
+         long seq = sequence.get(index);
+         if (seq == pos + 1) {
+            if (counters.compareAndSet(HEAD, pos, pos + 1)) {
+               T value = buffer.get(index);
+               buffer.set(index, null);
+               sequence.set(index, pos + mask + 1);
+               return value;
+            }
+            pos = counters.get(HEAD);
+         } else if (seq < pos + 1) {
+            return null;
+         } else {
+            pos = counters.get(HEAD);
+         }
+      }
+   }
+
+/*
+ * Implementation notes: offerAll, drainTo
+ * ---------------------------------------
+ * These methods claim a block of positions with a single compareAndSet,
+ * which removes most of the contention that a loop calling offer or poll
+ * would create.  The size of the block is computed from the counters, so
+ * a slot in the block may still be in use by a thread that claimed it
+ * earlier but has not yet published its sequence number.  In that case
+ * the method waits briefly for that thread to finish with the slot.
+ */
+
+/**
+ * Adds every element of c to the tail of the queue, in the order in which
+ * the collection's iterator returns them, if there is room for all of
+ * them.  The elements are consecutive in the queue even if other threads
+ * are adding elements at the same time.  The collection must not contain
+ * null and must not change during the call.
+ *
+ * @param c The collection whose elements are added
+ * @return true if the elements were added, or false if there was no room
+ */
+
+   public boolean offerAll(Collection<? extends T> c) {
+      int n = c.size();
+      if (n == 0) return true;
+      for (T value : c) {
+         if (value == null) throw new NullPointerException("Null element");
+      }
+      long pos;
+      do {
+         pos = counters.get(TAIL);
+         long head = counters.get(HEAD);
+         if (pos + n - head > mask + 1) return false;
+      } while (!counters.compareAndSet(TAIL, pos, pos + n));
+      int i = 0;
+      for (T value : c) {
+         int index = (int) (pos + i) & mask;
+         awaitSequence(index, pos + i);
+         buffer.set(index, value);
+         sequence.set(index, pos + i + 1);
+         i++;
+      }
+      return true;
+   }
+
+/**
+ * Removes up to maxElements elements from the head of the queue and adds
+ * them to c in order.
+ *
+ * @param c The collection that receives the elements
+ * @param maxElements The maximum number of elements to remove
+ * @return The number of elements removed
+ */
+
+   public int drainTo(Collection<? super T> c, int maxElements) {
+      long pos;
+      int count;
+      do {
+         pos = counters.get(HEAD);
+         long tail = counters.get(TAIL);
+         count = (int) Math.min(maxElements, tail - pos);
+         if (count <= 0) return 0;
+      } while (!counters.compareAndSet(HEAD, pos, pos + count));
+      for (int i = 0; i < count; i++) {
+         int index = (int) (pos + i) & mask;
+         awaitSequence(index, pos + i + 1);
+         c.add(buffer.get(index));
+         buffer.set(index, null);
+         sequence.set(index, pos + i + mask + 1);
+      }
+      return count;
+   }
+
+/*
+ * Waits until the slot at index has the expected sequence number.  The
+ * wait is short, since the thread holding the slot has already claimed it
+ * and needs only to finish copying one element.
+ */
+
+   private void awaitSequence(int index, long expected) {
+      while (sequence.get(index) != expected) {
+         Thread.yield();
+      }
+   }
+
+/* Constants */
+
+   private static final int MAX_CAPACITY = 1 << 30;
+
+/*
+ * The head and tail counters are stored in a single AtomicLongArray, PAD
+ * elements apart and away from both ends.  Spacing them 128 bytes apart
+ * keeps them on different cache lines, so that producers updating the
+ * tail do not slow down consumers reading the head (false sharing).
+ */
+
+   private static final int PAD = 16;
+   private static final int HEAD = PAD;
+   private static final int TAIL = 2 * PAD;
+
+/* Private instance variables */
+
+   private final GenericArray<T> buffer;    /* The elements               */
+   private final AtomicLongArray sequence;  /* Sequence number per slot   */
+   private final AtomicLongArray counters;  /* Padded head and tail       */
+   private final int mask;                  /* Capacity - 1               */
+
+}
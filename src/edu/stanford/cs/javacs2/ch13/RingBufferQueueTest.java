@@ -0,0 +1,26 @@
+/*
+ * File: RingBufferQueueTest.java
+ * ------------------------------
+ * This program tests the ring buffer implementation of the Queue
+ * interface.  The capacity is kept small so that the behavior of a full
+ * queue is easy to observe.
+ */
+
+package edu.stanford.cs.javacs2.ch13;
+
+public class RingBufferQueueTest extends QueueTest {
+
+   @Override
+   public Queue<String> createQueue() {
+      return new RingBufferQueue<String>(TEST_CAPACITY);
+   }
+
+/* Constants */
+
+   private static final int TEST_CAPACITY = 8;
+
+   public static void main(String[] args) {
+      new RingBufferQueueTest().run();
+   }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * File: RingBufferQueueTiming.java
+ * --------------------------------
+ * This program compares the throughput of the lock-free RingBufferQueue
+ * with that of an ArrayQueue protected by a lock.  Each trial starts the
+ * same number of producer and consumer threads, which pass a fixed number
+ * of items through the queue.
+ */
+
+package edu.stanford.cs.javacs2.ch13;
+
+import edu.stanford.cs.javacs2.ch13.BlockingRingBufferQueue.WaitStrategy;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RingBufferQueueTiming {
+
+/*
+ * Implementation notes: run
+ * -------------------------
+ * A thread using the SPIN strategy never gives up its processor, so the
+ * SPIN trials are skipped when there are fewer processors than threads.
+ */
+
+   public void run() {
+      int processors = Runtime.getRuntime().availableProcessors();
+      System.out.printf("%8s  %-22s %12s%n", "Threads", "Queue", "ops/ms");
+      for (int pairs = 1; pairs <= MAX_PAIRS; pairs *= 2) {
+         timeQueue(pairs, "ArrayQueue (locked)", new LockedQueue());
+         for (WaitStrategy strategy : WaitStrategy.values()) {
+            String name = "RingBufferQueue " + strategy;
+            if (strategy == WaitStrategy.SPIN && 2 * pairs > processors) {
+               System.out.printf("%4dx%-3d  %-22s %12s%n", pairs, pairs,
+                                 name, "--");
+            } else {
+               timeQueue(pairs, name, new RingQueue(strategy, false));
+            }
+         }
+         timeQueue(pairs, "RingBufferQueue batch",
+                   new RingQueue(WaitStrategy.YIELD, true));
+      }
+   }
+
+/*
+ * Runs the trial twice, once to warm up the compiler and once to measure
+ * it, and then reports the number of items transferred per millisecond.
+ */
+
+   private void timeQueue(int pairs, String name, Channel channel) {
+      runTrial(pairs, channel);
+      long start = System.nanoTime();
+      runTrial(pairs, channel);
+      double ms = (System.nanoTime() - start) / 1.0E6;
+      System.out.printf("%4dx%-3d  %-22s %12.0f%n", pairs, pairs, name,
+                        ITEMS / ms);
+   }
+
+/*
+ * Starts the producer and consumer threads, waits for them to finish, and
+ * checks that every item arrived exactly once.
+ */
+
+   private void runTrial(int pairs, Channel channel) {
+      AtomicLong sum = new AtomicLong();
+      Thread[] threads = new Thread[2 * pairs];
+      int share = ITEMS / pairs;
+      for (int i = 0; i < pairs; i++) {
+         int first = i * share;
+         threads[2 * i] = new Thread(() -> {
+            channel.produce(first, share);
+         });
+         threads[2 * i + 1] = new Thread(() -> {
+            sum.addAndGet(channel.consume(share));
+         });
+      }
+      for (Thread t : threads) {
+         t.start();
+      }
+      try {
+         for (Thread t : threads) {
+            t.join();
+         }
+      } catch (InterruptedException ex) {
+         throw new RuntimeException(ex);
+      }
+      long n = (long) share * pairs;
+      if (sum.get() != n * (n - 1) / 2) {
+         throw new RuntimeException("Items were lost or duplicated");
+      }
+   }
+
+/*
+ * Interface: Channel
+ * ------------------
+ * Each queue under test is adapted to this interface, which moves a range
+ * of Integer items from a producer to a consumer.  The consume method
+ * returns the sum of the items it received.
+ */
+
+   private interface Channel {
+      void produce(int first, int n);
+      long consume(int n);
+   }
+
+/*
+ * This channel uses an ArrayQueue and synchronizes every operation on it.
+ * A consumer that finds the queue empty releases the lock and yields.
+ */
+
+   private static class LockedQueue implements Channel {
+
+      public void produce(int first, int n) {
+         for (int i = 0; i < n; i++) {
+            Integer value = first + i;
+            synchronized (queue) {
+               queue.add(value);
+            }
+         }
+      }
+
+      public long consume(int n) {
+         long sum = 0;
+         while (n > 0) {
+            Integer value = null;
+            synchronized (queue) {
+               if (!queue.isEmpty()) value = queue.remove();
+            }
+            if (value == null) {
+               Thread.yield();
+            } else {
+               sum += value;
+               n--;
+            }
+         }
+         return sum;
+      }
+
+      private ArrayQueue<Integer> queue = new ArrayQueue<Integer>();
+
+   }
+
+/*
+ * This channel uses a BlockingRingBufferQueue.  In batch mode, producers
+ * and consumers move up to BATCH_SIZE items at a time.
+ */
+
+   private static class RingQueue implements Channel {
+
+      public RingQueue(WaitStrategy strategy, boolean batch) {
+         queue = new BlockingRingBufferQueue<Integer>(CAPACITY, strategy);
+         this.batch = batch;
+      }
+
+      public void produce(int first, int n) {
+         if (batch) {
+            ArrayList<Integer> items = new ArrayList<Integer>();
+            for (int i = 0; i < n; i += BATCH_SIZE) {
+               items.clear();
+               for (int j = i; j < Math.min(n, i + BATCH_SIZE); j++) {
+                  items.add(first + j);
+               }
+               queue.putAll(items);
+            }
+         } else {
+            for (int i = 0; i < n; i++) {
+               queue.put(first + i);
+            }
+         }
+      }
+
+      public long consume(int n) {
+         long sum = 0;
+         if (batch) {
+            ArrayList<Integer> items = new ArrayList<Integer>();
+            while (n > 0) {
+               items.clear();
+               n -= queue.drainTo(items, Math.min(n, BATCH_SIZE));
+               for (int value : items) {
+                  sum += value;
+               }
+            }
+         } else {
+            for (int i = 0; i < n; i++) {
+               sum += queue.take();
+            }
+         }
+         return sum;
+      }
+
+      private BlockingRingBufferQueue<Integer> queue;
+      private boolean batch;
+
+   }
+
+/* Constants */
+
+   private static final int ITEMS = 4000000;
+   private static final int MAX_PAIRS = 4;
+   private static final int CAPACITY = 1024;
+   private static final int BATCH_SIZE = 64;
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new RingBufferQueueTiming().run();
+   }
+
+}
@@ -0,0 +1,570 @@
+/*
+ * File: RopeList.java
+ * -------------------
+ * Implements the List interface using a rope, which is a balanced tree
+ * whose leaves are small arrays holding consecutive elements of the list.
+ * Each node records the number of elements below it, so that the element
+ * at a given index can be found without walking the list from the start.
+ */
+
+package edu.stanford.cs.javacs2.ch13;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a list in which get, set, add, and remove at an
+ * arbitrary index all run in logarithmic time.  Its list iterators can
+ * also add and remove elements at the cursor, which changes only the
+ * current leaf and the element counts of the nodes above it.
+ */
+
+public class RopeList<T> implements List<T> {
+
+   public RopeList() {
+      clear();
+   }
+
+   public int size() {
+      return count;
+   }
+
+   public boolean isEmpty() {
+      return count == 0;
+   }
+
+   public void clear() {
+      root = new Node(true);
+      count = 0;
+      modCount++;
+   }
+
+   public void add(T value) {
+      add(count, value);
+   }
+
+/*
+ * Implementation notes: add, remove
+ * ---------------------------------
+ * These methods find the leaf containing index k and then insert or
+ * remove the element within that leaf's array.  A leaf that becomes too
+ * full is split in two, and a leaf that becomes less than half full
+ * borrows an element from a neighbor or merges with it.  Splits and
+ * merges can propagate toward the root, exactly as they do in a B-tree.
+ */
+
+   public void add(int k, T value) {
+      if (k < 0 || k > count) {
+         throw new IndexOutOfBoundsException("Index " + k + " out of bounds");
+      }
+      Node leaf = findLeaf(k);
+      insertAt(leaf, leafOffset, value);
+   }
+
+   public void remove(int k) {
+      if (k < 0 || k >= count) {
+         throw new IndexOutOfBoundsException("Index " + k + " out of bounds");
+      }
+      Node leaf = findLeaf(k);
+      removeAt(leaf, leafOffset);
+   }
+
+   public void remove(T value) {
+      remove(indexOf(value));
+   }
+
+   public boolean contains(T value) {
+      return indexOf(value) != -1;
+   }
+
+   public int indexOf(T value) {
+      int base = 0;
+      for (Node leaf = firstLeaf(); leaf != null; leaf = leaf.next) {
+         for (int i = 0; i < leaf.n; i++) {
+            if (leaf.items.get(i).equals(value)) return base + i;
+         }
+         base += leaf.n;
+      }
+      return -1;
+   }
+
+   public T get(int k) {
+      if (k < 0 || k >= count) {
+         throw new IndexOutOfBoundsException("index " + k + " out of bounds");
+      }
+      Node leaf = findLeaf(k);
+      return leaf.items.get(leafOffset);
+   }
+
+   public void set(int k, T value) {
+      if (k < 0 || k >= count) {
+         throw new IndexOutOfBoundsException("index " + k + " out of bounds");
+      }
+      Node leaf = findLeaf(k);
+      leaf.items.set(leafOffset, value);
+   }
+
+   @Override
+   public String toString() {
+      String str = "";
+      boolean first = true;
+      for (T value : this) {
+         if (!first) str += ", ";
+         str += value;
+         first = false;
+      }
+      return "[" + str + "]";
+   }
+
+   public Iterator<T> iterator() {
+      return listIterator(0);
+   }
+
+/**
+ * Returns a list iterator positioned at the beginning of the list.
+ *
+ * @return A list iterator for this list
+ */
+
+   public ListIterator<T> listIterator() {
+      return listIterator(0);
+   }
+
+/**
+ * Returns a list iterator positioned so that the first call to next
+ * returns the element at index k.
+ *
+ * @param k The index of the first element to be returned
+ * @return A list iterator for this list
+ */
+
+   public ListIterator<T> listIterator(int k) {
+      if (k < 0 || k > count) {
+         throw new IndexOutOfBoundsException("Index " + k + " out of bounds");
+      }
+      return new RopeListIterator(k);
+   }
+
+/*
+ * Returns the leaf that contains index k and stores the index of that
+ * element within the leaf in leafOffset.  If k is equal to the size of
+ * the list, findLeaf returns the last leaf and sets leafOffset to the
+ * number of elements in it, which is where a new element would go.
+ */
+
+   private Node findLeaf(int k) {
+      Node t = root;
+      while (!t.leaf) {
+         int j = 0;
+         while (j < t.n - 1 && k >= t.children.get(j).size) {
+            k -= t.children.get(j).size;
+            j++;
+         }
+         t = t.children.get(j);
+      }
+      leafOffset = k;
+      return t;
+   }
+
+/*
+ * Returns the leftmost leaf in the tree.
+ */
+
+   private Node firstLeaf() {
+      Node t = root;
+      while (!t.leaf) {
+         t = t.children.get(0);
+      }
+      return t;
+   }
+
+/*
+ * Inserts value at index i of leaf, increments the size of every node on
+ * the path to the root, and splits the leaf if it has overflowed.
+ */
+
+   private void insertAt(Node leaf, int i, T value) {
+      leaf.items.shift(i, leaf.n, 1);
+      leaf.items.set(i, value);
+      leaf.n++;
+      for (Node t = leaf; t != null; t = t.parent) {
+         t.size++;
+      }
+      count++;
+      modCount++;
+      if (leaf.n > MAX_ENTRIES) split(leaf);
+   }
+
+/*
+ * Removes the element at index i of leaf, decrements the size of every
+ * node on the path to the root, and restores the minimum occupancy of the
+ * leaf if necessary.
+ */
+
+   private void removeAt(Node leaf, int i) {
+      leaf.items.shift(i + 1, leaf.n, -1);
+      leaf.n--;
+      leaf.items.set(leaf.n, null);
+      for (Node t = leaf; t != null; t = t.parent) {
+         t.size--;
+      }
+      count--;
+      modCount++;
+      if (leaf != root && leaf.n < MIN_ENTRIES) rebalance(leaf);
+   }
+
+/*
+ * Implementation notes: split
+ * ---------------------------
+ * This method moves the upper half of the overflowing node t into a new
+ * node and adds the new node to the parent immediately after t.  If t is
+ * the root, the tree grows by one level.  If the parent overflows in
+ * turn, it is split in the same way.
+ */
+
+   private void split(Node t) {
+      reshapeCount++;
+      Node right = new Node(t.leaf);
+      int mid = t.n / 2;
+      right.n = t.n - mid;
+      if (t.leaf) {
+         t.items.copyRange(mid, right.items, 0, right.n);
+         t.items.clear(mid, t.n);
+         right.size = right.n;
+         right.next = t.next;
+         if (t.next != null) t.next.prev = right;
+         right.prev = t;
+         t.next = right;
+      } else {
+         t.children.copyRange(mid, right.children, 0, right.n);
+         t.children.clear(mid, t.n);
+         for (int i = 0; i < right.n; i++) {
+            Node child = right.children.get(i);
+            child.parent = right;
+            right.size += child.size;
+         }
+      }
+      t.n = mid;
+      t.size -= right.size;
+      Node parent = t.parent;
+      if (parent == null) {
+         root = new Node(false);
+         root.children.set(0, t);
+         root.children.set(1, right);
+         root.n = 2;
+         root.size = t.size + right.size;
+         t.parent = root;
+         right.parent = root;
+      } else {
+         int i = indexInParent(t);
+         parent.children.shift(i + 1, parent.n, 1);
+         parent.children.set(i + 1, right);
+         parent.n++;
+         right.parent = parent;
+         if (parent.n > MAX_ENTRIES) split(parent);
+      }
+   }
+
+/*
+ * Implementation notes: rebalance
+ * -------------------------------
+ * This method is called when the node t, which is not the root, holds
+ * fewer than MIN_ENTRIES elements or children.  If an adjacent sibling
+ * can spare an entry, one entry moves across.  Otherwise, t and the
+ * sibling together hold fewer than MAX_ENTRIES entries and are merged,
+ * which removes a child from the parent and may leave it underfull in
+ * turn.  A root with only one child is replaced by that child.
+ */
+
+   private void rebalance(Node t) {
+      reshapeCount++;
+      Node parent = t.parent;
+      int i = indexInParent(t);
+      Node left = (i > 0) ? parent.children.get(i - 1) : null;
+      Node right = (i < parent.n - 1) ? parent.children.get(i + 1) : null;
+      if (left != null && left.n > MIN_ENTRIES) {
+         moveEntry(left, left.n - 1, t, 0);
+      } else if (right != null && right.n > MIN_ENTRIES) {
+         moveEntry(right, 0, t, t.n);
+      } else {
+         if (left != null) {
+            merge(left, t, i);
+         } else {
+            merge(t, right, i + 1);
+         }
+         if (parent == root && parent.n == 1) {
+            root = parent.children.get(0);
+            root.parent = null;
+         } else if (parent != root && parent.n < MIN_ENTRIES) {
+            rebalance(parent);
+         }
+      }
+   }
+
+/*
+ * Moves the entry at index i of the node src to index j of the adjacent
+ * node dst, adjusting the sizes of both nodes.
+ */
+
+   private void moveEntry(Node src, int i, Node dst, int j) {
+      int moved;
+      if (src.leaf) {
+         dst.items.shift(j, dst.n, 1);
+         dst.items.set(j, src.items.get(i));
+         src.items.shift(i + 1, src.n, -1);
+         src.items.set(src.n - 1, null);
+         moved = 1;
+      } else {
+         Node child = src.children.get(i);
+         dst.children.shift(j, dst.n, 1);
+         dst.children.set(j, child);
+         src.children.shift(i + 1, src.n, -1);
+         src.children.set(src.n - 1, null);
+         child.parent = dst;
+         moved = child.size;
+      }
+      src.n--;
+      src.size -= moved;
+      dst.n++;
+      dst.size += moved;
+   }
+
+/*
+ * Appends the entries of right, which is the child at index i of their
+ * common parent, to left and removes right from the parent.
+ */
+
+   private void merge(Node left, Node right, int i) {
+      if (left.leaf) {
+         right.items.copyRange(0, left.items, left.n, right.n);
+         left.next = right.next;
+         if (right.next != null) right.next.prev = left;
+      } else {
+         right.children.copyRange(0, left.children, left.n, right.n);
+         for (int j = 0; j < right.n; j++) {
+            right.children.get(j).parent = left;
+         }
+      }
+      left.n += right.n;
+      left.size += right.size;
+      Node parent = left.parent;
+      parent.children.shift(i + 1, parent.n, -1);
+      parent.n--;
+      parent.children.set(parent.n, null);
+   }
+
+/*
+ * Returns the index of t in the children array of its parent.
+ */
+
+   private int indexInParent(Node t) {
+      Node parent = t.parent;
+      int i = 0;
+      while (parent.children.get(i) != t) {
+         i++;
+      }
+      return i;
+   }
+
+/*
+ * Implementation notes: RopeListIterator
+ * --------------------------------------
+ * The cursor of a list iterator is a leaf together with an index in it,
+ * along with the position of the cursor in the list as a whole.  Moving
+ * the cursor follows the links between leaves, so next and previous run
+ * in constant time.  The add and remove methods change the current leaf
+ * directly.  The cursor needs to be found again from the root only when
+ * the change splits the leaf or moves elements between leaves, which
+ * happens at most once every MIN_ENTRIES / 2 changes at the same place.
+ */
+
+   private class RopeListIterator implements ListIterator<T> {
+
+   /* Creates an iterator whose next element is at index k */
+
+      public RopeListIterator(int k) {
+         cursor = k;
+         locate();
+         lastLeaf = null;
+         expectedModCount = modCount;
+      }
+
+   /* Returns true if there are more elements after the cursor */
+
+      public boolean hasNext() {
+         return cursor < count;
+      }
+
+   /* Returns the element after the cursor and advances the cursor */
+
+      public T next() {
+         checkForComodification();
+         if (!hasNext()) throw new NoSuchElementException("No next element");
+         if (index == leaf.n) {
+            leaf = leaf.next;
+            index = 0;
+         }
+         lastLeaf = leaf;
+         lastIndex = index++;
+         lastWasNext = true;
+         cursor++;
+         return leaf.items.get(lastIndex);
+      }
+
+   /* Returns true if there are elements before the cursor */
+
+      public boolean hasPrevious() {
+         return cursor > 0;
+      }
+
+   /* Returns the element before the cursor and moves the cursor back */
+
+      public T previous() {
+         checkForComodification();
+         if (!hasPrevious()) {
+            throw new NoSuchElementException("No previous element");
+         }
+         if (index == 0) {
+            leaf = leaf.prev;
+            index = leaf.n;
+         }
+         lastLeaf = leaf;
+         lastIndex = --index;
+         lastWasNext = false;
+         cursor--;
+         return leaf.items.get(lastIndex);
+      }
+
+   /* Returns the index of the element that next would return */
+
+      public int nextIndex() {
+         return cursor;
+      }
+
+   /* Returns the index of the element that previous would return */
+
+      public int previousIndex() {
+         return cursor - 1;
+      }
+
+   /* Removes the element most recently returned by next or previous */
+
+      public void remove() {
+         if (lastLeaf == null) throw new IllegalStateException("No element");
+         checkForComodification();
+         int oldReshapeCount = reshapeCount;
+         removeAt(lastLeaf, lastIndex);
+         if (lastWasNext) {
+            cursor--;
+            index--;
+         }
+         if (reshapeCount != oldReshapeCount) locate();
+         lastLeaf = null;
+         expectedModCount = modCount;
+      }
+
+   /* Replaces the element most recently returned by next or previous */
+
+      public void set(T value) {
+         if (lastLeaf == null) throw new IllegalStateException("No element");
+         checkForComodification();
+         lastLeaf.items.set(lastIndex, value);
+      }
+
+   /* Inserts value before the cursor */
+
+      public void add(T value) {
+         checkForComodification();
+         int oldReshapeCount = reshapeCount;
+         insertAt(leaf, index, value);
+         cursor++;
+         index++;
+         if (reshapeCount != oldReshapeCount) locate();
+         lastLeaf = null;
+         expectedModCount = modCount;
+      }
+
+   /* Finds the leaf and index corresponding to the cursor position */
+
+      private void locate() {
+         leaf = findLeaf(cursor);
+         index = leafOffset;
+      }
+
+   /* Throws an exception if the list has been changed by another path */
+
+      private void checkForComodification() {
+         if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+         }
+      }
+
+   /* Private instance variables */
+
+      private Node leaf;             /* Leaf holding the cursor             */
+      private int index;             /* Index of the cursor within leaf     */
+      private int cursor;            /* Index of the cursor within the list */
+      private Node lastLeaf;         /* Leaf of last element, or null       */
+      private int lastIndex;         /* Index of that element in lastLeaf   */
+      private boolean lastWasNext;   /* True if it was returned by next     */
+      private int expectedModCount;  /* Value of modCount at last sync      */
+
+   }
+
+/*
+ * Inner class: Node
+ * -----------------
+ * This class represents both the leaves and the interior nodes of the
+ * rope.  A leaf stores n consecutive elements in its items array and is
+ * linked to the leaves on either side.  An interior node stores n
+ * children.  In both cases, size is the number of list elements in the
+ * subtree.  Each array has room for one extra entry, so that a node can
+ * overflow briefly before it is split.
+ */
+
+   private class Node {
+
+      Node(boolean leaf) {
+         this.leaf = leaf;
+         if (leaf) {
+            items = new GenericArray<T>(MAX_ENTRIES + 1);
+         } else {
+            children = new GenericArray<Node>(MAX_ENTRIES + 1);
+         }
+         n = 0;
+         size = 0;
+         parent = prev = next = null;
+      }
+
+      final boolean leaf;
+      int n;                          /* Number of elements or children */
+      int size;                       /* Number of elements in subtree  */
+      GenericArray<T> items;          /* Leaves only                    */
+      GenericArray<Node> children;    /* Interior nodes only            */
+      Node parent;
+      Node prev, next;                /* Adjacent leaves, or null       */
+
+   }
+
+/* Constants */
+
+   private static final int MAX_ENTRIES = 64;
+   private static final int MIN_ENTRIES = MAX_ENTRIES / 2;
+
+/*
+ * Private instance variables
+ * --------------------------
+ * The leafOffset variable returns the second result of findLeaf.  The
+ * reshapeCount variable is incremented whenever elements move between
+ * nodes, which tells an iterator that it must find its cursor again.
+ */
+
+   private Node root;
+   private int count;
+   private int modCount;        /* Incremented on each change in size   */
+   private int reshapeCount;    /* Incremented on each split or merge   */
+   private int leafOffset;
+
+}
@@ -0,0 +1,20 @@
+/*
+ * File: RopeListTest.java
+ * -----------------------
+ * This program tests the rope implementation of the List interface.
+ */
+
+package edu.stanford.cs.javacs2.ch13;
+
+public class RopeListTest extends ListTest {
+
+   public static void main(String[] args) {
+      new RopeListTest().run();
+   }
+
+   @Override
+   public List<String> createList() {
+      return new RopeList<String>();
+   }
+
+}
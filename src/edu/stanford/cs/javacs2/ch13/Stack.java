@@ -40,7 +40,7 @@ public class Stack<T> {
  */
 
    public void push(T value) {
-      if (count == capacity) expandCapacity();
+      if (count == capacity) ensureCapacity(count + 1);
       array.set(count++, value);
    }
 
@@ -54,21 +54,42 @@ public class Stack<T> {
       return array.get(count - 1);
    }
 
+/**
+ * Pushes the elements of the collection c onto the stack in the order in
+ * which the collection's iterator returns them, so that the last one ends
+ * up on top.  The array is expanded at most once.
+ *
+ * @param c The collection whose elements are pushed
+ */
+
+   public void addAll(Collection<? extends T> c) {
+      ensureCapacity(count + c.size());
+      for (T value : c) {
+         array.set(count++, value);
+      }
+   }
+
 /*
- * Implementation notes: expandCapacity
- * ------------------------------------
- * The expandCapacity method allocates a new array of twice the previous
- * size, copies the old elements to the new array, and then replaces the
- * old array with the new one.
+ * Implementation notes: ensureCapacity, trimToSize
+ * ------------------------------------------------
+ * The ensureCapacity method allocates a new array whenever the old one is
+ * too small, at least doubling its size.  The grow method in GenericArray
+ * copies the old elements to the new array in a single operation.  The
+ * trimToSize method shrinks the array to the number of elements in use.
  */
 
-   private void expandCapacity() {
-      capacity *= 2;
-      GenericArray<T> newArray = new GenericArray<T>(capacity);
-      for (int i = 0; i < count; i++) {
-         newArray.set(i, array.get(i));
+   public void ensureCapacity(int minCapacity) {
+      if (minCapacity > capacity) {
+         capacity = Math.max(minCapacity, 2 * capacity);
+         array = array.grow(capacity);
+      }
+   }
+
+   public void trimToSize() {
+      if (count < capacity) {
+         capacity = count;
+         array = array.grow(capacity);
       }
-      array = newArray;
    }
 
 /* Constants */
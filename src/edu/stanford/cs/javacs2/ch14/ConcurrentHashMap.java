@@ -0,0 +1,374 @@
+/*
+ * File: ConcurrentHashMap.java
+ * ----------------------------
+ * This file implements the Map interface using a hash table that can be
+ * shared safely among several threads.  The table is divided into a
+ * fixed number of segments, each of which is an independent hash table
+ * protected by its own lock.
+ */
+
+package edu.stanford.cs.javacs2.ch14;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * This class implements a thread-safe map.  Methods that read the map
+ * never acquire a lock.  Methods that change the map lock only the
+ * segment containing the key, so threads updating keys in different
+ * segments proceed in parallel.  The map does not allow null keys or
+ * null values, because get uses null to indicate that a key is absent.
+ */
+
+public class ConcurrentHashMap<K,V> implements Map<K,V> {
+
+/**
+ * Creates an empty ConcurrentHashMap.
+ */
+
+   public ConcurrentHashMap() {
+      segments = new ArrayList<Segment>(SEGMENT_COUNT);
+      for (int i = 0; i < SEGMENT_COUNT; i++) {
+         segments.add(new Segment());
+      }
+   }
+
+/*
+ * Implementation notes: size, isEmpty, clear
+ * ------------------------------------------
+ * Each segment keeps its own count, so size must add them together.
+ * If other threads are changing the map, the result is a value the
+ * size passed through during the call rather than an exact snapshot.
+ */
+
+   public int size() {
+      int n = 0;
+      for (Segment seg : segments) {
+         n += seg.count;
+      }
+      return n;
+   }
+
+   public boolean isEmpty() {
+      for (Segment seg : segments) {
+         if (seg.count != 0) return false;
+      }
+      return true;
+   }
+
+   public void clear() {
+      for (Segment seg : segments) {
+         seg.clear();
+      }
+   }
+
+/*
+ * Implementation notes: get, put, containsKey, remove
+ * ---------------------------------------------------
+ * These methods compute the spread hash code once and then forward the
+ * operation to the segment selected by the high-order bits of the hash.
+ * The low-order bits select the bucket within that segment.
+ */
+
+   public V get(K key) {
+      int h = spread(key.hashCode());
+      return segmentFor(h).get(key, h);
+   }
+
+   public void put(K key, V value) {
+      int h = spread(key.hashCode());
+      segmentFor(h).put(key, h, checkValue(value), false);
+   }
+
+   public boolean containsKey(K key) {
+      return get(key) != null;
+   }
+
+   public void remove(K key) {
+      int h = spread(key.hashCode());
+      segmentFor(h).remove(key, h);
+   }
+
+/**
+ * Associates value with key only if the key has no current binding.
+ * The check and the update happen as a single atomic step.
+ *
+ * @param key The key
+ * @param value The value to store if key is absent
+ * @return The previous value for key, or null if there was none
+ */
+
+   public V putIfAbsent(K key, V value) {
+      int h = spread(key.hashCode());
+      return segmentFor(h).put(key, h, checkValue(value), true);
+   }
+
+/**
+ * Returns the value for key, first computing and storing it with fn if
+ * the key is absent.  The function is called at most once and while the
+ * segment is locked, so it should be short and must not update this map.
+ *
+ * @param key The key
+ * @param fn A function that computes a value from the key
+ * @return The current (existing or computed) value for key
+ */
+
+   public V computeIfAbsent(K key, Function<? super K,? extends V> fn) {
+      int h = spread(key.hashCode());
+      return segmentFor(h).computeIfAbsent(key, h, fn);
+   }
+
+/**
+ * Stores value if key is absent; otherwise replaces the current value
+ * with the result of applying fn to the old and new values.  If fn
+ * returns null, the key is removed.  A counter can therefore be
+ * incremented atomically by calling
+ *
+ *     map.merge(word, 1, (a, b) -> a + b);
+ *
+ * @param key The key
+ * @param value The value to store or combine with the existing value
+ * @param fn A function that combines the old and new values
+ * @return The new value associated with key, or null if none
+ */
+
+   public V merge(K key, V value,
+                  BiFunction<? super V,? super V,? extends V> fn) {
+      int h = spread(key.hashCode());
+      return segmentFor(h).merge(key, h, checkValue(value), fn);
+   }
+
+/*
+ * Implementation notes: keySet and keyIterator
+ * --------------------------------------------
+ * These methods copy the keys from each segment in turn.  Keys added or
+ * removed by other threads during the copy may or may not be included.
+ */
+
+   public Set<K> keySet() {
+      Set<K> keys = new HashSet<K>();
+      for (Segment seg : segments) {
+         seg.addKeys(keys);
+      }
+      return keys;
+   }
+
+   public Iterator<K> keyIterator() {
+      ArrayList<K> keys = new ArrayList<K>();
+      for (Segment seg : segments) {
+         seg.addKeys(keys);
+      }
+      return keys.iterator();
+   }
+
+/*
+ * Returns the segment responsible for the spread hash code h.
+ */
+
+   private Segment segmentFor(int h) {
+      return segments.get(h >>> SEGMENT_SHIFT);
+   }
+
+/*
+ * Rejects null values, which would be indistinguishable from a missing
+ * key in the result of get.
+ */
+
+   private V checkValue(V value) {
+      if (value == null) {
+         throw new NullPointerException("Null values are not allowed");
+      }
+      return value;
+   }
+
+/*
+ * Mixes the bits of a hash code so that both the high-order bits used to
+ * select a segment and the low-order bits used to select a bucket depend
+ * on every bit of the original value.
+ */
+
+   private static int spread(int h) {
+      h ^= h >>> 16;
+      h *= 0x9E3779B9;
+      return h ^ (h >>> 16);
+   }
+
+/*
+ * Inner class: Segment
+ * --------------------
+ * Each segment is a chained hash table like the one in HashMap.  Updates
+ * are synchronized on the segment.  Readers rely instead on the volatile
+ * fields: the table reference, the elements of the AtomicReferenceArray,
+ * and the value and link fields of each cell.  A reader therefore always
+ * sees a fully initialized cell, even if it runs concurrently with an
+ * update.  When a segment expands, it copies its cells into a new table
+ * rather than relinking them, so that readers still traversing the old
+ * table are unaffected.
+ */
+
+   private class Segment {
+
+      Segment() {
+         table = new AtomicReferenceArray<Cell>(INITIAL_BUCKET_COUNT);
+         count = 0;
+      }
+
+      V get(Object key, int h) {
+         AtomicReferenceArray<Cell> tab = table;
+         Cell cp = tab.get(h & (tab.length() - 1));
+         while (cp != null) {
+            if (cp.hash == h && cp.key.equals(key)) return cp.value;
+            cp = cp.link;
+         }
+         return null;
+      }
+
+      synchronized V put(K key, int h, V value, boolean onlyIfAbsent) {
+         Cell cp = findCell(key, h);
+         if (cp != null) {
+            V oldValue = cp.value;
+            if (!onlyIfAbsent) cp.value = value;
+            return oldValue;
+         }
+         addCell(key, h, value);
+         return null;
+      }
+
+      synchronized V computeIfAbsent(K key, int h,
+                                     Function<? super K,? extends V> fn) {
+         Cell cp = findCell(key, h);
+         if (cp != null) return cp.value;
+         V value = fn.apply(key);
+         if (value != null) addCell(key, h, value);
+         return value;
+      }
+
+      synchronized V merge(K key, int h, V value,
+                           BiFunction<? super V,? super V,? extends V> fn) {
+         Cell cp = findCell(key, h);
+         if (cp == null) {
+            addCell(key, h, value);
+            return value;
+         }
+         V newValue = fn.apply(cp.value, value);
+         if (newValue == null) {
+            remove(key, h);
+         } else {
+            cp.value = newValue;
+         }
+         return newValue;
+      }
+
+      synchronized void remove(Object key, int h) {
+         AtomicReferenceArray<Cell> tab = table;
+         int bucket = h & (tab.length() - 1);
+         Cell cp = tab.get(bucket);
+         Cell prev = null;
+         while (cp != null && !(cp.hash == h && cp.key.equals(key))) {
+            prev = cp;
+            cp = cp.link;
+         }
+         if (cp != null) {
+            if (prev == null) {
+               tab.set(bucket, cp.link);
+            } else {
+               prev.link = cp.link;
+            }
+            count--;
+         }
+      }
+
+      synchronized void clear() {
+         table = new AtomicReferenceArray<Cell>(INITIAL_BUCKET_COUNT);
+         count = 0;
+      }
+
+      void addKeys(Collection<K> keys) {
+         AtomicReferenceArray<Cell> tab = table;
+         for (int i = 0; i < tab.length(); i++) {
+            for (Cell cp = tab.get(i); cp != null; cp = cp.link) {
+               keys.add(cp.key);
+            }
+         }
+      }
+
+   /* Finds the cell for key; called only while holding the lock */
+
+      private Cell findCell(Object key, int h) {
+         AtomicReferenceArray<Cell> tab = table;
+         Cell cp = tab.get(h & (tab.length() - 1));
+         while (cp != null && !(cp.hash == h && cp.key.equals(key))) {
+            cp = cp.link;
+         }
+         return cp;
+      }
+
+   /* Adds a new cell, expanding first if necessary */
+
+      private void addCell(K key, int h, V value) {
+         if (count >= table.length() * MAX_LOAD_FACTOR) rehash();
+         AtomicReferenceArray<Cell> tab = table;
+         int bucket = h & (tab.length() - 1);
+         tab.set(bucket, new Cell(key, h, value, tab.get(bucket)));
+         count++;
+      }
+
+   /* Doubles the number of buckets, copying every cell */
+
+      private void rehash() {
+         AtomicReferenceArray<Cell> oldTable = table;
+         int nBuckets = 2 * oldTable.length();
+         AtomicReferenceArray<Cell> newTable =
+            new AtomicReferenceArray<Cell>(nBuckets);
+         for (int i = 0; i < oldTable.length(); i++) {
+            for (Cell cp = oldTable.get(i); cp != null; cp = cp.link) {
+               int bucket = cp.hash & (nBuckets - 1);
+               newTable.set(bucket, new Cell(cp.key, cp.hash, cp.value,
+                                             newTable.get(bucket)));
+            }
+         }
+         table = newTable;
+      }
+
+      volatile AtomicReferenceArray<Cell> table;
+      volatile int count;
+
+   }
+
+/* Inner class for a cell in the linked lists for the bucket chains */
+
+   private class Cell {
+
+      Cell(K key, int hash, V value, Cell link) {
+         this.key = key;
+         this.hash = hash;
+         this.value = value;
+         this.link = link;
+      }
+
+      final K key;
+      final int hash;
+      volatile V value;
+      volatile Cell link;
+
+   }
+
+/* Constants */
+
+   private static final int SEGMENT_BITS = 4;
+   private static final int SEGMENT_COUNT = 1 << SEGMENT_BITS;
+   private static final int SEGMENT_SHIFT = 32 - SEGMENT_BITS;
+   private static final int INITIAL_BUCKET_COUNT = 8;
+   private static final double MAX_LOAD_FACTOR = 0.75;
+
+/* Private instance variables */
+
+   private final ArrayList<Segment> segments;
+
+}
@@ -0,0 +1,21 @@
+/*
+ * File: ConcurrentHashMapTest.java
+ * --------------------------------
+ * This program implements an interactive test of the ConcurrentHashMap
+ * abstraction.
+ */
+
+package edu.stanford.cs.javacs2.ch14;
+
+public class ConcurrentHashMapTest extends MapTest {
+
+   @Override
+   public Map<String,String> createMap() {
+      return new ConcurrentHashMap<String,String>();
+   }
+
+   public static void main(String[] args) {
+      new ConcurrentHashMapTest().run();
+   }
+
+}
@@ -7,10 +7,13 @@
 package edu.stanford.cs.javacs2.ch14;
 
 import edu.stanford.cs.javacs2.ch13.GenericArray;
-import java.util.ArrayList;
-import java.util.HashSet;
+import edu.stanford.cs.javacs2.ch13.KeyValuePair;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 public class HashMap<K,V> implements Map<K,V> {
 
@@ -27,6 +30,7 @@ public class HashMap<K,V> implements Map<K,V> {
       nBuckets = INITIAL_BUCKET_COUNT;
       buckets = new GenericArray<Cell>(nBuckets);
       count = 0;
+      modCount = 0;
    }
 
 /*
@@ -46,6 +50,7 @@ public class HashMap<K,V> implements Map<K,V> {
 
    public void clear() {
       count = 0;
+      modCount++;
       for (int i = 0; i < nBuckets; i++) {
          buckets.set(i, null);
       }
@@ -72,6 +77,7 @@ public class HashMap<K,V> implements Map<K,V> {
          cp.link = buckets.get(bucket);
          buckets.set(bucket, cp);
          count++;
+         modCount++;
       }
       cp.value = value;
    }
@@ -102,41 +108,82 @@ public class HashMap<K,V> implements Map<K,V> {
             prev.link = cp.link;
          }
          count--;
+         modCount++;
       }
    }
 
 /*
  * Implementation notes: keySet
  * ----------------------------
- * This method assembles the set by iterating through each bucket chain.
+ * This method returns a view of the keys rather than a copy.  The view
+ * forwards size and contains to the map and uses keyIterator to walk the
+ * keys, so creating it takes constant time and no additional storage.
  */
 
    public Set<K> keySet() {
-      Set<K> keys = new HashSet<K>();
-      for (int i = 0; i < buckets.size(); i++) {
-         for (Cell cp = buckets.get(i); cp != null; cp = cp.link) {
-            keys.add(cp.key);
+      return new AbstractSet<K>() {
+         @Override
+         public int size() {
+            return count;
          }
-      }
-      return keys;
+
+         @Override
+         @SuppressWarnings("unchecked")
+         public boolean contains(Object obj) {
+            return containsKey((K) obj);
+         }
+
+         @Override
+         public Iterator<K> iterator() {
+            return keyIterator();
+         }
+      };
    }
 
 /*
- * Implementation notes: keyIterator
- * ---------------------------------
- * This method is not part of the HashMap interface but is exported here to
- * allow the HashSet class to implement an iterator.  The code builds an
- * ArrayList containing the keys and then returns the ArrayList iterator.
+ * Implementation notes: keyIterator, entryIterator
+ * ------------------------------------------------
+ * These methods are not part of the Map interface but are exported here
+ * to allow clients to step through the map without copying it.  Both
+ * iterators move a cursor through the bucket chains.  The entryIterator
+ * method returns each binding as a KeyValuePair, which avoids the need
+ * to call get for every key.
  */
 
    public Iterator<K> keyIterator() {
-      ArrayList<K> keys = new ArrayList<K>();
-      for (int i = 0; i < buckets.size(); i++) {
+      return new CellIterator<K>() {
+         public K next() {
+            return nextCell().key;
+         }
+      };
+   }
+
+   public Iterator<KeyValuePair<K,V>> entryIterator() {
+      return new CellIterator<KeyValuePair<K,V>>() {
+         public KeyValuePair<K,V> next() {
+            Cell cp = nextCell();
+            return new KeyValuePair<K,V>(cp.key, cp.value);
+         }
+      };
+   }
+
+/*
+ * Implementation notes: forEach
+ * -----------------------------
+ * This method calls fn on every key-value pair in the map.  It walks the
+ * bucket chains directly and therefore allocates no objects at all.
+ */
+
+   public void forEach(BiConsumer<? super K,? super V> fn) {
+      int expectedModCount = modCount;
+      for (int i = 0; i < nBuckets; i++) {
          for (Cell cp = buckets.get(i); cp != null; cp = cp.link) {
-            keys.add(cp.key);
+            fn.accept(cp.key, cp.value);
+            if (modCount != expectedModCount) {
+               throw new ConcurrentModificationException();
+            }
          }
       }
-      return keys.iterator();
    }
 
 /*
@@ -163,6 +210,84 @@ public class HashMap<K,V> implements Map<K,V> {
       Cell link;
    }
 
+/*
+ * Implementation notes: CellIterator
+ * ----------------------------------
+ * This abstract class holds the state shared by the key and entry
+ * iterators, which differ only in what they return from next.  The
+ * iterator keeps track of the next cell to return and the bucket in
+ * which it appears.  It also records the value of modCount when it was
+ * created.  If the map changes in any other way than through the remove
+ * method of the iterator, the next call to the iterator throws a
+ * ConcurrentModificationException rather than returning unreliable data.
+ */
+
+   private abstract class CellIterator<E> implements Iterator<E> {
+
+   /* Creates an iterator positioned at the first cell in the table */
+
+      public CellIterator() {
+         expectedModCount = modCount;
+         bucket = -1;
+         nextCell = null;
+         lastCell = null;
+         advance();
+      }
+
+   /* Returns true if there are more cells in the table */
+
+      public boolean hasNext() {
+         return nextCell != null;
+      }
+
+   /* Removes the key most recently returned by the iterator */
+
+      public void remove() {
+         if (lastCell == null) throw new IllegalStateException("No element");
+         checkForComodification();
+         HashMap.this.remove(lastCell.key);
+         lastCell = null;
+         expectedModCount = modCount;
+      }
+
+   /* Returns the next cell and advances the cursor */
+
+      protected Cell nextCell() {
+         checkForComodification();
+         if (nextCell == null) {
+            throw new NoSuchElementException("No next element");
+         }
+         lastCell = nextCell;
+         nextCell = nextCell.link;
+         if (nextCell == null) advance();
+         return lastCell;
+      }
+
+   /* Moves nextCell to the start of the next nonempty bucket */
+
+      private void advance() {
+         while (nextCell == null && ++bucket < nBuckets) {
+            nextCell = buckets.get(bucket);
+         }
+      }
+
+   /* Throws an exception if the map has been changed by another path */
+
+      private void checkForComodification() {
+         if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+         }
+      }
+
+   /* Private instance variables */
+
+      private int bucket;            /* Bucket containing nextCell     */
+      private Cell nextCell;         /* Next cell to be returned       */
+      private Cell lastCell;         /* Cell most recently returned    */
+      private int expectedModCount;  /* Value of modCount at last sync */
+
+   }
+
 /* Constants */
 
    private static final int INITIAL_BUCKET_COUNT = 7;
@@ -172,5 +297,6 @@ public class HashMap<K,V> implements Map<K,V> {
    private GenericArray<Cell> buckets;
    private int nBuckets;
    private int count;
+   private int modCount;      /* Incremented on each structural change */
 
 }
@@ -0,0 +1,82 @@
+/*
+ * File: HashMapTiming.java
+ * ------------------------
+ * This program compares the throughput of the chained HashMap and the
+ * open-addressed OpenHashMap on maps ranging from 10^3 to 10^7 keys.
+ */
+
+package edu.stanford.cs.javacs2.ch14;
+
+public class HashMapTiming {
+
+   public void run() {
+      System.out.printf("%10s  %-12s %12s %12s%n", "Keys", "Map",
+                        "put (ns)", "get (ns)");
+      for (int n = MIN_KEYS; n <= MAX_KEYS; n *= 10) {
+         String[] keys = createKeys(n);
+         if (n <= CHAINED_LIMIT) {
+            timeMap("HashMap", new HashMap<String,Integer>(), keys);
+         } else {
+            System.out.printf("%10d  %-12s %12s %12s%n", n, "HashMap",
+                              "--", "--");
+         }
+         timeMap("OpenHashMap", new OpenHashMap<String,Integer>(), keys);
+      }
+   }
+
+/*
+ * Fills the map with the specified keys and then looks each one up,
+ * reporting the average time per operation in nanoseconds.
+ */
+
+   private void timeMap(String name, Map<String,Integer> map, String[] keys) {
+      int n = keys.length;
+      long start = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+         map.put(keys[i], i);
+      }
+      long putTime = System.nanoTime() - start;
+      long check = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+         check += map.get(keys[i]);
+      }
+      long getTime = System.nanoTime() - start;
+      if (check != (long) n * (n - 1) / 2) {
+         throw new RuntimeException(name + " returned incorrect values");
+      }
+      System.out.printf("%10d  %-12s %12.1f %12.1f%n", n, name,
+                        (double) putTime / n, (double) getTime / n);
+   }
+
+/*
+ * Creates an array of n distinct string keys.
+ */
+
+   private String[] createKeys(int n) {
+      String[] keys = new String[n];
+      for (int i = 0; i < n; i++) {
+         keys[i] = "key" + i;
+      }
+      return keys;
+   }
+
+/* Constants */
+
+   private static final int MIN_KEYS = 1000;
+   private static final int MAX_KEYS = 10000000;
+
+/*
+ * The chained HashMap never expands its seven buckets, so its operations
+ * take linear time.  Timing it beyond CHAINED_LIMIT keys is impractical.
+ */
+
+   private static final int CHAINED_LIMIT = 100000;
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new HashMapTiming().run();
+   }
+
+}
@@ -0,0 +1,307 @@
+/*
+ * File: OpenHashMap.java
+ * ----------------------
+ * This file implements the Map interface using a hash table with open
+ * addressing.  Unlike the chained HashMap, this implementation grows its
+ * table as the load factor increases and spreads the cost of rehashing
+ * over many put operations.
+ */
+
+package edu.stanford.cs.javacs2.ch14;
+
+import edu.stanford.cs.javacs2.ch13.GenericArray;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+public class OpenHashMap<K,V> implements Map<K,V> {
+
+/**
+ * Creates an empty OpenHashMap.
+ */
+
+   public OpenHashMap() {
+      clear();
+   }
+
+/*
+ * Implementation notes: size, isEmpty, clear
+ * ------------------------------------------
+ * The count variable records the number of live entries across both the
+ * current table and any table still being drained by an incremental
+ * rehash, so size and isEmpty run in constant time.
+ */
+
+   public int size() {
+      return count;
+   }
+
+   public boolean isEmpty() {
+      return count == 0;
+   }
+
+   public void clear() {
+      table = new Table(INITIAL_CAPACITY);
+      oldTable = null;
+      migrateIndex = 0;
+      count = 0;
+   }
+
+/*
+ * Implementation notes: get, containsKey
+ * --------------------------------------
+ * A key is either in the current table or, during a rehash, in the old
+ * table that has not yet been fully migrated.  Each lookup therefore
+ * probes the current table first and falls back to the old one.
+ */
+
+   public V get(K key) {
+      int h = spread(key.hashCode());
+      int index = table.find(key, h);
+      if (index >= 0) return table.values.get(index);
+      if (oldTable != null) {
+         index = oldTable.find(key, h);
+         if (index >= 0) return oldTable.values.get(index);
+      }
+      return null;
+   }
+
+   public boolean containsKey(K key) {
+      int h = spread(key.hashCode());
+      if (table.find(key, h) >= 0) return true;
+      return oldTable != null && oldTable.find(key, h) >= 0;
+   }
+
+/*
+ * Implementation notes: put
+ * -------------------------
+ * Each call to put first migrates a few slots from the old table, if a
+ * rehash is in progress.  If the key still lives in the old table, it is
+ * deleted there and reinserted in the current one, which keeps the rule
+ * that new bindings are only ever written to the current table.
+ */
+
+   public void put(K key, V value) {
+      if (oldTable != null) migrate(MIGRATION_STEP);
+      int h = spread(key.hashCode());
+      int index = table.find(key, h);
+      if (index >= 0) {
+         table.values.set(index, value);
+         return;
+      }
+      if (oldTable != null && oldTable.delete(key, h)) count--;
+      if (table.used >= table.threshold) {
+         startRehash();
+      }
+      table.insert(key, h, value);
+      count++;
+   }
+
+/*
+ * Implementation notes: remove
+ * ----------------------------
+ * Removing an entry from an open-addressed table cannot simply clear the
+ * slot, because doing so would break the probe sequence for any key that
+ * was displaced past it.  The Table class instead marks the slot with a
+ * tombstone, which lookups skip over and inserts may reuse.
+ */
+
+   public void remove(K key) {
+      int h = spread(key.hashCode());
+      if (table.delete(key, h)) {
+         count--;
+      } else if (oldTable != null && oldTable.delete(key, h)) {
+         count--;
+      }
+   }
+
+/*
+ * Implementation notes: keySet and keyIterator
+ * --------------------------------------------
+ * These methods walk the slots of both tables, skipping empty slots and
+ * tombstones.
+ */
+
+   public Set<K> keySet() {
+      Set<K> keys = new HashSet<K>();
+      addKeys(table, keys);
+      if (oldTable != null) addKeys(oldTable, keys);
+      return keys;
+   }
+
+   public Iterator<K> keyIterator() {
+      ArrayList<K> keys = new ArrayList<K>();
+      addKeys(table, keys);
+      if (oldTable != null) addKeys(oldTable, keys);
+      return keys.iterator();
+   }
+
+   @SuppressWarnings("unchecked")
+   private void addKeys(Table t, Collection<K> keys) {
+      for (int i = 0; i < t.capacity; i++) {
+         Object k = t.keys.get(i);
+         if (k != null && k != TOMBSTONE) keys.add((K) k);
+      }
+   }
+
+/*
+ * Implementation notes: startRehash
+ * ---------------------------------
+ * This method is called when the current table reaches its threshold.
+ * If most of the used slots are tombstones, the new table has the same
+ * capacity; otherwise it has twice the capacity.  The existing table
+ * becomes the old table, which put then drains a few slots at a time.
+ * If a previous rehash is still in progress, it is completed first so
+ * that there are never more than two tables.
+ */
+
+   private void startRehash() {
+      if (oldTable != null) {
+         migrate(oldTable.capacity);
+         if (table.used < table.threshold) return;
+      }
+      int live = table.used - table.tombstones;
+      int newCapacity = table.capacity;
+      if (live >= table.threshold / 2) newCapacity *= 2;
+      oldTable = table;
+      table = new Table(newCapacity);
+      migrateIndex = 0;
+   }
+
+/*
+ * Moves up to nSlots slots from the old table into the current table.
+ * Each migrated entry is replaced by a tombstone rather than being cleared
+ * so that probe sequences for keys not yet migrated remain intact.  When the
+ * last slot has been migrated, the old table is discarded.
+ */
+
+   @SuppressWarnings("unchecked")
+   private void migrate(int nSlots) {
+      int limit = Math.min(migrateIndex + nSlots, oldTable.capacity);
+      while (migrateIndex < limit) {
+         Object k = oldTable.keys.get(migrateIndex);
+         if (k != null && k != TOMBSTONE) {
+            table.insert((K) k, spread(k.hashCode()),
+                         oldTable.values.get(migrateIndex));
+            oldTable.keys.set(migrateIndex, TOMBSTONE);
+            oldTable.values.set(migrateIndex, null);
+         }
+         migrateIndex++;
+      }
+      if (migrateIndex == oldTable.capacity) oldTable = null;
+   }
+
+/*
+ * Implementation notes: spread
+ * ----------------------------
+ * Tables in this implementation have a power-of-two size, so the index
+ * is computed by masking rather than by the % operator.  Masking uses
+ * only the low-order bits, which are often poorly distributed in user
+ * hashCode methods.  The spread method folds the high bits into the low
+ * bits and then multiplies by a constant derived from the golden ratio.
+ */
+
+   private static int spread(int h) {
+      h ^= h >>> 16;
+      h *= 0x9E3779B9;
+      return h ^ (h >>> 16);
+   }
+
+/*
+ * Inner class: Table
+ * ------------------
+ * This class represents one open-addressed table.  Keys and values are
+ * stored in parallel arrays, and collisions are resolved by linear
+ * probing, which visits adjacent slots and therefore makes good use of
+ * the processor cache.
+ */
+
+   private class Table {
+
+      Table(int capacity) {
+         this.capacity = capacity;
+         mask = capacity - 1;
+         threshold = (int) (capacity * MAX_LOAD_FACTOR);
+         keys = new GenericArray<Object>(capacity);
+         values = new GenericArray<V>(capacity);
+         used = 0;
+         tombstones = 0;
+      }
+
+   /* Returns the slot containing key, or -1 if the key is not present */
+
+      int find(Object key, int h) {
+         int index = h & mask;
+         while (true) {
+            Object k = keys.get(index);
+            if (k == null) return -1;
+            if (k != TOMBSTONE && k.equals(key)) return index;
+            index = (index + 1) & mask;
+         }
+      }
+
+   /* Inserts a key known not to be present, reusing a tombstone if any */
+
+      void insert(Object key, int h, V value) {
+         int index = h & mask;
+         int target = -1;
+         while (true) {
+            Object k = keys.get(index);
+            if (k == null) break;
+            if (k == TOMBSTONE && target == -1) target = index;
+            index = (index + 1) & mask;
+         }
+         if (target == -1) {
+            target = index;
+            used++;
+         } else {
+            tombstones--;
+         }
+         keys.set(target, key);
+         values.set(target, value);
+      }
+
+   /* Replaces the entry for key with a tombstone, if it is present */
+
+      boolean delete(Object key, int h) {
+         int index = find(key, h);
+         if (index < 0) return false;
+         keys.set(index, TOMBSTONE);
+         values.set(index, null);
+         tombstones++;
+         return true;
+      }
+
+      GenericArray<Object> keys;
+      GenericArray<V> values;
+      int capacity;
+      int mask;
+      int threshold;
+      int used;         /* Slots holding either a key or a tombstone */
+      int tombstones;   /* Slots holding a tombstone                 */
+
+   }
+
+/* Constants */
+
+   private static final int INITIAL_CAPACITY = 16;
+   private static final double MAX_LOAD_FACTOR = 0.75;
+   private static final int MIGRATION_STEP = 8;
+   private static final Object TOMBSTONE = new Object();
+
+/*
+ * Private instance variables
+ * --------------------------
+ * During an incremental rehash, oldTable refers to the table being
+ * drained and migrateIndex is the next slot in it to be moved.  At all
+ * other times, oldTable is null.
+ */
+
+   private Table table;
+   private Table oldTable;
+   private int migrateIndex;
+   private int count;
+
+}
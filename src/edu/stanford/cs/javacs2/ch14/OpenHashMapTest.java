@@ -0,0 +1,21 @@
+/*
+ * File: OpenHashMapTest.java
+ * --------------------------
+ * This program implements an interactive test of the OpenHashMap
+ * abstraction.
+ */
+
+package edu.stanford.cs.javacs2.ch14;
+
+public class OpenHashMapTest extends MapTest {
+
+   @Override
+   public Map<String,String> createMap() {
+      return new OpenHashMap<String,String>();
+   }
+
+   public static void main(String[] args) {
+      new OpenHashMapTest().run();
+   }
+
+}
@@ -24,6 +24,7 @@ public class AVLTree {
 
    public AVLTree() {
       root = null;
+      path = new AVLNode[MAX_HEIGHT];
    }
 
 /**
@@ -31,7 +32,7 @@ public class AVLTree {
  */
 
    public void add(String key) {
-      root = insertNode(root, key);
+      insertNode(key);
    }
 
 /**
@@ -39,7 +40,7 @@ public class AVLTree {
  */
 
    public void remove(String key) {
-      root = removeNode(root, key);
+      removeNode(key);
    }
 
 /**
@@ -47,7 +48,7 @@ public class AVLTree {
  */
 
    public boolean contains(String key) {
-      return findNode(root, key) != null;
+      return findNode(key) != null;
    }
 
 /**
@@ -124,54 +125,107 @@ public class AVLTree {
 
 /*
  * Finds a node in the AVL tree with the specified key.  If no such
- * node exists, findNode returns null.
+ * node exists, findNode returns null.  Because each step moves to a
+ * child of the current node, the search is a simple loop.
  */
 
-   private AVLNode findNode(AVLNode node, String key) {
-      if (node == null) {
-         return null;
-      } else {
+   private AVLNode findNode(String key) {
+      AVLNode node = root;
+      while (node != null) {
          int cmp = key.compareTo(node.key);
          if (cmp < 0) {
-            return findNode(node.left, key);
+            node = node.left;
          } else if (cmp > 0) {
-            return findNode(node.right, key);
+            node = node.right;
          } else {
             return node;
          }
       }
+      return null;
    }
 
 /*
- * Enters the key into the tree and returns the updated tree.  The usual
- * pattern for using this method assigns the result back to the tree, as
- * follows:
- *
- *     node = insertNode(node, key);
+ * Implementation notes: insertNode
+ * --------------------------------
+ * This method descends from the root to the insertion point, recording
+ * each node it passes in the path array.  It then calls rebalancePath
+ * to walk back up the path, restoring the AVL property.
  */
 
-   private AVLNode insertNode(AVLNode node, String key) {
-      if (node == null) {
-         node = new AVLNode();
-         node.key = key;
-         node.height = 0;
-         node.left = node.right = null;
-      } else {
-         int cmp = key.compareTo(node.key);
+   private void insertNode(String key) {
+      AVLNode node = root;
+      AVLNode parent = null;
+      int depth = 0;
+      int cmp = 0;
+      while (node != null) {
+         cmp = key.compareTo(node.key);
+         path[depth++] = node;
+         parent = node;
          if (cmp < 0) {
-            node.left = insertNode(node.left, key);
+            node = node.left;
          } else if (cmp > 0) {
-            node.right = insertNode(node.right, key);
+            node = node.right;
+         } else {
+            return;
          }
+      }
+      node = new AVLNode();
+      node.key = key;
+      node.height = 0;
+      node.left = node.right = null;
+      if (parent == null) {
+         root = node;
+      } else if (cmp < 0) {
+         parent.left = node;
+      } else {
+         parent.right = node;
+      }
+      rebalancePath(depth);
+   }
+
+/*
+ * Implementation notes: rebalancePath
+ * -----------------------------------
+ * This method restores the heights and balance of the nodes stored in the
+ * first depth entries of the path array, starting at the bottom.  The
+ * walk stops as soon as a subtree has the same height it had before the
+ * change, because none of the balance factors above it can be affected.
+ * After an insertion, this happens no later than the first rotation.
+ */
+
+   private void rebalancePath(int depth) {
+      for (int i = depth - 1; i >= 0; i--) {
+         AVLNode node = path[i];
+         int oldHeight = node.height;
          fixHeight(node);
          int bf = getHeight(node.right) - getHeight(node.left);
+         AVLNode subtree = node;
          if (bf == -2) {
-            node = fixLeftImbalance(node);
+            subtree = fixLeftImbalance(node);
          } else if (bf == +2) {
-            node = fixRightImbalance(node);
+            subtree = fixRightImbalance(node);
+         }
+         if (subtree != node) replaceChild(i, node, subtree);
+         if (subtree.height == oldHeight) break;
+      }
+   }
+
+/*
+ * Replaces the child oldChild of the node at index i - 1 in the path with
+ * newChild.  If i is 0, oldChild is the root, so newChild becomes the root.
+ */
+
+   private void replaceChild(int i, AVLNode oldChild, AVLNode newChild) {
+      if (i == 0) {
+         root = newChild;
+      } else {
+         AVLNode parent = path[i - 1];
+         if (parent.left == oldChild) {
+            parent.left = newChild;
+         } else {
+            parent.right = newChild;
          }
       }
-      return node;
    }
 
 /*
@@ -197,7 +251,7 @@ public class AVLTree {
 
 /*
  * Restores the balance to a tree that has a longer subtree on the left.
- * Like insertNode, fixLeftImbalance returns the updated tree.
+ * Like the rotation methods, fixLeftImbalance returns the updated tree.
  */
 
    private AVLNode fixLeftImbalance(AVLNode node) {
@@ -210,7 +264,7 @@ public class AVLTree {
 
 /*
  * Restores the balance to a tree that has a longer subtree on the right.
- * Like insertNode, fixRightImbalance returns the updated tree.
+ * Like the rotation methods, fixRightImbalance returns the updated tree.
  */
 
    private AVLNode fixRightImbalance(AVLNode node) {
@@ -258,62 +312,45 @@ public class AVLTree {
    }
 
 /*
- * Removes the key from the tree (if it exists) and returns the updated tree.
- * As with insertNode, removeNode returns the updated tree, so that the usual
- * pattern for using this method looks like this:
- *
- *     node = removeNode(node, key);
+ * Implementation notes: removeNode
+ * --------------------------------
+ * This method finds the target node, recording the path as insertNode
+ * does.  If the target has two children, the method extends the path to
+ * the rightmost node in the left subtree, copies that node's key into
+ * the target, and then removes the rightmost node instead.  Either way,
+ * the node that is actually unlinked has at most one child, which takes
+ * its place in the tree.  Unlike insertion, a rotation after a removal
+ * can shorten the subtree, so rebalancePath may perform several rotations
+ * before it reaches a subtree whose height is unchanged.
  */
 
-   private AVLNode removeNode(AVLNode node, String key) {
-      if (node != null) {
+   private void removeNode(String key) {
+      AVLNode node = root;
+      int depth = 0;
+      while (node != null) {
          int cmp = key.compareTo(node.key);
+         path[depth++] = node;
+         if (cmp == 0) break;
          if (cmp < 0) {
-            node.left = removeNode(node.left, key);
-         } else if (cmp > 0) {
-            node.right = removeNode(node.right, key);
+            node = node.left;
          } else {
-            node = removeTargetNode(node);
-         }
-         if (node != null) {
-            fixHeight(node);
-            int bf = getHeight(node.right) - getHeight(node.left);
-            if (bf == -2) {
-               node = fixLeftImbalance(node);
-            } else if (bf == +2) {
-               node = fixRightImbalance(node);
-            }
+            node = node.right;
          }
       }
-      return node;
-   }
-
-/*
- * Implementation notes: removeTargetNode(node)
- * --------------------------------------------
- * Removes the specified node and returns an updated tree.  The easy case
- * occurs when either (or both) of the children is null; all you need to
- * do is replace the node with its non-null child, if any.  If both children
- * are non-null, this code finds the rightmost descendent of the left
- * child; this node may not be a leaf, but will have no right child.
- * Its left child replaces it in the tree, after which the replacement
- * data is moved to the position occupied by the target node.
- */
-
-   private AVLNode removeTargetNode(AVLNode node) {
-      if (node.left == null) {
-         node = node.right;
-      } else if (node.right == null) {
+      if (node == null) return;
+      if (node.left != null && node.right != null) {
+         AVLNode target = node;
          node = node.left;
-      } else {
-         AVLNode successor = node.left;
-         while (successor.right != null) {
-            successor = successor.right;
+         path[depth++] = node;
+         while (node.right != null) {
+            node = node.right;
+            path[depth++] = node;
          }
-         node.key = successor.key;
-         node.left = removeNode(node.left, successor.key);
+         target.key = node.key;
       }
-      return node;
+      AVLNode child = (node.left == null) ? node.right : node.left;
+      replaceChild(--depth, node, child);
+      rebalancePath(depth);
    }
 
 /* Inner class representing a node in the tree */
@@ -324,9 +361,21 @@ public class AVLTree {
       AVLNode left, right;
    }
 
-/* Private instance variables */
+/* Constants */
+
+   private static final int MAX_HEIGHT = 64;
+
+/*
+ * Private instance variables
+ * --------------------------
+ * The path array holds the nodes between the root and the point at which
+ * an insertion or removal takes place.  An AVL tree with MAX_HEIGHT levels
+ * would need more nodes than can be stored in memory, so the path array
+ * never overflows.
+ */
 
    private AVLNode root;
+   private AVLNode[] path;
    private boolean trace;
 
 }
@@ -0,0 +1,326 @@
+/*
+ * File: AbstractSortedMap.java
+ * ----------------------------
+ * This file defines an abstract class that implements the parts of the
+ * SortedMap interface that can be expressed in terms of the others.  The
+ * TreeMap and BTreeMap classes both extend it, which means that the code
+ * for key sets and submap views is shared rather than copied.
+ */
+
+package edu.stanford.cs.javacs2.ch15;
+
+import edu.stanford.cs.javacs2.ch13.KeyValuePair;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * This class provides skeletal implementations of keySet, keyIterator,
+ * entryIterator, countInRange, subMap, and loadSorted.  A subclass must
+ * implement the remaining methods of SortedMap, along with two iterator
+ * methods that produce the keys or entries in a range.
+ */
+
+public abstract class AbstractSortedMap<K extends Comparable<? super K>,V>
+                      implements SortedMap<K,V> {
+
+/**
+ * Returns an iterator that produces the keys in the range from lo to hi
+ * in ascending order.  A null bound means that the range is unbounded on
+ * that side.  The iterator must support remove.
+ *
+ * @param lo The lower bound of the range, which is included, or null
+ * @param hi The upper bound of the range, which is excluded, or null
+ * @return An iterator over the keys in the range
+ */
+
+   protected abstract Iterator<K> keyIterator(K lo, K hi);
+
+/**
+ * Returns an iterator that produces the key-value pairs in the range from
+ * lo to hi in ascending order of their keys.  The bounds are interpreted
+ * as in keyIterator.
+ *
+ * @param lo The lower bound of the range, which is included, or null
+ * @param hi The upper bound of the range, which is excluded, or null
+ * @return An iterator over the key-value pairs in the range
+ */
+
+   protected abstract Iterator<KeyValuePair<K,V>> entryIterator(K lo, K hi);
+
+   public Iterator<K> keyIterator() {
+      return keyIterator(null, null);
+   }
+
+   public Iterator<KeyValuePair<K,V>> entryIterator() {
+      return entryIterator(null, null);
+   }
+
+/*
+ * Implementation notes: keySet
+ * ----------------------------
+ * This method returns a view of the keys rather than a copy.  The view
+ * forwards size and contains to the map and uses keyIterator to walk the
+ * keys in order, so creating it takes constant time.
+ */
+
+   public Set<K> keySet() {
+      return new AbstractSet<K>() {
+         @Override
+         public int size() {
+            return AbstractSortedMap.this.size();
+         }
+
+         @Override
+         @SuppressWarnings("unchecked")
+         public boolean contains(Object obj) {
+            return containsKey((K) obj);
+         }
+
+         @Override
+         public Iterator<K> iterator() {
+            return keyIterator();
+         }
+      };
+   }
+
+   public int countInRange(K lo, K hi) {
+      if (lo.compareTo(hi) >= 0) return 0;
+      return rank(hi) - rank(lo);
+   }
+
+/*
+ * Implementation notes: loadSorted
+ * --------------------------------
+ * This version checks the order of the keys before changing the map and
+ * then calls put for each one, which takes N log N time.  TreeMap and
+ * BTreeMap override it to build their trees directly in linear time.
+ */
+
+   public void loadSorted(Iterator<K> keys, V value) {
+      ArrayList<K> list = sortedList(keys);
+      clear();
+      for (K key : list) {
+         put(key, value);
+      }
+   }
+
+/*
+ * Returns a list of the keys produced by the iterator, throwing an
+ * IllegalArgumentException if any key is not larger than the one before.
+ */
+
+   protected static <K extends Comparable<? super K>>
+                    ArrayList<K> sortedList(Iterator<K> keys) {
+      ArrayList<K> list = new ArrayList<K>();
+      while (keys.hasNext()) {
+         addSortedKey(list, keys.next());
+      }
+      return list;
+   }
+
+/*
+ * Adds key to the end of the list after checking that it is larger than
+ * the last key in the list.
+ */
+
+   protected static <K extends Comparable<? super K>>
+                    void addSortedKey(ArrayList<K> keys, K key) {
+      int n = keys.size();
+      if (n > 0 && keys.get(n - 1).compareTo(key) >= 0) {
+         throw new IllegalArgumentException("Keys are not in ascending order");
+      }
+      keys.add(key);
+   }
+
+/*
+ * Implementation notes: subMap
+ * ----------------------------
+ * This method returns a SubMap object that stores the bounds of the range
+ * and forwards its operations to this map, checking or clipping the keys
+ * as necessary.  Creating the view takes constant time; its iterators
+ * start at the first key in the range and stop at the upper bound.
+ */
+
+   public SortedMap<K,V> subMap(K lo, K hi) {
+      return new SubMap(lo, hi);
+   }
+
+/*
+ * Implementation notes: SubMap
+ * ----------------------------
+ * This inner class implements the view returned by subMap.  It stores no
+ * keys of its own.  Lookups check that the key lies in the range and then
+ * call the enclosing map.  Ordered queries clip their arguments to the
+ * range and check that the result lies inside it.  Because the bounds are
+ * fixed, the size of the view is computed by countInRange on each call,
+ * which takes log N time rather than the linear time a copy would need.
+ */
+
+   private class SubMap implements SortedMap<K,V> {
+
+      public SubMap(K lo, K hi) {
+         this.lo = lo;
+         this.hi = hi;
+      }
+
+      public int size() {
+         return AbstractSortedMap.this.countInRange(lo, hi);
+      }
+
+      public boolean isEmpty() {
+         return size() == 0;
+      }
+
+      public void clear() {
+         Iterator<K> it = keyIterator();
+         while (it.hasNext()) {
+            it.next();
+            it.remove();
+         }
+      }
+
+      public void put(K key, V value) {
+         if (!inRange(key)) {
+            throw new IllegalArgumentException("Key out of range: " + key);
+         }
+         AbstractSortedMap.this.put(key, value);
+      }
+
+      public V get(K key) {
+         return inRange(key) ? AbstractSortedMap.this.get(key) : null;
+      }
+
+      public boolean containsKey(K key) {
+         return inRange(key) && AbstractSortedMap.this.containsKey(key);
+      }
+
+      public void remove(K key) {
+         if (inRange(key)) AbstractSortedMap.this.remove(key);
+      }
+
+      public Set<K> keySet() {
+         return new AbstractSet<K>() {
+            @Override
+            public int size() {
+               return SubMap.this.size();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object obj) {
+               return containsKey((K) obj);
+            }
+
+            @Override
+            public Iterator<K> iterator() {
+               return keyIterator();
+            }
+         };
+      }
+
+      public K floorKey(K key) {
+         K result = (key.compareTo(hi) >= 0)
+                       ? AbstractSortedMap.this.lowerKey(hi)
+                       : AbstractSortedMap.this.floorKey(key);
+         return clip(result);
+      }
+
+      public K ceilingKey(K key) {
+         K result = (key.compareTo(lo) < 0)
+                       ? AbstractSortedMap.this.ceilingKey(lo)
+                       : AbstractSortedMap.this.ceilingKey(key);
+         return clip(result);
+      }
+
+      public K lowerKey(K key) {
+         K result = (key.compareTo(hi) > 0)
+                       ? AbstractSortedMap.this.lowerKey(hi)
+                       : AbstractSortedMap.this.lowerKey(key);
+         return clip(result);
+      }
+
+      public K higherKey(K key) {
+         K result = (key.compareTo(lo) < 0)
+                       ? AbstractSortedMap.this.ceilingKey(lo)
+                       : AbstractSortedMap.this.higherKey(key);
+         return clip(result);
+      }
+
+      public int rank(K key) {
+         return AbstractSortedMap.this.countInRange(lo, min(key, hi));
+      }
+
+      public K select(int k) {
+         if (k < 0 || k >= size()) {
+            throw new IndexOutOfBoundsException("Index " + k +
+                                                " out of bounds");
+         }
+         return AbstractSortedMap.this.select(AbstractSortedMap.this.rank(lo)
+                                              + k);
+      }
+
+      public int countInRange(K lo, K hi) {
+         return AbstractSortedMap.this.countInRange(max(lo, this.lo),
+                                                    min(hi, this.hi));
+      }
+
+      public SortedMap<K,V> subMap(K lo, K hi) {
+         return new SubMap(max(lo, this.lo), min(hi, this.hi));
+      }
+
+      public Iterator<K> keyIterator() {
+         return AbstractSortedMap.this.keyIterator(lo, hi);
+      }
+
+      public Iterator<KeyValuePair<K,V>> entryIterator() {
+         return AbstractSortedMap.this.entryIterator(lo, hi);
+      }
+
+      public void loadSorted(Iterator<K> keys, V value) {
+         ArrayList<K> list = sortedList(keys);
+         for (K key : list) {
+            if (!inRange(key)) {
+               throw new IllegalArgumentException("Key out of range: "
+                                                  + key);
+            }
+         }
+         clear();
+         for (K key : list) {
+            AbstractSortedMap.this.put(key, value);
+         }
+      }
+
+   /* Returns true if key lies in the range of this view */
+
+      private boolean inRange(K key) {
+         return key.compareTo(lo) >= 0 && key.compareTo(hi) < 0;
+      }
+
+   /* Returns key if it lies in the range and null otherwise */
+
+      private K clip(K key) {
+         return (key != null && inRange(key)) ? key : null;
+      }
+
+   /* Private instance variables */
+
+      private K lo;                /* Inclusive lower bound of the range */
+      private K hi;                /* Exclusive upper bound of the range */
+
+   }
+
+/* Returns the smaller of two keys */
+
+   private K min(K k1, K k2) {
+      return (k1.compareTo(k2) <= 0) ? k1 : k2;
+   }
+
+/* Returns the larger of two keys */
+
+   private K max(K k1, K k2) {
+      return (k1.compareTo(k2) >= 0) ? k1 : k2;
+   }
+
+}
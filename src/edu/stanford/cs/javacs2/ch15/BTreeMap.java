@@ -0,0 +1,860 @@
+/*
+ * File: BTreeMap.java
+ * -------------------
+ * This file implements the SortedMap interface using a B+ tree.  Each
+ * node of a B+ tree stores many keys in an array, so that the tree is
+ * much shallower than a binary tree and a search touches only a few
+ * blocks of memory.  All the values live in the leaves, which are linked
+ * together in key order so that a range of keys can be scanned without
+ * returning to the upper levels of the tree.
+ */
+
+package edu.stanford.cs.javacs2.ch15;
+
+import edu.stanford.cs.javacs2.ch13.GenericArray;
+import edu.stanford.cs.javacs2.ch13.KeyValuePair;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * This class implements a sorted map as a B+ tree whose order, which is
+ * the largest number of keys a node can hold, is chosen by the client.
+ * Every node other than the root is kept at least half full.
+ */
+
+public class BTreeMap<K extends Comparable<? super K>,V>
+                                    extends AbstractSortedMap<K,V> {
+
+/**
+ * Creates an empty BTreeMap with the default order.
+ */
+
+   public BTreeMap() {
+      this(DEFAULT_ORDER);
+   }
+
+/**
+ * Creates an empty BTreeMap in which each node holds at most order keys.
+ * Larger orders make the tree shallower but make each node take longer
+ * to update.
+ *
+ * @param order The maximum number of keys in a node
+ */
+
+   public BTreeMap(int order) {
+      if (order < MIN_ORDER) {
+         throw new IllegalArgumentException("Order must be at least " +
+                                            MIN_ORDER);
+      }
+      this.order = order;
+      minKeys = order / 2;
+      clear();
+   }
+
+   public int size() {
+      return count;
+   }
+
+   public boolean isEmpty() {
+      return count == 0;
+   }
+
+   public void clear() {
+      root = new Node(true);
+      count = 0;
+      modCount++;
+   }
+
+/*
+ * Implementation notes: get, containsKey
+ * --------------------------------------
+ * These methods descend from the root to the leaf that would contain the
+ * key and then use binary search to find the key in that leaf.  In the
+ * interior nodes, a key equal to a separator belongs to the subtree on
+ * its right, which contains all keys greater than or equal to it.
+ */
+
+   public V get(K key) {
+      Node leaf = findLeaf(key);
+      int i = leaf.find(key);
+      return (i < 0) ? null : leaf.values.get(i);
+   }
+
+   public boolean containsKey(K key) {
+      return findLeaf(key).find(key) >= 0;
+   }
+
+/*
+ * Implementation notes: put
+ * -------------------------
+ * The put method calls the recursive insert method, which adds the entry
+ * to a leaf and splits any node that overflows on the way back up.  If
+ * the root itself splits, put creates a new root above the two halves,
+ * which is the only way the tree ever grows taller.
+ */
+
+   public void put(K key, V value) {
+      Node sibling = insert(root, key, value);
+      if (sibling != null) {
+         Node newRoot = new Node(false);
+         newRoot.keys.set(0, splitKey);
+         newRoot.children.set(0, root);
+         newRoot.children.set(1, sibling);
+         newRoot.n = 1;
+         newRoot.size = sizeOf(root) + sizeOf(sibling);
+         root = newRoot;
+      }
+   }
+
+/*
+ * Implementation notes: remove
+ * ----------------------------
+ * The remove method calls the recursive delete method, which removes the
+ * entry from its leaf and repairs any node that falls below half full on
+ * the way back up.  If the root is left with a single child, that child
+ * becomes the new root.
+ */
+
+   public void remove(K key) {
+      if (delete(root, key) && !root.leaf && root.n == 0) {
+         root = root.children.get(0);
+      }
+   }
+
+/*
+ * Implementation notes: forEach
+ * -----------------------------
+ * This method calls fn on every key-value pair in key order by following
+ * the links between the leaves.
+ */
+
+   public void forEach(BiConsumer<? super K,? super V> fn) {
+      int expectedModCount = modCount;
+      for (Node leaf = firstLeaf(); leaf != null; leaf = leaf.next) {
+         for (int i = 0; i < leaf.n; i++) {
+            fn.accept(leaf.keys.get(i), leaf.values.get(i));
+         }
+      }
+      if (modCount != expectedModCount) {
+         throw new ConcurrentModificationException();
+      }
+   }
+
+/*
+ * Implementation notes: keyIterator, entryIterator
+ * ------------------------------------------------
+ * These methods return iterators that walk along the linked leaves, as
+ * described in the notes for LeafIterator.  AbstractSortedMap uses them
+ * to implement the unbounded iterators, keySet, and subMap.
+ */
+
+   protected Iterator<K> keyIterator(K lo, K hi) {
+      return new LeafIterator<K>(lo, hi) {
+         public K next() {
+            advance();
+            return lastLeaf.keys.get(lastIndex);
+         }
+      };
+   }
+
+   protected Iterator<KeyValuePair<K,V>> entryIterator(K lo, K hi) {
+      return new LeafIterator<KeyValuePair<K,V>>(lo, hi) {
+         public KeyValuePair<K,V> next() {
+            advance();
+            return new KeyValuePair<K,V>(lastLeaf.keys.get(lastIndex),
+                                         lastLeaf.values.get(lastIndex));
+         }
+      };
+   }
+
+/*
+ * Implementation notes: floorKey, ceilingKey, lowerKey, higherKey
+ * ---------------------------------------------------------------
+ * Each of these methods descends to the leaf that would contain the key.
+ * If the answer is not in that leaf, the ceilingKey and higherKey methods
+ * find it at the start of the next leaf.  Leaves are not linked backward,
+ * so floorKey and lowerKey instead remember the subtree just to the left
+ * of the path and, if necessary, return the largest key in it.
+ */
+
+   public K floorKey(K key) {
+      return findBefore(key, true);
+   }
+
+   public K ceilingKey(K key) {
+      Node leaf = findLeaf(key);
+      return keyAt(leaf, leaf.lowerBound(key));
+   }
+
+   public K lowerKey(K key) {
+      return findBefore(key, false);
+   }
+
+   public K higherKey(K key) {
+      Node leaf = findLeaf(key);
+      return keyAt(leaf, leaf.upperBound(key));
+   }
+
+/*
+ * Implementation notes: rank, select
+ * ----------------------------------
+ * Each interior node records the number of keys in its subtree.  The
+ * rank method adds up the sizes of the subtrees to the left of the path
+ * to the key, and select runs the same computation in reverse to decide
+ * which child to visit.
+ */
+
+   public int rank(K key) {
+      int r = 0;
+      Node t = root;
+      while (!t.leaf) {
+         int i = t.upperBound(key);
+         for (int j = 0; j < i; j++) {
+            r += sizeOf(t.children.get(j));
+         }
+         t = t.children.get(i);
+      }
+      return r + t.lowerBound(key);
+   }
+
+   public K select(int k) {
+      if (k < 0 || k >= count) {
+         throw new IndexOutOfBoundsException("Index " + k + " out of bounds");
+      }
+      Node t = root;
+      while (!t.leaf) {
+         int j = 0;
+         while (k >= sizeOf(t.children.get(j))) {
+            k -= sizeOf(t.children.get(j));
+            j++;
+         }
+         t = t.children.get(j);
+      }
+      return t.keys.get(k);
+   }
+
+/*
+ * Implementation notes: fromSorted
+ * --------------------------------
+ * These factory methods build a map from keys that are already sorted,
+ * in the same way as the methods of the same name in TreeMap.  The keys
+ * are divided as evenly as possible among the smallest number of leaves
+ * that can hold them, and each level of interior nodes is then built in
+ * the same way from the level below it.  Dividing the entries evenly
+ * guarantees that every node is at least half full.
+ */
+
+/**
+ * Creates a BTreeMap containing the key-value pairs produced by the
+ * iterator, which must deliver the keys in strictly ascending order.
+ * This method throws an IllegalArgumentException if the keys are out of
+ * order or contain duplicates.
+ *
+ * @param entries An iterator over the key-value pairs in key order
+ * @return A new map containing the key-value pairs
+ */
+
+   public static <K extends Comparable<? super K>,V> BTreeMap<K,V>
+                 fromSorted(Iterator<KeyValuePair<K,V>> entries) {
+      ArrayList<K> keys = new ArrayList<K>();
+      ArrayList<V> values = new ArrayList<V>();
+      while (entries.hasNext()) {
+         KeyValuePair<K,V> entry = entries.next();
+         addSortedKey(keys, entry.getKey());
+         values.add(entry.getValue());
+      }
+      BTreeMap<K,V> map = new BTreeMap<K,V>();
+      map.buildTree(keys, values, null);
+      return map;
+   }
+
+/**
+ * Creates a BTreeMap in which each of the keys produced by the iterator
+ * is associated with the same value.  The keys must appear in strictly
+ * ascending order.
+ *
+ * @param keys An iterator over the keys in ascending order
+ * @param value The value associated with every key
+ * @return A new map containing the keys
+ */
+
+   public static <K extends Comparable<? super K>,V>
+                 BTreeMap<K,V> fromSorted(Iterator<K> keys, V value) {
+      BTreeMap<K,V> map = new BTreeMap<K,V>();
+      map.loadSorted(keys, value);
+      return map;
+   }
+
+/**
+ * Replaces the contents of this map with the keys produced by the
+ * iterator, each associated with the same value.  The tree is built in
+ * linear time, as described in the notes for fromSorted, and keeps the
+ * order of this map.
+ *
+ * @param keys An iterator over the keys in ascending order
+ * @param value The value associated with every key
+ */
+
+   public void loadSorted(Iterator<K> keys, V value) {
+      buildTree(sortedList(keys), null, value);
+   }
+
+/*
+ * Replaces the contents of this map with a tree built bottom-up from the
+ * sorted keys.  If values is null, every entry gets the specified value.
+ * The list of first keys holds the smallest key in each subtree of the
+ * current level, which becomes its separator in the level above.
+ */
+
+   private void buildTree(ArrayList<K> keys, ArrayList<V> values, V value) {
+      clear();
+      int n = keys.size();
+      if (n == 0) return;
+      int nLeaves = (n + order - 1) / order;
+      ArrayList<Node> level = new ArrayList<Node>(nLeaves);
+      ArrayList<K> firstKeys = new ArrayList<K>(nLeaves);
+      Node prev = null;
+      int start = 0;
+      for (int j = 0; j < nLeaves; j++) {
+         int end = (int) ((long) n * (j + 1) / nLeaves);
+         Node leaf = new Node(true);
+         for (int k = start; k < end; k++) {
+            leaf.keys.set(k - start, keys.get(k));
+            leaf.values.set(k - start, (values == null) ? value
+                                                         : values.get(k));
+         }
+         leaf.n = end - start;
+         if (prev != null) prev.next = leaf;
+         prev = leaf;
+         level.add(leaf);
+         firstKeys.add(keys.get(start));
+         start = end;
+      }
+      while (level.size() > 1) {
+         int nChildren = level.size();
+         int nParents = (nChildren + order) / (order + 1);
+         ArrayList<Node> parents = new ArrayList<Node>(nParents);
+         ArrayList<K> parentKeys = new ArrayList<K>(nParents);
+         start = 0;
+         for (int j = 0; j < nParents; j++) {
+            int end = (int) ((long) nChildren * (j + 1) / nParents);
+            Node parent = new Node(false);
+            for (int k = start; k < end; k++) {
+               if (k > start) parent.keys.set(k - start - 1, firstKeys.get(k));
+               parent.children.set(k - start, level.get(k));
+               parent.size += sizeOf(level.get(k));
+            }
+            parent.n = end - start - 1;
+            parents.add(parent);
+            parentKeys.add(firstKeys.get(start));
+            start = end;
+         }
+         level = parents;
+         firstKeys = parentKeys;
+      }
+      root = level.get(0);
+      count = n;
+   }
+
+/*
+ * Implementation notes: insert
+ * ----------------------------
+ * This method inserts the entry into the subtree rooted at t.  If t
+ * overflows as a result, insert splits it in two, stores the smallest key
+ * of the new right half in splitKey, and returns the right half so that
+ * the caller can add it to the parent.  Otherwise, insert returns null.
+ * The count variable tells the interior nodes whether a new key was added
+ * below them, in which case their sizes must be incremented.
+ */
+
+   private Node insert(Node t, K key, V value) {
+      if (t.leaf) {
+         int i = t.lowerBound(key);
+         if (i < t.n && t.keys.get(i).compareTo(key) == 0) {
+            t.values.set(i, value);
+            return null;
+         }
+         t.keys.shift(i, t.n, 1);
+         t.values.shift(i, t.n, 1);
+         t.keys.set(i, key);
+         t.values.set(i, value);
+         t.n++;
+         count++;
+         modCount++;
+      } else {
+         int i = t.upperBound(key);
+         int oldCount = count;
+         Node sibling = insert(t.children.get(i), key, value);
+         if (count == oldCount) return null;
+         t.size++;
+         if (sibling != null) {
+            t.keys.shift(i, t.n, 1);
+            t.children.shift(i + 1, t.n + 1, 1);
+            t.keys.set(i, splitKey);
+            t.children.set(i + 1, sibling);
+            t.n++;
+         }
+      }
+      return (t.n > order) ? split(t) : null;
+   }
+
+/*
+ * Splits the overflowing node t into two nodes and returns the new right
+ * half, after storing the key that separates the halves in splitKey.  In
+ * a leaf, the separator is copied from the first key of the right half,
+ * which keeps every entry in the leaves.  In an interior node, the middle
+ * key moves up to the parent and appears in neither half.
+ */
+
+   private Node split(Node t) {
+      Node right = new Node(t.leaf);
+      if (t.leaf) {
+         int mid = (t.n + 1) / 2;
+         right.n = t.n - mid;
+         t.keys.copyRange(mid, right.keys, 0, right.n);
+         t.values.copyRange(mid, right.values, 0, right.n);
+         t.keys.clear(mid, t.n);
+         t.values.clear(mid, t.n);
+         t.n = mid;
+         right.next = t.next;
+         t.next = right;
+         splitKey = right.keys.get(0);
+      } else {
+         int mid = t.n / 2;
+         splitKey = t.keys.get(mid);
+         right.n = t.n - mid - 1;
+         t.keys.copyRange(mid + 1, right.keys, 0, right.n);
+         t.children.copyRange(mid + 1, right.children, 0, right.n + 1);
+         t.keys.clear(mid, t.n);
+         t.children.clear(mid + 1, t.n + 1);
+         t.n = mid;
+         for (int i = 0; i <= right.n; i++) {
+            right.size += sizeOf(right.children.get(i));
+         }
+         t.size -= right.size;
+      }
+      return right;
+   }
+
+/*
+ * Implementation notes: delete
+ * ----------------------------
+ * This method removes key from the subtree rooted at t and returns true
+ * if the key was found.  On the way back up, any child that has fallen
+ * below the minimum number of keys is repaired by fixUnderflow.  The
+ * separators in the interior nodes are left alone even if the key they
+ * were copied from is deleted, because they still divide the keys in the
+ * subtrees correctly.
+ */
+
+   private boolean delete(Node t, K key) {
+      if (t.leaf) {
+         int i = t.find(key);
+         if (i < 0) return false;
+         t.keys.shift(i + 1, t.n, -1);
+         t.values.shift(i + 1, t.n, -1);
+         t.n--;
+         t.keys.clear(t.n, t.n + 1);
+         t.values.clear(t.n, t.n + 1);
+         count--;
+         modCount++;
+         return true;
+      }
+      int i = t.upperBound(key);
+      Node child = t.children.get(i);
+      if (!delete(child, key)) return false;
+      t.size--;
+      if (child.n < minKeys) fixUnderflow(t, i);
+      return true;
+   }
+
+/*
+ * Restores the minimum number of keys in the child at index i of parent.
+ * If an adjacent sibling has a key to spare, one key moves across from
+ * it.  Otherwise, the child is merged with a sibling, which is possible
+ * because the sibling is no more than half full.
+ */
+
+   private void fixUnderflow(Node parent, int i) {
+      Node child = parent.children.get(i);
+      Node left = (i > 0) ? parent.children.get(i - 1) : null;
+      Node right = (i < parent.n) ? parent.children.get(i + 1) : null;
+      if (left != null && left.n > minKeys) {
+         borrowFromLeft(parent, i, left, child);
+      } else if (right != null && right.n > minKeys) {
+         borrowFromRight(parent, i, child, right);
+      } else if (left != null) {
+         merge(parent, i - 1, left, child);
+      } else {
+         merge(parent, i, child, right);
+      }
+   }
+
+/*
+ * Moves the last entry of left to the front of child, which is the child
+ * at index i of parent, and updates the separator between them.
+ */
+
+   private void borrowFromLeft(Node parent, int i, Node left, Node child) {
+      child.keys.shift(0, child.n, 1);
+      if (child.leaf) {
+         child.values.shift(0, child.n, 1);
+         child.keys.set(0, left.keys.get(left.n - 1));
+         child.values.set(0, left.values.get(left.n - 1));
+         left.values.set(left.n - 1, null);
+         parent.keys.set(i - 1, child.keys.get(0));
+      } else {
+         child.children.shift(0, child.n + 1, 1);
+         Node moved = left.children.get(left.n);
+         child.keys.set(0, parent.keys.get(i - 1));
+         child.children.set(0, moved);
+         parent.keys.set(i - 1, left.keys.get(left.n - 1));
+         left.children.set(left.n, null);
+         left.size -= sizeOf(moved);
+         child.size += sizeOf(moved);
+      }
+      left.keys.set(left.n - 1, null);
+      left.n--;
+      child.n++;
+   }
+
+/*
+ * Moves the first entry of right to the end of child, which is the child
+ * at index i of parent, and updates the separator between them.
+ */
+
+   private void borrowFromRight(Node parent, int i, Node child, Node right) {
+      if (child.leaf) {
+         child.keys.set(child.n, right.keys.get(0));
+         child.values.set(child.n, right.values.get(0));
+         right.values.shift(1, right.n, -1);
+         right.values.set(right.n - 1, null);
+         right.keys.shift(1, right.n, -1);
+         parent.keys.set(i, right.keys.get(0));
+      } else {
+         Node moved = right.children.get(0);
+         child.keys.set(child.n, parent.keys.get(i));
+         child.children.set(child.n + 1, moved);
+         parent.keys.set(i, right.keys.get(0));
+         right.keys.shift(1, right.n, -1);
+         right.children.shift(1, right.n + 1, -1);
+         right.children.set(right.n, null);
+         right.size -= sizeOf(moved);
+         child.size += sizeOf(moved);
+      }
+      right.keys.set(right.n - 1, null);
+      right.n--;
+      child.n++;
+   }
+
+/*
+ * Merges right, which is the child at index i + 1 of parent, into left,
+ * which is the child at index i, and removes right from the parent.  When
+ * interior nodes merge, the separator from the parent moves down between
+ * the keys of the two halves.
+ */
+
+   private void merge(Node parent, int i, Node left, Node right) {
+      if (left.leaf) {
+         right.keys.copyRange(0, left.keys, left.n, right.n);
+         right.values.copyRange(0, left.values, left.n, right.n);
+         left.n += right.n;
+         left.next = right.next;
+      } else {
+         left.keys.set(left.n, parent.keys.get(i));
+         right.keys.copyRange(0, left.keys, left.n + 1, right.n);
+         right.children.copyRange(0, left.children, left.n + 1, right.n + 1);
+         left.n += right.n + 1;
+         left.size += right.size;
+      }
+      parent.keys.shift(i + 1, parent.n, -1);
+      parent.children.shift(i + 2, parent.n + 1, -1);
+      parent.keys.set(parent.n - 1, null);
+      parent.children.set(parent.n, null);
+      parent.n--;
+   }
+
+/*
+ * Returns the leaf that contains key, if key is present in the map.
+ */
+
+   private Node findLeaf(K key) {
+      Node t = root;
+      while (!t.leaf) {
+         t = t.children.get(t.upperBound(key));
+      }
+      return t;
+   }
+
+/*
+ * Returns the leftmost leaf in the tree.
+ */
+
+   private Node firstLeaf() {
+      Node t = root;
+      while (!t.leaf) {
+         t = t.children.get(0);
+      }
+      return t;
+   }
+
+/*
+ * Returns the key at index i of leaf or, if i is past the last key, the
+ * first key in the next leaf.  Every leaf other than the root holds at
+ * least one key, so there is no need to look further.
+ */
+
+   private K keyAt(Node leaf, int i) {
+      if (i < leaf.n) return leaf.keys.get(i);
+      return (leaf.next == null) ? null : leaf.next.keys.get(0);
+   }
+
+/*
+ * Returns the largest key less than key or, if inclusive is true, less
+ * than or equal to key.  The variable left holds the nearest subtree to
+ * the left of the search path, all of whose keys are less than key.
+ */
+
+   private K findBefore(K key, boolean inclusive) {
+      Node t = root;
+      Node left = null;
+      while (!t.leaf) {
+         int i = t.upperBound(key);
+         if (i > 0) left = t.children.get(i - 1);
+         t = t.children.get(i);
+      }
+      int i = (inclusive ? t.upperBound(key) : t.lowerBound(key)) - 1;
+      if (i >= 0) return t.keys.get(i);
+      if (left == null) return null;
+      while (!left.leaf) {
+         left = left.children.get(left.n);
+      }
+      return left.keys.get(left.n - 1);
+   }
+
+/*
+ * Returns the number of keys in the subtree rooted at t.  Leaves do not
+ * store a separate size, because it is always equal to n.
+ */
+
+   private int sizeOf(Node t) {
+      return t.leaf ? t.n : t.size;
+   }
+
+/*
+ * Implementation notes: LeafIterator
+ * ----------------------------------
+ * This class is the common superclass for the iterators returned by
+ * keyIterator and entryIterator.  The cursor is a leaf and an index in
+ * it, and advancing past the end of a leaf follows the link to the next
+ * one.  The constructor positions the cursor at the first key that is at
+ * least lo, and hasNext reports false once the next key reaches hi.
+ *
+ * Removing an entry can split or merge leaves, which invalidates the
+ * cursor.  The remove method therefore searches again from the root for
+ * the first key greater than the one just removed.  Any other change to
+ * the map makes the iterator throw an exception.
+ */
+
+   private abstract class LeafIterator<E> implements Iterator<E> {
+
+   /* Creates an iterator positioned at the smallest key in the range */
+
+      public LeafIterator(K lo, K hi) {
+         this.hi = hi;
+         expectedModCount = modCount;
+         if (lo == null) {
+            leaf = firstLeaf();
+            index = 0;
+            skipEmptyLeaf();
+         } else {
+            seek(lo, true);
+         }
+         lastLeaf = null;
+      }
+
+   /* Returns true if there are more entries to visit */
+
+      public boolean hasNext() {
+         if (leaf == null) return false;
+         return hi == null || leaf.keys.get(index).compareTo(hi) < 0;
+      }
+
+   /* Removes the key most recently returned by the iterator */
+
+      public void remove() {
+         if (lastLeaf == null) throw new IllegalStateException("No element");
+         checkForComodification();
+         K key = lastLeaf.keys.get(lastIndex);
+         BTreeMap.this.remove(key);
+         lastLeaf = null;
+         expectedModCount = modCount;
+         seek(key, false);
+      }
+
+   /*
+    * Records the position of the next entry in lastLeaf and lastIndex and
+    * moves the cursor past it.
+    */
+
+      protected void advance() {
+         checkForComodification();
+         if (!hasNext()) {
+            throw new NoSuchElementException("No next element");
+         }
+         lastLeaf = leaf;
+         lastIndex = index++;
+         skipEmptyLeaf();
+      }
+
+   /*
+    * Positions the cursor at the first key greater than key or, if
+    * inclusive is true, greater than or equal to key.
+    */
+
+      private void seek(K key, boolean inclusive) {
+         leaf = findLeaf(key);
+         index = inclusive ? leaf.lowerBound(key) : leaf.upperBound(key);
+         skipEmptyLeaf();
+      }
+
+   /* Moves to the next leaf if the cursor is past the end of this one */
+
+      private void skipEmptyLeaf() {
+         while (leaf != null && index >= leaf.n) {
+            leaf = leaf.next;
+            index = 0;
+         }
+      }
+
+   /* Throws an exception if the map has been changed by another path */
+
+      private void checkForComodification() {
+         if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+         }
+      }
+
+   /* Private instance variables */
+
+      protected Node lastLeaf;      /* Leaf holding the last entry returned */
+      protected int lastIndex;      /* Index of that entry within lastLeaf  */
+      private Node leaf;            /* Leaf holding the next entry, or null */
+      private int index;            /* Index of the next entry within leaf  */
+      private K hi;                 /* Exclusive upper bound, or null       */
+      private int expectedModCount; /* Value of modCount at last sync       */
+
+   }
+
+/*
+ * Inner class: Node
+ * -----------------
+ * This class represents both the leaves and the interior nodes of the
+ * tree.  A node with n keys stores them in the first n elements of the
+ * keys array.  A leaf stores the corresponding values in the values array
+ * and a link to the next leaf.  An interior node stores n + 1 children,
+ * where every key in children[i] is at least keys[i - 1] and less than
+ * keys[i], together with the total number of keys below it.  Each array
+ * has room for one extra element, so that a node can overflow briefly
+ * before it is split.
+ */
+
+   private class Node {
+
+      Node(boolean leaf) {
+         this.leaf = leaf;
+         keys = new GenericArray<K>(order + 1);
+         if (leaf) {
+            values = new GenericArray<V>(order + 1);
+         } else {
+            children = new GenericArray<Node>(order + 2);
+         }
+         n = 0;
+         size = 0;
+         next = null;
+      }
+
+   /* Returns the index of key in this node, or -1 if it is absent */
+
+      int find(K key) {
+         int lh = 0;
+         int rh = n - 1;
+         while (lh <= rh) {
+            int mid = (lh + rh) >>> 1;
+            int cmp = key.compareTo(keys.get(mid));
+            if (cmp < 0) {
+               rh = mid - 1;
+            } else if (cmp > 0) {
+               lh = mid + 1;
+            } else {
+               return mid;
+            }
+         }
+         return -1;
+      }
+
+   /* Returns the index of the first key greater than or equal to key */
+
+      int lowerBound(K key) {
+         int lh = 0;
+         int rh = n;
+         while (lh < rh) {
+            int mid = (lh + rh) >>> 1;
+            if (keys.get(mid).compareTo(key) < 0) {
+               lh = mid + 1;
+            } else {
+               rh = mid;
+            }
+         }
+         return lh;
+      }
+
+   /* Returns the index of the first key strictly greater than key */
+
+      int upperBound(K key) {
+         int lh = 0;
+         int rh = n;
+         while (lh < rh) {
+            int mid = (lh + rh) >>> 1;
+            if (keys.get(mid).compareTo(key) <= 0) {
+               lh = mid + 1;
+            } else {
+               rh = mid;
+            }
+         }
+         return lh;
+      }
+
+      final boolean leaf;
+      int n;                          /* Number of keys in the node       */
+      int size;                       /* Keys in subtree (interior only)  */
+      GenericArray<K> keys;
+      GenericArray<V> values;         /* Leaves only                      */
+      GenericArray<Node> children;    /* Interior nodes only              */
+      Node next;                      /* Next leaf in key order, or null  */
+
+   }
+
+/* Constants */
+
+   private static final int DEFAULT_ORDER = 64;
+   private static final int MIN_ORDER = 3;
+
+/*
+ * Private instance variables
+ * --------------------------
+ * The splitKey variable carries the separator produced by a split back to
+ * the caller of insert, since Java methods cannot return two values.
+ */
+
+   private Node root;
+   private int order;
+   private int minKeys;
+   private int count;
+   private int modCount;       /* Incremented on each structural change */
+   private K splitKey;
+
+}
@@ -0,0 +1,23 @@
+/*
+ * File: BTreeMapTest.java
+ * -----------------------
+ * This program implements an interactive test of the BTreeMap class.
+ */
+
+package edu.stanford.cs.javacs2.ch15;
+
+import edu.stanford.cs.javacs2.ch14.Map;
+import edu.stanford.cs.javacs2.ch14.MapTest;
+
+public class BTreeMapTest extends MapTest {
+
+   @Override
+   public Map<String,String> createMap() {
+      return new BTreeMap<String,String>();
+   }
+
+   public static void main(String[] args) {
+      new BTreeMapTest().run();
+   }
+
+}
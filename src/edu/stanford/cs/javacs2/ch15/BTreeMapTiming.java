@@ -0,0 +1,144 @@
+/*
+ * File: BTreeMapTiming.java
+ * -------------------------
+ * This program compares the BTreeMap and TreeMap classes on three kinds
+ * of workload: inserting keys in ascending order, inserting and looking
+ * up keys in random order, and scanning short ranges of keys.  By
+ * default, the program uses 10^6 keys; a different number may be
+ * supplied as a command-line argument.
+ */
+
+package edu.stanford.cs.javacs2.ch15;
+
+import java.util.Iterator;
+import java.util.Random;
+
+public class BTreeMapTiming {
+
+   public void run(int n) {
+      Integer[] sorted = createKeys(n);
+      Integer[] shuffled = createKeys(n);
+      shuffle(shuffled);
+      timeMaps(sorted, shuffled, false);
+      System.out.printf("%-10s %12s %12s %12s %12s%n", "Map", "seq put",
+                        "random put", "random get", "range scan");
+      timeMaps(sorted, shuffled, true);
+   }
+
+/*
+ * Times each map in turn.  The first call passes false for show so that
+ * the classes are compiled by the JIT before any results are displayed.
+ */
+
+   private void timeMaps(Integer[] sorted, Integer[] shuffled,
+                         boolean show) {
+      double[] tree = timeMap(new TreeMap<Integer,Integer>(),
+                              new TreeMap<Integer,Integer>(),
+                              sorted, shuffled);
+      double[] btree = timeMap(new BTreeMap<Integer,Integer>(),
+                               new BTreeMap<Integer,Integer>(),
+                               sorted, shuffled);
+      if (show) {
+         report("TreeMap", tree);
+         report("BTreeMap", btree);
+      }
+   }
+
+/*
+ * Runs the workloads on two empty maps of the same class and returns the
+ * average time in nanoseconds for a put, a get, and a range scan of
+ * RANGE_LENGTH keys.
+ */
+
+   private double[] timeMap(SortedMap<Integer,Integer> seqMap,
+                            SortedMap<Integer,Integer> map,
+                            Integer[] sorted, Integer[] shuffled) {
+      int n = sorted.length;
+      double[] times = new double[4];
+      long start = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+         seqMap.put(sorted[i], i);
+      }
+      times[0] = (double) (System.nanoTime() - start) / n;
+      start = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+         map.put(shuffled[i], i);
+      }
+      times[1] = (double) (System.nanoTime() - start) / n;
+      long check = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+         check += map.get(shuffled[i]);
+      }
+      times[2] = (double) (System.nanoTime() - start) / n;
+      if (check != (long) n * (n - 1) / 2) {
+         throw new RuntimeException("Map returned incorrect values");
+      }
+      int nScans = Math.max(1, n / RANGE_LENGTH);
+      long total = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < nScans; i++) {
+         int lo = shuffled[i];
+         SortedMap<Integer,Integer> range = map.subMap(lo, lo + RANGE_LENGTH);
+         Iterator<Integer> it = range.keyIterator();
+         while (it.hasNext()) {
+            total += it.next();
+         }
+      }
+      times[3] = (double) (System.nanoTime() - start) / nScans;
+      if (total == 0 && n > 1) {
+         throw new RuntimeException("Range scans found no keys");
+      }
+      return times;
+   }
+
+/*
+ * Displays one line of the results table.
+ */
+
+   private void report(String name, double[] times) {
+      System.out.printf("%-10s %12.1f %12.1f %12.1f %12.1f%n", name,
+                        times[0], times[1], times[2], times[3]);
+   }
+
+/*
+ * Creates an array containing the integers from 0 to n - 1 in order.
+ */
+
+   private Integer[] createKeys(int n) {
+      Integer[] keys = new Integer[n];
+      for (int i = 0; i < n; i++) {
+         keys[i] = i;
+      }
+      return keys;
+   }
+
+/*
+ * Rearranges the elements of the array in random order.
+ */
+
+   private void shuffle(Integer[] array) {
+      Random rgen = new Random(SEED);
+      for (int i = array.length - 1; i > 0; i--) {
+         int j = rgen.nextInt(i + 1);
+         Integer tmp = array[i];
+         array[i] = array[j];
+         array[j] = tmp;
+      }
+   }
+
+/* Constants */
+
+   private static final int DEFAULT_KEYS = 1000000;
+   private static final int RANGE_LENGTH = 100;
+   private static final long SEED = 42;
+
+/* Main program */
+
+   public static void main(String[] args) {
+      int n = DEFAULT_KEYS;
+      if (args.length > 0) n = Integer.parseInt(args[0]);
+      new BTreeMapTiming().run(n);
+   }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * File: DoubleIntPriorityQueue.java
+ * ---------------------------------
+ * This file implements a priority queue in which each element consists
+ * of a double priority and an int payload.  The priorities and payloads
+ * are stored in two parallel primitive arrays, so that the heap can be
+ * maintained without allocating objects or calling compareTo.
+ */
+
+package edu.stanford.cs.javacs2.ch15;
+
+import java.util.NoSuchElementException;
+
+/*
+ * This class implements a queue of int payloads that are removed in
+ * increasing order of their priorities.  A typical payload is the index
+ * of a node in a graph or of a task in a table.  Payloads with equal
+ * priorities are removed in an unspecified order.
+ */
+
+public class DoubleIntPriorityQueue {
+
+/**
+ * Creates an empty priority queue.
+ */
+
+   public DoubleIntPriorityQueue() {
+      capacity = INITIAL_CAPACITY;
+      priorities = new double[capacity];
+      payloads = new int[capacity];
+      count = 0;
+   }
+
+/**
+ * Returns the number of elements in this queue.
+ */
+
+   public int size() {
+      return count;
+   }
+
+/**
+ * Returns true if this queue contains no elements.
+ */
+
+   public boolean isEmpty() {
+      return count == 0;
+   }
+
+/**
+ * Removes all elements from this queue.
+ */
+
+   public void clear() {
+      count = 0;
+   }
+
+/**
+ * Adds the payload to this queue with the specified priority.
+ */
+
+   public void add(double priority, int payload) {
+      if (count == capacity) expandCapacity(count + 1);
+      siftUp(count++, priority, payload);
+   }
+
+/**
+ * Adds the elements whose priorities and payloads appear at the same
+ * index in the two arrays.  As in IntPriorityQueue, the heap is rebuilt
+ * from the bottom up if the new elements outnumber the existing ones.
+ */
+
+   public void addAll(double[] newPriorities, int[] newPayloads) {
+      int n = newPriorities.length;
+      if (newPayloads.length != n) {
+         throw new IllegalArgumentException("Array lengths differ");
+      }
+      int oldCount = count;
+      if (count + n > capacity) expandCapacity(count + n);
+      if (n >= oldCount) {
+         System.arraycopy(newPriorities, 0, priorities, count, n);
+         System.arraycopy(newPayloads, 0, payloads, count, n);
+         count += n;
+         for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(i, priorities[i], payloads[i]);
+         }
+      } else {
+         for (int i = 0; i < n; i++) {
+            siftUp(count++, newPriorities[i], newPayloads[i]);
+         }
+      }
+   }
+
+/**
+ * Removes the element with the smallest priority and returns its payload.
+ * This method throws a NoSuchElementException if called on an empty queue.
+ */
+
+   public int remove() {
+      if (count == 0) throw new NoSuchElementException("Queue is empty");
+      int payload = payloads[0];
+      count--;
+      if (count > 0) siftDown(0, priorities[count], payloads[count]);
+      return payload;
+   }
+
+/**
+ * Returns the payload of the element with the smallest priority without
+ * removing it.  This method throws a NoSuchElementException if called on
+ * an empty queue.
+ */
+
+   public int peek() {
+      if (count == 0) throw new NoSuchElementException("Queue is empty");
+      return payloads[0];
+   }
+
+/**
+ * Returns the smallest priority in this queue.  This method throws a
+ * NoSuchElementException if called on an empty queue.
+ */
+
+   public double peekPriority() {
+      if (count == 0) throw new NoSuchElementException("Queue is empty");
+      return priorities[0];
+   }
+
+/*
+ * Implementation notes: siftUp, siftDown
+ * --------------------------------------
+ * These methods place the element with the specified priority and payload
+ * into the hole at index, moving it up or down the tree.  The entries it
+ * passes are shifted into the hole, and the element itself is stored once
+ * at its final position.  All comparisons use the primitive < operator on
+ * values in the priorities array.
+ */
+
+   private void siftUp(int index, double priority, int payload) {
+      while (index > 0) {
+         int parent = (index - 1) / 2;
+         if (priorities[parent] <= priority) break;
+         priorities[index] = priorities[parent];
+         payloads[index] = payloads[parent];
+         index = parent;
+      }
+      priorities[index] = priority;
+      payloads[index] = payload;
+   }
+
+   private void siftDown(int index, double priority, int payload) {
+      while (true) {
+         int child = 2 * index + 1;
+         if (child >= count) break;
+         if (child + 1 < count && priorities[child + 1] < priorities[child]) {
+            child++;
+         }
+         if (priority <= priorities[child]) break;
+         priorities[index] = priorities[child];
+         payloads[index] = payloads[child];
+         index = child;
+      }
+      priorities[index] = priority;
+      payloads[index] = payload;
+   }
+
+/*
+ * Implementation notes: expandCapacity
+ * ------------------------------------
+ * The expandCapacity method doubles the size of both arrays until they
+ * can hold at least minCapacity elements.
+ */
+
+   private void expandCapacity(int minCapacity) {
+      while (capacity < minCapacity) {
+         capacity *= 2;
+      }
+      double[] newPriorities = new double[capacity];
+      System.arraycopy(priorities, 0, newPriorities, 0, count);
+      priorities = newPriorities;
+      int[] newPayloads = new int[capacity];
+      System.arraycopy(payloads, 0, newPayloads, 0, count);
+      payloads = newPayloads;
+   }
+
+/* Constants */
+
+   private static final int INITIAL_CAPACITY = 10;
+
+/* Private instance variables */
+
+   private double[] priorities;
+   private int[] payloads;
+   private int capacity;
+   private int count;
+
+}
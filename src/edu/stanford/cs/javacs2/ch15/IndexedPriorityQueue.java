@@ -0,0 +1,355 @@
+/*
+ * File: IndexedPriorityQueue.java
+ * -------------------------------
+ * This file implements a priority queue that allows clients to change
+ * the priority of an element or remove it after it has been added.  The
+ * queue is a d-ary heap in which each element keeps track of its own
+ * position, which makes it possible to find that element in constant
+ * time instead of searching the heap.
+ */
+
+package edu.stanford.cs.javacs2.ch15;
+
+import edu.stanford.cs.javacs2.ch13.ArrayList;
+import edu.stanford.cs.javacs2.ch13.Collection;
+import edu.stanford.cs.javacs2.ch13.GenericArray;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a queue whose elements are removed in priority
+ * order, with lower values removed first.  The add method returns a
+ * Handle, which the client can later pass to decreaseKey, increaseKey, or
+ * remove.  All three operations run in log N time.
+ */
+
+public class IndexedPriorityQueue<T extends Comparable<? super T>> {
+
+/**
+ * This class represents an element of an IndexedPriorityQueue.  Clients
+ * cannot create handles; they obtain them from add or heapify.
+ */
+
+   public static final class Handle<T> {
+
+      private Handle(T value) {
+         this.value = value;
+         this.index = -1;
+      }
+
+/**
+ * Returns the value associated with this handle.
+ *
+ * @return The value of this element
+ */
+
+      public T getValue() {
+         return value;
+      }
+
+/**
+ * Returns true if this element is still in its queue.  An element leaves
+ * the queue when it is removed or when the queue is cleared.
+ *
+ * @return true if the element is in the queue
+ */
+
+      public boolean isQueued() {
+         return index >= 0;
+      }
+
+      private T value;             /* The value of this element         */
+      private int index;           /* Position in the heap, or -1       */
+
+   }
+
+/**
+ * Creates an empty priority queue that uses a 4-ary heap.
+ */
+
+   public IndexedPriorityQueue() {
+      this(DEFAULT_ARITY);
+   }
+
+/**
+ * Creates an empty priority queue that uses a heap in which each node
+ * has the specified number of children.
+ *
+ * @param arity The number of children of each node, which must be at
+ *              least 2
+ */
+
+   public IndexedPriorityQueue(int arity) {
+      if (arity < 2) throw new IllegalArgumentException("Illegal arity");
+      this.arity = arity;
+      capacity = INITIAL_CAPACITY;
+      heap = new GenericArray<Handle<T>>(capacity);
+      count = 0;
+   }
+
+/**
+ * Returns the number of values in this queue.
+ */
+
+   public int size() {
+      return count;
+   }
+
+/**
+ * Returns true if this queue contains no elements.
+ */
+
+   public boolean isEmpty() {
+      return count == 0;
+   }
+
+/**
+ * Removes all elements from this queue.
+ */
+
+   public void clear() {
+      for (int i = 0; i < count; i++) {
+         heap.get(i).index = -1;
+      }
+      heap.clear(0, count);
+      count = 0;
+   }
+
+/**
+ * Adds the specified value to this queue and returns its handle.
+ *
+ * @param value The value to add
+ * @return The handle for the new element
+ */
+
+   public Handle<T> add(T value) {
+      if (count == capacity) ensureCapacity(count + 1);
+      Handle<T> h = new Handle<T>(value);
+      heap.set(count, h);
+      h.index = count;
+      siftUp(count++);
+      return h;
+   }
+
+/**
+ * Removes the first element from this queue and returns it.  This method
+ * throws a NoSuchElementException if called on an empty queue.
+ */
+
+   public T remove() {
+      if (count == 0) throw new NoSuchElementException("Queue is empty");
+      Handle<T> h = heap.get(0);
+      removeAt(0);
+      return h.value;
+   }
+
+/**
+ * Returns the value of the first element in this queue without removing it.
+ * This method throws a NoSuchElementException if called on an empty queue.
+ */
+
+   public T peek() {
+      if (count == 0) throw new NoSuchElementException("Queue is empty");
+      return heap.get(0).value;
+   }
+
+/**
+ * Returns true if the element with handle h is in this queue.
+ *
+ * @param h The handle of the element
+ * @return true if the element is in this queue
+ */
+
+   public boolean contains(Handle<T> h) {
+      return h.index >= 0 && h.index < count && heap.get(h.index) == h;
+   }
+
+/**
+ * Replaces the value of the element with handle h by a value that is no
+ * larger, moving the element toward the front of the queue.  This method
+ * throws an IllegalArgumentException if the new value is larger or if
+ * the element is not in the queue.
+ *
+ * @param h The handle of the element
+ * @param value The new value
+ */
+
+   public void decreaseKey(Handle<T> h, T value) {
+      checkHandle(h);
+      if (value.compareTo(h.value) > 0) {
+         throw new IllegalArgumentException("New value is larger");
+      }
+      h.value = value;
+      siftUp(h.index);
+   }
+
+/**
+ * Replaces the value of the element with handle h by a value that is no
+ * smaller, moving the element toward the back of the queue.  This method
+ * throws an IllegalArgumentException if the new value is smaller or if
+ * the element is not in the queue.
+ *
+ * @param h The handle of the element
+ * @param value The new value
+ */
+
+   public void increaseKey(Handle<T> h, T value) {
+      checkHandle(h);
+      if (value.compareTo(h.value) < 0) {
+         throw new IllegalArgumentException("New value is smaller");
+      }
+      h.value = value;
+      siftDown(h.index);
+   }
+
+/**
+ * Removes the element with handle h from this queue.  This method throws
+ * an IllegalArgumentException if the element is not in the queue.
+ *
+ * @param h The handle of the element
+ */
+
+   public void remove(Handle<T> h) {
+      checkHandle(h);
+      removeAt(h.index);
+   }
+
+/**
+ * Replaces the contents of this queue with the elements of c and returns
+ * their handles in the order in which the collection's iterator returns
+ * them.  The heap is built from the bottom up, which takes linear time
+ * rather than the N log N time required to add the values one at a time.
+ *
+ * @param c The collection whose elements make up the new queue
+ * @return A list of the handles for the new elements
+ */
+
+   public ArrayList<Handle<T>> heapify(Collection<? extends T> c) {
+      clear();
+      ensureCapacity(c.size());
+      ArrayList<Handle<T>> handles = new ArrayList<Handle<T>>();
+      handles.ensureCapacity(c.size());
+      for (T value : c) {
+         Handle<T> h = new Handle<T>(value);
+         h.index = count;
+         heap.set(count++, h);
+         handles.add(h);
+      }
+      if (count > 1) {
+         for (int i = (count - 2) / arity; i >= 0; i--) {
+            siftDown(i);
+         }
+      }
+      return handles;
+   }
+
+/*
+ * Implementation notes: ensureCapacity, trimToSize
+ * ------------------------------------------------
+ * These methods work exactly as they do in PriorityQueue.
+ */
+
+   public void ensureCapacity(int minCapacity) {
+      if (minCapacity > capacity) {
+         capacity = Math.max(minCapacity, 2 * capacity);
+         heap = heap.grow(capacity);
+      }
+   }
+
+   public void trimToSize() {
+      if (count < capacity) {
+         capacity = count;
+         heap = heap.grow(capacity);
+      }
+   }
+
+/*
+ * Throws an IllegalArgumentException unless h is in this queue.
+ */
+
+   private void checkHandle(Handle<T> h) {
+      if (!contains(h)) {
+         throw new IllegalArgumentException("Element is not in the queue");
+      }
+   }
+
+/*
+ * Removes the element at the specified index by moving the last element
+ * into its place and then sifting that element up or down as necessary.
+ */
+
+   private void removeAt(int index) {
+      heap.get(index).index = -1;
+      Handle<T> last = heap.get(--count);
+      heap.set(count, null);
+      if (index < count) {
+         heap.set(index, last);
+         last.index = index;
+         siftUp(index);
+         siftDown(last.index);
+      }
+   }
+
+/*
+ * Implementation notes: siftUp, siftDown
+ * --------------------------------------
+ * In a d-ary heap, the parent of the node at index k is at (k - 1) / d,
+ * and its children occupy the d positions starting at d * k + 1.  A
+ * larger arity makes the tree shallower, so that siftUp, and therefore
+ * decreaseKey, examines fewer levels.  The siftDown method must compare
+ * all d children at each level, but these children are adjacent in the
+ * array and usually share a cache line.  As in IntPriorityQueue, the
+ * moving element is held in a local variable and the others are shifted
+ * into the hole, updating the index stored in each handle as it moves.
+ */
+
+   private void siftUp(int index) {
+      Handle<T> h = heap.get(index);
+      while (index > 0) {
+         int parent = (index - 1) / arity;
+         Handle<T> p = heap.get(parent);
+         if (p.value.compareTo(h.value) <= 0) break;
+         heap.set(index, p);
+         p.index = index;
+         index = parent;
+      }
+      heap.set(index, h);
+      h.index = index;
+   }
+
+   private void siftDown(int index) {
+      Handle<T> h = heap.get(index);
+      while (true) {
+         int first = arity * index + 1;
+         if (first >= count) break;
+         int last = Math.min(first + arity, count);
+         int child = first;
+         Handle<T> c = heap.get(first);
+         for (int i = first + 1; i < last; i++) {
+            Handle<T> other = heap.get(i);
+            if (other.value.compareTo(c.value) < 0) {
+               child = i;
+               c = other;
+            }
+         }
+         if (h.value.compareTo(c.value) <= 0) break;
+         heap.set(index, c);
+         c.index = index;
+         index = child;
+      }
+      heap.set(index, h);
+      h.index = index;
+   }
+
+/* Constants */
+
+   private static final int DEFAULT_ARITY = 4;
+   private static final int INITIAL_CAPACITY = 10;
+
+/* Private instance variables */
+
+   private GenericArray<Handle<T>> heap;
+   private int arity;
+   private int capacity;
+   private int count;
+
+}
@@ -0,0 +1,138 @@
+/*
+ * File: IndexedPriorityQueueTest.java
+ * -----------------------------------
+ * This program implements an interactive test of the IndexedPriorityQueue
+ * abstraction.  The program keeps the handle for each string it adds so
+ * that the user can change or remove that string later.
+ */
+
+package edu.stanford.cs.javacs2.ch15;
+
+import edu.stanford.cs.consoletest.ConsoleTest;
+import edu.stanford.cs.consoletest.HelpText;
+import edu.stanford.cs.javacs2.ch14.HashMap;
+import edu.stanford.cs.javacs2.ch15.IndexedPriorityQueue.Handle;
+import edu.stanford.cs.tokenscanner.TokenScanner;
+
+public class IndexedPriorityQueueTest extends ConsoleTest {
+
+   public IndexedPriorityQueueTest() {
+      pq = new IndexedPriorityQueue<String>();
+      handles = new HashMap<String,Handle<String>>();
+   }
+
+   @HelpText("add str -- Adds str to the queue in priority order")
+   public void addCommand(TokenScanner scanner) {
+      String token = scanner.nextToken();
+      if (token.isEmpty()) {
+         println("Missing value to add");
+      } else {
+         handles.put(token, pq.add(token));
+      }
+   }
+
+   @HelpText("change old new -- Changes the value old to new")
+   public void changeCommand(TokenScanner scanner) {
+      Handle<String> h = findHandle(scanner.nextToken());
+      String token = scanner.nextToken();
+      if (h == null) return;
+      if (token.isEmpty()) {
+         println("Missing new value");
+      } else {
+         handles.remove(h.getValue());
+         if (token.compareTo(h.getValue()) < 0) {
+            pq.decreaseKey(h, token);
+         } else {
+            pq.increaseKey(h, token);
+         }
+         handles.put(token, h);
+      }
+   }
+
+   @HelpText("clear -- Clears the queue")
+   public void clearCommand(TokenScanner scanner) {
+      pq.clear();
+      handles.clear();
+   }
+
+   @HelpText("delete str -- Deletes str from the queue")
+   public void deleteCommand(TokenScanner scanner) {
+      Handle<String> h = findHandle(scanner.nextToken());
+      if (h != null) {
+         pq.remove(h);
+         handles.remove(h.getValue());
+      }
+   }
+
+   @HelpText("isEmpty -- Prints whether the queue is empty")
+   public void isEmptyCommand(TokenScanner scanner) {
+      println(pq.isEmpty());
+   }
+
+   @HelpText("list -- List the elements of the queue")
+   public void listCommand(TokenScanner scanner) {
+      if (pq.isEmpty()) {
+         println("Queue is empty");
+      } else {
+         IndexedPriorityQueue<String> copy =
+            new IndexedPriorityQueue<String>();
+         while (!pq.isEmpty()) {
+            String value = pq.remove();
+            println(value);
+            handles.put(value, copy.add(value));
+         }
+         pq = copy;
+      }
+   }
+
+   @HelpText("peek -- Peeks at the first element")
+   public void peekCommand(TokenScanner scanner) {
+      if (pq.isEmpty()) {
+         println("Queue is empty");
+      } else {
+         println(pq.peek());
+      }
+   }
+
+   @HelpText("remove -- Removes and displays the first value")
+   public void removeCommand(TokenScanner scanner) {
+      if (pq.isEmpty()) {
+         println("Queue is empty");
+      } else {
+         String value = pq.remove();
+         handles.remove(value);
+         println(value);
+      }
+   }
+
+   @HelpText("size -- Prints the size of the queue")
+   public void sizeCommand(TokenScanner scanner) {
+      println(pq.size());
+   }
+
+/*
+ * Returns the handle for the specified string, or null after printing a
+ * message if the string is not in the queue.
+ */
+
+   private Handle<String> findHandle(String token) {
+      Handle<String> h = handles.get(token);
+      if (h == null || !h.isQueued()) {
+         println("No element " + token);
+         return null;
+      }
+      return h;
+   }
+
+/* Private instance variables */
+
+   private IndexedPriorityQueue<String> pq;
+   private HashMap<String,Handle<String>> handles;
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new IndexedPriorityQueueTest().run();
+   }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * File: IntPriorityQueue.java
+ * ---------------------------
+ * This file implements a priority queue of int values using a heap
+ * stored in a primitive array.  The structure is the same as the one
+ * used in PriorityQueue, but the values are compared directly rather
+ * than through calls to compareTo.
+ */
+
+package edu.stanford.cs.javacs2.ch15;
+
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/*
+ * This class implements a queue of int values that are removed in
+ * increasing order.
+ */
+
+public class IntPriorityQueue {
+
+/**
+ * Creates an empty priority queue.
+ */
+
+   public IntPriorityQueue() {
+      capacity = INITIAL_CAPACITY;
+      array = new int[capacity];
+      count = 0;
+   }
+
+/**
+ * Returns the number of values in this queue.
+ */
+
+   public int size() {
+      return count;
+   }
+
+/**
+ * Returns true if this queue contains no elements.
+ */
+
+   public boolean isEmpty() {
+      return count == 0;
+   }
+
+/**
+ * Removes all elements from this queue.
+ */
+
+   public void clear() {
+      count = 0;
+   }
+
+/**
+ * Adds the specified value to this queue.
+ */
+
+   public void add(int value) {
+      if (count == capacity) expandCapacity(count + 1);
+      array[count] = value;
+      siftUp(count++);
+   }
+
+/**
+ * Adds all the values in the array to this queue.  If the new values
+ * outnumber the existing ones, the heap is rebuilt from the bottom up,
+ * which takes linear time rather than the N log N time required to add
+ * the values one at a time.
+ */
+
+   public void addAll(int[] values) {
+      int oldCount = count;
+      if (count + values.length > capacity) {
+         expandCapacity(count + values.length);
+      }
+      System.arraycopy(values, 0, array, count, values.length);
+      count += values.length;
+      if (values.length >= oldCount) {
+         for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+         }
+      } else {
+         for (int i = oldCount; i < count; i++) {
+            siftUp(i);
+         }
+      }
+   }
+
+/**
+ * Removes the smallest element from this queue and returns it.  This
+ * method throws a NoSuchElementException if called on an empty queue.
+ */
+
+   public int remove() {
+      if (count == 0) throw new NoSuchElementException("Queue is empty");
+      int value = array[0];
+      array[0] = array[--count];
+      siftDown(0);
+      return value;
+   }
+
+/**
+ * Returns the smallest element in this queue without removing it.  This
+ * method throws a NoSuchElementException if called on an empty queue.
+ */
+
+   public int peek() {
+      if (count == 0) throw new NoSuchElementException("Queue is empty");
+      return array[0];
+   }
+
+/**
+ * Returns an array containing the elements of this queue.  The elements
+ * appear in heap order, which is not in general sorted.
+ */
+
+   public int[] toArray() {
+      int[] result = new int[count];
+      System.arraycopy(array, 0, result, 0, count);
+      return result;
+   }
+
+/**
+ * Applies the action to each element of this queue in heap order.
+ */
+
+   public void forEach(IntConsumer action) {
+      for (int i = 0; i < count; i++) {
+         action.accept(array[i]);
+      }
+   }
+
+/*
+ * Implementation notes: siftUp, siftDown
+ * --------------------------------------
+ * Rather than swapping entries at each level as PriorityQueue does, these
+ * methods hold the moving value in a local variable and shift the other
+ * entries into the hole, storing the value once at its final position.
+ */
+
+   private void siftUp(int index) {
+      int value = array[index];
+      while (index > 0) {
+         int parent = (index - 1) / 2;
+         if (array[parent] <= value) break;
+         array[index] = array[parent];
+         index = parent;
+      }
+      array[index] = value;
+   }
+
+   private void siftDown(int index) {
+      int value = array[index];
+      while (true) {
+         int child = 2 * index + 1;
+         if (child >= count) break;
+         if (child + 1 < count && array[child + 1] < array[child]) child++;
+         if (value <= array[child]) break;
+         array[index] = array[child];
+         index = child;
+      }
+      array[index] = value;
+   }
+
+/*
+ * Implementation notes: expandCapacity
+ * ------------------------------------
+ * The expandCapacity method doubles the size of the array until it can
+ * hold at least minCapacity elements and copies the old elements to the
+ * new array with a single call to System.arraycopy.
+ */
+
+   private void expandCapacity(int minCapacity) {
+      while (capacity < minCapacity) {
+         capacity *= 2;
+      }
+      int[] newArray = new int[capacity];
+      System.arraycopy(array, 0, newArray, 0, count);
+      array = newArray;
+   }
+
+/* Constants */
+
+   private static final int INITIAL_CAPACITY = 10;
+
+/* Private instance variables */
+
+   private int[] array;
+   private int capacity;
+   private int count;
+
+}
@@ -9,22 +9,41 @@
 
 package edu.stanford.cs.javacs2.ch15;
 
+import edu.stanford.cs.javacs2.ch13.Collection;
 import edu.stanford.cs.javacs2.ch13.GenericArray;
+import java.util.Comparator;
 import java.util.NoSuchElementException;
 
 /*
  * This class implements a queue structure whose elements are removed in
  * priority order.  As in conventional English usage, lower priority values
- * are removed first.  Thus, priority 1 items come before priority 2.
+ * are removed first.  Thus, priority 1 items come before priority 2.  The
+ * order is either the natural order of the elements, which must then
+ * implement Comparable, or the order specified by a Comparator.
  */
 
-public class PriorityQueue<T extends Comparable<? super T>> {
+public class PriorityQueue<T> {
 
 /**
- * Creates an empty priority queue.
+ * Creates an empty priority queue that orders its elements using their
+ * compareTo method.
  */
 
    public PriorityQueue() {
+      this(null);
+   }
+
+/**
+ * Creates an empty priority queue that orders its elements using the
+ * specified comparator.  If cmp is null, the queue uses the natural
+ * order of the elements.
+ *
+ * @param cmp The comparator that determines the priority order
+ */
+
+   @SuppressWarnings("unchecked")
+   public PriorityQueue(Comparator<? super T> cmp) {
+      this.cmp = (cmp == null) ? (Comparator<? super T>) NATURAL_ORDER : cmp;
       capacity = INITIAL_CAPACITY;
       array = new GenericArray<T>(capacity);
       count = 0;
@@ -59,14 +78,35 @@ public class PriorityQueue<T extends Comparable<? super T>> {
  */
 
    public void add(T value) {
-      if (count == capacity) expandCapacity();
-      int index = count++;
-      array.set(index, value);
-      while (index > 0) {
-         int parent = (index - 1) / 2;
-         if (array.get(parent).compareTo(array.get(index)) < 0) break;
-         swapHeapEntries(parent, index);
-         index = parent;
+      if (count == capacity) ensureCapacity(count + 1);
+      array.set(count, value);
+      siftUp(count++);
+   }
+
+/**
+ * Adds every element of the collection c to this queue.  If c is at least
+ * as large as the queue, the elements are appended without regard to order
+ * and the heap is rebuilt from the bottom up, which takes linear time.
+ * Otherwise each element is added in turn.
+ *
+ * @param c The collection whose elements are added
+ */
+
+   public void addAll(Collection<? extends T> c) {
+      int n = c.size();
+      ensureCapacity(count + n);
+      if (n < count) {
+         for (T value : c) {
+            array.set(count, value);
+            siftUp(count++);
+         }
+      } else {
+         for (T value : c) {
+            array.set(count++, value);
+         }
+         for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+         }
       }
    }
 
@@ -78,18 +118,11 @@ public class PriorityQueue<T extends Comparable<? super T>> {
    public T remove() {
       if (count == 0) throw new NoSuchElementException("Queue is empty");
       T value = array.get(0);
-      swapHeapEntries(0, --count);
-      int index = 0;
-      while (true) {
-         int left = 2 * index + 1;
-         int right = 2 * index + 2;
-         if (left >= count) break;
-         int child = left;
-         if (right < count &&
-             array.get(right).compareTo(array.get(left)) < 0) child = right;
-         if (array.get(index).compareTo(array.get(child)) < 0) break;
-         swapHeapEntries(index, child);
-         index = child;
+      T last = array.get(--count);
+      array.set(count, null);
+      if (count > 0) {
+         array.set(0, last);
+         siftDown(0);
       }
       return value;
    }
@@ -105,36 +138,83 @@ public class PriorityQueue<T extends Comparable<? super T>> {
    }
 
 /*
- * Swaps two elements in the heap.
+ * Implementation notes: ensureCapacity, trimToSize
+ * ------------------------------------------------
+ * The ensureCapacity method allocates a new array whenever the old one is
+ * too small, at least doubling its size.  The grow method in GenericArray
+ * copies the old elements to the new array in a single operation.  The
+ * trimToSize method shrinks the array to the number of elements in use.
  */
 
-   private void swapHeapEntries(int i1, int i2) {
-      T tmp = array.get(i1);
-      array.set(i1, array.get(i2));
-      array.set(i2, tmp);
+   public void ensureCapacity(int minCapacity) {
+      if (minCapacity > capacity) {
+         capacity = Math.max(minCapacity, 2 * capacity);
+         array = array.grow(capacity);
+      }
+   }
+
+   public void trimToSize() {
+      if (count < capacity) {
+         capacity = count;
+         array = array.grow(capacity);
+      }
    }
 
 /*
- * Implementation notes: expandCapacity
- * ------------------------------------
- * The expandCapacity method allocates a new array of twice the previous
- * size, copies the old elements to the new array, and then replaces the
- * old array with the new one.
+ * Implementation notes: siftUp, siftDown
+ * --------------------------------------
+ * The siftUp method moves the element at index up the tree until its
+ * parent is no larger; siftDown moves it down until neither child is
+ * smaller.  As in IntPriorityQueue, the moving element is held in a local
+ * variable and the other entries are shifted into the hole, so that each
+ * level costs one comparison and one store rather than a full swap.
  */
 
-   private void expandCapacity() {
-      capacity *= 2;
-      GenericArray<T> newArray = new GenericArray<T>(capacity);
-      for (int i = 0; i < count; i++) {
-         newArray.set(i, array.get(i));
+   private void siftUp(int index) {
+      T value = array.get(index);
+      while (index > 0) {
+         int parent = (index - 1) / 2;
+         T p = array.get(parent);
+         if (cmp.compare(p, value) <= 0) break;
+         array.set(index, p);
+         index = parent;
       }
-      array = newArray;
+      array.set(index, value);
+   }
+
+   private void siftDown(int index) {
+      T value = array.get(index);
+      while (true) {
+         int child = 2 * index + 1;
+         if (child >= count) break;
+         T c = array.get(child);
+         if (child + 1 < count) {
+            T right = array.get(child + 1);
+            if (cmp.compare(right, c) < 0) {
+               child++;
+               c = right;
+            }
+         }
+         if (cmp.compare(value, c) <= 0) break;
+         array.set(index, c);
+         index = child;
+      }
+      array.set(index, value);
    }
 
 /* Constants */
 
    private static final int INITIAL_CAPACITY = 10;
 
+/*
+ * This comparator implements the natural order of the elements.  It is
+ * declared using raw types so that a single instance serves for every T.
+ */
+
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   private static final Comparator NATURAL_ORDER =
+      (v1, v2) -> ((Comparable) v1).compareTo(v2);
+
 /*
  * Private instance variables
  * --------------------------
@@ -146,6 +226,7 @@ public class PriorityQueue<T extends Comparable<? super T>> {
  */
 
    private GenericArray<T> array;
+   private Comparator<? super T> cmp;
    private int capacity;
    private int count;
 
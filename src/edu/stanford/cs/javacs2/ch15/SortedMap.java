@@ -0,0 +1,138 @@
+/*
+ * File: SortedMap.java
+ * --------------------
+ * This file defines the interface for a map whose keys are kept in
+ * sorted order, which makes it possible to answer queries about the
+ * position of a key or the keys that fall within a range.
+ */
+
+package edu.stanford.cs.javacs2.ch15;
+
+import edu.stanford.cs.javacs2.ch13.KeyValuePair;
+import edu.stanford.cs.javacs2.ch14.Map;
+import java.util.Iterator;
+
+/**
+ * This interface extends Map with operations that depend on the ordering
+ * of the keys.  Ranges are specified by a pair of keys lo and hi and
+ * include lo but not hi, so that adjacent ranges never overlap.
+ */
+
+public interface SortedMap<K extends Comparable<? super K>,V>
+                 extends Map<K,V> {
+
+/**
+ * Returns the largest key less than or equal to key, or null if none
+ * exists.
+ *
+ * @param key The key
+ * @return The largest key less than or equal to key, or null
+ */
+
+   public K floorKey(K key);
+
+/**
+ * Returns the smallest key greater than or equal to key, or null if none
+ * exists.
+ *
+ * @param key The key
+ * @return The smallest key greater than or equal to key, or null
+ */
+
+   public K ceilingKey(K key);
+
+/**
+ * Returns the largest key strictly less than key, or null if none exists.
+ *
+ * @param key The key
+ * @return The largest key strictly less than key, or null
+ */
+
+   public K lowerKey(K key);
+
+/**
+ * Returns the smallest key strictly greater than key, or null if none
+ * exists.
+ *
+ * @param key The key
+ * @return The smallest key strictly greater than key, or null
+ */
+
+   public K higherKey(K key);
+
+/**
+ * Returns the number of keys in the map that are less than key.  The
+ * key itself need not be present in the map.
+ *
+ * @param key The key
+ * @return The number of keys less than key
+ */
+
+   public int rank(K key);
+
+/**
+ * Returns the key at index position k in sorted order, where the smallest
+ * key is at index 0.  This method throws an IndexOutOfBoundsException if
+ * k is not between 0 and size() - 1.
+ *
+ * @param k The index position
+ * @return The key at index position k
+ */
+
+   public K select(int k);
+
+/**
+ * Returns the number of keys in the range from lo to hi.
+ *
+ * @param lo The lower bound of the range, which is included
+ * @param hi The upper bound of the range, which is excluded
+ * @return The number of keys k such that lo <= k < hi
+ */
+
+   public int countInRange(K lo, K hi);
+
+/**
+ * Returns a view of the portion of this map whose keys fall in the range
+ * from lo to hi.  The view is backed by this map, so changes in either
+ * one are visible in the other.  Attempting to put a key outside the
+ * range into the view throws an IllegalArgumentException.
+ *
+ * @param lo The lower bound of the range, which is included
+ * @param hi The upper bound of the range, which is excluded
+ * @return A map containing the keys k such that lo <= k < hi
+ */
+
+   public SortedMap<K,V> subMap(K lo, K hi);
+
+/**
+ * Returns an iterator that produces the keys in ascending order.
+ *
+ * @return An iterator over the keys
+ */
+
+   public Iterator<K> keyIterator();
+
+/**
+ * Returns an iterator that produces the key-value pairs in ascending
+ * order of their keys.
+ *
+ * @return An iterator over the key-value pairs
+ */
+
+   public Iterator<KeyValuePair<K,V>> entryIterator();
+
+/**
+ * Replaces the contents of this map with the keys produced by the
+ * iterator, each associated with the same value.  The keys must appear
+ * in strictly ascending order, which allows an implementation to build
+ * its structure in linear time.  This method throws an
+ * IllegalArgumentException if the keys are out of order or contain
+ * duplicates, in which case the map is left unchanged.
+ *
+ * @param keys An iterator over the keys in ascending order
+ * @param value The value associated with every key
+ */
+
+   public void loadSorted(Iterator<K> keys, V value);
+
+}
@@ -1,21 +1,27 @@
 /*
  * File: TreeMap.java
  * ------------------
- * This file implements the Map interface using a binary search tree.
+ * This file implements the SortedMap interface using a binary search
+ * tree.  Each node records the size of its subtree, which makes it
+ * possible to answer order-statistic and range queries in log N time.
  */
 
 package edu.stanford.cs.javacs2.ch15;
 
-import edu.stanford.cs.javacs2.ch14.Map;
+import edu.stanford.cs.javacs2.ch13.GenericArray;
+import edu.stanford.cs.javacs2.ch13.KeyValuePair;
+import edu.stanford.cs.javacs2.ch13.Stack;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
 
-public class TreeMap<K extends Comparable<? super K>,V> implements Map<K,V> {
+public class TreeMap<K extends Comparable<? super K>,V>
+                                    extends AbstractSortedMap<K,V> {
 
    public TreeMap() {
+      path = new GenericArray<TreeMapNode>(MAX_HEIGHT);
       clear();
    }
 
@@ -30,126 +36,438 @@ public class TreeMap<K extends Comparable<? super K>,V> implements Map<K,V> {
    public void clear() {
       root = null;
       count = 0;
+      modCount++;
    }
 
 /*
  * Implementation notes: get, put, containsKey, remove
  * ---------------------------------------------------
  * These methods all depend on the implementations of findNode, insertNode,
- * and removeNode, which are described earlier in the chapter.
+ * and removeNode.  Unlike the recursive versions described earlier in the
+ * chapter, these methods use loops, as explained in the comments for
+ * each one.
  */
 
    public V get(K key) {
-      TreeMapNode np = findNode(root, key);
+      TreeMapNode np = findNode(key);
       return (np == null) ? null : np.value;
    }
 
    public void put(K key, V value) {
-      root = insertNode(root, key, value);
+      insertNode(key, value);
    }
 
    public boolean containsKey(K key) {
-      return findNode(root, key) != null;
+      return findNode(key) != null;
    }
 
    public void remove(K key) {
-      root = removeNode(root, key);
+      removeNode(key);
    }
 
 /*
- * Implementation notes: keySet and keyIterator
- * --------------------------------------------
- * These methods call addKeysInOrder to perform an inorder walk.  Lists and
- * sets implement the Collection interface in Java, so the code is shared.
+ * Implementation notes: keyIterator, entryIterator
+ * ------------------------------------------------
+ * These methods return iterators that perform an inorder walk of the tree
+ * one step at a time, as described in the notes for NodeIterator.  The
+ * entryIterator method returns each binding as a KeyValuePair, which
+ * avoids the need to call get for every key.  AbstractSortedMap uses
+ * them to implement the unbounded iterators, keySet, and subMap.
  */
 
-   public Set<K> keySet() {
-      Set<K> keys = new TreeSet<K>();
-      addKeysInOrder(root, keys);
-      return keys;
+   protected Iterator<K> keyIterator(K lo, K hi) {
+      return new NodeIterator<K>(lo, hi) {
+         public K next() {
+            return nextNode().key;
+         }
+      };
    }
 
-   public Iterator<K> keyIterator() {
-      ArrayList<K> keys = new ArrayList<K>();
-      addKeysInOrder(root, keys);
-      return keys.iterator();
+   protected Iterator<KeyValuePair<K,V>> entryIterator(K lo, K hi) {
+      return new NodeIterator<KeyValuePair<K,V>>(lo, hi) {
+         public KeyValuePair<K,V> next() {
+            TreeMapNode np = nextNode();
+            return new KeyValuePair<K,V>(np.key, np.value);
+         }
+      };
+   }
+
+/*
+ * Implementation notes: forEach
+ * -----------------------------
+ * This method calls fn on every key-value pair in the map in key order.
+ * It uses the same inorder walk as the iterators but calls fn directly,
+ * so no iterator or key-value pair is ever created.
+ */
+
+   public void forEach(BiConsumer<? super K,? super V> fn) {
+      int expectedModCount = modCount;
+      forEachInOrder(root, fn);
+      if (modCount != expectedModCount) {
+         throw new ConcurrentModificationException();
+      }
    }
 
-   private void addKeysInOrder(TreeMapNode t, Collection<K> keys) {
+   private void forEachInOrder(TreeMapNode t,
+                               BiConsumer<? super K,? super V> fn) {
       if (t != null) {
-         addKeysInOrder(t.left, keys);
-         keys.add(t.key);
-         addKeysInOrder(t.right, keys);
+         forEachInOrder(t.left, fn);
+         fn.accept(t.key, t.value);
+         forEachInOrder(t.right, fn);
+      }
+   }
+
+/*
+ * Implementation notes: floorKey, ceilingKey, lowerKey, higherKey
+ * ---------------------------------------------------------------
+ * Each of these methods follows a single path from the root, keeping
+ * track of the best candidate seen so far.  For floorKey, for example,
+ * every node whose key is less than or equal to the target is a
+ * candidate, and the search continues to the right to look for a larger
+ * one.  The methods therefore run in time proportional to the height.
+ */
+
+   public K floorKey(K key) {
+      TreeMapNode best = null;
+      TreeMapNode t = root;
+      while (t != null) {
+         int cmp = key.compareTo(t.key);
+         if (cmp == 0) return t.key;
+         if (cmp > 0) {
+            best = t;
+            t = t.right;
+         } else {
+            t = t.left;
+         }
+      }
+      return (best == null) ? null : best.key;
+   }
+
+   public K ceilingKey(K key) {
+      TreeMapNode best = null;
+      TreeMapNode t = root;
+      while (t != null) {
+         int cmp = key.compareTo(t.key);
+         if (cmp == 0) return t.key;
+         if (cmp < 0) {
+            best = t;
+            t = t.left;
+         } else {
+            t = t.right;
+         }
       }
+      return (best == null) ? null : best.key;
+   }
+
+   public K lowerKey(K key) {
+      TreeMapNode best = null;
+      TreeMapNode t = root;
+      while (t != null) {
+         if (key.compareTo(t.key) > 0) {
+            best = t;
+            t = t.right;
+         } else {
+            t = t.left;
+         }
+      }
+      return (best == null) ? null : best.key;
+   }
+
+   public K higherKey(K key) {
+      TreeMapNode best = null;
+      TreeMapNode t = root;
+      while (t != null) {
+         if (key.compareTo(t.key) < 0) {
+            best = t;
+            t = t.left;
+         } else {
+            t = t.right;
+         }
+      }
+      return (best == null) ? null : best.key;
+   }
+
+/*
+ * Implementation notes: rank, select
+ * ----------------------------------
+ * These methods use the size field stored in each node.  When the rank
+ * method moves to the right child, every key in the left subtree and the
+ * key in the node itself are smaller than the target, so rank adds the
+ * size of the left subtree plus one.  The select method runs the same
+ * computation in reverse, comparing k with the size of the left subtree
+ * to decide which way to go.
+ */
+
+   public int rank(K key) {
+      int r = 0;
+      TreeMapNode t = root;
+      while (t != null) {
+         int cmp = key.compareTo(t.key);
+         if (cmp <= 0) {
+            if (cmp == 0) return r + getSize(t.left);
+            t = t.left;
+         } else {
+            r += getSize(t.left) + 1;
+            t = t.right;
+         }
+      }
+      return r;
+   }
+
+   public K select(int k) {
+      if (k < 0 || k >= count) {
+         throw new IndexOutOfBoundsException("Index " + k + " out of bounds");
+      }
+      TreeMapNode t = root;
+      while (true) {
+         int leftSize = getSize(t.left);
+         if (k < leftSize) {
+            t = t.left;
+         } else if (k > leftSize) {
+            k -= leftSize + 1;
+            t = t.right;
+         } else {
+            return t.key;
+         }
+      }
+   }
+
+/*
+ * Implementation notes: fromSorted
+ * --------------------------------
+ * These factory methods build a map from keys that are already sorted.
+ * Calling put once for each key would take N log N time and perform many
+ * rotations.  The fromSorted methods instead copy the keys into a list,
+ * checking that each one is larger than the last, and then build the
+ * tree directly by making the middle key the root and building its two
+ * subtrees from the keys on either side in the same way.  The sizes of
+ * the two subtrees of every node differ by at most one, so the tree is
+ * perfectly balanced and therefore satisfies the AVL property.  Both
+ * steps run in linear time.
+ */
+
+/**
+ * Creates a TreeMap containing the key-value pairs produced by the
+ * iterator, which must deliver the keys in strictly ascending order.
+ * This method throws an IllegalArgumentException if the keys are out of
+ * order or contain duplicates.
+ *
+ * @param entries An iterator over the key-value pairs in key order
+ * @return A new map containing the key-value pairs
+ */
+
+   public static <K extends Comparable<? super K>,V>
+                 TreeMap<K,V> fromSorted(Iterator<KeyValuePair<K,V>> entries) {
+      ArrayList<K> keys = new ArrayList<K>();
+      ArrayList<V> values = new ArrayList<V>();
+      while (entries.hasNext()) {
+         KeyValuePair<K,V> entry = entries.next();
+         addSortedKey(keys, entry.getKey());
+         values.add(entry.getValue());
+      }
+      TreeMap<K,V> map = new TreeMap<K,V>();
+      map.root = map.buildTree(keys, values, null, 0, keys.size());
+      map.count = keys.size();
+      return map;
+   }
+
+/**
+ * Creates a TreeMap in which each of the keys produced by the iterator is
+ * associated with the same value.  The keys must appear in strictly
+ * ascending order, as in the other form of fromSorted.  This form avoids
+ * creating a key-value pair for every key, which makes it the natural
+ * choice for building a set.
+ *
+ * @param keys An iterator over the keys in ascending order
+ * @param value The value associated with every key
+ * @return A new map containing the keys
+ */
+
+   public static <K extends Comparable<? super K>,V>
+                 TreeMap<K,V> fromSorted(Iterator<K> keys, V value) {
+      TreeMap<K,V> map = new TreeMap<K,V>();
+      map.loadSorted(keys, value);
+      return map;
+   }
+
+/**
+ * Replaces the contents of this map with the keys produced by the
+ * iterator, each associated with the same value.  The tree is built in
+ * linear time, as described in the notes for fromSorted.
+ *
+ * @param keys An iterator over the keys in ascending order
+ * @param value The value associated with every key
+ */
+
+   public void loadSorted(Iterator<K> keys, V value) {
+      ArrayList<K> list = sortedList(keys);
+      clear();
+      root = buildTree(list, null, value, 0, list.size());
+      count = list.size();
+   }
+
+/*
+ * Builds a balanced tree from the keys at index positions lo up to but
+ * not including hi and returns its root.  If values is null, every node
+ * gets the specified value instead of the corresponding list element.
+ */
+
+   private TreeMapNode buildTree(ArrayList<K> keys, ArrayList<V> values,
+                                 V value, int lo, int hi) {
+      if (lo >= hi) return null;
+      int mid = (lo + hi) >>> 1;
+      TreeMapNode t = new TreeMapNode();
+      t.key = keys.get(mid);
+      t.value = (values == null) ? value : values.get(mid);
+      t.left = buildTree(keys, values, value, lo, mid);
+      t.right = buildTree(keys, values, value, mid + 1, hi);
+      fixHeight(t);
+      return t;
    }
 
 /*
  * Finds a node in the AVL tree with the specified key.  If no such
- * node exists, findNode returns null.
+ * node exists, findNode returns null.  Because each step moves to a
+ * child of the current node, the search is a simple loop.
  */
 
-   private TreeMapNode findNode(TreeMapNode t, K key) {
-      if (t == null) {
-         return null;
-      } else {
+   private TreeMapNode findNode(K key) {
+      TreeMapNode t = root;
+      while (t != null) {
          int cmp = key.compareTo(t.key);
          if (cmp < 0) {
-            return findNode(t.left, key);
+            t = t.left;
          } else if (cmp > 0) {
-            return findNode(t.right, key);
+            t = t.right;
          } else {
             return t;
          }
       }
+      return null;
    }
 
 /*
- * Enters the key into the tree and returns the updated tree.  The usual
- * pattern for using this method assigns the result back to the tree, as
- * follows:
- *
- *     t = insertNode(t, key, value);
+ * Implementation notes: insertNode
+ * --------------------------------
+ * This method descends from the root to the insertion point, recording
+ * each node it passes in the path array.  It then walks back up the path
+ * to restore the AVL property.  That walk can stop as soon as a subtree
+ * has the same height it had before the insertion, because none of the
+ * balance factors above it can have changed.  After an insertion, this
+ * happens no later than the first rotation.  The size fields of the
+ * remaining ancestors still need to be incremented, but that loop does
+ * no comparisons or rotations.
  */
 
-   private TreeMapNode insertNode(TreeMapNode t, K key, V value) {
-      if (t == null) {
-         t = new TreeMapNode();
-         t.key = key;
-         t.value = value;
-         t.height = 0;
-         t.left = t.right = null;
-         count++;
-      } else {
-         int cmp = key.compareTo(t.key);
+   private void insertNode(K key, V value) {
+      TreeMapNode t = root;
+      TreeMapNode parent = null;
+      int depth = 0;
+      int cmp = 0;
+      while (t != null) {
+         cmp = key.compareTo(t.key);
+         path.set(depth++, t);
+         parent = t;
          if (cmp < 0) {
-            t.left = insertNode(t.left, key, value);
+            t = t.left;
          } else if (cmp > 0) {
-            t.right = insertNode(t.right, key, value);
+            t = t.right;
          } else {
             t.value = value;
+            return;
          }
+      }
+      t = new TreeMapNode();
+      t.key = key;
+      t.value = value;
+      t.height = 0;
+      t.size = 1;
+      t.left = t.right = null;
+      if (parent == null) {
+         root = t;
+      } else if (cmp < 0) {
+         parent.left = t;
+      } else {
+         parent.right = t;
+      }
+      count++;
+      modCount++;
+      rebalancePath(depth, +1);
+   }
+
+/*
+ * Implementation notes: rebalancePath
+ * -----------------------------------
+ * This method restores the height, size, and balance of the nodes stored
+ * in the first depth entries of the path array, starting at the bottom.
+ * The delta parameter is the change in the number of nodes below each of
+ * them.  Once a rebalanced subtree has the same height as before, the
+ * remaining ancestors need only have their size adjusted by delta.
+ */
+
+   private void rebalancePath(int depth, int delta) {
+      int i = depth - 1;
+      while (i >= 0) {
+         TreeMapNode t = path.get(i);
+         int oldHeight = t.height;
          fixHeight(t);
          int bf = getHeight(t.right) - getHeight(t.left);
+         TreeMapNode subtree = t;
          if (bf == -2) {
-            t = fixLeftImbalance(t);
+            subtree = fixLeftImbalance(t);
          } else if (bf == +2) {
-            t = fixRightImbalance(t);
+            subtree = fixRightImbalance(t);
+         }
+         if (subtree != t) replaceChild(i, t, subtree);
+         i--;
+         if (subtree.height == oldHeight) break;
+      }
+      while (i >= 0) {
+         path.get(i--).size += delta;
+      }
+   }
+
+/*
+ * Replaces the child oldChild of the node at index i - 1 in the path with
+ * newChild.  If i is 0, oldChild is the root, so newChild becomes the root.
+ */
+
+   private void replaceChild(int i, TreeMapNode oldChild,
+                             TreeMapNode newChild) {
+      if (i == 0) {
+         root = newChild;
+      } else {
+         TreeMapNode parent = path.get(i - 1);
+         if (parent.left == oldChild) {
+            parent.left = newChild;
+         } else {
+            parent.right = newChild;
          }
       }
-      return t;
    }
 
 /*
- * Recomputes the height in the top node of the specified tree, assuming
- * that the heights of all subtrees are stored correctly.
+ * Recomputes the height and size in the top node of the specified tree,
+ * assuming that the heights and sizes of all subtrees are stored correctly.
+ * The rebalancePath method calls fixHeight on each node whose height may
+ * have changed and adjusts the size of the ancestors above that point.
  */
 
    private void fixHeight(TreeMapNode t) {
       if (t != null) {
          t.height = Math.max(getHeight(t.left), getHeight(t.right)) + 1;
+         t.size = getSize(t.left) + getSize(t.right) + 1;
       }
    }
 
+/*
+ * Returns the number of nodes in the specified tree.
+ */
+
+   private int getSize(TreeMapNode t) {
+      return (t == null) ? 0 : t.size;
+   }
+
 /*
  * Returns the height of the specified tree.  The special case check is
  * necessary to define the height of the empty tree as -1.
@@ -161,7 +479,7 @@ public class TreeMap<K extends Comparable<? super K>,V> implements Map<K,V> {
 
 /*
  * Restores the balance to a tree that has a longer subtree on the left.
- * Like insertNode, fixLeftImbalance returns the updated tree.
+ * Like the rotation methods, fixLeftImbalance returns the updated tree.
  */
 
    private TreeMapNode fixLeftImbalance(TreeMapNode t) {
@@ -174,7 +492,7 @@ public class TreeMap<K extends Comparable<? super K>,V> implements Map<K,V> {
 
 /*
  * Restores the balance to a tree that has a longer subtree on the right.
- * Like insertNode, fixRightImbalance returns the updated tree.
+ * Like the rotation methods, fixRightImbalance returns the updated tree.
  */
 
    private TreeMapNode fixRightImbalance(TreeMapNode t) {
@@ -214,63 +532,165 @@ public class TreeMap<K extends Comparable<? super K>,V> implements Map<K,V> {
    }
 
 /*
- * Removes the key from the tree (if it exists) and returns the updated tree.
- * As with insertNode, removeNode returns the updated tree, so that the usual
- * pattern for using this method looks like this:
- *
- *     t = removeNode(t, key);
+ * Implementation notes: removeNode
+ * --------------------------------
+ * This method finds the target node, recording the path as insertNode
+ * does.  If the target has two children, the method extends the path to
+ * the rightmost node in the left subtree, copies that node's key and
+ * value into the target, and then removes the rightmost node instead.
+ * Either way, the node that is actually unlinked has at most one child,
+ * which takes its place in the tree.  The method then rebalances the
+ * path.  Unlike insertion, a rotation after a removal can shorten the
+ * subtree, so the walk up the path may involve several rotations before
+ * it reaches a subtree whose height is unchanged.
  */
 
-   private TreeMapNode removeNode(TreeMapNode t, K key) {
-      if (t != null) {
+   private void removeNode(K key) {
+      TreeMapNode t = root;
+      int depth = 0;
+      while (t != null) {
          int cmp = key.compareTo(t.key);
+         path.set(depth++, t);
+         if (cmp == 0) break;
          if (cmp < 0) {
-            t.left = removeNode(t.left, key);
-         } else if (cmp > 0) {
-            t.right = removeNode(t.right, key);
+            t = t.left;
          } else {
-            t = removeTargetNode(t);
-            count--;
+            t = t.right;
          }
-         if (t != null) {
-            fixHeight(t);
-            int bf = getHeight(t.right) - getHeight(t.left);
-            if (bf == -2) {
-               t = fixLeftImbalance(t);
-            } else if (bf == +2) {
-               t = fixRightImbalance(t);
-            }
+      }
+      if (t == null) return;
+      if (t.left != null && t.right != null) {
+         TreeMapNode target = t;
+         t = t.left;
+         path.set(depth++, t);
+         while (t.right != null) {
+            t = t.right;
+            path.set(depth++, t);
          }
+         target.key = t.key;
+         target.value = t.value;
       }
-      return t;
+      TreeMapNode child = (t.left == null) ? t.right : t.left;
+      replaceChild(--depth, t, child);
+      count--;
+      modCount++;
+      rebalancePath(depth, -1);
    }
 
 /*
- * Implementation notes: removeTargetNode(t)
- * -----------------------------------------
- * Removes the node t and returns an updated tree.  The easy case occurs
- * when either (or both) of the children is null; all you need to do is
- * replace the node with its non-null child, if any.  If both children
- * are non-null, this code finds the rightmost descendent of the left
- * child; this node may not be a leaf, but will have no right child.
- * Its left child replaces it in the tree, after which the replacement
- * data is moved to the position occupied by the target node.
+ * Implementation notes: NodeIterator
+ * ----------------------------------
+ * This abstract class holds the state shared by the key and entry
+ * iterators.  Instead of copying the keys into a list, the iterator keeps
+ * an explicit stack of the nodes whose left subtrees are being visited.
+ * The top of the stack is always the next node in order.  Returning a
+ * node pops it from the stack and pushes the left spine of its right
+ * subtree, so each step takes constant amortized time and the stack
+ * never holds more than the height of the tree.
+ *
+ * An iterator may be restricted to the keys in the range from lo to hi,
+ * where a null bound means that the range is unbounded on that side.
+ * The constructor positions the cursor at the first key that is at least
+ * lo, and hasNext reports false once the next key reaches hi.
+ *
+ * Removing a node can rotate the tree, which invalidates the stack.  The
+ * remove method therefore rebuilds the stack by searching from the root
+ * for the first key greater than the one just removed.  As in HashMap,
+ * any other change to the map makes the iterator throw an exception.
  */
 
-   private TreeMapNode removeTargetNode(TreeMapNode t) {
-      if (t.left == null) {
-         t = t.right;
-      } else if (t.right == null) {
-         t = t.left;
-      } else {
-         TreeMapNode successor = t.left;
-         while (successor.right != null) {
-            successor = successor.right;
+   private abstract class NodeIterator<E> implements Iterator<E> {
+
+   /* Creates an iterator positioned at the smallest key in the range */
+
+      public NodeIterator(K lo, K hi) {
+         this.hi = hi;
+         expectedModCount = modCount;
+         stack = new Stack<TreeMapNode>();
+         if (lo == null) {
+            pushLeftSpine(root);
+         } else {
+            seek(lo, true);
          }
-         t.key = successor.key;
-         t.left = removeNode(t.left, successor.key);
+         lastNode = null;
       }
-      return t;
+
+   /* Returns true if there are more nodes to visit */
+
+      public boolean hasNext() {
+         if (stack.isEmpty()) return false;
+         return hi == null || stack.peek().key.compareTo(hi) < 0;
+      }
+
+   /* Removes the key most recently returned by the iterator */
+
+      public void remove() {
+         if (lastNode == null) throw new IllegalStateException("No element");
+         checkForComodification();
+         K key = lastNode.key;
+         TreeMap.this.remove(key);
+         lastNode = null;
+         expectedModCount = modCount;
+         seek(key, false);
+      }
+
+   /* Returns the next node in order and advances the cursor */
+
+      protected TreeMapNode nextNode() {
+         checkForComodification();
+         if (!hasNext()) {
+            throw new NoSuchElementException("No next element");
+         }
+         lastNode = stack.pop();
+         pushLeftSpine(lastNode.right);
+         return lastNode;
+      }
+
+   /*
+    * Resets the stack so that the next node is the first one whose key is
+    * greater than key or, if inclusive is true, greater than or equal to
+    * key.  Every node at which the search turns left is pushed, because
+    * it is visited after the nodes in its left subtree.
+    */
+
+      private void seek(K key, boolean inclusive) {
+         stack.clear();
+         TreeMapNode t = root;
+         while (t != null) {
+            int cmp = key.compareTo(t.key);
+            if (cmp < 0 || (cmp == 0 && inclusive)) {
+               stack.push(t);
+               t = t.left;
+            } else {
+               t = t.right;
+            }
+         }
+      }
+
+   /* Pushes t and each of its left descendants onto the stack */
+
+      private void pushLeftSpine(TreeMapNode t) {
+         while (t != null) {
+            stack.push(t);
+            t = t.left;
+         }
+      }
+
+   /* Throws an exception if the map has been changed by another path */
+
+      private void checkForComodification() {
+         if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+         }
+      }
+
+   /* Private instance variables */
+
+      private Stack<TreeMapNode> stack;   /* Nodes awaiting a visit         */
+      private TreeMapNode lastNode;       /* Node most recently returned    */
+      private K hi;                       /* Exclusive upper bound, or null */
+      private int expectedModCount;       /* Value of modCount at last sync */
+
    }
 
 /* Inner class defining a node in the tree */
@@ -279,12 +699,26 @@ public class TreeMap<K extends Comparable<? super K>,V> implements Map<K,V> {
       K key;
       V value;
       int height;
+      int size;
       TreeMapNode left, right;
    }
 
-/* Private instance variables */
+/* Constants */
+
+   private static final int MAX_HEIGHT = 64;
+
+/*
+ * Private instance variables
+ * --------------------------
+ * The path array holds the nodes between the root and the point at which
+ * an insertion or removal takes place.  It is allocated once rather than
+ * on every call.  An AVL tree with MAX_HEIGHT levels would need more
+ * nodes than can be stored in memory, so the path array never overflows.
+ */
 
+   private GenericArray<TreeMapNode> path;
    private TreeMapNode root;
    private int count;
+   private int modCount;      /* Incremented on each structural change */
 
 }
@@ -0,0 +1,121 @@
+/*
+ * File: TreeMapTiming.java
+ * ------------------------
+ * This program measures the average time required to insert and look up
+ * string keys in the TreeMap and AVLTree classes.  By default, the program
+ * tests trees of 10^5 and 10^6 keys; a larger maximum may be supplied as
+ * a command-line argument, heap space permitting.
+ */
+
+package edu.stanford.cs.javacs2.ch15;
+
+import java.util.Random;
+
+public class TreeMapTiming {
+
+   public void run(int maxKeys) {
+      String[] warmup = createKeys(MIN_KEYS);
+      timeTreeMap(warmup, false);
+      timeAVLTree(warmup, false);
+      System.out.printf("%10s  %-8s %12s %12s%n", "Keys", "Class",
+                        "insert (ns)", "lookup (ns)");
+      for (int n = MIN_KEYS; n <= maxKeys; n *= 10) {
+         String[] keys = createKeys(n);
+         timeTreeMap(keys, true);
+         timeAVLTree(keys, true);
+      }
+   }
+
+/*
+ * Times put and get on a TreeMap containing the specified keys.  The
+ * first call passes false for show so that the classes are compiled by
+ * the JIT before any results are displayed.
+ */
+
+   private void timeTreeMap(String[] keys, boolean show) {
+      int n = keys.length;
+      TreeMap<String,Integer> map = new TreeMap<String,Integer>();
+      long start = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+         map.put(keys[i], i);
+      }
+      long insertTime = System.nanoTime() - start;
+      long check = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+         check += map.get(keys[i]);
+      }
+      long lookupTime = System.nanoTime() - start;
+      if (check != (long) n * (n - 1) / 2) {
+         throw new RuntimeException("TreeMap returned incorrect values");
+      }
+      if (show) report(n, "TreeMap", insertTime, lookupTime);
+   }
+
+/*
+ * Times add and contains on an AVLTree containing the specified keys.
+ */
+
+   private void timeAVLTree(String[] keys, boolean show) {
+      int n = keys.length;
+      AVLTree tree = new AVLTree();
+      long start = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+         tree.add(keys[i]);
+      }
+      long insertTime = System.nanoTime() - start;
+      int found = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+         if (tree.contains(keys[i])) found++;
+      }
+      long lookupTime = System.nanoTime() - start;
+      if (found != n) {
+         throw new RuntimeException("AVLTree lost keys");
+      }
+      if (show) report(n, "AVLTree", insertTime, lookupTime);
+   }
+
+/*
+ * Displays the average insertion and lookup times for n keys.
+ */
+
+   private void report(int n, String name, long insertTime, long lookupTime) {
+      System.out.printf("%10d  %-8s %12.1f %12.1f%n", n, name,
+                        (double) insertTime / n, (double) lookupTime / n);
+   }
+
+/*
+ * Creates an array of n distinct string keys in random order.
+ */
+
+   private String[] createKeys(int n) {
+      String[] keys = new String[n];
+      for (int i = 0; i < n; i++) {
+         keys[i] = "key" + i;
+      }
+      Random rgen = new Random(SEED);
+      for (int i = n - 1; i > 0; i--) {
+         int j = rgen.nextInt(i + 1);
+         String tmp = keys[i];
+         keys[i] = keys[j];
+         keys[j] = tmp;
+      }
+      return keys;
+   }
+
+/* Constants */
+
+   private static final int MIN_KEYS = 100000;
+   private static final int DEFAULT_MAX_KEYS = 1000000;
+   private static final long SEED = 42;
+
+/* Main program */
+
+   public static void main(String[] args) {
+      int maxKeys = DEFAULT_MAX_KEYS;
+      if (args.length > 0) maxKeys = Integer.parseInt(args[0]);
+      new TreeMapTiming().run(maxKeys);
+   }
+
+}
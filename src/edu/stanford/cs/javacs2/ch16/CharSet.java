@@ -2,7 +2,8 @@
  * File: CharSet.java
  * ------------------
  * This file offers an efficient implementation of sets whose elements
- * are ASCII characters.
+ * are characters.  The set can hold any char value, which covers the
+ * Unicode Basic Multilingual Plane.
  */
 
 package edu.stanford.cs.javacs2.ch16;
@@ -14,7 +15,8 @@ public class CharSet {
  */
 
    public CharSet() {
-      /* Empty */
+      pages = new long[PAGE_COUNT][];
+      count = 0;
    }
 
 /**
@@ -22,21 +24,27 @@ public class CharSet {
  */
 
    public CharSet(String str) {
+      this();
       for (int i = 0; i < str.length(); i++) {
          add(str.charAt(i));
       }
    }
 
+/**
+ * Creates a CharSet containing the same characters as the set s.
+ */
+
+   public CharSet(CharSet s) {
+      this();
+      unionWith(s);
+   }
+
 /**
  * Returns the number of values in this set.
  */
 
    public int size() {
-      int n = 0;
-      for (int i = 0; i < RANGE_SIZE; i++) {
-         if (testBit(i)) n++;
-      }
-      return n;
+      return count;
    }
 
 /**
@@ -44,10 +52,7 @@ public class CharSet {
  */
 
    public boolean isEmpty() {
-      for (int i = 0; i < CVEC_WORDS; i++) {
-         if (cv[i] != 0) return false;
-      }
-      return true;
+      return count == 0;
    }
 
 /**
@@ -55,9 +60,10 @@ public class CharSet {
  */
 
    public void clear() {
-      for (int i = 0; i < CVEC_WORDS; i++) {
-         cv[i] = 0;
+      for (int i = 0; i < PAGE_COUNT; i++) {
+         pages[i] = null;
       }
+      count = 0;
    }
 
 /**
@@ -65,7 +71,12 @@ public class CharSet {
  */
 
    public void add(char ch) {
-      setBit(ch);
+      long[] page = pages[ch >>> PAGE_SHIFT];
+      if (page == null) page = pages[ch >>> PAGE_SHIFT] = new long[PAGE_WORDS];
+      int w = (ch >>> WORD_SHIFT) & WORD_MASK;
+      long old = page[w];
+      page[w] = old | (1L << ch);
+      if (page[w] != old) count++;
    }
 
 /**
@@ -73,7 +84,12 @@ public class CharSet {
  */
 
    public void remove(char ch) {
-      clearBit(ch);
+      long[] page = pages[ch >>> PAGE_SHIFT];
+      if (page == null) return;
+      int w = (ch >>> WORD_SHIFT) & WORD_MASK;
+      long old = page[w];
+      page[w] = old & ~(1L << ch);
+      if (page[w] != old) count--;
    }
 
 /**
@@ -81,7 +97,117 @@ public class CharSet {
  */
 
    public boolean contains(char ch) {
-      return testBit(ch);
+      long[] page = pages[ch >>> PAGE_SHIFT];
+      if (page == null) return false;
+      return (page[(ch >>> WORD_SHIFT) & WORD_MASK] & (1L << ch)) != 0;
+   }
+
+/**
+ * Returns the smallest character in the set that is greater than or equal
+ * to k, or -1 if there is no such character.  The characters of a set s
+ * can therefore be enumerated by writing
+ *
+ *     for (int ch = s.nextSetBit(0); ch >= 0; ch = s.nextSetBit(ch + 1))
+ *
+ * @param k The starting point of the search
+ * @return The next character in the set as an int, or -1
+ */
+
+   public int nextSetBit(int k) {
+      if (k < 0) k = 0;
+      for (int p = k >>> PAGE_SHIFT; p < PAGE_COUNT; p++) {
+         long[] page = pages[p];
+         if (page != null) {
+            int w = 0;
+            long word = 0;
+            if (p == k >>> PAGE_SHIFT) {
+               w = (k >>> WORD_SHIFT) & WORD_MASK;
+               word = page[w] & (-1L << k);
+            } else {
+               word = page[0];
+            }
+            while (true) {
+               if (word != 0) {
+                  return (p << PAGE_SHIFT) + (w << WORD_SHIFT)
+                                           + Long.numberOfTrailingZeros(word);
+               }
+               if (++w == PAGE_WORDS) break;
+               word = page[w];
+            }
+         }
+      }
+      return -1;
+   }
+
+/*
+ * Implementation notes: unionWith, intersectWith, subtractWith
+ * ------------------------------------------------------------
+ * These methods change this set rather than creating a new one.  They
+ * operate a page at a time, so a page that is missing from either set
+ * can be handled without looking at its words.  Each loop over the words
+ * of a page is a simple element-by-element operation on two long arrays,
+ * which the compiler can translate into vector instructions.  The count
+ * is recomputed only for the pages that change, using Long.bitCount.
+ */
+
+/**
+ * Adds every character in s to this set.
+ */
+
+   public void unionWith(CharSet s) {
+      for (int p = 0; p < PAGE_COUNT; p++) {
+         long[] src = s.pages[p];
+         if (src == null) continue;
+         long[] dst = pages[p];
+         if (dst == null) {
+            pages[p] = src.clone();
+            count += bitCount(src);
+         } else {
+            count -= bitCount(dst);
+            for (int w = 0; w < PAGE_WORDS; w++) {
+               dst[w] |= src[w];
+            }
+            count += bitCount(dst);
+         }
+      }
+   }
+
+/**
+ * Removes every character from this set that is not also in s.
+ */
+
+   public void intersectWith(CharSet s) {
+      for (int p = 0; p < PAGE_COUNT; p++) {
+         long[] dst = pages[p];
+         if (dst == null) continue;
+         count -= bitCount(dst);
+         long[] src = s.pages[p];
+         if (src == null) {
+            pages[p] = null;
+         } else {
+            for (int w = 0; w < PAGE_WORDS; w++) {
+               dst[w] &= src[w];
+            }
+            updatePage(p);
+         }
+      }
+   }
+
+/**
+ * Removes every character in s from this set.
+ */
+
+   public void subtractWith(CharSet s) {
+      for (int p = 0; p < PAGE_COUNT; p++) {
+         long[] dst = pages[p];
+         long[] src = s.pages[p];
+         if (dst == null || src == null) continue;
+         count -= bitCount(dst);
+         for (int w = 0; w < PAGE_WORDS; w++) {
+            dst[w] &= ~src[w];
+         }
+         updatePage(p);
+      }
    }
 
 /**
@@ -89,10 +215,8 @@ public class CharSet {
  */
 
    public CharSet union(CharSet s) {
-      CharSet result = new CharSet();
-      for (int i = 0; i < CVEC_WORDS; i++) {
-         result.cv[i] = this.cv[i] | s.cv[i];
-      }
+      CharSet result = new CharSet(this);
+      result.unionWith(s);
       return result;
    }
 
@@ -101,10 +225,8 @@ public class CharSet {
  */
 
    public CharSet intersect(CharSet s) {
-      CharSet result = new CharSet();
-      for (int i = 0; i < CVEC_WORDS; i++) {
-         result.cv[i] = this.cv[i] & s.cv[i];
-      }
+      CharSet result = new CharSet(this);
+      result.intersectWith(s);
       return result;
    }
 
@@ -113,10 +235,8 @@ public class CharSet {
  */
 
    public CharSet subtract(CharSet s) {
-      CharSet result = new CharSet();
-      for (int i = 0; i < CVEC_WORDS; i++) {
-         result.cv[i] = this.cv[i] & ~s.cv[i];
-      }
+      CharSet result = new CharSet(this);
+      result.subtractWith(s);
       return result;
    }
 
@@ -126,65 +246,58 @@ public class CharSet {
 
    @Override
    public String toString() {
-      String str = "";
-      for (int i = 0; i < RANGE_SIZE; i++) {
-         if (testBit(i)) {
-            if (!str.isEmpty()) str += ", ";
-            str += (char) i;
-         }
-      }
-      return "{" + str + "}";
-   }
-
-/*
- * Tests whether the specified bit is set in the characteristic vector.
- */
-
-   private boolean testBit(int k) {
-      if (k < 0 || k >= RANGE_SIZE) {
-         throw new RuntimeException("Index out of range");
+      StringBuilder sb = new StringBuilder("{");
+      for (int ch = nextSetBit(0); ch >= 0; ch = nextSetBit(ch + 1)) {
+         if (sb.length() > 1) sb.append(", ");
+         sb.append((char) ch);
       }
-      return (cv[k / BITS_PER_WORD] & createMask(k)) != 0;
+      return sb.append("}").toString();
    }
 
 /*
- * Sets the specified bit in the characteristic vector.
+ * Adds the number of bits in page p back into the count after an
+ * operation has changed it, releasing the page if it is now empty.
  */
 
-   private void setBit(int k) {
-      if (k < 0 || k >= RANGE_SIZE) {
-         throw new RuntimeException("Index out of range");
-      }
-      cv[k / BITS_PER_WORD] |= createMask(k);
+   private void updatePage(int p) {
+      int n = bitCount(pages[p]);
+      if (n == 0) pages[p] = null;
+      count += n;
    }
 
 /*
- * Clears the specified bit in the characteristic vector.
+ * Returns the number of bits that are set in the page.
  */
 
-   private void clearBit(int k) {
-      if (k < 0 || k >= RANGE_SIZE) {
-         throw new RuntimeException("Index out of range");
+   private static int bitCount(long[] page) {
+      int n = 0;
+      for (int w = 0; w < PAGE_WORDS; w++) {
+         n += Long.bitCount(page[w]);
       }
-      cv[k / BITS_PER_WORD] &= ~createMask(k);
+      return n;
    }
 
 /*
- * Creates the mask for bit k.
+ * Constants
+ * ---------
+ * The 65536 possible characters are divided into pages of 1024, each of
+ * which is represented by sixteen 64-bit words.  A page is allocated only
+ * when the set first contains one of its characters, so a set of ASCII
+ * characters needs just one page.  Within a page, the word index for the
+ * character ch is (ch >>> WORD_SHIFT) & WORD_MASK.  The bit index is the
+ * low-order six bits of ch, which is the shift distance Java uses when
+ * 1L << ch is evaluated.
  */
 
-   private int createMask(int k) {
-      return 1 << k % BITS_PER_WORD;
-   }
-
-/* Constants */
-
-   private static final int RANGE_SIZE = 256;
-   private static final int BITS_PER_WORD = 32;
-   private static final int CVEC_WORDS = RANGE_SIZE / BITS_PER_WORD;
+   private static final int PAGE_SHIFT = 10;
+   private static final int WORD_SHIFT = 6;
+   private static final int PAGE_COUNT = 1 << (16 - PAGE_SHIFT);
+   private static final int PAGE_WORDS = 1 << (PAGE_SHIFT - WORD_SHIFT);
+   private static final int WORD_MASK = PAGE_WORDS - 1;
 
 /* Private instance variables */
 
-   private int[] cv = new int[CVEC_WORDS];
+   private long[][] pages;     /* The characteristic vector, by page */
+   private int count;          /* The number of characters in the set */
 
 }
@@ -0,0 +1,451 @@
+/*
+ * File: HashXSet.java
+ * -------------------
+ * This file exports the HashXSet class, which offers the same extended
+ * set operations as XSet but stores its values in an open-addressed hash
+ * table.  The contains method therefore runs in constant expected time,
+ * which makes intersect, subtract, and isSubsetOf linear in the size of
+ * the smaller operand.
+ */
+
+package edu.stanford.cs.javacs2.ch16;
+
+import edu.stanford.cs.javacs2.ch13.GenericArray;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ * This class implements an unordered set.  The iterator method returns
+ * the values in the order in which they appear in the hash table; the
+ * sortedIterator method returns them in ascending order, at the cost of
+ * a sort.  The values must implement hashCode and equals consistently,
+ * and must not change in ways that affect hashCode while in the set.
+ */
+
+public class HashXSet<T extends Comparable<? super T>>
+                    implements Set<T>, Comparable<HashXSet<T>> {
+
+/**
+ * Creates an empty HashXSet.
+ */
+
+   public HashXSet() {
+      clear();
+   }
+
+/**
+ * Creates a HashXSet containing the values supplied as arguments.
+ */
+
+   @SuppressWarnings("unchecked")
+   public HashXSet(T... args) {
+      this();
+      ensureCapacity(args.length);
+      for (T value : args) {
+         add(value);
+      }
+   }
+
+/**
+ * Creates a HashXSet containing the values from the argument set.  If
+ * the argument is a HashXSet, its table is copied without rehashing.
+ */
+
+   @SuppressWarnings("unchecked")
+   public HashXSet(Set<T> set) {
+      if (set instanceof HashXSet) {
+         HashXSet<T> s2 = (HashXSet<T>) set;
+         capacity = s2.capacity;
+         values = new GenericArray<T>(capacity);
+         s2.values.copyRange(0, values, 0, capacity);
+         hashes = s2.hashes.clone();
+         count = s2.count;
+         hashSum = s2.hashSum;
+      } else {
+         clear();
+         ensureCapacity(set.size());
+         for (T value : set) {
+            add(value);
+         }
+      }
+   }
+
+/*
+ * Implementation notes: size, isEmpty, clear
+ * ------------------------------------------
+ * The count and hashSum variables are updated on every insertion and
+ * deletion, so size, isEmpty, and hashCode all run in constant time.
+ */
+
+   public int size() {
+      return count;
+   }
+
+   public boolean isEmpty() {
+      return count == 0;
+   }
+
+   public void clear() {
+      capacity = INITIAL_CAPACITY;
+      values = new GenericArray<T>(capacity);
+      hashes = new int[capacity];
+      count = 0;
+      hashSum = 0;
+   }
+
+/**
+ * Ensures that the set can hold at least n values without rehashing.
+ *
+ * @param n The number of values the set must be able to hold
+ */
+
+   public void ensureCapacity(int n) {
+      int newCapacity = capacity;
+      while (n > newCapacity * MAX_LOAD_FACTOR) {
+         newCapacity *= 2;
+      }
+      if (newCapacity != capacity) rehash(newCapacity);
+   }
+
+/*
+ * Implementation notes: add, contains
+ * -----------------------------------
+ * Collisions are resolved by linear probing.  The spread hash code of
+ * each value is kept in the hashes array, so a probe compares integers
+ * and calls equals only when the hash codes match.
+ */
+
+   public void add(T value) {
+      int h = spread(value.hashCode());
+      if (find(value, h) >= 0) return;
+      if (count + 1 > capacity * MAX_LOAD_FACTOR) rehash(2 * capacity);
+      insert(value, h);
+      count++;
+      hashSum += value.hashCode();
+   }
+
+   public boolean contains(T value) {
+      return find(value, spread(value.hashCode())) >= 0;
+   }
+
+/*
+ * Implementation notes: remove
+ * ----------------------------
+ * Instead of leaving a tombstone, as OpenHashMap does, this method closes
+ * the gap by moving later entries in the same cluster back toward their
+ * home slots.  An entry at index j whose home slot is h may move into the
+ * hole only if the hole lies on its probe path, which is the case when
+ * the distance from h to j is at least the distance from the hole to j.
+ * The table therefore never fills with deleted slots.
+ */
+
+   public void remove(T value) {
+      int hole = find(value, spread(value.hashCode()));
+      if (hole < 0) return;
+      int mask = capacity - 1;
+      int j = hole;
+      while (true) {
+         j = (j + 1) & mask;
+         T v = values.get(j);
+         if (v == null) break;
+         int home = hashes[j] & mask;
+         if (((j - home) & mask) >= ((j - hole) & mask)) {
+            values.set(hole, v);
+            hashes[hole] = hashes[j];
+            hole = j;
+         }
+      }
+      values.set(hole, null);
+      count--;
+      hashSum -= value.hashCode();
+   }
+
+/**
+ * Returns an iterator over the values in hash-table order, which is
+ * unrelated to the order of the values.
+ */
+
+   public Iterator<T> iterator() {
+      return new HashXSetIterator();
+   }
+
+/**
+ * Returns an iterator that delivers the values in ascending order.  This
+ * method copies and sorts the values, so it runs in O(N log N) time.
+ *
+ * @return An iterator over the values in ascending order
+ */
+
+   public Iterator<T> sortedIterator() {
+      return Arrays.asList(toSortedArray()).iterator();
+   }
+
+/**
+ * Converts the set to its string representation, listing the values in
+ * ascending order as XSet does.
+ */
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder("{");
+      for (T value : toSortedArray()) {
+         if (sb.length() > 1) sb.append(", ");
+         sb.append(value);
+      }
+      return sb.append("}").toString();
+   }
+
+/*
+ * Implementation notes: union, intersect, subtract, isSubsetOf
+ * ------------------------------------------------------------
+ * Each operation iterates over whichever operand is smaller whenever the
+ * result allows it.  The union copies the larger HashXSet and adds the
+ * smaller one.  The intersection looks up each value of the smaller set
+ * in the larger.  The difference either removes the values of a smaller
+ * s2 from a copy of this set or keeps the values of this set that s2
+ * does not contain.  A set cannot be a subset of a smaller one, so
+ * isSubsetOf compares the sizes before testing any values.
+ */
+
+/**
+ * Creates a new set that is the union of this set and s2.
+ */
+
+   public HashXSet<T> union(Set<T> s2) {
+      Set<T> larger = this;
+      Set<T> smaller = s2;
+      if (s2 instanceof HashXSet && s2.size() > count) {
+         larger = s2;
+         smaller = this;
+      }
+      HashXSet<T> result = new HashXSet<T>(larger);
+      result.ensureCapacity(larger.size() + smaller.size());
+      for (T value : smaller) {
+         result.add(value);
+      }
+      return result;
+   }
+
+/**
+ * Creates a new set that is the intersection of this set and s2.
+ */
+
+   public HashXSet<T> intersect(Set<T> s2) {
+      Set<T> larger = s2;
+      Set<T> smaller = this;
+      if (s2.size() < count) {
+         larger = this;
+         smaller = s2;
+      }
+      HashXSet<T> result = new HashXSet<T>();
+      for (T value : smaller) {
+         if (larger.contains(value)) result.add(value);
+      }
+      return result;
+   }
+
+/**
+ * Creates a new set that is the set difference of this set and s2.
+ */
+
+   public HashXSet<T> subtract(Set<T> s2) {
+      HashXSet<T> result;
+      if (s2.size() < count) {
+         result = new HashXSet<T>(this);
+         for (T value : s2) {
+            result.remove(value);
+         }
+      } else {
+         result = new HashXSet<T>();
+         for (T value : this) {
+            if (!s2.contains(value)) result.add(value);
+         }
+      }
+      return result;
+   }
+
+/**
+ * Returns true if this set is a subset of s2.
+ */
+
+   public boolean isSubsetOf(Set<T> s2) {
+      if (count > s2.size()) return false;
+      for (T value : this) {
+         if (!s2.contains(value)) return false;
+      }
+      return true;
+   }
+
+/**
+ * Returns true if obj is a HashXSet and this set is equal to obj.  Two
+ * sets with the same size are equal if one is a subset of the other, so
+ * only one call to isSubsetOf is needed, and sets whose cached hash codes
+ * differ are rejected without looking at their values.
+ */
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public boolean equals(Object obj) {
+      if (!(obj instanceof HashXSet)) return false;
+      HashXSet<T> s2 = (HashXSet<T>) obj;
+      if (count != s2.count || hashSum != s2.hashSum) return false;
+      return isSubsetOf(s2);
+   }
+
+/**
+ * Returns a hash code based on the elements of the set.  The value is
+ * the sum of their hash codes, as in XSet, but is maintained as values
+ * are added and removed rather than being recomputed on each call.
+ */
+
+   @Override
+   public int hashCode() {
+      return hashSum;
+   }
+
+/**
+ * Compares this set to the set s2 in the same way as XSet: first by
+ * size and then by the values in ascending order.
+ */
+
+   public int compareTo(HashXSet<T> s2) {
+      int cmp = count - s2.count;
+      if (cmp != 0) return cmp;
+      T[] a1 = this.toSortedArray();
+      T[] a2 = s2.toSortedArray();
+      for (int i = 0; i < a1.length; i++) {
+         cmp = a1[i].compareTo(a2[i]);
+         if (cmp != 0) return cmp;
+      }
+      return 0;
+   }
+
+/*
+ * Returns the index of the slot containing value, or -1 if the value is
+ * not in the table.  The argument h is the spread hash code of value.
+ */
+
+   private int find(T value, int h) {
+      int mask = capacity - 1;
+      int index = h & mask;
+      while (true) {
+         T v = values.get(index);
+         if (v == null) return -1;
+         if (hashes[index] == h && v.equals(value)) return index;
+         index = (index + 1) & mask;
+      }
+   }
+
+/*
+ * Stores a value known not to be present in the first empty slot of its
+ * probe sequence.
+ */
+
+   private void insert(T value, int h) {
+      int mask = capacity - 1;
+      int index = h & mask;
+      while (values.get(index) != null) {
+         index = (index + 1) & mask;
+      }
+      values.set(index, value);
+      hashes[index] = h;
+   }
+
+/*
+ * Moves every value into a new table with the specified capacity, using
+ * the saved hash codes so that hashCode is not called again.
+ */
+
+   private void rehash(int newCapacity) {
+      GenericArray<T> oldValues = values;
+      int[] oldHashes = hashes;
+      int oldCapacity = capacity;
+      capacity = newCapacity;
+      values = new GenericArray<T>(capacity);
+      hashes = new int[capacity];
+      for (int i = 0; i < oldCapacity; i++) {
+         T v = oldValues.get(i);
+         if (v != null) insert(v, oldHashes[i]);
+      }
+   }
+
+/*
+ * Returns an array containing the values in ascending order.
+ */
+
+   @SuppressWarnings("unchecked")
+   private T[] toSortedArray() {
+      T[] array = (T[]) new Comparable<?>[count];
+      int n = 0;
+      for (int i = 0; i < capacity; i++) {
+         T v = values.get(i);
+         if (v != null) array[n++] = v;
+      }
+      Arrays.sort(array);
+      return array;
+   }
+
+/*
+ * Mixes the high bits of the hash code into the low bits, as described
+ * in the notes for OpenHashMap.spread.
+ */
+
+   private static int spread(int h) {
+      h ^= h >>> 16;
+      h *= 0x9E3779B9;
+      return h ^ (h >>> 16);
+   }
+
+/*
+ * Inner class: HashXSetIterator
+ * -----------------------------
+ * This class steps through the slots of the table, skipping empty ones.
+ */
+
+   private class HashXSetIterator implements Iterator<T> {
+
+      HashXSetIterator() {
+         index = 0;
+         skipEmpty();
+      }
+
+      @Override
+      public boolean hasNext() {
+         return index < capacity;
+      }
+
+      @Override
+      public T next() {
+         if (index >= capacity) throw new NoSuchElementException();
+         T value = values.get(index++);
+         skipEmpty();
+         return value;
+      }
+
+   /* Advances index to the next occupied slot or to the end */
+
+      private void skipEmpty() {
+         while (index < capacity && values.get(index) == null) {
+            index++;
+         }
+      }
+
+      private int index;
+
+   }
+
+/* Constants */
+
+   private static final int INITIAL_CAPACITY = 16;
+   private static final double MAX_LOAD_FACTOR = 0.75;
+
+/* Private instance variables */
+
+   private GenericArray<T> values;   /* The table of values, null if empty */
+   private int[] hashes;             /* The spread hash code of each slot  */
+   private int capacity;             /* The size of the table, a power of 2 */
+   private int count;                /* The number of values in the set    */
+   private int hashSum;              /* The sum of the values' hash codes  */
+
+}
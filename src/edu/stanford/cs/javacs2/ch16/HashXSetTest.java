@@ -0,0 +1,20 @@
+/*
+ * File: HashXSetTest.java
+ * -----------------------
+ * This program runs an interactive test of the HashXSet class.
+ */
+
+package edu.stanford.cs.javacs2.ch16;
+
+public class HashXSetTest extends SetTest {
+
+   @Override
+   public Set<String> createSet() {
+      return new HashXSet<String>();
+   }
+
+   public static void main(String[] args) {
+      new HashXSetTest().run();
+   }
+
+}
@@ -0,0 +1,1191 @@
+/*
+ * File: IntSet.java
+ * -----------------
+ * This file implements a set of int values as a compressed bitmap in the
+ * style of the Roaring bitmaps described by Chambi, Lemire, Kaser, and
+ * Godin.  The range of int values is divided into chunks of 65536, and
+ * each nonempty chunk stores its values in whichever of three container
+ * types is most compact for the values it holds.
+ */
+
+package edu.stanford.cs.javacs2.ch16;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * This class implements a set of int values that supports the same
+ * high-level operations as XSet.  Because it stores no objects for the
+ * individual values, an IntSet typically requires between 1/8 and 2
+ * bytes per value, rather than the forty or so bytes required for a
+ * boxed Integer in a balanced tree.  Values are delivered by iterators
+ * in ascending order.
+ */
+
+public class IntSet implements Set<Integer> {
+
+/**
+ * Creates an empty IntSet.
+ */
+
+   public IntSet() {
+      keys = new char[INITIAL_CHUNKS];
+      containers = new Container[INITIAL_CHUNKS];
+      chunkCount = 0;
+      count = 0;
+   }
+
+/**
+ * Creates an IntSet containing the values supplied as arguments.
+ */
+
+   public IntSet(int... values) {
+      this();
+      for (int value : values) {
+         add(value);
+      }
+   }
+
+/**
+ * Returns the number of values in this set.  If the set contains more
+ * than Integer.MAX_VALUE values, this method returns Integer.MAX_VALUE;
+ * the exact number is available from cardinality.
+ */
+
+   public int size() {
+      return (int) Math.min(count, Integer.MAX_VALUE);
+   }
+
+/**
+ * Returns the number of values in this set as a long.
+ *
+ * @return The number of values in this set
+ */
+
+   public long cardinality() {
+      return count;
+   }
+
+/**
+ * Returns true if this set contains no elements.
+ */
+
+   public boolean isEmpty() {
+      return count == 0;
+   }
+
+/**
+ * Removes all elements from this set.
+ */
+
+   public void clear() {
+      Arrays.fill(containers, 0, chunkCount, null);
+      chunkCount = 0;
+      count = 0;
+   }
+
+/**
+ * Adds the specified value to the set if it is not already present.
+ */
+
+   public void add(int value) {
+      int u = value ^ Integer.MIN_VALUE;
+      char key = (char) (u >>> 16);
+      int i = findChunk(key);
+      if (i < 0) {
+         i = -i - 1;
+         insertChunk(i, key, new ArrayContainer());
+      }
+      Container c = containers[i];
+      int before = c.card;
+      c = c.add((char) u);
+      containers[i] = c;
+      count += c.card - before;
+   }
+
+/**
+ * Removes the specified value from the set, if necessary.
+ */
+
+   public void remove(int value) {
+      int u = value ^ Integer.MIN_VALUE;
+      int i = findChunk((char) (u >>> 16));
+      if (i < 0) return;
+      Container c = containers[i];
+      int before = c.card;
+      c = c.remove((char) u);
+      count += c.card - before;
+      if (c.card == 0) {
+         removeChunk(i);
+      } else {
+         containers[i] = c;
+      }
+   }
+
+/**
+ * Returns true if the set contains the specified value.
+ */
+
+   public boolean contains(int value) {
+      int u = value ^ Integer.MIN_VALUE;
+      int i = findChunk((char) (u >>> 16));
+      return i >= 0 && containers[i].contains((char) u);
+   }
+
+/*
+ * Implementation notes: add, remove, contains
+ * -------------------------------------------
+ * These versions of the methods implement the Collection interface by
+ * unboxing the value and calling the int version.
+ */
+
+   public void add(Integer value) {
+      add(value.intValue());
+   }
+
+   public void remove(Integer value) {
+      remove(value.intValue());
+   }
+
+   public boolean contains(Integer value) {
+      return contains(value.intValue());
+   }
+
+/**
+ * Returns an iterator that delivers the values in ascending order.
+ */
+
+   public Iterator<Integer> iterator() {
+      return new IntSetIterator();
+   }
+
+/**
+ * Applies the action to each value in ascending order without creating
+ * an Integer for each one.  The name differs from forEach so that a call
+ * with a lambda expression is not ambiguous.
+ *
+ * @param action The action to apply
+ */
+
+   public void forEachInt(IntConsumer action) {
+      for (int i = 0; i < chunkCount; i++) {
+         containers[i].forEach(keys[i] << 16, action);
+      }
+   }
+
+/*
+ * Implementation notes: union, intersect, subtract
+ * ------------------------------------------------
+ * These methods step through the chunks of both sets in order of their
+ * keys, in the same way that XSet.merge steps through the values.  Only
+ * chunks whose keys appear in both sets require a container operation;
+ * each of the others is either copied or skipped as a whole.
+ */
+
+/**
+ * Creates a new set that is the union of this set and s2.
+ */
+
+   public IntSet union(IntSet s2) {
+      IntSet result = withCapacity(chunkCount + s2.chunkCount);
+      int i = 0;
+      int j = 0;
+      while (i < chunkCount || j < s2.chunkCount) {
+         int k1 = (i < chunkCount) ? keys[i] : NO_KEY;
+         int k2 = (j < s2.chunkCount) ? s2.keys[j] : NO_KEY;
+         if (k1 < k2) {
+            result.appendChunk(keys[i], containers[i++].copy());
+         } else if (k1 > k2) {
+            result.appendChunk(s2.keys[j], s2.containers[j++].copy());
+         } else {
+            result.appendChunk(keys[i],
+                               containers[i++].or(s2.containers[j++]));
+         }
+      }
+      return result;
+   }
+
+/**
+ * Creates a new set that is the intersection of this set and s2.
+ */
+
+   public IntSet intersect(IntSet s2) {
+      IntSet result = withCapacity(Math.min(chunkCount, s2.chunkCount));
+      int i = 0;
+      int j = 0;
+      while (i < chunkCount && j < s2.chunkCount) {
+         if (keys[i] < s2.keys[j]) {
+            i++;
+         } else if (keys[i] > s2.keys[j]) {
+            j++;
+         } else {
+            result.appendChunk(keys[i],
+                               containers[i++].and(s2.containers[j++]));
+         }
+      }
+      return result;
+   }
+
+/**
+ * Creates a new set that is the set difference of this set and s2.
+ */
+
+   public IntSet subtract(IntSet s2) {
+      IntSet result = withCapacity(chunkCount);
+      int i = 0;
+      int j = 0;
+      while (i < chunkCount) {
+         int k2 = (j < s2.chunkCount) ? s2.keys[j] : NO_KEY;
+         if (keys[i] < k2) {
+            result.appendChunk(keys[i], containers[i++].copy());
+         } else if (keys[i] > k2) {
+            j++;
+         } else {
+            result.appendChunk(keys[i],
+                               containers[i++].andNot(s2.containers[j++]));
+         }
+      }
+      return result;
+   }
+
+/**
+ * Returns true if this set is a subset of s2.
+ */
+
+   public boolean isSubsetOf(IntSet s2) {
+      if (count > s2.count) return false;
+      int j = 0;
+      for (int i = 0; i < chunkCount; i++) {
+         while (j < s2.chunkCount && s2.keys[j] < keys[i]) {
+            j++;
+         }
+         if (j == s2.chunkCount || s2.keys[j] != keys[i]) return false;
+         if (!containers[i].subsetOf(s2.containers[j])) return false;
+      }
+      return true;
+   }
+
+/**
+ * Returns true if obj is an IntSet and this set is equal to obj.
+ */
+
+   @Override
+   public boolean equals(Object obj) {
+      if (!(obj instanceof IntSet)) return false;
+      IntSet s2 = (IntSet) obj;
+      return count == s2.count && isSubsetOf(s2);
+   }
+
+/**
+ * Returns a hash code based on the elements of the set.  The value is
+ * the same as the hash code of an XSet containing the same values.
+ */
+
+   @Override
+   public int hashCode() {
+      int hc = 0;
+      for (int i = 0; i < chunkCount; i++) {
+         Container c = containers[i];
+         int base = keys[i] << 16;
+         for (int v = c.next(0); v >= 0; v = c.next(v + 1)) {
+            hc += (base | v) ^ Integer.MIN_VALUE;
+         }
+      }
+      return hc;
+   }
+
+/**
+ * Converts the set to its string representation.
+ */
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder("{");
+      for (int i = 0; i < chunkCount; i++) {
+         Container c = containers[i];
+         int base = keys[i] << 16;
+         for (int v = c.next(0); v >= 0; v = c.next(v + 1)) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append((base | v) ^ Integer.MIN_VALUE);
+         }
+      }
+      return sb.append("}").toString();
+   }
+
+/*
+ * Implementation notes: runOptimize
+ * ---------------------------------
+ * Array and bitmap containers are chosen automatically as values are
+ * added and removed, but run containers are created only by this method.
+ * Converting to runs is worthwhile only after the set has been built,
+ * since changing a run container requires converting it back.
+ */
+
+/**
+ * Converts each container to a list of runs of consecutive values if
+ * doing so makes it smaller, and converts run containers back if they
+ * are no longer the smallest choice.  This method is most useful for
+ * sets containing long ranges of consecutive values.
+ */
+
+   public void runOptimize() {
+      for (int i = 0; i < chunkCount; i++) {
+         Container c = containers[i];
+         int runs = c.runCount();
+         int plainBytes = (c.card <= ARRAY_MAX) ? 2 * c.card : BITMAP_BYTES;
+         if (4 * runs < plainBytes) {
+            if (!(c instanceof RunContainer)) {
+               containers[i] = RunContainer.fromContainer(c, runs);
+            }
+         } else if (c instanceof RunContainer) {
+            containers[i] = ((RunContainer) c).materialize();
+         }
+      }
+   }
+
+/**
+ * Returns an estimate of the number of bytes of memory used by this set.
+ *
+ * @return The estimated memory use in bytes
+ */
+
+   public long sizeInBytes() {
+      long n = OBJECT_BYTES + ARRAY_BYTES + 2 * keys.length
+                            + ARRAY_BYTES + 4 * containers.length;
+      for (int i = 0; i < chunkCount; i++) {
+         n += containers[i].sizeInBytes();
+      }
+      return n;
+   }
+
+/*
+ * Implementation notes: writeTo, readFrom
+ * ---------------------------------------
+ * The serialized form begins with the number of chunks.  Each chunk is
+ * written as its 16-bit key, a byte giving the container type, and the
+ * contents of the container.  An array container is written as its size
+ * minus one followed by its values.  A bitmap container is written as
+ * its 1024 words.  A run container is written as the number of runs
+ * minus one followed by the start and length minus one of each run.
+ * All values are written in the big-endian form used by DataOutput.
+ */
+
+/**
+ * Writes this set to the output in a compact binary form that readFrom
+ * can read.
+ *
+ * @param out The output to which the set is written
+ */
+
+   public void writeTo(DataOutput out) throws IOException {
+      out.writeInt(chunkCount);
+      for (int i = 0; i < chunkCount; i++) {
+         out.writeChar(keys[i]);
+         containers[i].write(out);
+      }
+   }
+
+/**
+ * Reads a set written by writeTo.
+ *
+ * @param in The input from which the set is read
+ * @return The set
+ */
+
+   public static IntSet readFrom(DataInput in) throws IOException {
+      int n = in.readInt();
+      IntSet set = withCapacity(n);
+      for (int i = 0; i < n; i++) {
+         char key = in.readChar();
+         int type = in.readByte();
+         Container c;
+         if (type == ARRAY_TYPE) {
+            c = ArrayContainer.read(in);
+         } else if (type == BITMAP_TYPE) {
+            c = BitmapContainer.read(in);
+         } else if (type == RUN_TYPE) {
+            c = RunContainer.read(in);
+         } else {
+            throw new IOException("Illegal container type " + type);
+         }
+         set.appendChunk(key, c);
+      }
+      return set;
+   }
+
+/**
+ * Returns the number of bytes writeTo writes for this set.
+ *
+ * @return The size of the serialized form in bytes
+ */
+
+   public int serializedSizeInBytes() {
+      int n = 4;
+      for (int i = 0; i < chunkCount; i++) {
+         n += 3 + containers[i].serializedSize();
+      }
+      return n;
+   }
+
+/*
+ * Creates an empty IntSet with room for the specified number of chunks.
+ */
+
+   private static IntSet withCapacity(int capacity) {
+      IntSet set = new IntSet();
+      if (capacity > INITIAL_CHUNKS) {
+         set.keys = new char[capacity];
+         set.containers = new Container[capacity];
+      }
+      return set;
+   }
+
+/*
+ * Returns the index of the chunk with the specified key, or -(i + 1) if
+ * there is no such chunk and it belongs at index i.
+ */
+
+   private int findChunk(char key) {
+      int lo = 0;
+      int hi = chunkCount - 1;
+      while (lo <= hi) {
+         int mid = (lo + hi) >>> 1;
+         if (keys[mid] < key) {
+            lo = mid + 1;
+         } else if (keys[mid] > key) {
+            hi = mid - 1;
+         } else {
+            return mid;
+         }
+      }
+      return -(lo + 1);
+   }
+
+/*
+ * Inserts a chunk at index i, expanding the arrays if necessary.
+ */
+
+   private void insertChunk(int i, char key, Container c) {
+      if (chunkCount == keys.length) {
+         keys = Arrays.copyOf(keys, 2 * chunkCount);
+         containers = Arrays.copyOf(containers, 2 * chunkCount);
+      }
+      System.arraycopy(keys, i, keys, i + 1, chunkCount - i);
+      System.arraycopy(containers, i, containers, i + 1, chunkCount - i);
+      keys[i] = key;
+      containers[i] = c;
+      chunkCount++;
+   }
+
+/*
+ * Removes the chunk at index i.
+ */
+
+   private void removeChunk(int i) {
+      chunkCount--;
+      System.arraycopy(keys, i + 1, keys, i, chunkCount - i);
+      System.arraycopy(containers, i + 1, containers, i, chunkCount - i);
+      containers[chunkCount] = null;
+   }
+
+/*
+ * Adds a chunk after all existing chunks unless its container is empty.
+ * The set operations use this method to build their results in order.
+ */
+
+   private void appendChunk(char key, Container c) {
+      if (c.card == 0) return;
+      insertChunk(chunkCount, key, c);
+      count += c.card;
+   }
+
+/*
+ * Inner class: IntSetIterator
+ * ---------------------------
+ * This class iterates through the chunks in order and, within each chunk,
+ * asks the container for the next value after the one just returned.
+ */
+
+   private class IntSetIterator implements Iterator<Integer> {
+
+      public IntSetIterator() {
+         chunk = 0;
+         advance(0);
+      }
+
+      public boolean hasNext() {
+         return chunk < chunkCount;
+      }
+
+      public Integer next() {
+         if (chunk >= chunkCount) throw new NoSuchElementException();
+         int value = ((keys[chunk] << 16) | low) ^ Integer.MIN_VALUE;
+         advance(low + 1);
+         return value;
+      }
+
+   /* Moves to the first value at or after from, moving on to later chunks */
+
+      private void advance(int from) {
+         while (chunk < chunkCount) {
+            int v = containers[chunk].next(from);
+            if (v >= 0) {
+               low = v;
+               return;
+            }
+            chunk++;
+            from = 0;
+         }
+      }
+
+      private int chunk;           /* Index of the current chunk         */
+      private int low;             /* Low-order 16 bits of the next value */
+
+   }
+
+/*
+ * Inner class: Container
+ * ----------------------
+ * This abstract class defines the operations that each container type
+ * must implement.  A container holds the low-order 16 bits of the values
+ * in a chunk, which are represented as char values so that they are
+ * unsigned.  The methods that change a container return the container
+ * that holds the result, which may be a new container of a different
+ * type.  The binary operations always return a new container and never
+ * change either operand.
+ */
+
+   private abstract static class Container {
+
+   /* Returns true if the container holds x */
+
+      abstract boolean contains(char x);
+
+   /* Adds x, returning the container that now holds the values */
+
+      abstract Container add(char x);
+
+   /* Removes x, returning the container that now holds the values */
+
+      abstract Container remove(char x);
+
+   /* Returns the smallest value >= from, or -1 if there is none */
+
+      abstract int next(int from);
+
+   /* Calls action for each value, combined with the high bits in base */
+
+      abstract void forEach(int base, IntConsumer action);
+
+   /* Sets the bit for each value in the 1024-word array */
+
+      abstract void orInto(long[] words);
+
+   /* Returns the number of runs of consecutive values */
+
+      abstract int runCount();
+
+      abstract Container and(Container c);
+      abstract Container or(Container c);
+      abstract Container andNot(Container c);
+      abstract Container copy();
+      abstract long sizeInBytes();
+      abstract int serializedSize();
+      abstract void write(DataOutput out) throws IOException;
+
+   /* Returns true if every value in this container is in c */
+
+      boolean subsetOf(Container c) {
+         if (card > c.card) return false;
+         for (int v = next(0); v >= 0; v = next(v + 1)) {
+            if (!c.contains((char) v)) return false;
+         }
+         return true;
+      }
+
+      int card;                    /* Number of values in the container  */
+
+   }
+
+/*
+ * Inner class: ArrayContainer
+ * ---------------------------
+ * An array container stores its values as a sorted array of char values.
+ * It is used whenever a chunk contains at most ARRAY_MAX values, which
+ * is the point at which the array would be as large as a bitmap.
+ */
+
+   private static class ArrayContainer extends Container {
+
+      ArrayContainer() {
+         values = new char[INITIAL_ARRAY_SIZE];
+      }
+
+      ArrayContainer(char[] values, int card) {
+         this.values = values;
+         this.card = card;
+      }
+
+      boolean contains(char x) {
+         return Arrays.binarySearch(values, 0, card, x) >= 0;
+      }
+
+      Container add(char x) {
+         int i = Arrays.binarySearch(values, 0, card, x);
+         if (i >= 0) return this;
+         if (card == ARRAY_MAX) return toBitmap().add(x);
+         i = -i - 1;
+         if (card == values.length) {
+            int n = Math.max(INITIAL_ARRAY_SIZE, 2 * card);
+            values = Arrays.copyOf(values, Math.min(n, ARRAY_MAX));
+         }
+         System.arraycopy(values, i, values, i + 1, card - i);
+         values[i] = x;
+         card++;
+         return this;
+      }
+
+      Container remove(char x) {
+         int i = Arrays.binarySearch(values, 0, card, x);
+         if (i >= 0) {
+            System.arraycopy(values, i + 1, values, i, card - i - 1);
+            card--;
+         }
+         return this;
+      }
+
+      int next(int from) {
+         if (from > MAX_LOW) return -1;
+         int i = Arrays.binarySearch(values, 0, card, (char) from);
+         if (i < 0) i = -i - 1;
+         return (i < card) ? values[i] : -1;
+      }
+
+      void forEach(int base, IntConsumer action) {
+         for (int i = 0; i < card; i++) {
+            action.accept((base | values[i]) ^ Integer.MIN_VALUE);
+         }
+      }
+
+      void orInto(long[] words) {
+         for (int i = 0; i < card; i++) {
+            char v = values[i];
+            words[v >>> 6] |= 1L << v;
+         }
+      }
+
+      int runCount() {
+         int runs = (card > 0) ? 1 : 0;
+         for (int i = 1; i < card; i++) {
+            if (values[i] != values[i - 1] + 1) runs++;
+         }
+         return runs;
+      }
+
+   /* The binary operations merge two arrays or filter this one */
+
+      Container and(Container c) {
+         char[] result = new char[Math.min(card, c.card)];
+         int n = 0;
+         if (c instanceof ArrayContainer) {
+            char[] v2 = ((ArrayContainer) c).values;
+            int i = 0;
+            int j = 0;
+            while (i < card && j < c.card) {
+               if (values[i] < v2[j]) {
+                  i++;
+               } else if (values[i] > v2[j]) {
+                  j++;
+               } else {
+                  result[n++] = values[i++];
+                  j++;
+               }
+            }
+         } else {
+            for (int i = 0; i < card; i++) {
+               if (c.contains(values[i])) result[n++] = values[i];
+            }
+         }
+         return new ArrayContainer(result, n);
+      }
+
+      Container or(Container c) {
+         if (!(c instanceof ArrayContainer) || card + c.card > ARRAY_MAX) {
+            long[] words = new long[BITMAP_WORDS];
+            orInto(words);
+            c.orInto(words);
+            return fromWords(words);
+         }
+         char[] v2 = ((ArrayContainer) c).values;
+         char[] result = new char[card + c.card];
+         int n = 0;
+         int i = 0;
+         int j = 0;
+         while (i < card || j < c.card) {
+            if (j == c.card || (i < card && values[i] < v2[j])) {
+               result[n++] = values[i++];
+            } else if (i == card || values[i] > v2[j]) {
+               result[n++] = v2[j++];
+            } else {
+               result[n++] = values[i++];
+               j++;
+            }
+         }
+         return new ArrayContainer(result, n);
+      }
+
+      Container andNot(Container c) {
+         char[] result = new char[card];
+         int n = 0;
+         if (c instanceof ArrayContainer) {
+            char[] v2 = ((ArrayContainer) c).values;
+            int j = 0;
+            for (int i = 0; i < card; i++) {
+               while (j < c.card && v2[j] < values[i]) {
+                  j++;
+               }
+               if (j == c.card || v2[j] != values[i]) result[n++] = values[i];
+            }
+         } else {
+            for (int i = 0; i < card; i++) {
+               if (!c.contains(values[i])) result[n++] = values[i];
+            }
+         }
+         return new ArrayContainer(result, n);
+      }
+
+      Container copy() {
+         return new ArrayContainer(Arrays.copyOf(values, card), card);
+      }
+
+      long sizeInBytes() {
+         return OBJECT_BYTES + ARRAY_BYTES + 2 * values.length;
+      }
+
+      int serializedSize() {
+         return 2 + 2 * card;
+      }
+
+      void write(DataOutput out) throws IOException {
+         out.writeByte(ARRAY_TYPE);
+         out.writeChar(card - 1);
+         for (int i = 0; i < card; i++) {
+            out.writeChar(values[i]);
+         }
+      }
+
+      static ArrayContainer read(DataInput in) throws IOException {
+         int n = in.readChar() + 1;
+         char[] values = new char[n];
+         for (int i = 0; i < n; i++) {
+            values[i] = in.readChar();
+         }
+         return new ArrayContainer(values, n);
+      }
+
+   /* Converts this container to a bitmap */
+
+      BitmapContainer toBitmap() {
+         long[] words = new long[BITMAP_WORDS];
+         orInto(words);
+         return new BitmapContainer(words, card);
+      }
+
+      private char[] values;       /* The values in ascending order      */
+
+   }
+
+/*
+ * Inner class: BitmapContainer
+ * ----------------------------
+ * A bitmap container stores its values as a characteristic vector of
+ * 65536 bits packed into 1024 long words, exactly as CharSet does.  The
+ * binary operations combine whole words, so that each costs at most
+ * 1024 logical operations regardless of the number of values.
+ */
+
+   private static class BitmapContainer extends Container {
+
+      BitmapContainer(long[] words, int card) {
+         this.words = words;
+         this.card = card;
+      }
+
+      boolean contains(char x) {
+         return (words[x >>> 6] & (1L << x)) != 0;
+      }
+
+      Container add(char x) {
+         long old = words[x >>> 6];
+         words[x >>> 6] = old | (1L << x);
+         if (words[x >>> 6] != old) card++;
+         return this;
+      }
+
+      Container remove(char x) {
+         long old = words[x >>> 6];
+         words[x >>> 6] = old & ~(1L << x);
+         if (words[x >>> 6] != old) card--;
+         return (card <= ARRAY_MAX) ? toArray() : this;
+      }
+
+      int next(int from) {
+         if (from > MAX_LOW) return -1;
+         int w = from >>> 6;
+         long word = words[w] & (-1L << from);
+         while (true) {
+            if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w == BITMAP_WORDS) return -1;
+            word = words[w];
+         }
+      }
+
+      void forEach(int base, IntConsumer action) {
+         for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+               int v = (w << 6) + Long.numberOfTrailingZeros(word);
+               action.accept((base | v) ^ Integer.MIN_VALUE);
+               word &= word - 1;
+            }
+         }
+      }
+
+      void orInto(long[] words) {
+         for (int w = 0; w < BITMAP_WORDS; w++) {
+            words[w] |= this.words[w];
+         }
+      }
+
+      int runCount() {
+         int runs = 0;
+         long carry = 0;
+         for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = words[w];
+            runs += Long.bitCount(word & ~((word << 1) | carry));
+            carry = word >>> 63;
+         }
+         return runs;
+      }
+
+   /* Array operands are handled by the array container's methods */
+
+      Container and(Container c) {
+         if (c instanceof ArrayContainer) return c.and(this);
+         long[] result = bitsOf(c);
+         for (int w = 0; w < BITMAP_WORDS; w++) {
+            result[w] &= words[w];
+         }
+         return fromWords(result);
+      }
+
+      Container or(Container c) {
+         long[] result = words.clone();
+         c.orInto(result);
+         return fromWords(result);
+      }
+
+      Container andNot(Container c) {
+         long[] result = words.clone();
+         if (c instanceof ArrayContainer) {
+            for (int v = c.next(0); v >= 0; v = c.next(v + 1)) {
+               result[v >>> 6] &= ~(1L << v);
+            }
+         } else {
+            long[] other = bitsOf(c);
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+               result[w] &= ~other[w];
+            }
+         }
+         return fromWords(result);
+      }
+
+      boolean subsetOf(Container c) {
+         if (!(c instanceof BitmapContainer)) return super.subsetOf(c);
+         long[] other = ((BitmapContainer) c).words;
+         for (int w = 0; w < BITMAP_WORDS; w++) {
+            if ((words[w] & ~other[w]) != 0) return false;
+         }
+         return true;
+      }
+
+      Container copy() {
+         return new BitmapContainer(words.clone(), card);
+      }
+
+      long sizeInBytes() {
+         return OBJECT_BYTES + ARRAY_BYTES + BITMAP_BYTES;
+      }
+
+      int serializedSize() {
+         return BITMAP_BYTES;
+      }
+
+      void write(DataOutput out) throws IOException {
+         out.writeByte(BITMAP_TYPE);
+         for (int w = 0; w < BITMAP_WORDS; w++) {
+            out.writeLong(words[w]);
+         }
+      }
+
+      static BitmapContainer read(DataInput in) throws IOException {
+         long[] words = new long[BITMAP_WORDS];
+         int card = 0;
+         for (int w = 0; w < BITMAP_WORDS; w++) {
+            words[w] = in.readLong();
+            card += Long.bitCount(words[w]);
+         }
+         return new BitmapContainer(words, card);
+      }
+
+   /* Converts this container to an array */
+
+      ArrayContainer toArray() {
+         char[] values = new char[card];
+         int n = 0;
+         for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+               int v = (w << 6) + Long.numberOfTrailingZeros(word);
+               values[n++] = (char) v;
+               word &= word - 1;
+            }
+         }
+         return new ArrayContainer(values, card);
+      }
+
+      private long[] words;        /* The characteristic vector          */
+
+   }
+
+/*
+ * Inner class: RunContainer
+ * -------------------------
+ * A run container stores its values as a sorted list of runs, each of
+ * which is represented by its first value and its length minus one.
+ * Run containers are immutable.  The add and remove methods convert the
+ * container to an array or bitmap and then change that container, and
+ * the binary operations work on the equivalent bitmap.
+ */
+
+   private static class RunContainer extends Container {
+
+      RunContainer(char[] runs, int nRuns) {
+         this.runs = runs;
+         this.nRuns = nRuns;
+         for (int r = 0; r < nRuns; r++) {
+            card += runs[2 * r + 1] + 1;
+         }
+      }
+
+      boolean contains(char x) {
+         int r = findRun(x);
+         return r >= 0 && x <= runs[2 * r] + runs[2 * r + 1];
+      }
+
+      Container add(char x) {
+         return contains(x) ? this : materialize().add(x);
+      }
+
+      Container remove(char x) {
+         return contains(x) ? materialize().remove(x) : this;
+      }
+
+      int next(int from) {
+         if (from > MAX_LOW) return -1;
+         int r = findRun(from);
+         if (r >= 0 && from <= runs[2 * r] + runs[2 * r + 1]) return from;
+         return (r + 1 < nRuns) ? runs[2 * (r + 1)] : -1;
+      }
+
+      void forEach(int base, IntConsumer action) {
+         for (int r = 0; r < nRuns; r++) {
+            int end = runs[2 * r] + runs[2 * r + 1];
+            for (int v = runs[2 * r]; v <= end; v++) {
+               action.accept((base | v) ^ Integer.MIN_VALUE);
+            }
+         }
+      }
+
+      void orInto(long[] words) {
+         for (int r = 0; r < nRuns; r++) {
+            int start = runs[2 * r];
+            setRange(words, start, start + runs[2 * r + 1] + 1);
+         }
+      }
+
+      int runCount() {
+         return nRuns;
+      }
+
+      Container and(Container c) {
+         if (c instanceof ArrayContainer) return c.and(this);
+         return materialize().and(c);
+      }
+
+      Container or(Container c) {
+         return materialize().or(c);
+      }
+
+      Container andNot(Container c) {
+         return materialize().andNot(c);
+      }
+
+      Container copy() {
+         return this;
+      }
+
+      long sizeInBytes() {
+         return OBJECT_BYTES + ARRAY_BYTES + 2 * runs.length;
+      }
+
+      int serializedSize() {
+         return 2 + 4 * nRuns;
+      }
+
+      void write(DataOutput out) throws IOException {
+         out.writeByte(RUN_TYPE);
+         out.writeChar(nRuns - 1);
+         for (int i = 0; i < 2 * nRuns; i++) {
+            out.writeChar(runs[i]);
+         }
+      }
+
+      static RunContainer read(DataInput in) throws IOException {
+         int nRuns = in.readChar() + 1;
+         char[] runs = new char[2 * nRuns];
+         for (int i = 0; i < 2 * nRuns; i++) {
+            runs[i] = in.readChar();
+         }
+         return new RunContainer(runs, nRuns);
+      }
+
+   /* Creates a run container holding the values in c */
+
+      static RunContainer fromContainer(Container c, int nRuns) {
+         char[] runs = new char[2 * nRuns];
+         int r = -1;
+         int prev = -2;
+         for (int v = c.next(0); v >= 0; v = c.next(v + 1)) {
+            if (v == prev + 1) {
+               runs[2 * r + 1]++;
+            } else {
+               r++;
+               runs[2 * r] = (char) v;
+            }
+            prev = v;
+         }
+         return new RunContainer(runs, nRuns);
+      }
+
+   /* Returns an equivalent array or bitmap container */
+
+      Container materialize() {
+         long[] words = new long[BITMAP_WORDS];
+         orInto(words);
+         return fromWords(words);
+      }
+
+   /* Returns the index of the last run starting at or before x, or -1 */
+
+      private int findRun(int x) {
+         int lo = 0;
+         int hi = nRuns - 1;
+         while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (runs[2 * mid] <= x) {
+               lo = mid + 1;
+            } else {
+               hi = mid - 1;
+            }
+         }
+         return hi;
+      }
+
+      private char[] runs;         /* Start and length - 1 of each run   */
+      private int nRuns;           /* Number of runs                     */
+
+   }
+
+/*
+ * Returns an array or bitmap container holding the values whose bits are
+ * set in the 1024-word array, choosing whichever is smaller.
+ */
+
+   private static Container fromWords(long[] words) {
+      int card = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+         card += Long.bitCount(words[w]);
+      }
+      BitmapContainer bitmap = new BitmapContainer(words, card);
+      return (card <= ARRAY_MAX) ? bitmap.toArray() : bitmap;
+   }
+
+/*
+ * Returns a new 1024-word array in which the bits for the values in c are
+ * set.  The caller may change the array without affecting c.
+ */
+
+   private static long[] bitsOf(Container c) {
+      long[] words = new long[BITMAP_WORDS];
+      c.orInto(words);
+      return words;
+   }
+
+/*
+ * Sets the bits from start up to but not including end.  The masks rely
+ * on the fact that Java uses only the low-order six bits of the shift
+ * distance when shifting a long.
+ */
+
+   private static void setRange(long[] words, int start, int end) {
+      int first = start >>> 6;
+      int last = (end - 1) >>> 6;
+      long firstMask = -1L << start;
+      long lastMask = -1L >>> -end;
+      if (first == last) {
+         words[first] |= firstMask & lastMask;
+      } else {
+         words[first] |= firstMask;
+         for (int w = first + 1; w < last; w++) {
+            words[w] = -1L;
+         }
+         words[last] |= lastMask;
+      }
+   }
+
+/*
+ * Constants
+ * ---------
+ * Values are stored with the sign bit inverted, which makes the order of
+ * the chunks and of the values within each chunk the same as the signed
+ * order of the original values.  The byte counts used in sizeInBytes are
+ * typical of a 64-bit JVM with compressed references.
+ */
+
+   private static final int ARRAY_MAX = 4096;
+   private static final int BITMAP_WORDS = 1024;
+   private static final int BITMAP_BYTES = 8 * BITMAP_WORDS;
+   private static final int MAX_LOW = 0xFFFF;
+   private static final int NO_KEY = 0x10000;
+   private static final int INITIAL_CHUNKS = 4;
+   private static final int INITIAL_ARRAY_SIZE = 4;
+   private static final int ARRAY_TYPE = 0;
+   private static final int BITMAP_TYPE = 1;
+   private static final int RUN_TYPE = 2;
+   private static final int OBJECT_BYTES = 16;
+   private static final int ARRAY_BYTES = 16;
+
+/* Private instance variables */
+
+   private char[] keys;                 /* High 16 bits of each chunk    */
+   private Container[] containers;      /* Container for each chunk      */
+   private int chunkCount;              /* Number of nonempty chunks     */
+   private long count;                  /* Number of values in the set   */
+
+}
@@ -0,0 +1,71 @@
+/*
+ * File: IntSetTest.java
+ * ---------------------
+ * This program tests the IntSet class by creating sets of integers and
+ * displaying the results of simple operations, including a round trip
+ * through the serialized form.
+ */
+
+package edu.stanford.cs.javacs2.ch16;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class IntSetTest {
+
+   public void run() {
+      IntSet primes = new IntSet(2, 3, 5, 7, 11, 13, 17, 19, 23, 29);
+      IntSet odds = new IntSet();
+      for (int i = 1; i < 30; i += 2) {
+         odds.add(i);
+      }
+      IntSet extremes = new IntSet(Integer.MIN_VALUE, -1, 0,
+                                   Integer.MAX_VALUE);
+      System.out.println("primes = " + primes);
+      System.out.println("odds = " + odds);
+      System.out.println("extremes = " + extremes);
+      System.out.println("primes U odds = " + primes.union(odds));
+      System.out.println("primes ^ odds = " + primes.intersect(odds));
+      System.out.println("primes - odds = " + primes.subtract(odds));
+      System.out.println("primes ^ odds is a subset of odds = " +
+                         primes.intersect(odds).isSubsetOf(odds));
+      IntSet block = new IntSet();
+      for (int i = 0; i < 1000000; i++) {
+         block.add(i);
+      }
+      System.out.println("block.size() = " + block.size() +
+                         ", bytes = " + block.sizeInBytes());
+      block.runOptimize();
+      System.out.println("after runOptimize, bytes = " + block.sizeInBytes());
+      IntSet copy = roundTrip(block);
+      System.out.println("serialized bytes = " +
+                         block.serializedSizeInBytes() +
+                         ", copy equals block = " + copy.equals(block));
+   }
+
+/*
+ * Writes the set to a byte array and reads it back.
+ */
+
+   private IntSet roundTrip(IntSet set) {
+      try {
+         ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+         set.writeTo(new DataOutputStream(bytes));
+         byte[] data = bytes.toByteArray();
+         return IntSet.readFrom(new DataInputStream(
+                                   new ByteArrayInputStream(data)));
+      } catch (IOException ex) {
+         throw new RuntimeException(ex.toString());
+      }
+   }
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new IntSetTest().run();
+   }
+
+}
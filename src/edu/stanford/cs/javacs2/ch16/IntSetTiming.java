@@ -0,0 +1,164 @@
+/*
+ * File: IntSetTiming.java
+ * -----------------------
+ * This program compares the memory use and set-operation speed of IntSet
+ * and XSet<Integer>.  Each trial builds two sets of the same size, either
+ * dense (random values from a range twice the size of the set) or sparse
+ * (random values from the entire int range).  The memory use of IntSet
+ * comes from its sizeInBytes method; the memory use of XSet is measured
+ * as the growth of the heap, since XSet keeps no such estimate.
+ */
+
+package edu.stanford.cs.javacs2.ch16;
+
+import java.util.Random;
+
+public class IntSetTiming {
+
+   public void run() {
+      System.out.printf("%9s %-7s %-8s %10s %10s %10s %10s %10s%n",
+                        "Values", "Kind", "Set", "bytes/val", "union",
+                        "intersect", "subtract", "subset");
+      System.out.printf("%38s %10s %10s %10s %10s%n", "", "(ms)", "(ms)",
+                        "(ms)", "(ms)");
+      for (int n = MIN_VALUES; n <= MAX_VALUES; n *= 10) {
+         timeSets(n, true);
+         timeSets(n, false);
+      }
+   }
+
+/*
+ * Builds the two pairs of sets from the same random values and reports
+ * the results for each.
+ */
+
+   private void timeSets(int n, boolean dense) {
+      int[] v1 = createValues(n, dense, 1);
+      int[] v2 = createValues(n, dense, 2);
+      String kind = dense ? "dense" : "sparse";
+      IntSet i1 = new IntSet(v1);
+      IntSet i2 = new IntSet(v2);
+      long intSize = i1.sizeInBytes() + i2.sizeInBytes();
+      double intBytes = (double) intSize / (i1.size() + i2.size());
+      long before = usedMemory();
+      XSet<Integer> x1 = createXSet(v1);
+      XSet<Integer> x2 = createXSet(v2);
+      long xSize = usedMemory() - before;
+      double xBytes = (double) xSize / (x1.size() + x2.size());
+      for (int pass = 0; pass < 2; pass++) {
+         boolean show = pass == 1;
+         timeIntSet(n, kind, intBytes, i1, i2, show);
+         timeXSet(n, kind, xBytes, x1, x2, show);
+      }
+   }
+
+/*
+ * Times the four operations on a pair of IntSets.  The first pass warms
+ * up the compiler and does not print its results.
+ */
+
+   private void timeIntSet(int n, String kind, double bytes,
+                           IntSet s1, IntSet s2, boolean show) {
+      long t0 = System.nanoTime();
+      IntSet u = s1.union(s2);
+      long t1 = System.nanoTime();
+      IntSet i = s1.intersect(s2);
+      long t2 = System.nanoTime();
+      IntSet d = s1.subtract(s2);
+      long t3 = System.nanoTime();
+      boolean subset = i.isSubsetOf(u);
+      long t4 = System.nanoTime();
+      check(u.size() == d.size() + s2.size() && subset);
+      if (show) report(n, kind, "IntSet", bytes, t0, t1, t2, t3, t4);
+   }
+
+/*
+ * Times the four operations on a pair of XSets.
+ */
+
+   private void timeXSet(int n, String kind, double bytes,
+                         XSet<Integer> s1, XSet<Integer> s2, boolean show) {
+      long t0 = System.nanoTime();
+      XSet<Integer> u = s1.union(s2);
+      long t1 = System.nanoTime();
+      XSet<Integer> i = s1.intersect(s2);
+      long t2 = System.nanoTime();
+      XSet<Integer> d = s1.subtract(s2);
+      long t3 = System.nanoTime();
+      boolean subset = i.isSubsetOf(u);
+      long t4 = System.nanoTime();
+      check(u.size() == d.size() + s2.size() && subset);
+      if (show) report(n, kind, "XSet", bytes, t0, t1, t2, t3, t4);
+   }
+
+/*
+ * Prints one line of the table from the times between successive steps.
+ */
+
+   private void report(int n, String kind, String name, double bytes,
+                       long t0, long t1, long t2, long t3, long t4) {
+      System.out.printf("%9d %-7s %-8s %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                        n, kind, name, bytes, (t1 - t0) / 1.0E6,
+                        (t2 - t1) / 1.0E6, (t3 - t2) / 1.0E6,
+                        (t4 - t3) / 1.0E6);
+   }
+
+/*
+ * Creates an array of n random values using the specified seed.
+ */
+
+   private int[] createValues(int n, boolean dense, long seed) {
+      Random rand = new Random(seed);
+      int[] values = new int[n];
+      for (int i = 0; i < n; i++) {
+         values[i] = dense ? rand.nextInt(2 * n) : rand.nextInt();
+      }
+      return values;
+   }
+
+/*
+ * Creates an XSet containing the values in the array.
+ */
+
+   private XSet<Integer> createXSet(int[] values) {
+      XSet<Integer> set = new XSet<Integer>();
+      for (int value : values) {
+         set.add(value);
+      }
+      return set;
+   }
+
+/*
+ * Returns the number of bytes in use after collecting garbage.  The
+ * result is approximate, since System.gc is only a request.
+ */
+
+   private long usedMemory() {
+      Runtime rt = Runtime.getRuntime();
+      for (int i = 0; i < GC_PASSES; i++) {
+         System.gc();
+      }
+      return rt.totalMemory() - rt.freeMemory();
+   }
+
+/*
+ * Throws an exception if the results of the operations are inconsistent.
+ */
+
+   private void check(boolean ok) {
+      if (!ok) throw new RuntimeException("Set operations are inconsistent");
+   }
+
+/* Constants */
+
+   private static final int MIN_VALUES = 10000;
+   private static final int MAX_VALUES = 1000000;
+   private static final int GC_PASSES = 3;
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new IntSetTiming().run();
+   }
+
+}
@@ -1,13 +1,14 @@
 /*
  * File: TreeSet.java
  * ------------------
- * This file implements the TreeSet class using an underlying TreeMap.
- * Every method body is one line long because TreeSet can simply forward
- * the operation to the underlying TreeMap.
+ * This file implements the TreeSet class using an underlying TreeMap or
+ * any other SortedMap.  Almost every method body is one line long because
+ * TreeSet can simply forward the operation to the underlying map.
  */
 
 package edu.stanford.cs.javacs2.ch16;
 
+import edu.stanford.cs.javacs2.ch15.SortedMap;
 import edu.stanford.cs.javacs2.ch15.TreeMap;
 import java.util.Iterator;
 
@@ -17,6 +18,19 @@ public class TreeSet<T extends Comparable<? super T>> implements Set<T> {
       map = new TreeMap<T,Boolean>();
    }
 
+/**
+ * Creates an empty TreeSet that stores its values as the keys of the
+ * specified map, which makes it possible to substitute a BTreeMap for
+ * the default TreeMap.  Any entries already in the map are removed.
+ *
+ * @param map The map used to store the values
+ */
+
+   public TreeSet(SortedMap<T,Boolean> map) {
+      map.clear();
+      this.map = map;
+   }
+
    public int size() {
       return map.size();
    }
@@ -45,8 +59,36 @@ public class TreeSet<T extends Comparable<? super T>> implements Set<T> {
       return map.keyIterator();
    }
 
+/**
+ * Creates a TreeSet containing the values produced by the iterator, which
+ * must deliver them in strictly ascending order.  The set is built in
+ * linear time, as described in the notes for TreeMap.fromSorted.
+ *
+ * @param values An iterator over the values in ascending order
+ * @return A new set containing the values
+ */
+
+   public static <T extends Comparable<? super T>>
+                 TreeSet<T> fromSorted(Iterator<T> values) {
+      TreeSet<T> set = new TreeSet<T>();
+      set.loadSorted(values);
+      return set;
+   }
+
+/**
+ * Replaces the contents of this set with the values produced by the
+ * iterator, which must be in strictly ascending order.  This method
+ * allows subclasses to build their results in linear time.
+ *
+ * @param values An iterator over the values in ascending order
+ */
+
+   protected void loadSorted(Iterator<T> values) {
+      map.loadSorted(values, true);
+   }
+
 /* Private instance variables */
 
-   private TreeMap<T,Boolean> map;
+   private SortedMap<T,Boolean> map;
 
 }
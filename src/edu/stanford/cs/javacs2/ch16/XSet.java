@@ -6,6 +6,7 @@
 
 package edu.stanford.cs.javacs2.ch16;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 
 public class XSet<T extends Comparable<? super T>> extends TreeSet<T>
@@ -31,12 +32,18 @@ public class XSet<T extends Comparable<? super T>> extends TreeSet<T>
    }
 
 /**
- * Creates an XSet containing the values from the argument set.
+ * Creates an XSet containing the values from the argument set.  If the
+ * argument is a TreeSet, its values arrive in order and the new set is
+ * built in linear time.
  */
 
    public XSet(Set<T> set) {
-      for (T value : set) {
-         add(value);
+      if (set instanceof TreeSet) {
+         loadSorted(set.iterator());
+      } else {
+         for (T value : set) {
+            add(value);
+         }
       }
    }
 
@@ -54,15 +61,22 @@ public class XSet<T extends Comparable<? super T>> extends TreeSet<T>
       return "{" + str + "}";
    }
 
+/*
+ * Implementation notes: union, intersect, subtract
+ * ------------------------------------------------
+ * If s2 is a TreeSet, these methods call merge, which runs in linear
+ * time.  Otherwise, they test each value in the same way as isSubsetOf.
+ * Because this set delivers its values in order, the results of
+ * intersect and subtract can still be built in linear time.
+ */
+
 /**
  * Creates a new set that is the union of this set and s2.
  */
 
    public XSet<T> union(Set<T> s2) {
-      XSet<T> result = new XSet<T>();
-      for (T value : this) {
-         result.add(value);
-      }
+      if (s2 instanceof TreeSet) return merge(s2, true, true, true);
+      XSet<T> result = new XSet<T>(this);
       for (T value : s2) {
          result.add(value);
       }
@@ -74,10 +88,13 @@ public class XSet<T extends Comparable<? super T>> extends TreeSet<T>
  */
 
    public XSet<T> intersect(Set<T> s2) {
-      XSet<T> result = new XSet<T>();
+      if (s2 instanceof TreeSet) return merge(s2, false, true, false);
+      ArrayList<T> values = new ArrayList<T>();
       for (T value : this) {
-         if (s2.contains(value)) result.add(value);
+         if (s2.contains(value)) values.add(value);
       }
+      XSet<T> result = new XSet<T>();
+      result.loadSorted(values.iterator());
       return result;
    }
 
@@ -86,10 +103,56 @@ public class XSet<T extends Comparable<? super T>> extends TreeSet<T>
  */
 
    public XSet<T> subtract(Set<T> s2) {
-      XSet<T> result = new XSet<T>();
+      if (s2 instanceof TreeSet) return merge(s2, true, false, false);
+      ArrayList<T> values = new ArrayList<T>();
       for (T value : this) {
-         if (!s2.contains(value)) result.add(value);
+         if (!s2.contains(value)) values.add(value);
       }
+      XSet<T> result = new XSet<T>();
+      result.loadSorted(values.iterator());
+      return result;
+   }
+
+/*
+ * Implementation notes: merge
+ * ---------------------------
+ * This method steps through this set and s2 together, in the same way
+ * that the merge phase of merge sort steps through two sorted arrays.
+ * At each step, the smaller of the two current values is either kept or
+ * discarded depending on whether it appears only in this set, in both
+ * sets, or only in s2, as indicated by the three boolean parameters.
+ * The values that are kept emerge in ascending order, so the result can
+ * be built by loadSorted without any further comparisons.
+ */
+
+   private XSet<T> merge(Set<T> s2, boolean keepOnlyThis,
+                         boolean keepBoth, boolean keepOnlyS2) {
+      ArrayList<T> values = new ArrayList<T>();
+      Iterator<T> it1 = this.iterator();
+      Iterator<T> it2 = s2.iterator();
+      T v1 = it1.hasNext() ? it1.next() : null;
+      T v2 = it2.hasNext() ? it2.next() : null;
+      while (v1 != null || (v2 != null && keepOnlyS2)) {
+         int cmp;
+         if (v1 == null) {
+            cmp = +1;
+         } else if (v2 == null) {
+            cmp = -1;
+         } else {
+            cmp = v1.compareTo(v2);
+         }
+         if (cmp <= 0) {
+            if (cmp < 0 ? keepOnlyThis : keepBoth) values.add(v1);
+            v1 = it1.hasNext() ? it1.next() : null;
+         } else if (keepOnlyS2) {
+            values.add(v2);
+         }
+         if (cmp >= 0) {
+            v2 = it2.hasNext() ? it2.next() : null;
+         }
+      }
+      XSet<T> result = new XSet<T>();
+      result.loadSorted(values.iterator());
       return result;
    }
 
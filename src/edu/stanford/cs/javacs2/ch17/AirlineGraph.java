@@ -52,6 +52,27 @@ public class AirlineGraph {
       return airline;
    }
 
+/*
+ * Creates the same airline graph as a MinimalGraph, which the programs
+ * that test the classes built on GenericGraph share.  The nodes and arcs
+ * are copied from the graph returned by createGraph so that the flight
+ * data appears only once.
+ */
+
+   static MinimalGraph createMinimalGraph() {
+      Graph graph = new AirlineGraph().createGraph();
+      MinimalGraph airline = new MinimalGraph();
+      for (Node node : graph.getNodeSet()) {
+         airline.addNode(new MinimalNode(node.getName()));
+      }
+      for (Arc arc : graph.getArcSet()) {
+         MinimalNode n1 = airline.getNode(arc.getStart().getName());
+         MinimalNode n2 = airline.getNode(arc.getFinish().getName());
+         airline.addArc(new MinimalArc(n1, n2, arc.getCost()));
+      }
+      return airline;
+   }
+
 /*
  * Adds an arc in each direction between the cities c1 and c2.
  */
@@ -0,0 +1,144 @@
+/*
+ * File: AirlinePaths.java
+ * -----------------------
+ * This program finds the shortest routes in the airline graph using the
+ * three searches in PathFinder and reports how many nodes each one
+ * settles.  The A* search estimates the remaining distance from the
+ * great-circle distance between the cities.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+public class AirlinePaths {
+
+   public void run() {
+      MinimalGraph airline = AirlineGraph.createMinimalGraph();
+      FrozenGraph g = airline.freeze();
+      double[] lat = new double[g.size()];
+      double[] lon = new double[g.size()];
+      for (String[] city : CITIES) {
+         int id = g.getId(city[0]);
+         lat[id] = Math.toRadians(Double.parseDouble(city[1]));
+         lon[id] = Math.toRadians(Double.parseDouble(city[2]));
+      }
+      double scale = admissibleScale(g, lat, lon);
+      Heuristic h = (node, target) -> scale * greatCircle(lat[node],
+                                                           lon[node],
+                                                           lat[target],
+                                                           lon[target]);
+      System.out.printf("Heuristic scale = %.3f%n", scale);
+      PathFinder pf = new PathFinder(g);
+      showRoute(pf, h, "Portland", "Atlanta");
+      showRoute(pf, h, "Boston", "Los Angeles");
+      showRoute(pf, h, "Seattle", "Dallas");
+      int[] totals = new int[3];
+      for (int n1 = 0; n1 < g.size(); n1++) {
+         for (int n2 = 0; n2 < g.size(); n2++) {
+            double cost = pf.dijkstra(n1, n2);
+            totals[0] += pf.getSettledCount();
+            check(pf.bidirectional(n1, n2) == cost);
+            totals[1] += pf.getSettledCount();
+            check(pf.aStar(n1, n2, h) == cost);
+            totals[2] += pf.getSettledCount();
+         }
+      }
+      System.out.printf("All pairs: Dijkstra %d, bidirectional %d, A* %d " +
+                        "nodes settled%n", totals[0], totals[1], totals[2]);
+   }
+
+/*
+ * Displays the route between two cities, followed by the number of nodes
+ * settled by each search.
+ */
+
+   private void showRoute(PathFinder pf, Heuristic h, String c1, String c2) {
+      FrozenGraph g = pf.getGraph();
+      int n1 = g.getId(c1);
+      int n2 = g.getId(c2);
+      double cost = pf.dijkstra(n1, n2);
+      int dijkstra = pf.getSettledCount();
+      pf.bidirectional(n1, n2);
+      int bidirectional = pf.getSettledCount();
+      pf.aStar(n1, n2, h);
+      int aStar = pf.getSettledCount();
+      String route = "";
+      for (int node : pf.getPath()) {
+         if (!route.isEmpty()) route += " -> ";
+         route += g.getName(node);
+      }
+      System.out.printf("%s (%.0f)%n", route, cost);
+      System.out.printf("   settled: Dijkstra %d, bidirectional %d, A* %d%n",
+                        dijkstra, bidirectional, aStar);
+   }
+
+/*
+ * Implementation notes: admissibleScale
+ * -------------------------------------
+ * The mileages in the airline graph are rounded figures, and a few of
+ * them, such as the 130 miles from Portland to Seattle, are less than
+ * the great-circle distance between the cities.  Multiplying the
+ * great-circle distance by the smallest ratio of arc cost to distance
+ * makes the estimate no larger than the cost of any arc, so that by the
+ * triangle inequality it never exceeds the cost of any path.
+ */
+
+   private double admissibleScale(FrozenGraph g, double[] lat,
+                                  double[] lon) {
+      double scale = 1;
+      for (int v = 0; v < g.size(); v++) {
+         for (int a = g.getFirstArc(v); a < g.getFirstArc(v + 1); a++) {
+            int w = g.getArcFinish(a);
+            double d = greatCircle(lat[v], lon[v], lat[w], lon[w]);
+            if (d > 0) scale = Math.min(scale, g.getArcCost(a) / d);
+         }
+      }
+      return scale;
+   }
+
+/*
+ * Returns the great-circle distance in miles between two points whose
+ * latitudes and longitudes are given in radians, using the haversine
+ * formula.
+ */
+
+   private static double greatCircle(double lat1, double lon1,
+                                     double lat2, double lon2) {
+      double sinLat = Math.sin((lat2 - lat1) / 2);
+      double sinLon = Math.sin((lon2 - lon1) / 2);
+      double a = sinLat * sinLat
+               + Math.cos(lat1) * Math.cos(lat2) * sinLon * sinLon;
+      return 2 * EARTH_RADIUS * Math.asin(Math.sqrt(a));
+   }
+
+/*
+ * Throws an exception if the searches disagree.
+ */
+
+   private void check(boolean ok) {
+      if (!ok) throw new RuntimeException("Path costs differ");
+   }
+
+/* Constants */
+
+   private static final double EARTH_RADIUS = 3958.8;
+
+   private static final String[][] CITIES = {
+      { "Atlanta", "33.749", "-84.388" },
+      { "Boston", "42.360", "-71.059" },
+      { "Chicago", "41.878", "-87.630" },
+      { "Dallas", "32.777", "-96.797" },
+      { "Denver", "39.739", "-104.990" },
+      { "Los Angeles", "34.052", "-118.244" },
+      { "New York", "40.713", "-74.006" },
+      { "Portland", "45.515", "-122.678" },
+      { "San Francisco", "37.775", "-122.419" },
+      { "Seattle", "47.606", "-122.332" }
+   };
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new AirlinePaths().run();
+   }
+
+}
@@ -0,0 +1,783 @@
+/*
+ * File: ContractionHierarchy.java
+ * -------------------------------
+ * This file exports a class that answers shortest-path queries on a
+ * FrozenGraph after a preprocessing step called contraction.  The
+ * preprocessing takes much longer than a single search, but each query
+ * afterward settles only a small number of nodes, which pays off when a
+ * graph that rarely changes must answer many queries.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+import edu.stanford.cs.javacs2.ch13.IntArrayList;
+import edu.stanford.cs.javacs2.ch13.IntStack;
+import edu.stanford.cs.javacs2.ch15.DoubleIntPriorityQueue;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/*
+ * Implementation notes: ContractionHierarchy
+ * ------------------------------------------
+ * Preprocessing removes the nodes of the graph one at a time in order of
+ * increasing importance, assigning each node its rank in that order.
+ * When a node v is removed, any shortest path that passes through it
+ * from a neighbor u to a neighbor w must be preserved, so the method
+ * adds a shortcut arc from u to w whose cost is the cost of the two arcs
+ * through v.  The shortcut is unnecessary if a witness search from u
+ * that avoids v finds another path to w that is no longer.
+ *
+ * Once every node has been removed, the original arcs and the shortcuts
+ * together have the property that every shortest path can be replaced
+ * by one that first climbs to higher-ranked nodes and then descends.
+ * A query therefore runs a forward search from the start that follows
+ * only arcs to higher-ranked nodes and a backward search from the
+ * destination that does the same on the reversed arcs.  The searches
+ * meet at the highest node on the path, and each shortcut on the result
+ * is expanded into the two arcs it replaced.
+ */
+
+/**
+ * This class represents a contraction hierarchy for a FrozenGraph, which
+ * finds the same minimum-cost paths as Dijkstra&rsquo;s algorithm.  A
+ * hierarchy is built by the constructor or read from a file written by
+ * <code>save</code>.  The hierarchy does not change when the graph does,
+ * so it must be rebuilt whenever the arcs or their costs change.
+ */
+
+public class ContractionHierarchy {
+
+/**
+ * Builds a contraction hierarchy for the specified graph, whose arc
+ * costs must not be negative.
+ *
+ * @param graph The graph to preprocess
+ */
+
+   public ContractionHierarchy(FrozenGraph graph) {
+      this.graph = graph;
+      new Contractor().run();
+      buildSearchGraphs();
+   }
+
+/**
+ * Returns the graph for which this hierarchy was built.
+ *
+ * @return The graph
+ */
+
+   public FrozenGraph getGraph() {
+      return graph;
+   }
+
+/**
+ * Returns the number of shortcut arcs added by preprocessing.
+ *
+ * @return The number of shortcuts
+ */
+
+   public int getShortcutCount() {
+      return arcCount - graph.getArcCount();
+   }
+
+/**
+ * Returns the rank of the specified node, which is the position at which
+ * it was contracted.  Less important nodes have lower ranks.
+ *
+ * @param node The ID of the node
+ * @return The rank of the node
+ */
+
+   public int getRank(int node) {
+      return rank[node];
+   }
+
+/**
+ * Returns the cost of the minimum-cost path from <code>n1</code> to
+ * <code>n2</code>, or <code>Double.POSITIVE_INFINITY</code> if no path
+ * exists.
+ *
+ * @param n1 The ID of the starting node
+ * @param n2 The ID of the destination node
+ * @return The cost of the shortest path
+ */
+
+   public synchronized double getMinimumCost(int n1, int n2) {
+      return search(n1, n2);
+   }
+
+/**
+ * Finds the minimum-cost path from <code>n1</code> to <code>n2</code>.
+ * The path is returned as an array of node IDs beginning with
+ * <code>n1</code> and ending with <code>n2</code>, or <code>null</code> if
+ * no path exists.
+ *
+ * @param n1 The ID of the starting node
+ * @param n2 The ID of the destination node
+ * @return The IDs of the nodes on the shortest path, or <code>null</code>
+ */
+
+   public synchronized int[] findMinimumPath(int n1, int n2) {
+      if (search(n1, n2) == Double.POSITIVE_INFINITY) return null;
+      IntArrayList arcs = new IntArrayList();
+      for (int v = meet; v != n1; v = arcFrom[fwd.parent[v]]) {
+         arcs.add(fwd.parent[v]);
+      }
+      int nForward = arcs.size();
+      for (int lh = 0, rh = nForward - 1; lh < rh; lh++, rh--) {
+         int tmp = arcs.get(lh);
+         arcs.set(lh, arcs.get(rh));
+         arcs.set(rh, tmp);
+      }
+      for (int v = meet; v != n2; v = arcTo[bwd.parent[v]]) {
+         arcs.add(bwd.parent[v]);
+      }
+      IntArrayList path = new IntArrayList();
+      path.add(n1);
+      IntStack stack = new IntStack();
+      for (int i = 0; i < arcs.size(); i++) {
+         stack.push(arcs.get(i));
+         while (!stack.isEmpty()) {
+            int a = stack.pop();
+            if (first[a] == -1) {
+               path.add(arcTo[a]);
+            } else {
+               stack.push(second[a]);
+               stack.push(first[a]);
+            }
+         }
+      }
+      return path.toArray();
+   }
+
+/**
+ * Returns the number of nodes settled by the most recent query, counting
+ * both directions of the search.
+ *
+ * @return The number of nodes settled
+ */
+
+   public synchronized int getSettledCount() {
+      return settledCount;
+   }
+
+/*
+ * Implementation notes: save, load, writeTo, readFrom
+ * ---------------------------------------------------
+ * The binary form begins with a magic number and the number of nodes,
+ * followed by the name and rank of each node.  It then contains the
+ * total number of arcs and the number of original arcs, and for each
+ * arc its start, finish, cost, and the two arcs it replaces, which are
+ * -1 for an original arc.  The original arcs come first, in the order
+ * of the graph's arcs, so that reading the file rebuilds the same graph
+ * with the same arc numbers.  The search graphs are rebuilt from the
+ * arcs and ranks, which takes linear time.
+ */
+
+/**
+ * Saves the hierarchy, including its graph, to the specified file.  This
+ * method throws a runtime exception if the file cannot be written.
+ *
+ * @param filename The name of the file
+ */
+
+   public void save(String filename) {
+      try (DataOutputStream out = new DataOutputStream(
+                                     new BufferedOutputStream(
+                                        new FileOutputStream(filename)))) {
+         writeTo(out);
+      } catch (IOException ex) {
+         throw new RuntimeException(ex.toString());
+      }
+   }
+
+/**
+ * Reads a hierarchy from a file written by <code>save</code>.  This
+ * method throws a runtime exception if the file cannot be read or is
+ * not in the correct format.
+ *
+ * @param filename The name of the file
+ * @return The hierarchy stored in the file
+ */
+
+   public static ContractionHierarchy load(String filename) {
+      try (DataInputStream in = new DataInputStream(
+                                   new BufferedInputStream(
+                                      new FileInputStream(filename)))) {
+         return readFrom(in);
+      } catch (IOException ex) {
+         throw new RuntimeException(ex.toString());
+      }
+   }
+
+/**
+ * Writes the hierarchy to the output in the binary form that readFrom
+ * can read.
+ *
+ * @param out The output to which the hierarchy is written
+ */
+
+   public void writeTo(DataOutput out) throws IOException {
+      int n = graph.size();
+      out.writeInt(MAGIC);
+      out.writeInt(n);
+      for (int v = 0; v < n; v++) {
+         out.writeUTF(graph.getName(v));
+         out.writeInt(rank[v]);
+      }
+      out.writeInt(arcCount);
+      out.writeInt(graph.getArcCount());
+      for (int a = 0; a < arcCount; a++) {
+         out.writeInt(arcFrom[a]);
+         out.writeInt(arcTo[a]);
+         out.writeDouble(arcCost[a]);
+         out.writeInt(first[a]);
+         out.writeInt(second[a]);
+      }
+   }
+
+/**
+ * Reads a hierarchy written by writeTo.
+ *
+ * @param in The input from which the hierarchy is read
+ * @return The hierarchy
+ */
+
+   public static ContractionHierarchy readFrom(DataInput in)
+         throws IOException {
+      if (in.readInt() != MAGIC) {
+         throw new IOException("Not a contraction hierarchy");
+      }
+      int n = in.readInt();
+      String[] names = new String[n];
+      int[] rank = new int[n];
+      for (int v = 0; v < n; v++) {
+         names[v] = in.readUTF();
+         rank[v] = in.readInt();
+      }
+      ContractionHierarchy ch = new ContractionHierarchy(rank, in.readInt());
+      int m = in.readInt();
+      for (int a = 0; a < ch.arcCount; a++) {
+         ch.arcFrom[a] = in.readInt();
+         ch.arcTo[a] = in.readInt();
+         ch.arcCost[a] = in.readDouble();
+         ch.first[a] = in.readInt();
+         ch.second[a] = in.readInt();
+      }
+      ch.graph = new FrozenGraph(names, Arrays.copyOf(ch.arcFrom, m),
+                                 Arrays.copyOf(ch.arcTo, m),
+                                 Arrays.copyOf(ch.arcCost, m));
+      ch.buildSearchGraphs();
+      return ch;
+   }
+
+/*
+ * Creates a hierarchy with the specified ranks and room for arcCount
+ * arcs, which readFrom then fills in.
+ */
+
+   private ContractionHierarchy(int[] rank, int arcCount) {
+      this.rank = rank;
+      this.arcCount = arcCount;
+      arcFrom = new int[arcCount];
+      arcTo = new int[arcCount];
+      arcCost = new double[arcCount];
+      first = new int[arcCount];
+      second = new int[arcCount];
+   }
+
+/*
+ * Implementation notes: buildSearchGraphs
+ * ---------------------------------------
+ * Each arc is stored in exactly one of the two search graphs, both of
+ * which use the same compressed layout as FrozenGraph.  An arc that
+ * leads to a higher-ranked node becomes an arc of the upward graph at
+ * its start.  An arc that leads to a lower-ranked node is stored in the
+ * downward graph at its finish, reversed, so that the backward search
+ * from the destination also climbs to higher-ranked nodes.  The search
+ * graphs record the number of the arc, which is needed to expand
+ * shortcuts.  Self-loops never lie on a shortest path and are omitted.
+ */
+
+   private void buildSearchGraphs() {
+      int n = rank.length;
+      up = new SearchGraph(n);
+      down = new SearchGraph(n);
+      for (int a = 0; a < arcCount; a++) {
+         int u = arcFrom[a];
+         int w = arcTo[a];
+         if (u == w) continue;
+         if (rank[u] < rank[w]) {
+            up.first[u + 1]++;
+         } else {
+            down.first[w + 1]++;
+         }
+      }
+      up.allocate();
+      down.allocate();
+      for (int a = 0; a < arcCount; a++) {
+         int u = arcFrom[a];
+         int w = arcTo[a];
+         if (u == w) continue;
+         if (rank[u] < rank[w]) {
+            up.add(u, w, arcCost[a], a);
+         } else {
+            down.add(w, u, arcCost[a], a);
+         }
+      }
+      fwd = new Side(n);
+      bwd = new Side(n);
+      epoch = 0;
+   }
+
+/*
+ * Implementation notes: search
+ * ----------------------------
+ * The query alternates between the forward search in the upward graph
+ * and the backward search in the downward graph, choosing the side whose
+ * queue has the smaller minimum.  Whenever a node is settled on one side
+ * after being reached on the other, the sum of its two distances is the
+ * cost of a path.  Unlike bidirectional Dijkstra, the search cannot stop
+ * as soon as the two sides meet, because the highest node on the best
+ * path may be reached later; each side stops only when its own minimum
+ * is no smaller than the best cost found.  As in PathFinder, the queues
+ * hold stale entries instead of supporting decreaseKey.
+ */
+
+   private double search(int n1, int n2) {
+      checkNode(n1);
+      checkNode(n2);
+      if (epoch >= Integer.MAX_VALUE - 2) {
+         Arrays.fill(fwd.mark, 0);
+         Arrays.fill(bwd.mark, 0);
+         epoch = 0;
+      }
+      epoch += 2;
+      settledCount = 0;
+      double best = Double.POSITIVE_INFINITY;
+      meet = -1;
+      fwd.start(n1, epoch);
+      bwd.start(n2, epoch);
+      while (true) {
+         boolean forward = fwd.hasNext(epoch, best);
+         boolean backward = bwd.hasNext(epoch, best);
+         if (!forward && !backward) break;
+         if (forward && backward) {
+            forward = fwd.queue.peekPriority() <= bwd.queue.peekPriority();
+         }
+         Side s = forward ? fwd : bwd;
+         Side other = forward ? bwd : fwd;
+         SearchGraph g = forward ? up : down;
+         int v = s.queue.remove();
+         s.mark[v] = epoch + 1;
+         settledCount++;
+         double d = s.dist[v];
+         if (other.mark[v] >= epoch && d + other.dist[v] < best) {
+            best = d + other.dist[v];
+            meet = v;
+         }
+         for (int i = g.first[v]; i < g.first[v + 1]; i++) {
+            int w = g.target[i];
+            double dw = d + g.cost[i];
+            if (s.mark[w] < epoch || (s.mark[w] == epoch && dw < s.dist[w])) {
+               s.mark[w] = epoch;
+               s.dist[w] = dw;
+               s.parent[w] = g.arc[i];
+               s.queue.add(dw, w);
+            }
+         }
+      }
+      return best;
+   }
+
+/*
+ * Throws an IllegalArgumentException if node is not a legal ID.
+ */
+
+   private void checkNode(int node) {
+      if (node < 0 || node >= rank.length) {
+         throw new IllegalArgumentException("Illegal node ID " + node);
+      }
+   }
+
+/*
+ * Inner class: SearchGraph
+ * ------------------------
+ * This class holds the upward or downward search graph in compressed
+ * form.  The arcs of node v occupy the indices from first[v] up to but
+ * not including first[v + 1].  The constructor's caller first counts
+ * the arcs of each node in first[v + 1], then calls allocate, which
+ * converts the counts to offsets, and then adds the arcs.
+ */
+
+   private static class SearchGraph {
+
+      SearchGraph(int n) {
+         first = new int[n + 1];
+      }
+
+      void allocate() {
+         int n = first.length - 1;
+         for (int v = 0; v < n; v++) {
+            first[v + 1] += first[v];
+         }
+         next = Arrays.copyOf(first, n);
+         target = new int[first[n]];
+         cost = new double[first[n]];
+         arc = new int[first[n]];
+      }
+
+      void add(int v, int w, double c, int a) {
+         int i = next[v]++;
+         target[i] = w;
+         cost[i] = c;
+         arc[i] = a;
+      }
+
+      int[] first;
+      int[] next;
+      int[] target;
+      double[] cost;
+      int[] arc;
+
+   }
+
+/*
+ * Inner class: Side
+ * -----------------
+ * This class holds the state of one direction of a query.  For each
+ * node reached, parent records the number of the arc by which it was
+ * reached.
+ */
+
+   private static class Side {
+
+      Side(int n) {
+         mark = new int[n];
+         dist = new double[n];
+         parent = new int[n];
+         queue = new DoubleIntPriorityQueue();
+      }
+
+      void start(int node, int epoch) {
+         queue.clear();
+         mark[node] = epoch;
+         dist[node] = 0;
+         parent[node] = -1;
+         queue.add(0, node);
+      }
+
+   /* Discards settled nodes and reports whether this side should go on */
+
+      boolean hasNext(int epoch, double best) {
+         while (!queue.isEmpty() && mark[queue.peek()] == epoch + 1) {
+            queue.remove();
+         }
+         return !queue.isEmpty() && queue.peekPriority() < best;
+      }
+
+      int[] mark;
+      double[] dist;
+      int[] parent;
+      DoubleIntPriorityQueue queue;
+
+   }
+
+/*
+ * Inner class: Contractor
+ * -----------------------
+ * This class carries out the preprocessing.  It keeps, for each node not
+ * yet contracted, lists of the numbers of its incoming and outgoing arcs
+ * whose other ends have not been contracted either.  The contraction
+ * order is chosen using a priority queue keyed by twice the edge
+ * difference, which is the number of shortcuts that contracting the node
+ * would add minus the number of arcs it would remove, plus the number of
+ * its neighbors already contracted, which spreads the contractions evenly
+ * across the graph.  Doubling the edge difference gives about ten
+ * percent fewer shortcuts on grid graphs than weighting the terms
+ * equally, and preprocessing is faster as a result.  Priorities change
+ * as neighbors are contracted, so they are updated lazily: when a node
+ * reaches the front of the queue, its priority is recomputed, and it is
+ * put back if it is no longer the smallest.
+ */
+
+   private class Contractor {
+
+      Contractor() {
+         int n = graph.size();
+         int m = graph.getArcCount();
+         int capacity = Math.max(2 * m, INITIAL_CAPACITY);
+         arcFrom = new int[capacity];
+         arcTo = new int[capacity];
+         arcCost = new double[capacity];
+         first = new int[capacity];
+         second = new int[capacity];
+         arcCount = 0;
+         in = new IntArrayList[n];
+         out = new IntArrayList[n];
+         for (int v = 0; v < n; v++) {
+            in[v] = new IntArrayList();
+            out[v] = new IntArrayList();
+         }
+         for (int v = 0; v < n; v++) {
+            for (int a = graph.getFirstArc(v); a < graph.getFirstArc(v + 1);
+                                               a++) {
+               addArc(v, graph.getArcFinish(a), graph.getArcCost(a), -1, -1);
+            }
+         }
+         rank = new int[n];
+         contracted = new boolean[n];
+         contractedNeighbors = new int[n];
+         mark = new int[n];
+         target = new int[n];
+         dist = new double[n];
+         queue = new DoubleIntPriorityQueue();
+      }
+
+      void run() {
+         int n = graph.size();
+         DoubleIntPriorityQueue order = new DoubleIntPriorityQueue();
+         for (int v = 0; v < n; v++) {
+            order.add(priority(v), v);
+         }
+         int nextRank = 0;
+         while (!order.isEmpty()) {
+            int v = order.remove();
+            if (contracted[v]) continue;
+            double p = priority(v);
+            if (!order.isEmpty() && p > order.peekPriority()) {
+               order.add(p, v);
+            } else {
+               contract(v, false);
+               rank[v] = nextRank++;
+            }
+         }
+         arcFrom = Arrays.copyOf(arcFrom, arcCount);
+         arcTo = Arrays.copyOf(arcTo, arcCount);
+         arcCost = Arrays.copyOf(arcCost, arcCount);
+         first = Arrays.copyOf(first, arcCount);
+         second = Arrays.copyOf(second, arcCount);
+      }
+
+   /* Returns the contraction priority of node v */
+
+      private double priority(int v) {
+         int removed = in[v].size() + out[v].size();
+         return 2 * (contract(v, true) - removed) + contractedNeighbors[v];
+      }
+
+   /*
+    * Contracts node v, returning the number of shortcuts required.  A
+    * shortcut that replaces an arc already in the remaining graph is
+    * not counted, since it leaves the number of arcs unchanged.  If
+    * simulate is true, the method only counts the shortcuts and leaves
+    * the graph unchanged.
+    */
+
+      private int contract(int v, boolean simulate) {
+         int shortcuts = 0;
+         for (int i = 0; i < in[v].size(); i++) {
+            int a = in[v].get(i);
+            int u = arcFrom[a];
+            double maxCost = -1;
+            for (int j = 0; j < out[v].size(); j++) {
+               int b = out[v].get(j);
+               if (arcTo[b] != u) {
+                  maxCost = Math.max(maxCost, arcCost[a] + arcCost[b]);
+               }
+            }
+            if (maxCost < 0) continue;
+            witnessSearch(u, v, maxCost);
+            for (int j = 0; j < out[v].size(); j++) {
+               int b = out[v].get(j);
+               int w = arcTo[b];
+               double c = arcCost[a] + arcCost[b];
+               if (w == u || (mark[w] == epoch && dist[w] <= c)) continue;
+               if (findArc(u, w) == -1) shortcuts++;
+               if (!simulate) addShortcut(u, w, c, a, b);
+            }
+         }
+         if (!simulate) removeNode(v);
+         return shortcuts;
+      }
+
+   /*
+    * Runs Dijkstra's algorithm from u among the nodes not yet contracted,
+    * ignoring v, until it has settled every out-neighbor of v, every node
+    * within maxCost, or WITNESS_LIMIT nodes.  Nodes farther than maxCost
+    * are never queued.  A node w whose mark equals epoch has been reached
+    * at cost dist[w].  Stopping early can only cause extra shortcuts,
+    * never missing ones.
+    */
+
+      private void witnessSearch(int u, int v, double maxCost) {
+         epoch++;
+         int remaining = 0;
+         for (int j = 0; j < out[v].size(); j++) {
+            int w = arcTo[out[v].get(j)];
+            if (w != u && target[w] != epoch) {
+               target[w] = epoch;
+               remaining++;
+            }
+         }
+         queue.clear();
+         mark[u] = epoch;
+         dist[u] = 0;
+         queue.add(0, u);
+         int settled = 0;
+         while (!queue.isEmpty() && settled < WITNESS_LIMIT) {
+            double d = queue.peekPriority();
+            int x = queue.remove();
+            if (d > dist[x]) continue;
+            if (target[x] == epoch) {
+               target[x] = 0;
+               if (--remaining == 0) break;
+            }
+            settled++;
+            for (int i = 0; i < out[x].size(); i++) {
+               int a = out[x].get(i);
+               int y = arcTo[a];
+               if (y == v) continue;
+               double dy = d + arcCost[a];
+               if (dy > maxCost) continue;
+               if (mark[y] != epoch || dy < dist[y]) {
+                  mark[y] = epoch;
+                  dist[y] = dy;
+                  queue.add(dy, y);
+               }
+            }
+         }
+      }
+
+   /* Removes v and its arcs from the remaining graph */
+
+      private void removeNode(int v) {
+         contracted[v] = true;
+         for (int i = 0; i < in[v].size(); i++) {
+            int u = arcFrom[in[v].get(i)];
+            out[u].removeValue(in[v].get(i));
+            contractedNeighbors[u]++;
+         }
+         for (int i = 0; i < out[v].size(); i++) {
+            int w = arcTo[out[v].get(i)];
+            in[w].removeValue(out[v].get(i));
+            contractedNeighbors[w]++;
+         }
+         in[v] = null;
+         out[v] = null;
+      }
+
+   /* Returns the arc from u to w in the remaining graph, or -1 if none */
+
+      private int findArc(int u, int w) {
+         for (int i = 0; i < out[u].size(); i++) {
+            int x = out[u].get(i);
+            if (arcTo[x] == w) return x;
+         }
+         return -1;
+      }
+
+   /*
+    * Adds a shortcut from u to w of cost c that replaces arcs a and b,
+    * unless the remaining graph already has an arc from u to w.  A
+    * shortcut of that kind is updated in place if the new cost is lower;
+    * no other shortcut can refer to it yet, because u and w have not
+    * been contracted.  An original arc cannot be changed, because the
+    * original arcs are saved as the graph itself, so a cheaper shortcut
+    * takes its place in the lists instead.  Either way, each pair of
+    * nodes has at most one arc between them in the remaining graph,
+    * which keeps the degrees from growing as parallel shortcuts pile up.
+    */
+
+      private void addShortcut(int u, int w, double c, int a, int b) {
+         int x = findArc(u, w);
+         if (x == -1) {
+            addArc(u, w, c, a, b);
+         } else if (c < arcCost[x]) {
+            if (first[x] == -1) {
+               out[u].removeValue(x);
+               in[w].removeValue(x);
+               addArc(u, w, c, a, b);
+            } else {
+               arcCost[x] = c;
+               first[x] = a;
+               second[x] = b;
+            }
+         }
+      }
+
+   /*
+    * Adds an arc from u to w that replaces arcs a and b, which are -1 for
+    * an original arc.  Self-loops are recorded but never entered into
+    * the lists, since they cannot lie on a shortest path.
+    */
+
+      private void addArc(int u, int w, double c, int a, int b) {
+         if (arcCount == arcFrom.length) {
+            int capacity = 2 * arcCount;
+            arcFrom = Arrays.copyOf(arcFrom, capacity);
+            arcTo = Arrays.copyOf(arcTo, capacity);
+            arcCost = Arrays.copyOf(arcCost, capacity);
+            first = Arrays.copyOf(first, capacity);
+            second = Arrays.copyOf(second, capacity);
+         }
+         arcFrom[arcCount] = u;
+         arcTo[arcCount] = w;
+         arcCost[arcCount] = c;
+         first[arcCount] = a;
+         second[arcCount] = b;
+         if (u != w) {
+            out[u].add(arcCount);
+            in[w].add(arcCount);
+         }
+         arcCount++;
+      }
+
+      private IntArrayList[] in;
+      private IntArrayList[] out;
+      private boolean[] contracted;
+      private int[] contractedNeighbors;
+      private int[] mark;
+      private int[] target;
+      private int epoch;
+      private double[] dist;
+      private DoubleIntPriorityQueue queue;
+
+   }
+
+/* Constants */
+
+   private static final int MAGIC = 0x43480001;
+   private static final int WITNESS_LIMIT = 500;
+   private static final int INITIAL_CAPACITY = 16;
+
+/* Private instance variables */
+
+   private FrozenGraph graph;       /* The graph being searched            */
+   private int[] rank;              /* The contraction order of each node  */
+   private int arcCount;            /* Number of original and shortcut arcs */
+   private int[] arcFrom;           /* The start node of each arc          */
+   private int[] arcTo;             /* The finish node of each arc         */
+   private double[] arcCost;        /* The cost of each arc                */
+   private int[] first;             /* First arc replaced by a shortcut    */
+   private int[] second;            /* Second arc replaced by a shortcut   */
+   private SearchGraph up;          /* Arcs to higher-ranked nodes         */
+   private SearchGraph down;        /* Reversed arcs from higher nodes     */
+
+/* Working storage for queries */
+
+   private Side fwd;                /* State of the forward search         */
+   private Side bwd;                /* State of the backward search        */
+   private int epoch;               /* The number of the current query     */
+   private int meet;                /* Highest node on the last path       */
+   private int settledCount;        /* Nodes settled by the last query     */
+
+}
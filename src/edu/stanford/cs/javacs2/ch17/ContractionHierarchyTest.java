@@ -0,0 +1,113 @@
+/*
+ * File: ContractionHierarchyTest.java
+ * -----------------------------------
+ * This program tests the ContractionHierarchy class on the airline graph
+ * by comparing its paths with those found by Dijkstra's algorithm, both
+ * before and after saving the hierarchy to a file and reading it back.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+import java.io.File;
+import java.io.IOException;
+
+public class ContractionHierarchyTest {
+
+   public void run() {
+      MinimalGraph airline = AirlineGraph.createMinimalGraph();
+      ContractionHierarchy ch = new ContractionHierarchy(airline.freeze());
+      System.out.println("shortcuts = " + ch.getShortcutCount());
+      FrozenGraph g = ch.getGraph();
+      StringBuilder sb = new StringBuilder();
+      for (int rank = 0; rank < g.size(); rank++) {
+         for (int v = 0; v < g.size(); v++) {
+            if (ch.getRank(v) == rank) sb.append(" " + g.getName(v));
+         }
+      }
+      System.out.println("contraction order:" + sb);
+      showPath(airline, ch, "Portland", "Atlanta");
+      showPath(airline, ch, "Boston", "Los Angeles");
+      showPath(airline, ch, "Seattle", "Dallas");
+      System.out.println("all pairs agree: " + checkAllPairs(ch));
+      ContractionHierarchy copy =
+         ContractionHierarchy.load(saveToTempFile(ch));
+      System.out.println("after save and load: " + checkAllPairs(copy));
+   }
+
+/*
+ * Displays the shortest path between the named cities found by the
+ * hierarchy, together with the number of nodes the query settled.
+ */
+
+   private void showPath(MinimalGraph airline, ContractionHierarchy ch,
+                         String c1, String c2) {
+      GenericPath<MinimalNode,MinimalArc> path =
+         airline.findMinimumPath(airline.getNode(c1), airline.getNode(c2),
+                                 ch);
+      System.out.printf("%s (%.0f), settled %d%n", path, path.getCost(),
+                        ch.getSettledCount());
+   }
+
+/*
+ * Checks the cost of every path found by the hierarchy against Dijkstra's
+ * algorithm, and checks that each path uses arcs of the graph and has
+ * the cost reported.
+ */
+
+   private boolean checkAllPairs(ContractionHierarchy ch) {
+      FrozenGraph g = ch.getGraph();
+      PathFinder pf = new PathFinder(g);
+      for (int n1 = 0; n1 < g.size(); n1++) {
+         for (int n2 = 0; n2 < g.size(); n2++) {
+            double cost = ch.getMinimumCost(n1, n2);
+            if (cost != pf.dijkstra(n1, n2)) return false;
+            if (pathCost(g, ch.findMinimumPath(n1, n2)) != cost) return false;
+         }
+      }
+      return true;
+   }
+
+/*
+ * Returns the cost of the cheapest arcs joining the nodes of the path in
+ * order, which is infinite if the path is null or two of its nodes are
+ * not joined by an arc.
+ */
+
+   private double pathCost(FrozenGraph g, int[] path) {
+      if (path == null) return Double.POSITIVE_INFINITY;
+      double total = 0;
+      for (int i = 1; i < path.length; i++) {
+         double best = Double.POSITIVE_INFINITY;
+         int v = path[i - 1];
+         for (int a = g.getFirstArc(v); a < g.getFirstArc(v + 1); a++) {
+            if (g.getArcFinish(a) == path[i]) {
+               best = Math.min(best, g.getArcCost(a));
+            }
+         }
+         total += best;
+      }
+      return total;
+   }
+
+/*
+ * Saves the hierarchy to a temporary file and returns the file's name.
+ */
+
+   private String saveToTempFile(ContractionHierarchy ch) {
+      try {
+         File file = File.createTempFile("airline", ".ch");
+         file.deleteOnExit();
+         ch.save(file.getPath());
+         return file.getPath();
+      } catch (IOException ex) {
+         throw new RuntimeException(ex.toString());
+      }
+   }
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new ContractionHierarchyTest().run();
+   }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * File: ContractionHierarchyTiming.java
+ * -------------------------------------
+ * This program measures the cost of building a contraction hierarchy and
+ * the speed of its queries on graphs that resemble road networks, which
+ * are built by GraphGenerator.createGrid.  For each size, the program
+ * reports the preprocessing time, the number of shortcuts, and the size
+ * of the saved file, and then compares the average time and number of
+ * nodes settled by queries between random pairs of nodes using the
+ * findMinimumPath method of GenericGraph, Dijkstra's algorithm in
+ * PathFinder, and the hierarchy.  GenericGraph is timed only on the
+ * smaller graphs, on which its queries finish in reasonable time.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+public class ContractionHierarchyTiming {
+
+   public void run() {
+      for (int side : SIDES) {
+         timeHierarchy(side);
+      }
+   }
+
+/*
+ * Builds a grid graph with side * side nodes, preprocesses it, and times
+ * N_QUERIES queries using each method.  The first pass over the queries
+ * warms up the compiler and does not print its results.
+ */
+
+   private void timeHierarchy(int side) {
+      int n = side * side;
+      FrozenGraph g = GraphGenerator.createGrid(side, JITTER, SEED, null,
+                                                null);
+      long t0 = System.nanoTime();
+      ContractionHierarchy ch = new ContractionHierarchy(g);
+      long t1 = System.nanoTime();
+      File file = createTempFile();
+      ch.save(file.getPath());
+      long t2 = System.nanoTime();
+      ContractionHierarchy loaded =
+         ContractionHierarchy.load(file.getPath());
+      long t3 = System.nanoTime();
+      System.out.printf("%d nodes, %d arcs: preprocessing %.0f ms, " +
+                        "%d shortcuts%n", n, g.getArcCount(),
+                        (t1 - t0) / 1.0E6, ch.getShortcutCount());
+      System.out.printf("   file %d bytes, save %.0f ms, load %.0f ms%n",
+                        file.length(), (t2 - t1) / 1.0E6,
+                        (t3 - t2) / 1.0E6);
+      file.delete();
+      MinimalGraph generic = (n <= MAX_GENERIC_NODES) ? thaw(g) : null;
+      System.out.printf("   %-20s %12s %12s%n", "Search", "settled",
+                        "time (ms)");
+      for (int pass = 0; pass < 2; pass++) {
+         double[] costs = new double[N_QUERIES];
+         for (int method = 0; method < METHODS.length; method++) {
+            if (method == 0 && generic == null) continue;
+            PathFinder pf = new PathFinder(g);
+            Random rand = new Random(SEED);
+            long settled = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < N_QUERIES; i++) {
+               int n1 = rand.nextInt(n);
+               int n2 = rand.nextInt(n);
+               double cost;
+               if (method == 0) {
+                  cost = generic.findMinimumPath(generic.getNode("n" + n1),
+                                                 generic.getNode("n" + n2))
+                                .getCost();
+               } else if (method == 1) {
+                  cost = pf.dijkstra(n1, n2);
+                  settled += pf.getSettledCount();
+                  costs[i] = cost;
+               } else if (method == 2) {
+                  cost = loaded.getMinimumCost(n1, n2);
+                  settled += loaded.getSettledCount();
+               } else {
+                  cost = generic.findMinimumPath(generic.getNode("n" + n1),
+                                                 generic.getNode("n" + n2),
+                                                 loaded).getCost();
+                  settled += loaded.getSettledCount();
+               }
+               if (method > 1) {
+                  check(Math.abs(cost - costs[i]) <= TOLERANCE * cost);
+               }
+            }
+            long finish = System.nanoTime();
+            if (pass == 1) {
+               System.out.printf("   %-20s %12s %12.3f%n", METHODS[method],
+                                 (method == 0) ? "--"
+                                               : "" + settled / N_QUERIES,
+                                 (finish - start) / 1.0E6 / N_QUERIES);
+            }
+            if (method == 2 && generic == null) break;
+         }
+      }
+   }
+
+/*
+ * Creates a MinimalGraph with the same nodes and arcs as g.
+ */
+
+   private MinimalGraph thaw(FrozenGraph g) {
+      MinimalGraph generic = new MinimalGraph();
+      MinimalNode[] nodes = new MinimalNode[g.size()];
+      for (int v = 0; v < g.size(); v++) {
+         nodes[v] = new MinimalNode(g.getName(v));
+         generic.addNode(nodes[v]);
+      }
+      for (int v = 0; v < g.size(); v++) {
+         for (int a = g.getFirstArc(v); a < g.getFirstArc(v + 1); a++) {
+            generic.addArc(new MinimalArc(nodes[v],
+                                          nodes[g.getArcFinish(a)],
+                                          g.getArcCost(a)));
+         }
+      }
+      return generic;
+   }
+
+/*
+ * Creates a temporary file for the saved hierarchy.
+ */
+
+   private File createTempFile() {
+      try {
+         return File.createTempFile("grid", ".ch");
+      } catch (IOException ex) {
+         throw new RuntimeException(ex.toString());
+      }
+   }
+
+/*
+ * Throws an exception if the searches disagree.
+ */
+
+   private void check(boolean ok) {
+      if (!ok) throw new RuntimeException("Path costs differ");
+   }
+
+/* Constants */
+
+   private static final int[] SIDES = { 32, 100, 224 };
+   private static final int MAX_GENERIC_NODES = 10000;
+   private static final int N_QUERIES = 100;
+   private static final double JITTER = 0.5;
+   private static final double TOLERANCE = 1.0E-9;
+   private static final long SEED = 24;
+   private static final String[] METHODS = {
+      "GenericGraph", "Dijkstra", "hierarchy", "hierarchy (generic)"
+   };
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new ContractionHierarchyTiming().run();
+   }
+
+}
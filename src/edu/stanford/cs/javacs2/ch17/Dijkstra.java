@@ -9,7 +9,8 @@ package edu.stanford.cs.javacs2.ch17;
 import edu.stanford.cs.console.Console;
 import edu.stanford.cs.console.SystemConsole;
 import edu.stanford.cs.javacs2.ch14.HashMap;
-import java.util.PriorityQueue;
+import edu.stanford.cs.javacs2.ch15.IndexedPriorityQueue;
+import edu.stanford.cs.javacs2.ch15.IndexedPriorityQueue.Handle;
 
 public class Dijkstra {
 
@@ -44,25 +45,32 @@ public class Dijkstra {
 /*
  * Finds the minimum-cost path between start and finish using Dijkstra's
  * algorithm, which keeps track of the shortest paths in a priority
- * queue.  The method returns a Path object, or null if no path exists.
+ * queue.  The queue holds at most one path to each node; when a shorter
+ * path to a queued node is found, decreaseKey replaces the old one.  The
+ * method returns a Path object, or null if no path exists.
  */
 
    private Path findMinimumPath(Node start, Node finish) {
       Path path = new Path();
-      PriorityQueue<Path> queue = new PriorityQueue<Path>();
-      HashMap<String,Double> fixed = new HashMap<String,Double>();
-      while (start != finish) {
-         if (!fixed.containsKey(start.getName())) {
-            fixed.put(start.getName(), path.getCost());
-            for (Arc arc : start.getArcs()) {
-               if (!fixed.containsKey(arc.getFinish().getName())) {
-                  queue.add(path.extend(arc));
-               }
+      IndexedPriorityQueue<Path> queue = new IndexedPriorityQueue<Path>();
+      HashMap<String,Handle<Path>> handles =
+         new HashMap<String,Handle<Path>>();
+      Node node = start;
+      while (node != finish) {
+         for (Arc arc : node.getArcs()) {
+            Node next = arc.getFinish();
+            if (next == start) continue;
+            Handle<Path> h = handles.get(next.getName());
+            if (h == null) {
+               handles.put(next.getName(), queue.add(path.extend(arc)));
+            } else if (h.isQueued() && path.getCost() + arc.getCost()
+                                       < h.getValue().getCost()) {
+               queue.decreaseKey(h, path.extend(arc));
             }
          }
          if (queue.isEmpty()) return null;
          path = queue.remove();
-         start = path.getFinish();
+         node = path.getFinish();
       }
       return path;
    }
@@ -0,0 +1,458 @@
+/*
+ * File: FrozenGraph.java
+ * ----------------------
+ * This file exports a read-only graph that stores its arcs in the
+ * compressed sparse row (CSR) format.  The nodes are identified by
+ * dense int IDs, and the arcs are kept in primitive arrays rather than
+ * as objects, which makes the graph far smaller than a GenericGraph and
+ * lets the search methods run without allocating objects.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * This class represents a graph that cannot be changed once it has been
+ * created.  A FrozenGraph is usually obtained by calling
+ * <code>freeze</code> on a <code>GenericGraph</code>, but a graph too
+ * large to build as objects can be created directly from arrays.  The
+ * nodes are numbered from 0 to <code>size() - 1</code>, and the arcs
+ * leaving node <code>v</code> are numbered from
+ * <code>getFirstArc(v)</code> up to but not including
+ * <code>getFirstArc(v + 1)</code>.
+ */
+
+public class FrozenGraph {
+
+/**
+ * Creates a graph from parallel arrays describing its arcs.  Arc i runs
+ * from node <code>starts[i]</code> to node <code>finishes[i]</code> and
+ * has cost <code>costs[i]</code>.  The names must be distinct, and the
+ * arcs leaving each node keep the order in which they appear.
+ *
+ * @param names The names of the nodes, indexed by ID
+ * @param starts The ID of the start node of each arc
+ * @param finishes The ID of the finish node of each arc
+ * @param costs The cost of each arc
+ */
+
+   public FrozenGraph(String[] names, int[] starts, int[] finishes,
+                      double[] costs) {
+      int n = names.length;
+      int m = starts.length;
+      if (finishes.length != m || costs.length != m) {
+         throw new IllegalArgumentException("Array lengths differ");
+      }
+      this.names = names.clone();
+      byName = sortByName(this.names);
+      firstArc = new int[n + 1];
+      for (int i = 0; i < m; i++) {
+         checkNode(starts[i]);
+         checkNode(finishes[i]);
+         firstArc[starts[i] + 1]++;
+      }
+      for (int v = 0; v < n; v++) {
+         firstArc[v + 1] += firstArc[v];
+      }
+      targets = new int[m];
+      this.costs = new double[m];
+      int[] next = Arrays.copyOf(firstArc, n);
+      for (int i = 0; i < m; i++) {
+         int arc = next[starts[i]]++;
+         targets[arc] = finishes[i];
+         this.costs[arc] = costs[i];
+      }
+   }
+
+/**
+ * Returns the number of nodes in the graph.
+ *
+ * @return The number of nodes
+ */
+
+   public int size() {
+      return names.length;
+   }
+
+/**
+ * Returns the number of arcs in the graph.
+ *
+ * @return The number of arcs
+ */
+
+   public int getArcCount() {
+      return targets.length;
+   }
+
+/**
+ * Returns the ID of the node with the specified name, or -1 if there is
+ * no such node.
+ *
+ * @param name The name of the node
+ * @return The ID of the node, or -1
+ */
+
+   public int getId(String name) {
+      int lh = 0;
+      int rh = byName.length - 1;
+      while (lh <= rh) {
+         int mid = (lh + rh) >>> 1;
+         int cmp = names[byName[mid]].compareTo(name);
+         if (cmp == 0) return byName[mid];
+         if (cmp < 0) {
+            lh = mid + 1;
+         } else {
+            rh = mid - 1;
+         }
+      }
+      return -1;
+   }
+
+/**
+ * Returns the name of the node with the specified ID.
+ *
+ * @param node The ID of the node
+ * @return The name of the node
+ */
+
+   public String getName(int node) {
+      return names[node];
+   }
+
+/**
+ * Returns the index of the first arc leaving the node.  The value for
+ * the ID <code>size()</code> is the total number of arcs, so that the
+ * arcs of every node end where those of the next node begin.
+ *
+ * @param node The ID of the node, which may be <code>size()</code>
+ * @return The index of the first arc leaving the node
+ */
+
+   public int getFirstArc(int node) {
+      return firstArc[node];
+   }
+
+/**
+ * Returns the number of arcs leaving the node.
+ *
+ * @param node The ID of the node
+ * @return The number of arcs leaving the node
+ */
+
+   public int getDegree(int node) {
+      return firstArc[node + 1] - firstArc[node];
+   }
+
+/**
+ * Returns the ID of the node at which the specified arc ends.
+ *
+ * @param arc The index of the arc
+ * @return The ID of its finish node
+ */
+
+   public int getArcFinish(int arc) {
+      return targets[arc];
+   }
+
+/**
+ * Returns the cost of the specified arc.
+ *
+ * @param arc The index of the arc
+ * @return The cost of the arc
+ */
+
+   public double getArcCost(int arc) {
+      return costs[arc];
+   }
+
+/**
+ * Performs a breadth-first search beginning at the specified node,
+ * passing the ID of each node it reaches to the visitor.
+ *
+ * @param node The ID of the starting node
+ * @param visitor The action to apply to each node
+ */
+
+   public void bfs(int node, IntConsumer visitor) {
+      bfs(node, -1, visitor);
+   }
+
+/**
+ * Performs a breadth-first search beginning at <code>n1</code>, passing
+ * the ID of each node it reaches to the visitor and stopping after it
+ * visits <code>n2</code>.  The nodes are visited in the same order as in
+ * the <code>bfs</code> method of the <code>GenericGraph</code> from which
+ * this graph was frozen.
+ *
+ * @param n1 The ID of the starting node
+ * @param n2 The ID of the destination node, or -1 to visit every node
+ *           that can be reached
+ * @param visitor The action to apply to each node, or <code>null</code>
+ * @return True if the search reached <code>n2</code>
+ */
+
+   public synchronized boolean bfs(int n1, int n2, IntConsumer visitor) {
+      checkNode(n1);
+      startSearch();
+      int head = 0;
+      int tail = 0;
+      stack[tail++] = n1;
+      mark[n1] = epoch;
+      while (head < tail) {
+         int v = stack[head++];
+         if (visitor != null) visitor.accept(v);
+         if (v == n2) return true;
+         for (int a = firstArc[v]; a < firstArc[v + 1]; a++) {
+            int w = targets[a];
+            if (mark[w] != epoch) {
+               mark[w] = epoch;
+               stack[tail++] = w;
+            }
+         }
+      }
+      return false;
+   }
+
+/**
+ * Performs a depth-first search beginning at the specified node,
+ * passing the ID of each node it reaches to the visitor.
+ *
+ * @param node The ID of the starting node
+ * @param visitor The action to apply to each node
+ */
+
+   public void dfs(int node, IntConsumer visitor) {
+      dfs(node, -1, visitor);
+   }
+
+/*
+ * Implementation notes: dfs
+ * -------------------------
+ * The recursive search in GenericGraph needs one stack frame per node
+ * on the current path, which overflows the Java stack on large graphs.
+ * This version keeps the path in the stack array and, for each node on
+ * it, the index of the next arc to follow in the nextArc array.  Nodes
+ * are visited in the same order as in the recursive version.
+ */
+
+/**
+ * Performs a depth-first search beginning at <code>n1</code>, passing the
+ * ID of each node it reaches to the visitor and stopping after it visits
+ * <code>n2</code>.
+ *
+ * @param n1 The ID of the starting node
+ * @param n2 The ID of the destination node, or -1 to visit every node
+ *           that can be reached
+ * @param visitor The action to apply to each node, or <code>null</code>
+ * @return True if the search reached <code>n2</code>
+ */
+
+   public synchronized boolean dfs(int n1, int n2, IntConsumer visitor) {
+      checkNode(n1);
+      startSearch();
+      int depth = 0;
+      if (visitNode(n1, n2, visitor)) return true;
+      stack[0] = n1;
+      nextArc[0] = firstArc[n1];
+      while (depth >= 0) {
+         int v = stack[depth];
+         int a = nextArc[depth];
+         if (a == firstArc[v + 1]) {
+            depth--;
+         } else {
+            nextArc[depth] = a + 1;
+            int w = targets[a];
+            if (mark[w] != epoch) {
+               if (visitNode(w, n2, visitor)) return true;
+               depth++;
+               stack[depth] = w;
+               nextArc[depth] = firstArc[w];
+            }
+         }
+      }
+      return false;
+   }
+
+/**
+ * Returns the cost of the minimum-cost path from <code>n1</code> to
+ * <code>n2</code>, or <code>Double.POSITIVE_INFINITY</code> if no path
+ * exists.  Unlike <code>findMinimumPath</code>, this method allocates no
+ * memory once its working arrays exist.
+ *
+ * @param n1 The ID of the starting node
+ * @param n2 The ID of the destination node
+ * @return The cost of the shortest path
+ */
+
+   public synchronized double getMinimumCost(int n1, int n2) {
+      return getPathFinder().dijkstra(n1, n2);
+   }
+
+/**
+ * Finds the minimum-cost path from <code>n1</code> to <code>n2</code>
+ * using Dijkstra&rsquo;s algorithm.  The path is returned as an array of
+ * node IDs beginning with <code>n1</code> and ending with
+ * <code>n2</code>, or <code>null</code> if no path exists.  Programs that
+ * need bidirectional search or A* should create a
+ * <code>PathFinder</code> instead.
+ *
+ * @param n1 The ID of the starting node
+ * @param n2 The ID of the destination node
+ * @return The IDs of the nodes on the shortest path, or <code>null</code>
+ */
+
+   public synchronized int[] findMinimumPath(int n1, int n2) {
+      PathFinder pf = getPathFinder();
+      pf.dijkstra(n1, n2);
+      return pf.getPath();
+   }
+
+/**
+ * Returns a graph with the same nodes as this one in which every arc
+ * runs in the opposite direction.  The reverse graph is created the
+ * first time it is needed and shared by later calls.  Because it takes
+ * as much memory as this graph, only the searches that scan arcs
+ * backward, such as bidirectional search, ask for it; the
+ * shortest-path methods of this class do not.
+ *
+ * @return The reverse of this graph
+ */
+
+   public synchronized FrozenGraph reverse() {
+      if (reverse == null) {
+         reverse = new FrozenGraph(this);
+         reverse.reverse = this;
+      }
+      return reverse;
+   }
+
+/*
+ * Creates the reverse of the graph g, sharing its node names.  The arcs
+ * are redistributed by finish node using the same counting sort as the
+ * public constructor.
+ */
+
+   private FrozenGraph(FrozenGraph g) {
+      int n = g.names.length;
+      int m = g.targets.length;
+      names = g.names;
+      byName = g.byName;
+      firstArc = new int[n + 1];
+      for (int a = 0; a < m; a++) {
+         firstArc[g.targets[a] + 1]++;
+      }
+      for (int v = 0; v < n; v++) {
+         firstArc[v + 1] += firstArc[v];
+      }
+      targets = new int[m];
+      costs = new double[m];
+      int[] next = Arrays.copyOf(firstArc, n);
+      for (int v = 0; v < n; v++) {
+         for (int a = g.firstArc[v]; a < g.firstArc[v + 1]; a++) {
+            int arc = next[g.targets[a]]++;
+            targets[arc] = v;
+            costs[arc] = g.costs[a];
+         }
+      }
+   }
+
+/*
+ * Returns the PathFinder used by getMinimumCost and findMinimumPath,
+ * creating it on the first call.
+ */
+
+   private PathFinder getPathFinder() {
+      if (finder == null) finder = new PathFinder(this);
+      return finder;
+   }
+
+/*
+ * Marks the node as reached, applies the visitor, and returns true if
+ * the node is the destination.
+ */
+
+   private boolean visitNode(int node, int n2, IntConsumer visitor) {
+      mark[node] = epoch;
+      if (visitor != null) visitor.accept(node);
+      return node == n2;
+   }
+
+/*
+ * Implementation notes: startSearch
+ * ---------------------------------
+ * The working arrays for bfs and dfs are allocated by the first search
+ * and reused by every later one, which is why the search methods are
+ * synchronized.  Rather than clearing the mark array before each search,
+ * startSearch advances epoch, so that marks left by earlier searches no
+ * longer match.  The array is cleared only when epoch is about to
+ * overflow.  The shortest-path methods use a PathFinder, which manages
+ * its own arrays in the same way.
+ */
+
+   private void startSearch() {
+      if (mark == null) {
+         int n = names.length;
+         mark = new int[n];
+         stack = new int[n];
+         nextArc = new int[n];
+      }
+      if (epoch == Integer.MAX_VALUE) {
+         Arrays.fill(mark, 0);
+         epoch = 0;
+      }
+      epoch++;
+   }
+
+/*
+ * Returns the node IDs sorted by name, which getId searches using
+ * binary search.  This method throws an IllegalArgumentException if two
+ * nodes have the same name.
+ */
+
+   private static int[] sortByName(String[] names) {
+      Integer[] order = new Integer[names.length];
+      for (int i = 0; i < names.length; i++) {
+         order[i] = i;
+      }
+      Arrays.sort(order, (i, j) -> names[i].compareTo(names[j]));
+      int[] result = new int[names.length];
+      for (int i = 0; i < names.length; i++) {
+         result[i] = order[i];
+         if (i > 0 && names[result[i]].equals(names[result[i - 1]])) {
+            throw new IllegalArgumentException("Duplicate node name "
+                                               + names[result[i]]);
+         }
+      }
+      return result;
+   }
+
+/*
+ * Throws an IllegalArgumentException if node is not a legal ID.
+ */
+
+   private void checkNode(int node) {
+      if (node < 0 || node >= names.length) {
+         throw new IllegalArgumentException("Illegal node ID " + node);
+      }
+   }
+
+/* Private instance variables */
+
+   private String[] names;          /* The name of each node              */
+   private int[] byName;            /* The node IDs in order of name      */
+   private int[] firstArc;          /* Where the arcs of each node begin  */
+   private int[] targets;           /* The finish node of each arc        */
+   private double[] costs;          /* The cost of each arc               */
+   private FrozenGraph reverse;     /* The reverse graph, once it exists  */
+
+/* Working storage shared by the search methods */
+
+   private int[] mark;              /* Search in which a node was reached */
+   private int epoch;               /* The number of the current search   */
+   private int[] stack;             /* The BFS queue or the DFS path      */
+   private int[] nextArc;           /* Next arc to try at each DFS level  */
+   private PathFinder finder;       /* Finds paths for findMinimumPath    */
+
+}
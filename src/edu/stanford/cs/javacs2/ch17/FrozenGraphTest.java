@@ -0,0 +1,76 @@
+/*
+ * File: FrozenGraphTest.java
+ * --------------------------
+ * This program tests the FrozenGraph class by freezing the airline graph
+ * and comparing the results of its searches with those of the original
+ * GenericGraph.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+public class FrozenGraphTest {
+
+   public void run() {
+      MinimalGraph airline = AirlineGraph.createMinimalGraph();
+      FrozenGraph frozen = airline.freeze();
+      System.out.println("nodes = " + frozen.size() +
+                         ", arcs = " + frozen.getArcCount());
+      MinimalNode atlanta = airline.getNode("Atlanta");
+      int start = frozen.getId("Atlanta");
+      StringBuilder sb = new StringBuilder();
+      airline.bfs(atlanta, (node) -> sb.append(" " + node.getName()));
+      System.out.println("GenericGraph bfs:" + sb);
+      System.out.println("FrozenGraph bfs: " + visitOrder(frozen, start,
+                                                          true));
+      sb.setLength(0);
+      airline.dfs(atlanta, (node) -> sb.append(" " + node.getName()));
+      System.out.println("GenericGraph dfs:" + sb);
+      System.out.println("FrozenGraph dfs: " + visitOrder(frozen, start,
+                                                          false));
+      showPath(airline, frozen, "Portland", "Atlanta");
+      showPath(airline, frozen, "Boston", "Los Angeles");
+      System.out.println("getId(\"Paris\") = " + frozen.getId("Paris"));
+   }
+
+/*
+ * Returns the names of the nodes visited by a search of the frozen graph,
+ * separated by spaces.
+ */
+
+   private String visitOrder(FrozenGraph g, int start, boolean breadth) {
+      StringBuilder sb = new StringBuilder();
+      if (breadth) {
+         g.bfs(start, (node) -> sb.append(" " + g.getName(node)));
+      } else {
+         g.dfs(start, (node) -> sb.append(" " + g.getName(node)));
+      }
+      return sb.toString().trim();
+   }
+
+/*
+ * Displays the shortest path between the named cities in both graphs.
+ */
+
+   private void showPath(MinimalGraph airline, FrozenGraph frozen,
+                         String c1, String c2) {
+      GenericPath<MinimalNode,MinimalArc> path =
+         airline.findMinimumPath(airline.getNode(c1), airline.getNode(c2));
+      System.out.printf("GenericGraph: %s (%.0f)%n", path, path.getCost());
+      int n1 = frozen.getId(c1);
+      int n2 = frozen.getId(c2);
+      StringBuilder sb = new StringBuilder();
+      for (int node : frozen.findMinimumPath(n1, n2)) {
+         if (sb.length() > 0) sb.append(" -> ");
+         sb.append(frozen.getName(node));
+      }
+      System.out.printf("FrozenGraph:  %s (%.0f)%n", sb,
+                        frozen.getMinimumCost(n1, n2));
+   }
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new FrozenGraphTest().run();
+   }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * File: FrozenGraphTiming.java
+ * ----------------------------
+ * This program compares the memory use and search speed of a random
+ * GenericGraph with those of the FrozenGraph produced by its freeze
+ * method.  The memory use of each graph is measured as the growth of the
+ * heap while it is built, so the figures are approximate.  The depth-first
+ * search of GenericGraph is not timed, since its recursion can overflow
+ * the stack on graphs of this size.  The last line of the table shows a
+ * graph too large to build as a GenericGraph in a small heap, which is
+ * created directly from arrays.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+import java.util.Random;
+
+public class FrozenGraphTiming {
+
+   public void run() {
+      System.out.printf("%9s %9s %-8s %10s %10s %10s %10s%n", "Nodes",
+                        "Arcs", "Graph", "bytes/arc", "bfs (ms)",
+                        "dfs (ms)", "path (ms)");
+      for (int n = MIN_NODES; n <= MAX_NODES; n *= 10) {
+         timeGraphs(n);
+      }
+      timeDirect(DIRECT_NODES);
+   }
+
+/*
+ * Builds a random graph with n nodes and its frozen copy, and times the
+ * searches on each.
+ */
+
+   private void timeGraphs(int n) {
+      long before = usedMemory();
+      MinimalGraph g = GraphGenerator.createRandomGraph(n, ARCS_PER_NODE,
+                                                       MAX_COST, SEED);
+      long genericBytes = usedMemory() - before;
+      before = usedMemory();
+      FrozenGraph frozen = g.freeze();
+      long frozenBytes = usedMemory() - before;
+      int m = frozen.getArcCount();
+      for (int pass = 0; pass < 2; pass++) {
+         boolean show = pass == 1;
+         double[] costs = timeGeneric(g, n, (double) genericBytes / m, show);
+         timeFrozen(frozen, n, (double) frozenBytes / m, costs, show);
+      }
+   }
+
+/*
+ * Builds a FrozenGraph with n nodes directly from arrays and times its
+ * searches.  There is no GenericGraph with which to compare the results.
+ */
+
+   private void timeDirect(int n) {
+      long before = usedMemory();
+      FrozenGraph g = GraphGenerator.createRandomFrozenGraph(n, ARCS_PER_NODE,
+                                                             MAX_COST, SEED);
+      long bytes = usedMemory() - before;
+      for (int pass = 0; pass < 2; pass++) {
+         timeFrozen(g, n, (double) bytes / g.getArcCount(), null, pass == 1);
+      }
+   }
+
+/*
+ * Times a complete breadth-first search and the minimum-cost paths
+ * between N_PATHS random pairs of nodes in the GenericGraph, returning
+ * the costs of those paths.  The first pass warms up the compiler and
+ * does not print its results.
+ */
+
+   private double[] timeGeneric(MinimalGraph g, int n, double bytes,
+                                boolean show) {
+      MinimalNode start = g.getNode(nodeName(0));
+      long t0 = System.nanoTime();
+      g.bfs(start, null);
+      long t1 = System.nanoTime();
+      Random rand = new Random(SEED);
+      double[] costs = new double[N_PATHS];
+      for (int i = 0; i < N_PATHS; i++) {
+         MinimalNode n1 = g.getNode(nodeName(rand.nextInt(n)));
+         MinimalNode n2 = g.getNode(nodeName(rand.nextInt(n)));
+         GenericPath<MinimalNode,MinimalArc> path = g.findMinimumPath(n1, n2);
+         costs[i] = (path == null) ? Double.POSITIVE_INFINITY
+                                   : path.getCost();
+      }
+      long t2 = System.nanoTime();
+      if (show) {
+         System.out.printf("%9d %9d %-8s %10.1f %10.1f %10s %10.2f%n",
+                           n, g.getArcSet().size(), "Generic", bytes,
+                           (t1 - t0) / 1.0E6, "--",
+                           (t2 - t1) / 1.0E6 / N_PATHS);
+      }
+      return costs;
+   }
+
+/*
+ * Times the same searches on the FrozenGraph and checks that the path
+ * costs agree with those found in the GenericGraph, unless costs is
+ * null.
+ */
+
+   private void timeFrozen(FrozenGraph g, int n, double bytes,
+                           double[] costs, boolean show) {
+      int start = g.getId(nodeName(0));
+      long t0 = System.nanoTime();
+      g.bfs(start, null);
+      long t1 = System.nanoTime();
+      g.dfs(start, null);
+      long t2 = System.nanoTime();
+      Random rand = new Random(SEED);
+      for (int i = 0; i < N_PATHS; i++) {
+         int n1 = g.getId(nodeName(rand.nextInt(n)));
+         int n2 = g.getId(nodeName(rand.nextInt(n)));
+         double cost = g.getMinimumCost(n1, n2);
+         if (costs != null) check(cost == costs[i]);
+      }
+      long t3 = System.nanoTime();
+      if (show) {
+         System.out.printf("%9d %9d %-8s %10.1f %10.1f %10.1f %10.2f%n",
+                           n, g.getArcCount(), "Frozen", bytes,
+                           (t1 - t0) / 1.0E6, (t2 - t1) / 1.0E6,
+                           (t3 - t2) / 1.0E6 / N_PATHS);
+      }
+   }
+
+   private String nodeName(int i) {
+      return "n" + i;
+   }
+
+/*
+ * Returns the number of bytes in use after collecting garbage.  The
+ * result is approximate, since System.gc is only a request.
+ */
+
+   private long usedMemory() {
+      Runtime rt = Runtime.getRuntime();
+      for (int i = 0; i < GC_PASSES; i++) {
+         System.gc();
+      }
+      return rt.totalMemory() - rt.freeMemory();
+   }
+
+/*
+ * Throws an exception if the two graphs disagree.
+ */
+
+   private void check(boolean ok) {
+      if (!ok) throw new RuntimeException("Path costs differ");
+   }
+
+/* Constants */
+
+   private static final int MIN_NODES = 1000;
+   private static final int MAX_NODES = 10000;
+   private static final int DIRECT_NODES = 1000000;
+   private static final int ARCS_PER_NODE = 5;
+   private static final int MAX_COST = 100;
+   private static final int N_PATHS = 20;
+   private static final long SEED = 17;
+   private static final int GC_PASSES = 3;
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new FrozenGraphTiming().run();
+   }
+
+}
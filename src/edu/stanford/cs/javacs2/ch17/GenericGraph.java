@@ -11,6 +11,9 @@ import edu.stanford.cs.javacs2.ch13.ArrayList;
 import edu.stanford.cs.javacs2.ch13.ArrayQueue;
 import edu.stanford.cs.javacs2.ch13.Queue;
 import edu.stanford.cs.javacs2.ch14.HashMap;
+import edu.stanford.cs.javacs2.ch15.IndexedPriorityQueue;
+import edu.stanford.cs.javacs2.ch15.IndexedPriorityQueue.Handle;
+import edu.stanford.cs.javacs2.ch16.HashXSet;
 import edu.stanford.cs.javacs2.ch16.XSet;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -18,7 +21,6 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.PriorityQueue;
 
 /**
  * This class represents a graph with the specified node and arc types.
@@ -412,7 +414,7 @@ public class GenericGraph<N extends GenericNode<N,A>,
  */
 
    public void bfs(N n1, N n2, Visitor<N> visitor) {
-      XSet<N> visited = new XSet<N>();
+      HashXSet<N> visited = new HashXSet<N>();
       bfs(n1, n2, visitor, visited);
    }
 
@@ -440,15 +442,17 @@ public class GenericGraph<N extends GenericNode<N,A>,
  */
 
    public void dfs(N n1, N n2, Visitor<N> visitor) {
-      XSet<N> visited = new XSet<N>();
+      HashXSet<N> visited = new HashXSet<N>();
       dfs(n1, n2, visitor, visited);
    }
 
 /**
  * Finds the minimum-cost path between <code>n1</code> and <code>n2</code>
  * using Dijkstra&rsquo;s algorithm, which keeps track of the shortest paths
- * in a priority queue.  The method returns a <code>GenericPath</code>
- * object or <code>null</code> if no path exists.
+ * in a priority queue.  The queue holds at most one path to each node;
+ * when a shorter path to a queued node is found, that path replaces the
+ * old one using <code>decreaseKey</code>.  The method returns a
+ * <code>GenericPath</code> object or <code>null</code> if no path exists.
  *
  * @param n1 The starting node
  * @param n2 The destination node
@@ -457,16 +461,21 @@ public class GenericGraph<N extends GenericNode<N,A>,
 
    public GenericPath<N,A> findMinimumPath(N n1, N n2) {
       GenericPath<N,A> path = new GenericPath<N,A>();
-      PriorityQueue<GenericPath<N,A>> queue =
-         new PriorityQueue<GenericPath<N,A>>();
-      HashMap<String,Double> fixed = new HashMap<String,Double>();
+      IndexedPriorityQueue<GenericPath<N,A>> queue =
+         new IndexedPriorityQueue<GenericPath<N,A>>();
+      HashMap<String,Handle<GenericPath<N,A>>> handles =
+         new HashMap<String,Handle<GenericPath<N,A>>>();
+      N start = n1;
       while (n1 != n2) {
-         if (!fixed.containsKey(n1.getName())) {
-            fixed.put(n1.getName(), path.getCost());
-            for (A arc : n1.getArcs()) {
-               if (!fixed.containsKey(arc.getFinish().getName())) {
-                  queue.add(path.extend(arc));
-               }
+         for (A arc : n1.getArcs()) {
+            N finish = arc.getFinish();
+            if (finish == start) continue;
+            Handle<GenericPath<N,A>> h = handles.get(finish.getName());
+            if (h == null) {
+               handles.put(finish.getName(), queue.add(path.extend(arc)));
+            } else if (h.isQueued() && path.getCost() + arc.getCost()
+                                       < h.getValue().getCost()) {
+               queue.decreaseKey(h, path.extend(arc));
             }
          }
          if (queue.isEmpty()) return null;
@@ -476,6 +485,99 @@ public class GenericGraph<N extends GenericNode<N,A>,
       return path;
    }
 
+/**
+ * Finds the minimum-cost path between <code>n1</code> and <code>n2</code>
+ * using a contraction hierarchy built from a frozen copy of this graph.
+ * The result is the same as that of the two-argument version, but each
+ * query is much faster once the hierarchy exists.  Where two nodes are
+ * joined by several arcs, the path uses the cheapest one.  The
+ * hierarchy must have been built since the graph last changed.  If it
+ * was built from a different graph, or if the graph has changed since,
+ * this method throws an IllegalStateException when it finds a node or
+ * an arc of the path that is missing from one graph or the other.
+ *
+ * @param n1 The starting node
+ * @param n2 The destination node
+ * @param ch A contraction hierarchy for this graph
+ * @return The shortest path or <code>null</code> if none exists
+ */
+
+   public GenericPath<N,A> findMinimumPath(N n1, N n2,
+                                           ContractionHierarchy ch) {
+      FrozenGraph g = ch.getGraph();
+      int start = g.getId(n1.getName());
+      int end = g.getId(n2.getName());
+      if (start < 0 || end < 0) {
+         String name = (start < 0) ? n1.getName() : n2.getName();
+         throw new IllegalStateException("Node " + name
+                                         + " is not in the hierarchy");
+      }
+      int[] ids = ch.findMinimumPath(start, end);
+      if (ids == null) return null;
+      GenericPath<N,A> path = new GenericPath<N,A>();
+      for (int i = 1; i < ids.length; i++) {
+         String finish = g.getName(ids[i]);
+         A best = null;
+         for (A arc : n1.getArcs()) {
+            if (arc.getFinish().getName().equals(finish)
+                && (best == null || arc.getCost() < best.getCost())) {
+               best = arc;
+            }
+         }
+         if (best == null) {
+            throw new IllegalStateException("No arc from " + n1.getName()
+                                            + " to " + finish
+                                            + " matches the hierarchy");
+         }
+         path = path.extend(best);
+         n1 = best.getFinish();
+      }
+      return path;
+   }
+
+/*
+ * Implementation notes: freeze
+ * ----------------------------
+ * The nodes are numbered in the order of the node set, and the arcs of
+ * each node are copied in the order of its arc set, so that searches of
+ * the frozen graph visit nodes in the same order as searches of this
+ * one.  The map from names to IDs is needed only while the arrays are
+ * filled; the frozen graph finds IDs by binary search on the names.
+ */
+
+/**
+ * Returns a read-only snapshot of this graph in which the nodes are
+ * identified by int IDs and the arcs are stored in primitive arrays.
+ * Later changes to this graph do not affect the snapshot.
+ *
+ * @return A <code>FrozenGraph</code> with the same nodes and arcs
+ */
+
+   public FrozenGraph freeze() {
+      String[] names = new String[nodes.size()];
+      HashMap<String,Integer> ids = new HashMap<String,Integer>();
+      int m = 0;
+      for (N node : nodes) {
+         names[ids.size()] = node.getName();
+         ids.put(node.getName(), ids.size());
+         m += node.getArcs().size();
+      }
+      int[] starts = new int[m];
+      int[] finishes = new int[m];
+      double[] costs = new double[m];
+      int i = 0;
+      for (N node : nodes) {
+         int id = ids.get(node.getName());
+         for (A arc : node.getArcs()) {
+            starts[i] = id;
+            finishes[i] = ids.get(arc.getFinish().getName());
+            costs[i] = arc.getCost();
+            i++;
+         }
+      }
+      return new FrozenGraph(names, starts, finishes, costs);
+   }
+
 /*
  * Looks up a node and throws a RuntimeException if the node is not found.
  */
@@ -490,20 +592,26 @@ public class GenericGraph<N extends GenericNode<N,A>,
  * Executes a breadth-first search beginning at the specified node that
  * avoids revisiting any nodes in the visited set, stopping when it
  * reaches n2 or when no unexplored nodes exist.  The function returns
- * true if n2 has been found.
+ * true if n2 has been found.  Each node is added to the visited set when
+ * it is first queued rather than when it is removed, so the queue never
+ * holds a node twice; the nodes are visited in the same order either
+ * way.
  */
 
-   private boolean bfs(N n1, N n2, Visitor<N> visitor, XSet<N> visited) {
+   private boolean bfs(N n1, N n2, Visitor<N> visitor,
+                       HashXSet<N> visited) {
       Queue<N> queue = new ArrayQueue<N>();
       queue.add(n1);
+      visited.add(n1);
       while (!queue.isEmpty()) {
          N node = queue.remove();
-         if (!visited.contains(node)) {
-            if (visitor != null) visitor.visit(node);
-            if (node == n2) return true;
-            visited.add(node);
-            for (A arc : node.getArcs()) {
-               queue.add(arc.getFinish());
+         if (visitor != null) visitor.visit(node);
+         if (node == n2) return true;
+         for (A arc : node.getArcs()) {
+            N finish = arc.getFinish();
+            if (!visited.contains(finish)) {
+               visited.add(finish);
+               queue.add(finish);
             }
          }
       }
@@ -517,7 +625,8 @@ public class GenericGraph<N extends GenericNode<N,A>,
  * true if n2 has been found.
  */
 
-   private boolean dfs(N n1, N n2, Visitor<N> visitor, XSet<N> visited) {
+   private boolean dfs(N n1, N n2, Visitor<N> visitor,
+                       HashXSet<N> visited) {
       if (visited.contains(n1)) return false;
       if (visitor != null) visitor.visit(n1);
       if (n1 == n2) return true;
@@ -5,23 +5,40 @@
  * parameterized by the concrete node and arc types.  The GenericPath
  * class is immutable in that paths are never changed once they are
  * constructed.  Clients instead use the extend method to create new
- * paths that contain an additional arc.
+ * paths that contain an additional arc, which share the arcs of the
+ * original path instead of copying them.
  */
 
 package edu.stanford.cs.javacs2.ch17;
 
 import edu.stanford.cs.javacs2.ch13.ArrayList;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 public class GenericPath<N extends GenericNode<N,A>,
                          A extends GenericArc<N,A>>
                          implements Comparable<GenericPath<N,A>> {
 
    public GenericPath() {
-      arcs = new ArrayList<A>();
+      prefix = null;
+      lastArc = null;
+      start = null;
       totalCost = 0;
       count = 0;
    }
 
+/*
+ * Implementation notes: extend
+ * ----------------------------
+ * A path is represented by its last arc and a reference to the path
+ * that precedes it, which it shares with every other path extended from
+ * the same prefix.  Extending a path therefore takes constant time and
+ * allocates a single object, no matter how long the path is, and the
+ * paths held in a priority queue during Dijkstra's algorithm form a
+ * tree that uses one object per extension.  The arcs are collected into
+ * a list only when a client calls getArcs or toString.
+ */
+
 /**
  * Creates a new path that has the same arcs as the current one, but
  * includes the new arc at the end.  Note that this method leaves the
@@ -33,10 +50,9 @@ public class GenericPath<N extends GenericNode<N,A>,
          throw new RuntimeException("Arcs are disconnected");
       }
       GenericPath<N,A> path = new GenericPath<N,A>();
-      for (A a : this.arcs) {
-         path.arcs.add(a);
-      }
-      path.arcs.add(arc);
+      path.prefix = this;
+      path.lastArc = arc;
+      path.start = isEmpty() ? arc.getStart() : start;
       path.totalCost = this.totalCost + arc.getCost();
       path.count = this.count + 1;
       return path;
@@ -55,7 +71,7 @@ public class GenericPath<N extends GenericNode<N,A>,
  */
 
    public boolean isEmpty() {
-      return arcs.isEmpty();
+      return count == 0;
    }
 
 /**
@@ -72,7 +88,7 @@ public class GenericPath<N extends GenericNode<N,A>,
 
    public N getStart() {
       if (count == 0) throw new RuntimeException("Path is empty");
-      return arcs.get(0).getStart();
+      return start;
    }
 
 /**
@@ -81,7 +97,41 @@ public class GenericPath<N extends GenericNode<N,A>,
 
    public N getFinish() {
       if (count == 0) throw new RuntimeException("Path is empty");
-      return arcs.get(count - 1).getFinish();
+      return lastArc.getFinish();
+   }
+
+/**
+ * Returns a new list containing the arcs of this path in order.  The
+ * list takes time proportional to the length of the path to build.
+ */
+
+   public ArrayList<A> getArcs() {
+      return collectArcs(this, count, p -> p.prefix, p -> p.lastArc);
+   }
+
+/*
+ * Returns a new list containing the count arcs of a path in order.  The
+ * path is represented as in this class: prefix returns the path without
+ * its last arc, and lastArc returns that arc.  Path uses the same
+ * representation, so it shares this method.
+ */
+
+   static <P,T> ArrayList<T> collectArcs(P path, int count,
+                                         UnaryOperator<P> prefix,
+                                         Function<P,T> lastArc) {
+      ArrayList<T> arcs = new ArrayList<T>();
+      arcs.ensureCapacity(count);
+      P p = path;
+      for (int i = 0; i < count; i++) {
+         arcs.add(lastArc.apply(p));
+         p = prefix.apply(p);
+      }
+      for (int lh = 0, rh = count - 1; lh < rh; lh++, rh--) {
+         T tmp = arcs.get(lh);
+         arcs.set(lh, arcs.get(rh));
+         arcs.set(rh, tmp);
+      }
+      return arcs;
    }
 
 /**
@@ -91,11 +141,12 @@ public class GenericPath<N extends GenericNode<N,A>,
    @Override
    public String toString() {
       if (count == 0) return "empty";
-      String str = arcs.get(0).getStart().getName();
-      for (A arc : arcs) {
-         str += " -> " + arc.getFinish().getName();
+      StringBuilder sb = new StringBuilder(start.getName());
+      for (A arc : getArcs()) {
+         sb.append(" -> ");
+         sb.append(arc.getFinish().getName());
       }
-      return str;
+      return sb.toString();
    }
 
 /**
@@ -110,8 +161,10 @@ public class GenericPath<N extends GenericNode<N,A>,
 
 /* Private instance variables */
 
-   private ArrayList<A> arcs;
-   private double totalCost;
-   private int count;
+   private GenericPath<N,A> prefix;  /* The path without its last arc    */
+   private A lastArc;                /* The last arc, or null if empty   */
+   private N start;                  /* The first node, or null if empty */
+   private double totalCost;         /* The sum of the arc costs         */
+   private int count;                /* The number of arcs               */
 
 }
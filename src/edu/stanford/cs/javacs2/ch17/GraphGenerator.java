@@ -0,0 +1,111 @@
+/*
+ * File: GraphGenerator.java
+ * -------------------------
+ * This file defines static methods that create the generated graphs used
+ * by the timing programs in this package.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+import java.util.Random;
+
+class GraphGenerator {
+
+/*
+ * Creates a graph that resembles a road network with side * side nodes
+ * named "n0", "n1", and so on.  The nodes are points placed near the
+ * corners of a square grid, each moved by a random amount of up to
+ * jitter in each coordinate.  Each pair of neighbors is connected in both
+ * directions by arcs whose cost is the distance between the points
+ * increased by a random amount of up to 50 percent, so that the
+ * straight-line distance is an admissible heuristic.  If x and y are not
+ * null, they receive the coordinates of each node.
+ */
+
+   static FrozenGraph createGrid(int side, double jitter, long seed,
+                                 double[] x, double[] y) {
+      int n = side * side;
+      if (x == null) x = new double[n];
+      if (y == null) y = new double[n];
+      Random rand = new Random(seed);
+      String[] names = new String[n];
+      for (int i = 0; i < n; i++) {
+         names[i] = "n" + i;
+         x[i] = i % side + rand.nextDouble() * jitter;
+         y[i] = i / side + rand.nextDouble() * jitter;
+      }
+      int m = 4 * side * (side - 1);
+      int[] starts = new int[m];
+      int[] finishes = new int[m];
+      double[] costs = new double[m];
+      int arc = 0;
+      for (int i = 0; i < n; i++) {
+         int[] neighbors = { (i % side < side - 1) ? i + 1 : -1,
+                             (i / side < side - 1) ? i + side : -1 };
+         for (int j : neighbors) {
+            if (j < 0) continue;
+            double cost = Math.hypot(x[i] - x[j], y[i] - y[j])
+                        * (1 + rand.nextDouble() / 2);
+            starts[arc] = i;
+            finishes[arc] = j;
+            costs[arc++] = cost;
+            starts[arc] = j;
+            finishes[arc] = i;
+            costs[arc++] = cost;
+         }
+      }
+      return new FrozenGraph(names, starts, finishes, costs);
+   }
+
+/*
+ * Creates a GenericGraph with n nodes named "n0", "n1", and so on, in
+ * which each node has arcsPerNode arcs to randomly chosen nodes.  The
+ * cost of each arc is a random integer from 1 to maxCost, so passing 1
+ * for maxCost gives every arc a cost of 1.
+ */
+
+   static MinimalGraph createRandomGraph(int n, int arcsPerNode,
+                                         int maxCost, long seed) {
+      MinimalGraph g = new MinimalGraph();
+      MinimalNode[] nodes = new MinimalNode[n];
+      for (int i = 0; i < n; i++) {
+         nodes[i] = new MinimalNode("n" + i);
+         g.addNode(nodes[i]);
+      }
+      Random rand = new Random(seed);
+      for (int i = 0; i < n; i++) {
+         for (int j = 0; j < arcsPerNode; j++) {
+            MinimalNode finish = nodes[rand.nextInt(n)];
+            double cost = 1 + rand.nextInt(maxCost);
+            g.addArc(new MinimalArc(nodes[i], finish, cost));
+         }
+      }
+      return g;
+   }
+
+/*
+ * Creates a FrozenGraph with the same random structure as
+ * createRandomGraph without creating any node or arc objects, which
+ * makes it possible to create much larger graphs.
+ */
+
+   static FrozenGraph createRandomFrozenGraph(int n, int arcsPerNode,
+                                              int maxCost, long seed) {
+      String[] names = new String[n];
+      for (int i = 0; i < n; i++) {
+         names[i] = "n" + i;
+      }
+      int m = n * arcsPerNode;
+      int[] starts = new int[m];
+      int[] finishes = new int[m];
+      double[] costs = new double[m];
+      Random rand = new Random(seed);
+      for (int i = 0; i < m; i++) {
+         starts[i] = i / arcsPerNode;
+         finishes[i] = rand.nextInt(n);
+         costs[i] = 1 + rand.nextInt(maxCost);
+      }
+      return new FrozenGraph(names, starts, finishes, costs);
+   }
+
+}
@@ -0,0 +1,27 @@
+/*
+ * File: Heuristic.java
+ * --------------------
+ * This interface defines the behavior of classes that estimate the cost
+ * of reaching one node of a FrozenGraph from another, which guides the
+ * A* search in PathFinder.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+public interface Heuristic {
+
+/**
+ * Returns an estimate of the cost of the cheapest path from node to
+ * target.  For A* to find the shortest path, the estimate must be
+ * admissible, which means that it never exceeds the actual cost.  For
+ * example, the straight-line distance between two cities is admissible
+ * when the cost of each arc is at least the distance it covers.
+ *
+ * @param node The ID of the node from which the cost is estimated
+ * @param target The ID of the destination node
+ * @return A lower bound on the cost of reaching target from node
+ */
+
+   public double estimate(int node, int target);
+
+}
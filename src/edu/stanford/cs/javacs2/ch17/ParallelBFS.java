@@ -0,0 +1,407 @@
+/*
+ * File: ParallelBFS.java
+ * ----------------------
+ * This file exports a class that computes breadth-first hop distances in
+ * a FrozenGraph, expanding each level of the search in parallel on the
+ * common fork-join pool.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Implementation notes: ParallelBFS
+ * ---------------------------------
+ * The search is level-synchronous: all the nodes at distance d form the
+ * frontier, and the nodes at distance d + 1 are found from it in one
+ * parallel step.  The step divides its work into chunks, and each chunk
+ * is an independent task that collects the nodes it discovers in its own
+ * array.  When every chunk has finished, their arrays are concatenated
+ * to form the next frontier, so no two tasks ever write the same
+ * location except in the visited set.
+ *
+ * A step can run in either of two directions.  The top-down step scans
+ * the arcs leaving each frontier node, and claims each unvisited finish
+ * node by setting its bit in the visited set with compareAndSet, so
+ * that exactly one task adds the node to the next frontier.  The
+ * bottom-up step instead scans every unvisited node and checks its
+ * incoming arcs, using the reverse graph, for one whose start is in the
+ * frontier; it stops at the first such arc.  When the frontier is a
+ * large part of the graph, most of the arcs that the top-down step
+ * would scan lead to nodes already visited, and the bottom-up step does
+ * much less work.  Each bottom-up chunk covers a range of nodes that is
+ * a multiple of 64, so it owns whole words of the visited set.
+ *
+ * The choice of direction follows Beamer, Asanovic and Patterson.  The
+ * search switches to bottom-up when the number of arcs leaving the
+ * frontier exceeds the number leaving unvisited nodes divided by ALPHA,
+ * and back to top-down when the frontier has shrunk below the number of
+ * nodes divided by BETA.
+ */
+
+/**
+ * This class computes the number of arcs on the shortest path to each
+ * node of a FrozenGraph from the nearest of one or more source nodes,
+ * dividing the work among the available processors.  A ParallelBFS is
+ * not safe for use by several threads at once; the parallelism is
+ * inside each search.
+ */
+
+public class ParallelBFS {
+
+/**
+ * Creates a ParallelBFS for the specified graph.
+ *
+ * @param graph The graph to search
+ */
+
+   public ParallelBFS(FrozenGraph graph) {
+      this.graph = graph;
+      reverse = graph.reverse();
+      pool = ForkJoinPool.commonPool();
+      int n = graph.size();
+      visited = new AtomicLongArray((n + 63) / 64);
+      frontierBits = new long[(n + 63) / 64];
+      dist = new int[n];
+   }
+
+/**
+ * Returns the graph searched by this ParallelBFS.
+ *
+ * @return The graph
+ */
+
+   public FrozenGraph getGraph() {
+      return graph;
+   }
+
+/**
+ * Returns an array giving the number of arcs on the shortest path from
+ * the source to each node, which is -1 for nodes that cannot be reached.
+ *
+ * @param source The ID of the starting node
+ * @return An array of hop distances indexed by node ID
+ */
+
+   public int[] distances(int source) {
+      return distances(new int[] { source });
+   }
+
+/**
+ * Returns an array giving the number of arcs on the shortest path to
+ * each node from the nearest of the sources, which is -1 for nodes that
+ * cannot be reached from any of them.
+ *
+ * @param sources The IDs of the starting nodes
+ * @return An array of hop distances indexed by node ID
+ */
+
+   public int[] distances(int[] sources) {
+      int n = graph.size();
+      Arrays.fill(dist, -1);
+      for (int i = 0; i < visited.length(); i++) {
+         visited.set(i, 0);
+      }
+      int[] frontier = new int[sources.length];
+      int size = 0;
+      for (int v : sources) {
+         if (v < 0 || v >= n) {
+            throw new IllegalArgumentException("Illegal node ID " + v);
+         }
+         if (claim(v)) {
+            dist[v] = 0;
+            frontier[size++] = v;
+         }
+      }
+      long unexploredArcs = graph.getArcCount();
+      long frontierArcs = 0;
+      for (int i = 0; i < size; i++) {
+         frontierArcs += graph.getDegree(frontier[i]);
+      }
+      unexploredArcs -= frontierArcs;
+      boolean bottomUp = false;
+      levelCount = 0;
+      bottomUpCount = 0;
+      while (size > 0) {
+         if (!bottomUp && frontierArcs > unexploredArcs / ALPHA) {
+            bottomUp = true;
+         } else if (bottomUp && size < n / BETA) {
+            bottomUp = false;
+         }
+         levelCount++;
+         Step step = bottomUp ? new BottomUpStep(frontier, size)
+                              : new TopDownStep(frontier, size);
+         pool.invoke(step);
+         frontier = step.collect();
+         size = frontier.length;
+         frontierArcs = step.arcs;
+         unexploredArcs -= frontierArcs;
+         if (bottomUp) bottomUpCount++;
+      }
+      return Arrays.copyOf(dist, n);
+   }
+
+/**
+ * Returns the number of levels expanded by the most recent search.
+ *
+ * @return The number of levels
+ */
+
+   public int getLevelCount() {
+      return levelCount;
+   }
+
+/**
+ * Returns the number of levels of the most recent search that were
+ * expanded bottom-up.
+ *
+ * @return The number of bottom-up levels
+ */
+
+   public int getBottomUpCount() {
+      return bottomUpCount;
+   }
+
+/*
+ * Sets the visited bit for node v, returning true if this call changed
+ * it and false if the node was already visited.
+ */
+
+   private boolean claim(int v) {
+      int word = v >>> 6;
+      long bit = 1L << (v & 63);
+      while (true) {
+         long old = visited.get(word);
+         if ((old & bit) != 0) return false;
+         if (visited.compareAndSet(word, old, old | bit)) return true;
+      }
+   }
+
+/*
+ * Inner class: Step
+ * -----------------
+ * This class expands one level of the search.  A step covers the chunks
+ * from lo up to but not including hi; if there is more than one, it
+ * splits them in half and runs the halves as separate tasks.  Each
+ * chunk stores the nodes it finds in found[chunk] and their number in
+ * count[chunk], and the total out-degree of those nodes is summed into
+ * arcs when the halves are joined.
+ */
+
+   private abstract class Step extends RecursiveAction {
+
+      Step(int nChunks) {
+         found = new int[nChunks][];
+         count = new int[nChunks];
+         lo = 0;
+         hi = nChunks;
+         root = this;
+      }
+
+      Step(Step root, int lo, int hi) {
+         this.root = root;
+         this.lo = lo;
+         this.hi = hi;
+      }
+
+      @Override
+      protected void compute() {
+         if (hi - lo == 1) {
+            arcs = expand(lo);
+         } else {
+            int mid = (lo + hi) >>> 1;
+            Step left = split(lo, mid);
+            Step right = split(mid, hi);
+            invokeAll(left, right);
+            arcs = left.arcs + right.arcs;
+         }
+      }
+
+   /* Concatenates the nodes found by all the chunks */
+
+      int[] collect() {
+         int total = 0;
+         for (int c : count) {
+            total += c;
+         }
+         int[] next = new int[total];
+         int i = 0;
+         for (int k = 0; k < found.length; k++) {
+            System.arraycopy(found[k], 0, next, i, count[k]);
+            i += count[k];
+         }
+         return next;
+      }
+
+   /* Records node w as found by the chunk, at distance level */
+
+      void add(int chunk, int w, int level) {
+         int[] list = root.found[chunk];
+         int k = root.count[chunk];
+         if (k == list.length) {
+            list = Arrays.copyOf(list, 2 * k);
+            root.found[chunk] = list;
+         }
+         list[k] = w;
+         root.count[chunk] = k + 1;
+         dist[w] = level;
+      }
+
+      abstract Step split(int lo, int hi);
+
+      abstract long expand(int chunk);
+
+      private static final long serialVersionUID = 1L;
+
+      int[][] found;
+      int[] count;
+      long arcs;
+      Step root;
+      int lo;
+      int hi;
+
+   }
+
+/*
+ * Inner class: TopDownStep
+ * ------------------------
+ * Each chunk covers CHUNK_SIZE nodes of the frontier.
+ */
+
+   private class TopDownStep extends Step {
+
+      TopDownStep(int[] frontier, int size) {
+         super((size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+         this.frontier = frontier;
+         this.size = size;
+      }
+
+      TopDownStep(TopDownStep root, int lo, int hi) {
+         super(root, lo, hi);
+         frontier = root.frontier;
+         size = root.size;
+      }
+
+      @Override
+      Step split(int lo, int hi) {
+         return new TopDownStep((TopDownStep) root, lo, hi);
+      }
+
+      @Override
+      long expand(int chunk) {
+         int start = chunk * CHUNK_SIZE;
+         int end = Math.min(start + CHUNK_SIZE, size);
+         int level = dist[frontier[start]] + 1;
+         root.found[chunk] = new int[INITIAL_CAPACITY];
+         long arcs = 0;
+         for (int i = start; i < end; i++) {
+            int v = frontier[i];
+            int last = graph.getFirstArc(v + 1);
+            for (int a = graph.getFirstArc(v); a < last; a++) {
+               int w = graph.getArcFinish(a);
+               if (claim(w)) {
+                  add(chunk, w, level);
+                  arcs += graph.getDegree(w);
+               }
+            }
+         }
+         return arcs;
+      }
+
+      private static final long serialVersionUID = 1L;
+
+      private int[] frontier;
+      private int size;
+
+   }
+
+/*
+ * Inner class: BottomUpStep
+ * -------------------------
+ * Each chunk covers CHUNK_SIZE consecutive node IDs, which is a multiple
+ * of 64.  The frontier is first copied into frontierBits so that each
+ * test for membership takes constant time.  A chunk owns the words of
+ * the visited set for its nodes, so it sets their bits without atomic
+ * operations.
+ */
+
+   private class BottomUpStep extends Step {
+
+      BottomUpStep(int[] frontier, int size) {
+         super((graph.size() + CHUNK_SIZE - 1) / CHUNK_SIZE);
+         Arrays.fill(frontierBits, 0);
+         for (int i = 0; i < size; i++) {
+            int v = frontier[i];
+            frontierBits[v >>> 6] |= 1L << (v & 63);
+         }
+         level = dist[frontier[0]] + 1;
+      }
+
+      BottomUpStep(BottomUpStep root, int lo, int hi) {
+         super(root, lo, hi);
+         level = root.level;
+      }
+
+      @Override
+      Step split(int lo, int hi) {
+         return new BottomUpStep((BottomUpStep) root, lo, hi);
+      }
+
+      @Override
+      long expand(int chunk) {
+         int start = chunk * CHUNK_SIZE;
+         int end = Math.min(start + CHUNK_SIZE, graph.size());
+         root.found[chunk] = new int[INITIAL_CAPACITY];
+         long arcs = 0;
+         for (int word = start >>> 6; word << 6 < end; word++) {
+            long bits = visited.get(word);
+            if (bits == -1L) continue;
+            long newBits = 0;
+            int wordEnd = Math.min((word + 1) << 6, end);
+            for (int v = word << 6; v < wordEnd; v++) {
+               if ((bits & (1L << (v & 63))) != 0) continue;
+               int last = reverse.getFirstArc(v + 1);
+               for (int a = reverse.getFirstArc(v); a < last; a++) {
+                  int u = reverse.getArcFinish(a);
+                  if ((frontierBits[u >>> 6] & (1L << (u & 63))) != 0) {
+                     newBits |= 1L << (v & 63);
+                     add(chunk, v, level);
+                     arcs += graph.getDegree(v);
+                     break;
+                  }
+               }
+            }
+            if (newBits != 0) visited.set(word, bits | newBits);
+         }
+         return arcs;
+      }
+
+      private static final long serialVersionUID = 1L;
+
+      private int level;
+
+   }
+
+/* Constants */
+
+   private static final int ALPHA = 14;
+   private static final int BETA = 24;
+   private static final int CHUNK_SIZE = 4096;
+   private static final int INITIAL_CAPACITY = 64;
+
+/* Private instance variables */
+
+   private FrozenGraph graph;          /* The graph being searched          */
+   private FrozenGraph reverse;        /* The graph with its arcs reversed  */
+   private ForkJoinPool pool;          /* The pool that runs the steps      */
+   private AtomicLongArray visited;    /* One bit for each node reached     */
+   private long[] frontierBits;        /* The frontier of a bottom-up step  */
+   private int[] dist;                 /* Hop distance to each node         */
+   private int levelCount;             /* Levels expanded by last search    */
+   private int bottomUpCount;          /* Levels expanded bottom-up         */
+
+}
@@ -0,0 +1,102 @@
+/*
+ * File: ParallelBFSTest.java
+ * --------------------------
+ * This program tests the ParallelBFS class by printing hop distances in
+ * the airline graph and by comparing its results on a larger random
+ * graph with those of a simple sequential breadth-first search.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class ParallelBFSTest {
+
+   public void run() {
+      MinimalGraph airline = AirlineGraph.createMinimalGraph();
+      FrozenGraph g = airline.freeze();
+      ParallelBFS bfs = new ParallelBFS(g);
+      showDistances(bfs, "Atlanta");
+      showDistances(bfs, "Boston", "Seattle");
+      FrozenGraph random =
+         GraphGenerator.createRandomFrozenGraph(RANDOM_NODES, ARCS_PER_NODE,
+                                                1, SEED);
+      bfs = new ParallelBFS(random);
+      Random rand = new Random(SEED);
+      boolean ok = true;
+      for (int i = 0; i < N_TESTS; i++) {
+         int[] sources = new int[1 + i % 3];
+         for (int j = 0; j < sources.length; j++) {
+            sources[j] = rand.nextInt(RANDOM_NODES);
+         }
+         ok &= Arrays.equals(bfs.distances(sources),
+                             sequentialDistances(random, sources));
+      }
+      System.out.println("Random graph: " + bfs.getLevelCount() +
+                         " levels, " + bfs.getBottomUpCount() +
+                         " bottom-up");
+      System.out.println("Distances agree: " + ok);
+   }
+
+/*
+ * Displays the hop distance to each city from the nearest of the named
+ * cities.
+ */
+
+   private void showDistances(ParallelBFS bfs, String... cities) {
+      FrozenGraph g = bfs.getGraph();
+      int[] sources = new int[cities.length];
+      for (int i = 0; i < cities.length; i++) {
+         sources[i] = g.getId(cities[i]);
+      }
+      int[] dist = bfs.distances(sources);
+      System.out.println("Hops from " + String.join(", ", cities) + ":");
+      for (int v = 0; v < g.size(); v++) {
+         System.out.printf("   %-14s %d%n", g.getName(v), dist[v]);
+      }
+   }
+
+/*
+ * Computes the hop distances one node at a time using a queue.
+ */
+
+   private int[] sequentialDistances(FrozenGraph g, int[] sources) {
+      int[] dist = new int[g.size()];
+      Arrays.fill(dist, -1);
+      int[] queue = new int[g.size()];
+      int head = 0;
+      int tail = 0;
+      for (int v : sources) {
+         if (dist[v] == -1) {
+            dist[v] = 0;
+            queue[tail++] = v;
+         }
+      }
+      while (head < tail) {
+         int v = queue[head++];
+         for (int a = g.getFirstArc(v); a < g.getFirstArc(v + 1); a++) {
+            int w = g.getArcFinish(a);
+            if (dist[w] == -1) {
+               dist[w] = dist[v] + 1;
+               queue[tail++] = w;
+            }
+         }
+      }
+      return dist;
+   }
+
+/* Constants */
+
+   private static final int RANDOM_NODES = 100000;
+   private static final int ARCS_PER_NODE = 4;
+   private static final int N_TESTS = 10;
+   private static final long SEED = 25;
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new ParallelBFSTest().run();
+   }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * File: ParallelBFSTiming.java
+ * ----------------------------
+ * This program compares the time required for a complete breadth-first
+ * search of a random graph using the bfs method of GenericGraph, the bfs
+ * method of FrozenGraph, and ParallelBFS, which also computes the hop
+ * distance to every node.  GenericGraph is timed only on the smaller
+ * graphs.  The speedup of ParallelBFS depends on the number of
+ * processors, which the program reports.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelBFSTiming {
+
+   public void run() {
+      System.out.println("Parallelism: " +
+                         ForkJoinPool.getCommonPoolParallelism());
+      System.out.printf("%9s %9s %-10s %10s %8s %10s%n", "Nodes", "Arcs",
+                        "Search", "time (ms)", "levels", "bottom-up");
+      for (int n = MIN_NODES; n <= MAX_NODES; n *= 10) {
+         timeSearches(n);
+      }
+   }
+
+/*
+ * Builds a random graph with n nodes and times each search from node 0,
+ * taking the best of N_TRIALS runs.  The first pass warms up the
+ * compiler and does not print its results.
+ */
+
+   private void timeSearches(int n) {
+      MinimalGraph generic = null;
+      FrozenGraph g;
+      if (n <= MAX_GENERIC_NODES) {
+         generic = GraphGenerator.createRandomGraph(n, ARCS_PER_NODE, 1,
+                                                      SEED);
+         g = generic.freeze();
+      } else {
+         g = GraphGenerator.createRandomFrozenGraph(n, ARCS_PER_NODE, 1,
+                                                   SEED);
+      }
+      int m = g.getArcCount();
+      ParallelBFS pbfs = new ParallelBFS(g);
+      int start = g.getId("n0");
+      for (int pass = 0; pass < 2; pass++) {
+         boolean show = pass == 1;
+         if (generic != null) {
+            MinimalNode node = generic.getNode("n0");
+            MinimalGraph gg = generic;
+            double ms = bestTime(() -> gg.bfs(node, null));
+            if (show) {
+               System.out.printf("%9d %9d %-10s %10.2f%n", n, m, "Generic",
+                                 ms);
+            }
+         }
+         double ms = bestTime(() -> g.bfs(start, null));
+         if (show) {
+            System.out.printf("%9d %9d %-10s %10.2f%n", n, m, "Frozen", ms);
+         }
+         ms = bestTime(() -> pbfs.distances(start));
+         if (show) {
+            System.out.printf("%9d %9d %-10s %10.2f %8d %10d%n", n, m,
+                              "Parallel", ms, pbfs.getLevelCount(),
+                              pbfs.getBottomUpCount());
+         }
+      }
+   }
+
+/*
+ * Returns the shortest of N_TRIALS running times of the task in
+ * milliseconds.
+ */
+
+   private double bestTime(Runnable task) {
+      long best = Long.MAX_VALUE;
+      for (int i = 0; i < N_TRIALS; i++) {
+         long t0 = System.nanoTime();
+         task.run();
+         best = Math.min(best, System.nanoTime() - t0);
+      }
+      return best / 1.0E6;
+   }
+
+/* Constants */
+
+   private static final int MIN_NODES = 10000;
+   private static final int MAX_NODES = 1000000;
+   private static final int MAX_GENERIC_NODES = 10000;
+   private static final int ARCS_PER_NODE = 8;
+   private static final int N_TRIALS = 10;
+   private static final long SEED = 25;
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new ParallelBFSTiming().run();
+   }
+
+}
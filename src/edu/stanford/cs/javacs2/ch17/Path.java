@@ -4,7 +4,8 @@
  * This file exports the Path class, which consists of a sequence of Arc
  * objects.  The Path class is immutable in that paths are never changed
  * once they are constructed.  Clients instead use the extend method to
- * create new paths that contain an additional arc.
+ * create new paths that contain an additional arc, which share the arcs
+ * of the original path instead of copying them.
  */
 
 package edu.stanford.cs.javacs2.ch17;
@@ -15,10 +16,22 @@ import java.util.Iterator;
 public class Path implements Comparable<Path>, Iterable<Arc> {
 
    public Path() {
-      arcs = new ArrayList<Arc>();
+      prefix = null;
+      lastArc = null;
+      start = null;
       totalCost = 0;
+      count = 0;
    }
 
+/*
+ * Implementation notes: extend
+ * ----------------------------
+ * As in GenericPath, each path stores only its last arc and a reference
+ * to the shorter path it extends, so extend takes constant time.  The
+ * full list of arcs is built only when a client iterates over the path
+ * or converts it to a string.
+ */
+
 /**
  * Creates a new path that has the same arcs as the current one, but
  * includes the new arc at the end.  Note that this method leaves the
@@ -30,11 +43,11 @@ public class Path implements Comparable<Path>, Iterable<Arc> {
          throw new RuntimeException("Arcs are disconnected");
       }
       Path path = new Path();
-      for (Arc a : this.arcs) {
-         path.arcs.add(a);
-      }
-      path.arcs.add(arc);
+      path.prefix = this;
+      path.lastArc = arc;
+      path.start = isEmpty() ? arc.getStart() : start;
       path.totalCost = this.totalCost + arc.getCost();
+      path.count = this.count + 1;
       return path;
    }
 
@@ -43,7 +56,7 @@ public class Path implements Comparable<Path>, Iterable<Arc> {
  */
 
    public boolean isEmpty() {
-      return arcs.isEmpty();
+      return count == 0;
    }
 
 /**
@@ -59,8 +72,8 @@ public class Path implements Comparable<Path>, Iterable<Arc> {
  */
 
    public Node getStart() {
-      if (arcs.isEmpty()) throw new RuntimeException("Path is empty");
-      return arcs.get(0).getStart();
+      if (count == 0) throw new RuntimeException("Path is empty");
+      return start;
    }
 
 /**
@@ -68,8 +81,8 @@ public class Path implements Comparable<Path>, Iterable<Arc> {
  */
 
    public Node getFinish() {
-      if (arcs.isEmpty()) throw new RuntimeException("Path is empty");
-      return arcs.get(arcs.size() - 1).getFinish();
+      if (count == 0) throw new RuntimeException("Path is empty");
+      return lastArc.getFinish();
    }
 
 /**
@@ -78,12 +91,13 @@ public class Path implements Comparable<Path>, Iterable<Arc> {
 
    @Override
    public String toString() {
-      if (arcs.isEmpty()) return "empty";
-      String str = arcs.get(0).getStart().getName();
-      for (Arc arc : arcs) {
-         str += " -> " + arc.getFinish().getName();
+      if (count == 0) return "empty";
+      StringBuilder sb = new StringBuilder(start.getName());
+      for (Arc arc : this) {
+         sb.append(" -> ");
+         sb.append(arc.getFinish().getName());
       }
-      return str;
+      return sb.toString();
    }
 
 /**
@@ -99,12 +113,18 @@ public class Path implements Comparable<Path>, Iterable<Arc> {
  */
 
    public Iterator<Arc> iterator() {
+      ArrayList<Arc> arcs = GenericPath.collectArcs(this, count,
+                                                    p -> p.prefix,
+                                                    p -> p.lastArc);
       return arcs.iterator();
    }
 
 /* Private instance variables */
 
-   private ArrayList<Arc> arcs;
-   private double totalCost;
+   private Path prefix;             /* The path without its last arc    */
+   private Arc lastArc;             /* The last arc, or null if empty   */
+   private Node start;              /* The first node, or null if empty */
+   private double totalCost;        /* The sum of the arc costs         */
+   private int count;               /* The number of arcs               */
 
 }
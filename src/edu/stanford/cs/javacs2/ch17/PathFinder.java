@@ -0,0 +1,338 @@
+/*
+ * File: PathFinder.java
+ * ---------------------
+ * This file exports a class that finds minimum-cost paths in a
+ * FrozenGraph using Dijkstra's algorithm, bidirectional Dijkstra, or A*.
+ * Each PathFinder owns the arrays and queues used by its searches, so
+ * that a program answering many queries allocates them only once.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+import edu.stanford.cs.javacs2.ch15.DoubleIntPriorityQueue;
+import java.util.Arrays;
+
+/**
+ * This class finds minimum-cost paths between nodes of a FrozenGraph,
+ * whose arc costs must not be negative.  Each search method returns the
+ * cost of the path, after which <code>getPath</code> returns the path
+ * itself and <code>getSettledCount</code> reports how many nodes the
+ * search settled, which is the usual measure of the work it did.  A
+ * PathFinder is not safe for use by several threads at once; each
+ * thread should create its own.
+ */
+
+public class PathFinder {
+
+/**
+ * Creates a PathFinder for the specified graph.
+ *
+ * @param graph The graph to search
+ */
+
+   public PathFinder(FrozenGraph graph) {
+      this.graph = graph;
+      forward = new Side(graph.size());
+      reverse = null;
+      backward = null;
+      epoch = 0;
+   }
+
+/**
+ * Returns the graph searched by this PathFinder.
+ *
+ * @return The graph
+ */
+
+   public FrozenGraph getGraph() {
+      return graph;
+   }
+
+/**
+ * Finds the minimum-cost path from <code>n1</code> to <code>n2</code>
+ * using Dijkstra&rsquo;s algorithm.
+ *
+ * @param n1 The ID of the starting node
+ * @param n2 The ID of the destination node
+ * @return The cost of the path, or <code>Double.POSITIVE_INFINITY</code>
+ *         if no path exists
+ */
+
+   public double dijkstra(int n1, int n2) {
+      return aStar(n1, n2, null);
+   }
+
+/*
+ * Implementation notes: aStar
+ * ---------------------------
+ * A* is Dijkstra's algorithm with each node's priority increased by the
+ * heuristic estimate of its remaining cost, so that nodes in the
+ * direction of the target are settled first.  The queue is a
+ * DoubleIntPriorityQueue, which has no decreaseKey operation, so a node
+ * whose distance improves is added again and any stale entry is skipped
+ * when it is removed.  A heuristic that is admissible but not consistent
+ * can lead to a shorter path to a node that is already settled; in that
+ * case the node is reopened and settled again, which keeps the result
+ * correct.  With a null heuristic the search is exactly Dijkstra's
+ * algorithm, and no node is ever reopened.
+ */
+
+/**
+ * Finds the minimum-cost path from <code>n1</code> to <code>n2</code>
+ * using the A* algorithm.  The heuristic must be admissible.
+ *
+ * @param n1 The ID of the starting node
+ * @param n2 The ID of the destination node
+ * @param h The heuristic, or <code>null</code> for Dijkstra&rsquo;s
+ *          algorithm
+ * @return The cost of the path, or <code>Double.POSITIVE_INFINITY</code>
+ *         if no path exists
+ */
+
+   public double aStar(int n1, int n2, Heuristic h) {
+      startSearch(n1, n2);
+      Side s = forward;
+      int settled = epoch + 1;
+      s.reach(n1, 0, -1, epoch);
+      s.queue.add((h == null) ? 0 : h.estimate(n1, n2), n1);
+      while (!s.queue.isEmpty()) {
+         int v = s.queue.remove();
+         if (s.mark[v] == settled) continue;
+         s.mark[v] = settled;
+         settledCount++;
+         if (v == n2) {
+            meet = n2;
+            return cost = s.dist[n2];
+         }
+         double d = s.dist[v];
+         int end = graph.getFirstArc(v + 1);
+         for (int a = graph.getFirstArc(v); a < end; a++) {
+            int w = graph.getArcFinish(a);
+            double dw = d + graph.getArcCost(a);
+            if (s.mark[w] < epoch || dw < s.dist[w]) {
+               s.reach(w, dw, v, epoch);
+               s.queue.add((h == null) ? dw : dw + h.estimate(w, n2), w);
+            }
+         }
+      }
+      return cost;
+   }
+
+/*
+ * Implementation notes: bidirectional
+ * -----------------------------------
+ * The bidirectional search runs Dijkstra's algorithm forward from n1 in
+ * the graph and backward from n2 in the reverse graph, each time
+ * settling a node on the side whose queue has the smaller minimum.
+ * Whenever either side scans an arc whose other end has been reached by
+ * the opposite side, the sum of the two distances and the arc cost is
+ * the cost of a complete path, and the best such path is remembered.
+ * The search stops when the two queue minimums add up to at least that
+ * cost, since any shorter path would have to pass through nodes that
+ * neither side has settled.  The two searches together settle roughly
+ * the nodes within half the distance of each endpoint, which is far
+ * fewer than a single search to the full distance in most graphs.
+ *
+ * The reverse graph and the state of the backward search are created by
+ * the first call to this method, so that a PathFinder used only for
+ * Dijkstra's algorithm or A* needs no more memory than one search.
+ */
+
+/**
+ * Finds the minimum-cost path from <code>n1</code> to <code>n2</code>
+ * by searching from both ends at once.
+ *
+ * @param n1 The ID of the starting node
+ * @param n2 The ID of the destination node
+ * @return The cost of the path, or <code>Double.POSITIVE_INFINITY</code>
+ *         if no path exists
+ */
+
+   public double bidirectional(int n1, int n2) {
+      if (backward == null) {
+         reverse = graph.reverse();
+         backward = new Side(graph.size());
+      }
+      startSearch(n1, n2);
+      forward.reach(n1, 0, -1, epoch);
+      backward.reach(n2, 0, -1, epoch);
+      if (n1 == n2) {
+         meet = n1;
+         settledCount = 1;
+         return cost = 0;
+      }
+      forward.queue.add(0, n1);
+      backward.queue.add(0, n2);
+      while (forward.hasNext(epoch) && backward.hasNext(epoch)) {
+         double df = forward.queue.peekPriority();
+         double db = backward.queue.peekPriority();
+         if (df + db >= cost) break;
+         if (df <= db) {
+            settle(forward, backward, graph, true);
+         } else {
+            settle(backward, forward, reverse, false);
+         }
+      }
+      if (cost == Double.POSITIVE_INFINITY) meet = -1;
+      return cost;
+   }
+
+/**
+ * Returns the path found by the most recent search as an array of node
+ * IDs from its start to its destination, or <code>null</code> if that
+ * search found no path.
+ *
+ * @return The IDs of the nodes on the path, or <code>null</code>
+ */
+
+   public int[] getPath() {
+      if (meet == -1) return null;
+      int nForward = 0;
+      int count = 0;
+      for (int v = meet; v != -1; v = forward.parent[v]) {
+         nForward++;
+      }
+      for (int v = meetNext; v != -1; v = backward.parent[v]) {
+         count++;
+      }
+      int[] path = new int[nForward + count];
+      int i = nForward;
+      for (int v = meet; v != -1; v = forward.parent[v]) {
+         path[--i] = v;
+      }
+      i = nForward;
+      for (int v = meetNext; v != -1; v = backward.parent[v]) {
+         path[i++] = v;
+      }
+      return path;
+   }
+
+/**
+ * Returns the number of nodes settled by the most recent search.  A node
+ * settled by both halves of a bidirectional search, or reopened by A*,
+ * is counted each time.
+ *
+ * @return The number of nodes settled
+ */
+
+   public int getSettledCount() {
+      return settledCount;
+   }
+
+/*
+ * Settles the node at the front of the queue for side s and scans its
+ * arcs in g, updating the best path if an arc reaches a node that the
+ * other side has reached.
+ */
+
+   private void settle(Side s, Side other, FrozenGraph g, boolean isForward) {
+      int v = s.queue.remove();
+      s.mark[v] = epoch + 1;
+      settledCount++;
+      double d = s.dist[v];
+      int end = g.getFirstArc(v + 1);
+      for (int a = g.getFirstArc(v); a < end; a++) {
+         int w = g.getArcFinish(a);
+         double c = g.getArcCost(a);
+         double dw = d + c;
+         if (s.mark[w] < epoch || (s.mark[w] == epoch && dw < s.dist[w])) {
+            s.reach(w, dw, v, epoch);
+            s.queue.add(dw, w);
+         }
+         if (other.mark[w] >= epoch && d + c + other.dist[w] < cost) {
+            cost = d + c + other.dist[w];
+            meet = isForward ? v : w;
+            meetNext = isForward ? w : v;
+         }
+      }
+   }
+
+/*
+ * Prepares the working storage for a new search.  As in FrozenGraph, a
+ * node's mark equals epoch if it has been reached in the current search
+ * and epoch + 1 if it has been settled, so the arrays never need to be
+ * cleared until epoch is about to overflow.
+ */
+
+   private void startSearch(int n1, int n2) {
+      checkNode(n1);
+      checkNode(n2);
+      if (epoch >= Integer.MAX_VALUE - 2) {
+         Arrays.fill(forward.mark, 0);
+         if (backward != null) Arrays.fill(backward.mark, 0);
+         epoch = 0;
+      }
+      epoch += 2;
+      forward.queue.clear();
+      if (backward != null) backward.queue.clear();
+      meet = -1;
+      meetNext = -1;
+      cost = Double.POSITIVE_INFINITY;
+      settledCount = 0;
+   }
+
+/*
+ * Throws an IllegalArgumentException if node is not a legal ID.
+ */
+
+   private void checkNode(int node) {
+      if (node < 0 || node >= graph.size()) {
+         throw new IllegalArgumentException("Illegal node ID " + node);
+      }
+   }
+
+/*
+ * Inner class: Side
+ * -----------------
+ * This class holds the state of a search in one direction.  The parent
+ * of a node is the node before it on the best known path from the start
+ * of that search, which for the backward side is the node after it on
+ * the path to the destination.
+ */
+
+   private static class Side {
+
+      Side(int n) {
+         mark = new int[n];
+         dist = new double[n];
+         parent = new int[n];
+         queue = new DoubleIntPriorityQueue();
+      }
+
+   /* Records a new best distance to node w */
+
+      void reach(int w, double d, int p, int epoch) {
+         mark[w] = epoch;
+         dist[w] = d;
+         parent[w] = p;
+      }
+
+   /* Discards settled nodes from the queue and reports whether any remain */
+
+      boolean hasNext(int epoch) {
+         while (!queue.isEmpty() && mark[queue.peek()] == epoch + 1) {
+            queue.remove();
+         }
+         return !queue.isEmpty();
+      }
+
+      int[] mark;
+      double[] dist;
+      int[] parent;
+      DoubleIntPriorityQueue queue;
+
+   }
+
+/* Private instance variables */
+
+   private FrozenGraph graph;          /* The graph being searched          */
+   private FrozenGraph reverse;        /* The graph with its arcs reversed  */
+   private Side forward;               /* State of the forward search       */
+   private Side backward;              /* State of the backward search      */
+   private int epoch;                  /* The number of the current search  */
+   private int meet;                   /* Last node of the forward path     */
+   private int meetNext;               /* First node of the backward path   */
+   private double cost;                /* Cost of the last path found       */
+   private int settledCount;           /* Nodes settled by the last search  */
+
+}
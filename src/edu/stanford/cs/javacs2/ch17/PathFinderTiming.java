@@ -0,0 +1,97 @@
+/*
+ * File: PathFinderTiming.java
+ * ---------------------------
+ * This program compares the three searches in PathFinder on graphs that
+ * resemble road networks: the nodes are points placed near the corners
+ * of a square grid, each connected in both directions to its neighbors,
+ * and the cost of each arc is the distance between its endpoints
+ * increased by a random amount of up to 50 percent.  A* uses the
+ * straight-line distance, which is therefore admissible.
+ */
+
+package edu.stanford.cs.javacs2.ch17;
+
+import java.util.Random;
+
+public class PathFinderTiming {
+
+   public void run() {
+      System.out.printf("%9s %-14s %12s %12s%n", "Nodes", "Search",
+                        "settled", "time (ms)");
+      for (int side = MIN_SIDE; side <= MAX_SIDE; side *= 4) {
+         timeSearches(side);
+      }
+   }
+
+/*
+ * Builds a graph with side * side nodes and times N_QUERIES searches
+ * between random pairs of nodes using each method.  The first pass warms
+ * up the compiler and does not print its results.
+ */
+
+   private void timeSearches(int side) {
+      int n = side * side;
+      double[] x = new double[n];
+      double[] y = new double[n];
+      FrozenGraph g = GraphGenerator.createGrid(side, JITTER, SEED, x, y);
+      PathFinder pf = new PathFinder(g);
+      Heuristic h = (node, target) -> Math.hypot(x[node] - x[target],
+                                                 y[node] - y[target]);
+      for (int pass = 0; pass < 2; pass++) {
+         double[] costs = new double[N_QUERIES];
+         for (int method = 0; method < 3; method++) {
+            Random rand = new Random(SEED);
+            long settled = 0;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < N_QUERIES; i++) {
+               int n1 = rand.nextInt(n);
+               int n2 = rand.nextInt(n);
+               double cost;
+               if (method == 0) {
+                  cost = pf.dijkstra(n1, n2);
+                  costs[i] = cost;
+               } else if (method == 1) {
+                  cost = pf.bidirectional(n1, n2);
+               } else {
+                  cost = pf.aStar(n1, n2, h);
+               }
+               check(Math.abs(cost - costs[i]) <= TOLERANCE * cost);
+               settled += pf.getSettledCount();
+            }
+            long t1 = System.nanoTime();
+            if (pass == 1) {
+               System.out.printf("%9d %-14s %12d %12.2f%n", n,
+                                 METHODS[method], settled / N_QUERIES,
+                                 (t1 - t0) / 1.0E6 / N_QUERIES);
+            }
+         }
+      }
+   }
+
+/*
+ * Throws an exception if the searches disagree.
+ */
+
+   private void check(boolean ok) {
+      if (!ok) throw new RuntimeException("Path costs differ");
+   }
+
+/* Constants */
+
+   private static final int MIN_SIDE = 64;
+   private static final int MAX_SIDE = 1024;
+   private static final int N_QUERIES = 50;
+   private static final double JITTER = 0.5;
+   private static final double TOLERANCE = 1.0E-9;
+   private static final long SEED = 22;
+   private static final String[] METHODS = {
+      "Dijkstra", "bidirectional", "A*"
+   };
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new PathFinderTiming().run();
+   }
+
+}
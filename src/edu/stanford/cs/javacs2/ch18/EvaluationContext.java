@@ -2,19 +2,21 @@
  * File: EvaluationContext.java
  * ----------------------------
  * This file exports the EvaluationContext class, which maintains the
- * information necessary to support expression evaluation.
+ * information necessary to support expression evaluation.  The symbol
+ * table is a ConcurrentHashMap so that a single context can be shared
+ * by several threads.
  */
 
 package edu.stanford.cs.javacs2.ch18;
 
-import edu.stanford.cs.javacs2.ch14.HashMap;
+import edu.stanford.cs.javacs2.ch14.ConcurrentHashMap;
 
 public class EvaluationContext {
 
 /* Creates a new evaluation context with no variable bindings */
 
    public EvaluationContext() {
-      symbolTable = new HashMap<String,Integer>();
+      symbolTable = new ConcurrentHashMap<String,Integer>();
    }
 
 /* Sets the value of the variable var */
@@ -37,6 +39,6 @@ public class EvaluationContext {
 
 /* Private instance variables */
 
-   private HashMap<String,Integer> symbolTable;
+   private ConcurrentHashMap<String,Integer> symbolTable;
 
 }
@@ -53,15 +53,14 @@ public class WordFrequency {
    }
 
 /*
- * Increments the count for word in the map.
+ * Increments the count for word in the map.  The merge method stores 1
+ * if the word is new and otherwise adds 1 to the existing count, which
+ * requires only one lookup instead of separate calls to containsKey,
+ * get, and put.
  */
 
    private void incrementCount(String word, Map<String,Integer> wordCounts) {
-      if (wordCounts.containsKey(word)) {
-         wordCounts.put(word, wordCounts.get(word) + 1);
-      } else {
-         wordCounts.put(word, 1);
-      }
+      wordCounts.merge(word, 1, Integer::sum);
    }
 
 /*
@@ -1,8 +1,12 @@
 /*
  * File: Lexicon.java
  * ------------------
- * This file implements the Lexicon class by embedding a TreeSet object
- * in the private data and forwarding the necessary operations to it.
+ * This file implements the Lexicon class using a directed acyclic word
+ * graph, or DAWG.  A DAWG is a trie in which identical subtrees are
+ * stored only once, so that words with common suffixes share nodes in
+ * the same way that words with common prefixes do.  The graph is stored
+ * in three flat buffers, which can be read from a precompiled binary
+ * file by memory mapping instead of being rebuilt from a word list.
  */
 
 package edu.stanford.cs.javacs2.ch8;
@@ -10,19 +14,47 @@ package edu.stanford.cs.javacs2.ch8;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.TreeSet;
 
 public class Lexicon implements Iterable<String> {
 
+/**
+ * Creates an empty lexicon.
+ */
+
+   public Lexicon() {
+      clear();
+   }
+
+/**
+ * Creates a lexicon containing the words in the specified file.  The
+ * file is either a text file containing one word per line or a binary
+ * file written by <code>saveBinary</code>, which is mapped into memory
+ * rather than read.
+ *
+ * @param filename The name of the word file
+ */
+
    public Lexicon(String filename) {
-      set = new TreeSet<String>();
+      this();
       try {
-         BufferedReader rd = new BufferedReader(new FileReader(filename));
-         while (true) {
-            String line = rd.readLine();
-            if (line == null) break;
-            add(line);
+         if (isBinaryFile(filename)) {
+            mapBinary(filename);
+         } else {
+            readWords(filename);
          }
       } catch (IOException ex) {
          throw new RuntimeException(ex.toString());
@@ -36,7 +68,7 @@ public class Lexicon implements Iterable<String> {
  */
 
    public int size() {
-      return set.size();
+      return wordCount + pending.size();
    }
 
 /**
@@ -46,7 +78,7 @@ public class Lexicon implements Iterable<String> {
  */
 
    public boolean isEmpty() {
-      return set.isEmpty();
+      return size() == 0;
    }
 
 /**
@@ -54,9 +86,25 @@ public class Lexicon implements Iterable<String> {
  */
 
    public void clear() {
-      set.clear();
+      nodes = IntBuffer.wrap(new int[] { 0, 0 });
+      labels = CharBuffer.wrap(new char[0]);
+      targets = IntBuffer.wrap(new int[0]);
+      wordCount = 0;
+      maxLength = 0;
+      pending = new TreeSet<String>();
    }
 
+/*
+ * Implementation notes: add
+ * -------------------------
+ * A DAWG cannot be changed in place, because a node may be shared by
+ * many words.  New words are therefore kept in the pending set until
+ * there are enough of them to justify rebuilding the graph, which keeps
+ * the amortized cost of add proportional to the length of the word.
+ * The contains and containsPrefix methods check the pending set
+ * directly; the other queries rebuild the graph first.
+ */
+
 /**
  * Adds a word to the lexicon.
  *
@@ -64,7 +112,10 @@ public class Lexicon implements Iterable<String> {
  */
 
    public void add(String word) {
-      set.add(word.toLowerCase());
+      word = word.toLowerCase();
+      if (isWord(find(word))) return;
+      pending.add(word);
+      if (pending.size() > Math.max(MIN_PENDING, wordCount / 4)) compile();
    }
 
 /**
@@ -75,34 +126,744 @@ public class Lexicon implements Iterable<String> {
  */
 
    public boolean contains(String word) {
-      return set.contains(word.toLowerCase());
+      if (isWord(find(word))) return true;
+      return !pending.isEmpty() && pending.contains(word.toLowerCase());
    }
 
 /**
  * Returns true if the specified string is a valid prefix of some word
- * in the lexicon.
+ * in the lexicon.  Every node in the graph other than the root of an
+ * empty lexicon lies on the path of some word, so the test takes time
+ * proportional to the length of the prefix.
  *
  * @param prefix The prefix string being tested
  * @return The value true if the string is a valid prefix
  */
 
    public boolean containsPrefix(String prefix) {
+      int node = find(prefix);
+      if (node > 0 || (node == 0 && wordCount > 0)) return true;
+      if (pending.isEmpty()) return false;
       prefix = prefix.toLowerCase();
-      String next = set.ceiling(prefix);
+      String next = pending.ceiling(prefix);
       return next != null && next.startsWith(prefix);
    }
 
+/*
+ * Implementation notes: getRoot, getChild, isWordNode
+ * ---------------------------------------------------
+ * These methods let a client that builds words a character at a time
+ * follow the graph itself, so that each new character costs one step
+ * instead of a lookup of the whole prefix.  A node is identified by its
+ * index in the node buffer.  Adding words can rebuild the graph, after
+ * which those indices refer to different nodes, so a client must not
+ * keep them across a call to add.
+ */
+
+/**
+ * Returns the node at the root of the word graph, which represents the
+ * empty prefix.  This method first adds any pending words to the graph,
+ * so that the nodes reflect every word in the lexicon.
+ *
+ * @return The root node
+ */
+
+   public int getRoot() {
+      compile();
+      return 0;
+   }
+
 /**
- * Returns an iterator for the lexicon.
+ * Returns the node reached from node by the character ch, or -1 if no
+ * word in the lexicon continues the prefix represented by node with ch.
+ *
+ * @param node A node returned by <code>getRoot</code> or
+ *             <code>getChild</code>
+ * @param ch The next character of the prefix
+ * @return The node for the longer prefix, or -1 if there is none
+ */
+
+   public int getChild(int node, char ch) {
+      return findChild(node, Character.toLowerCase(ch));
+   }
+
+/**
+ * Returns true if the prefix represented by node is a word.
+ *
+ * @param node A node returned by <code>getRoot</code> or
+ *             <code>getChild</code>
+ * @return The value true if the prefix is a word in the lexicon
+ */
+
+   public boolean isWordNode(int node) {
+      return isWord(node);
+   }
+
+/**
+ * Returns an iterator that delivers the words in the lexicon in
+ * alphabetical order.
  */
 
    @Override
    public Iterator<String> iterator() {
-      return set.iterator();
+      compile();
+      return new WordIterator("", 0);
+   }
+
+/**
+ * Returns the words that begin with the specified prefix, in
+ * alphabetical order.  The words are generated as the caller iterates
+ * over the result, so a caller that stops early does no extra work.
+ *
+ * @param prefix The prefix of the words to be listed
+ * @return An <code>Iterable</code> over the matching words
+ */
+
+   public Iterable<String> wordsWithPrefix(String prefix) {
+      String start = prefix.toLowerCase();
+      return () -> {
+         compile();
+         return new WordIterator(start, find(start));
+      };
+   }
+
+/*
+ * Implementation notes: wordsMatching
+ * -----------------------------------
+ * The pattern is treated as a nondeterministic automaton whose states
+ * are positions in the pattern.  The search walks the graph and the
+ * automaton together, keeping the set of pattern positions reachable by
+ * the current prefix.  As soon as that set is empty, no word with that
+ * prefix can match, and the whole subtree is skipped.  Because the walk
+ * follows the graph rather than the pattern, each word is found once and
+ * the words emerge in alphabetical order, however many stars the pattern
+ * contains.
+ */
+
+/**
+ * Returns the words that match the pattern, in alphabetical order.  In
+ * the pattern, a question mark matches any single character and an
+ * asterisk matches any sequence of characters, including the empty one.
+ *
+ * @param pattern The pattern, which may include ? and * wildcards
+ * @return A list of the matching words
+ */
+
+   public ArrayList<String> wordsMatching(String pattern) {
+      compile();
+      pattern = pattern.toLowerCase();
+      boolean[] states = new boolean[pattern.length() + 1];
+      states[0] = true;
+      closeStates(pattern, states);
+      ArrayList<String> result = new ArrayList<String>();
+      matchRecursive(0, pattern, states, new StringBuilder(), result);
+      return result;
+   }
+
+/*
+ * Adds to result every word below node whose path from the root, with
+ * the current prefix in sb, is accepted from the pattern states.
+ */
+
+   private void matchRecursive(int node, String pattern, boolean[] states,
+                               StringBuilder sb, ArrayList<String> result) {
+      int n = pattern.length();
+      if (states[n] && isWord(node)) result.add(sb.toString());
+      int end = lastEdge(node);
+      for (int e = firstEdge(node); e < end; e++) {
+         char ch = labels.get(e);
+         boolean[] next = new boolean[n + 1];
+         boolean any = false;
+         for (int i = 0; i < n; i++) {
+            if (!states[i]) continue;
+            char pc = pattern.charAt(i);
+            if (pc == '*') {
+               next[i] = any = true;
+            } else if (pc == '?' || pc == ch) {
+               next[i + 1] = any = true;
+            }
+         }
+         if (!any) continue;
+         closeStates(pattern, next);
+         sb.append(ch);
+         matchRecursive(targets.get(e), pattern, next, sb, result);
+         sb.setLength(sb.length() - 1);
+      }
+   }
+
+/*
+ * Adds the states reachable without consuming a character, which are
+ * those following each asterisk in the set.
+ */
+
+   private static void closeStates(String pattern, boolean[] states) {
+      for (int i = 0; i < pattern.length(); i++) {
+         if (states[i] && pattern.charAt(i) == '*') states[i + 1] = true;
+      }
    }
 
-/* Private instance variables */
+/*
+ * Implementation notes: anagrams
+ * ------------------------------
+ * Rather than generating permutations of the letters and looking each
+ * one up, this method walks the graph and follows only the edges whose
+ * labels are still available in the multiset of letters.  A prefix that
+ * begins no word is therefore never extended, which reduces the search
+ * from n! permutations to the prefixes that actually occur in the
+ * lexicon.  The letters are kept as parallel arrays of distinct
+ * characters and counts.
+ */
+
+/**
+ * Returns the words that use exactly the specified letters, in
+ * alphabetical order.
+ *
+ * @param letters The letters from which the words are formed
+ * @return A list of the words that are anagrams of the letters
+ */
+
+   public ArrayList<String> anagrams(String letters) {
+      compile();
+      char[] chars = letters.toLowerCase().toCharArray();
+      Arrays.sort(chars);
+      char[] distinct = new char[chars.length];
+      int[] counts = new int[chars.length];
+      int n = 0;
+      for (int i = 0; i < chars.length; i++) {
+         if (n == 0 || distinct[n - 1] != chars[i]) distinct[n++] = chars[i];
+         counts[n - 1]++;
+      }
+      ArrayList<String> result = new ArrayList<String>();
+      anagramRecursive(0, chars.length, distinct, counts, n,
+                       new StringBuilder(), result);
+      return result;
+   }
+
+/*
+ * Adds to result every word below node that uses exactly the letters
+ * that remain in the counts array.
+ */
+
+   private void anagramRecursive(int node, int remaining, char[] distinct,
+                                 int[] counts, int n, StringBuilder sb,
+                                 ArrayList<String> result) {
+      if (remaining == 0) {
+         if (isWord(node)) result.add(sb.toString());
+         return;
+      }
+      for (int i = 0; i < n; i++) {
+         if (counts[i] == 0) continue;
+         int child = findChild(node, distinct[i]);
+         if (child < 0) continue;
+         counts[i]--;
+         sb.append(distinct[i]);
+         anagramRecursive(child, remaining - 1, distinct, counts, n,
+                          sb, result);
+         sb.setLength(sb.length() - 1);
+         counts[i]++;
+      }
+   }
+
+/*
+ * Implementation notes: saveBinary, mapBinary
+ * -------------------------------------------
+ * The binary form begins with a header of five ints: a magic number, the
+ * number of words, the number of entries in the node buffer, the number
+ * of edges, and the length of the longest word.  The header is followed
+ * by the node buffer, the edge targets, and the edge labels, all in
+ * little-endian order, which is the native order of most processors and
+ * avoids swapping bytes on every access.  Because the buffers are
+ * used exactly as they appear in the file, loading a saved lexicon maps
+ * the file into memory and creates views of it, without reading or
+ * parsing any words.  The operating system then pages in only the parts
+ * of the graph that are used.
+ */
+
+/**
+ * Writes the lexicon to the specified file in a binary form that the
+ * constructor can later map directly into memory.
+ *
+ * @param filename The name of the output file
+ */
+
+   public void saveBinary(String filename) {
+      compile();
+      int nodeEntries = nodes.limit();
+      int edgeCount = labels.limit();
+      ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + 4 * nodeEntries
+                                           + 6 * edgeCount);
+      buf.order(ByteOrder.LITTLE_ENDIAN);
+      buf.putInt(MAGIC);
+      buf.putInt(wordCount);
+      buf.putInt(nodeEntries);
+      buf.putInt(edgeCount);
+      buf.putInt(maxLength);
+      for (int i = 0; i < nodeEntries; i++) {
+         buf.putInt(nodes.get(i));
+      }
+      for (int i = 0; i < edgeCount; i++) {
+         buf.putInt(targets.get(i));
+      }
+      for (int i = 0; i < edgeCount; i++) {
+         buf.putChar(labels.get(i));
+      }
+      buf.flip();
+      try (FileChannel channel = FileChannel.open(Paths.get(filename),
+                                    StandardOpenOption.CREATE,
+                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                    StandardOpenOption.WRITE)) {
+         while (buf.hasRemaining()) {
+            channel.write(buf);
+         }
+      } catch (IOException ex) {
+         throw new RuntimeException(ex.toString());
+      }
+   }
+
+/*
+ * Returns true if the file begins with the magic number of the binary
+ * form.  The first byte of the magic number is zero, which cannot occur
+ * in a word list.
+ */
+
+   private static boolean isBinaryFile(String filename) throws IOException {
+      try (FileChannel channel = FileChannel.open(Paths.get(filename),
+                                                  StandardOpenOption.READ)) {
+         ByteBuffer buf = ByteBuffer.allocate(4);
+         buf.order(ByteOrder.LITTLE_ENDIAN);
+         while (buf.hasRemaining()) {
+            if (channel.read(buf) < 0) return false;
+         }
+         return buf.getInt(0) == MAGIC;
+      }
+   }
+
+/*
+ * Maps the binary form of the lexicon into memory.
+ */
+
+   private void mapBinary(String filename) throws IOException {
+      try (FileChannel channel = FileChannel.open(Paths.get(filename),
+                                                  StandardOpenOption.READ)) {
+         ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY,
+                                      0, channel.size());
+         buf.order(ByteOrder.LITTLE_ENDIAN);
+         buf.getInt();
+         wordCount = buf.getInt();
+         int nodeEntries = buf.getInt();
+         int edgeCount = buf.getInt();
+         maxLength = buf.getInt();
+         int offset = HEADER_SIZE;
+         nodes = slice(buf, offset, 4 * nodeEntries).asIntBuffer();
+         offset += 4 * nodeEntries;
+         targets = slice(buf, offset, 4 * edgeCount).asIntBuffer();
+         offset += 4 * edgeCount;
+         labels = slice(buf, offset, 2 * edgeCount).asCharBuffer();
+      }
+   }
+
+/*
+ * Returns a little-endian view of the specified range of bytes in buf.
+ */
+
+   private static ByteBuffer slice(ByteBuffer buf, int offset, int length) {
+      ByteBuffer view = buf.duplicate();
+      view.position(offset);
+      view.limit(offset + length);
+      return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+   }
+
+/*
+ * Reads a text file containing one word per line and builds the graph
+ * from the sorted list of words.
+ */
+
+   private void readWords(String filename) throws IOException {
+      ArrayList<String> words = new ArrayList<String>();
+      try (BufferedReader rd = new BufferedReader(new FileReader(filename))) {
+         while (true) {
+            String line = rd.readLine();
+            if (line == null) break;
+            words.add(line.toLowerCase());
+         }
+      }
+      Collections.sort(words);
+      build(words.iterator());
+   }
+
+/*
+ * Rebuilds the graph if there are words in the pending set.  The words
+ * in the graph and in the pending set are both in alphabetical order and
+ * have no words in common, so they can be merged as they are read.
+ */
+
+   private void compile() {
+      if (pending.isEmpty()) return;
+      Iterator<String> it1 = new WordIterator("", 0);
+      Iterator<String> it2 = pending.iterator();
+      ArrayList<String> words = new ArrayList<String>(size());
+      String w1 = it1.hasNext() ? it1.next() : null;
+      String w2 = it2.hasNext() ? it2.next() : null;
+      while (w1 != null || w2 != null) {
+         if (w2 == null || (w1 != null && w1.compareTo(w2) < 0)) {
+            words.add(w1);
+            w1 = it1.hasNext() ? it1.next() : null;
+         } else {
+            words.add(w2);
+            w2 = it2.hasNext() ? it2.next() : null;
+         }
+      }
+      pending = new TreeSet<String>();
+      build(words.iterator());
+   }
+
+/*
+ * Implementation notes: build
+ * ---------------------------
+ * This method constructs the minimal DAWG for a list of words in sorted
+ * order using the incremental algorithm of Daciuk, Mihov, Watson, and
+ * Watson.  Each word shares a prefix with the previous one, and the
+ * nodes below that prefix on the previous path can no longer change.
+ * Those nodes are minimized from the bottom up by looking each one up
+ * in a registry keyed by its structure, which consists of its terminal
+ * flag and the label and registered target of each edge.  A node that
+ * matches a registered node is replaced by it; otherwise it is added to
+ * the registry.  The finished graph is then flattened into the buffers,
+ * in which the edges of each node are contiguous and sorted by label.
+ */
+
+   private void build(Iterator<String> words) {
+      DawgBuilder builder = new DawgBuilder();
+      String previous = null;
+      while (words.hasNext()) {
+         String word = words.next();
+         if (!word.equals(previous)) builder.add(word);
+         previous = word;
+      }
+      builder.flatten();
+   }
+
+/*
+ * Returns the node reached by following the characters of str from the
+ * root, or -1 if there is no such path.  Characters are converted to
+ * lower case one at a time so that no new string is created.
+ */
+
+   private int find(String str) {
+      int node = 0;
+      for (int i = 0; i < str.length() && node >= 0; i++) {
+         node = findChild(node, Character.toLowerCase(str.charAt(i)));
+      }
+      return node;
+   }
+
+/*
+ * Returns the target of the edge from node labeled ch, or -1 if there is
+ * none.  The edges are sorted, so the search stops at the first larger
+ * label.  Most nodes have only a few edges, which makes a linear search
+ * faster than binary search.
+ */
+
+   private int findChild(int node, char ch) {
+      int end = lastEdge(node);
+      for (int e = firstEdge(node); e < end; e++) {
+         char label = labels.get(e);
+         if (label == ch) return targets.get(e);
+         if (label > ch) break;
+      }
+      return -1;
+   }
+
+/*
+ * The entry for each node in the node buffer holds the index of its first
+ * edge shifted left one bit, with the low bit set if the path to the node
+ * spells a word.  The edges of node end where those of node + 1 begin.
+ */
+
+   private int firstEdge(int node) {
+      return nodes.get(node) >>> 1;
+   }
+
+   private int lastEdge(int node) {
+      return nodes.get(node + 1) >>> 1;
+   }
+
+   private boolean isWord(int node) {
+      return node >= 0 && (nodes.get(node) & 1) != 0;
+   }
+
+/*
+ * Inner class: WordIterator
+ * -------------------------
+ * This class walks the subgraph below a starting node in preorder, which
+ * produces the words in alphabetical order.  The walk uses an explicit
+ * stack of nodes and edge positions, so each call to next does only the
+ * work needed to reach the following word.
+ *
+ * Adding words can rebuild the graph, which replaces the buffers with
+ * new ones in which the node and edge numbers have different meanings.
+ * The buffers are never changed once they are built, so the iterator
+ * keeps its own references to the buffers that existed when it was
+ * created, along with its own versions of firstEdge, lastEdge, and
+ * isWord that use them.  An iterator therefore continues to deliver the
+ * words that were in the graph when it was created.
+ */
+
+   private class WordIterator implements Iterator<String> {
+
+      WordIterator(String prefix, int start) {
+         this.prefix = prefix;
+         nodes = Lexicon.this.nodes;
+         labels = Lexicon.this.labels;
+         targets = Lexicon.this.targets;
+         path = new char[maxLength + 1];
+         nodeStack = new int[maxLength + 2];
+         edgeStack = new int[maxLength + 2];
+         depth = -1;
+         nextWord = null;
+         if (start >= 0) {
+            depth = 0;
+            nodeStack[0] = start;
+            edgeStack[0] = firstEdge(start);
+            if (isWord(start)) nextWord = prefix;
+         }
+         if (nextWord == null) advance();
+      }
+
+      @Override
+      public boolean hasNext() {
+         return nextWord != null;
+      }
+
+      @Override
+      public String next() {
+         if (nextWord == null) throw new NoSuchElementException();
+         String word = nextWord;
+         advance();
+         return word;
+      }
+
+   /* Moves to the next node on the walk that ends a word */
+
+      private void advance() {
+         nextWord = null;
+         while (depth >= 0) {
+            int e = edgeStack[depth];
+            if (e == lastEdge(nodeStack[depth])) {
+               depth--;
+               continue;
+            }
+            edgeStack[depth] = e + 1;
+            int node = targets.get(e);
+            path[depth] = labels.get(e);
+            depth++;
+            nodeStack[depth] = node;
+            edgeStack[depth] = firstEdge(node);
+            if (isWord(node)) {
+               nextWord = prefix + new String(path, 0, depth);
+               return;
+            }
+         }
+      }
+
+      private int firstEdge(int node) {
+         return nodes.get(node) >>> 1;
+      }
+
+      private int lastEdge(int node) {
+         return nodes.get(node + 1) >>> 1;
+      }
+
+      private boolean isWord(int node) {
+         return node >= 0 && (nodes.get(node) & 1) != 0;
+      }
+
+      private IntBuffer nodes;
+      private CharBuffer labels;
+      private IntBuffer targets;
+      private String prefix;
+      private char[] path;
+      private int[] nodeStack;
+      private int[] edgeStack;
+      private int depth;
+      private String nextWord;
+
+   }
+
+/*
+ * Inner class: DawgBuilder
+ * ------------------------
+ * This class holds the state of the incremental construction described
+ * in the notes for build.  The path list holds the nodes along the most
+ * recently added word, starting with the root.  The byId list holds each
+ * registered node at the index given by its id, with the root at 0.
+ */
+
+   private class DawgBuilder {
+
+      DawgBuilder() {
+         root = new BuildNode();
+         root.id = 0;
+         path = new ArrayList<BuildNode>();
+         path.add(root);
+         byId = new ArrayList<BuildNode>();
+         byId.add(root);
+         registry = new HashMap<String,BuildNode>();
+         previous = "";
+         count = 0;
+         longest = 0;
+         edges = 0;
+      }
+
+   /* Adds a word, which must follow the previous word alphabetically */
+
+      void add(String word) {
+         int common = 0;
+         int limit = Math.min(word.length(), previous.length());
+         while (common < limit
+                && word.charAt(common) == previous.charAt(common)) {
+            common++;
+         }
+         minimize(common);
+         BuildNode node = path.get(common);
+         for (int i = common; i < word.length(); i++) {
+            BuildNode child = new BuildNode();
+            node.addEdge(word.charAt(i), child);
+            path.add(child);
+            node = child;
+         }
+         node.isWord = true;
+         previous = word;
+         count++;
+         longest = Math.max(longest, word.length());
+      }
+
+   /* Replaces or registers the nodes on the path below depth */
+
+      void minimize(int depth) {
+         for (int d = path.size() - 1; d > depth; d--) {
+            BuildNode child = path.remove(d);
+            String key = child.key();
+            BuildNode match = registry.get(key);
+            if (match == null) {
+               child.id = byId.size();
+               byId.add(child);
+               registry.put(key, child);
+               edges += child.nEdges;
+            } else {
+               BuildNode parent = path.get(d - 1);
+               parent.targets[parent.nEdges - 1] = match;
+            }
+         }
+      }
+
+   /* Finishes the graph and copies it into the buffers */
+
+      void flatten() {
+         minimize(0);
+         edges += root.nEdges;
+         int n = byId.size();
+         int[] nodeArray = new int[n + 1];
+         int[] targetArray = new int[edges];
+         char[] labelArray = new char[edges];
+         int e = 0;
+         for (int i = 0; i < n; i++) {
+            BuildNode node = byId.get(i);
+            nodeArray[i] = (e << 1) | (node.isWord ? 1 : 0);
+            for (int j = 0; j < node.nEdges; j++) {
+               labelArray[e] = node.labels[j];
+               targetArray[e] = node.targets[j].id;
+               e++;
+            }
+         }
+         nodeArray[n] = e << 1;
+         nodes = IntBuffer.wrap(nodeArray);
+         targets = IntBuffer.wrap(targetArray);
+         labels = CharBuffer.wrap(labelArray);
+         wordCount = count;
+         maxLength = longest;
+      }
+
+      private BuildNode root;
+      private ArrayList<BuildNode> path;
+      private ArrayList<BuildNode> byId;
+      private HashMap<String,BuildNode> registry;
+      private String previous;
+      private int count;
+      private int longest;
+      private int edges;
+
+   }
+
+/*
+ * Inner class: BuildNode
+ * ----------------------
+ * This class represents a node of the graph during construction.  Edges
+ * are added in increasing order of their labels, so the arrays are
+ * always sorted.
+ */
+
+   private static class BuildNode {
+
+      BuildNode() {
+         labels = new char[1];
+         targets = new BuildNode[1];
+         nEdges = 0;
+         id = -1;
+      }
+
+   /* Appends an edge, expanding the arrays if necessary */
+
+      void addEdge(char label, BuildNode target) {
+         if (nEdges == labels.length) {
+            labels = Arrays.copyOf(labels, 2 * nEdges);
+            targets = Arrays.copyOf(targets, 2 * nEdges);
+         }
+         labels[nEdges] = label;
+         targets[nEdges] = target;
+         nEdges++;
+      }
+
+   /* Returns a string that identifies the structure of this node */
+
+      String key() {
+         StringBuilder sb = new StringBuilder(1 + 3 * nEdges);
+         sb.append(isWord ? '1' : '0');
+         for (int i = 0; i < nEdges; i++) {
+            int id = targets[i].id;
+            sb.append(labels[i]).append((char) (id >>> 16)).append((char) id);
+         }
+         return sb.toString();
+      }
+
+      char[] labels;
+      BuildNode[] targets;
+      int nEdges;
+      boolean isWord;
+      int id;
+
+   }
+
+/* Constants */
+
+   private static final int MAGIC = 0x31584C00;
+   private static final int HEADER_SIZE = 20;
+   private static final int MIN_PENDING = 1000;
+
+/*
+ * Private instance variables
+ * --------------------------
+ * The graph is stored in three buffers, which wrap arrays when the graph
+ * is built in memory and are views of a mapped file when it is loaded
+ * from a binary file.  Node 0 is the root.  The edges of each node occupy
+ * a contiguous range of the labels and targets buffers.
+ */
 
-   private TreeSet<String> set;
+   private IntBuffer nodes;            /* First edge and word flag by node */
+   private CharBuffer labels;          /* Character on each edge           */
+   private IntBuffer targets;          /* Node at the end of each edge     */
+   private int wordCount;              /* Number of words in the graph     */
+   private int maxLength;              /* Length of the longest word       */
+   private TreeSet<String> pending;    /* Words added since the last build */
 
 }
@@ -1,8 +1,8 @@
 /*
  * File: LexiconTest.java
  * ----------------------
- * This program tests the Lexicon abstraction implemented as a class
- * that stores a TreeMap as an instance variable.
+ * This program tests the Lexicon abstraction, including the prefix,
+ * pattern, and anagram queries supported by its word graph.
  */
 
 package edu.stanford.cs.javacs2.ch8;
@@ -35,6 +35,15 @@ public class LexiconTest {
                         + english.contains("xyzzy"));
       System.out.println("english.containsPrefix(\"xyzzy\") -> "
                         + english.containsPrefix("xyzzy"));
+      System.out.print("Words beginning with \"xyl\":");
+      for (String word : english.wordsWithPrefix("xyl")) {
+         System.out.print(" " + word);
+      }
+      System.out.println();
+      System.out.println("english.wordsMatching(\"?x?\") -> "
+                        + english.wordsMatching("?x?"));
+      System.out.println("english.anagrams(\"stop\") -> "
+                        + english.anagrams("stop"));
    }
 
 /* Main program */
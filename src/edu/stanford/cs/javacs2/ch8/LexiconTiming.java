@@ -0,0 +1,157 @@
+/*
+ * File: LexiconTiming.java
+ * ------------------------
+ * This program compares the startup time, memory use, and prefix-test
+ * speed of three ways of loading a word list: the TreeSet used by
+ * LexiconSubclass, the DAWG-based Lexicon built from the text file, and
+ * the same Lexicon mapped from its precompiled binary form.  The word
+ * list is EnglishWords.txt unless another file is named on the command
+ * line, and the binary form is written next to it with the extension
+ * ".lex".
+ */
+
+package edu.stanford.cs.javacs2.ch8;
+
+import java.util.ArrayList;
+
+public class LexiconTiming {
+
+   public void run(String filename) {
+      String binaryName = filename.replaceFirst("\\.txt$", "") + ".lex";
+      new Lexicon(filename).saveBinary(binaryName);
+      ArrayList<String> prefixes = createPrefixes(new Lexicon(filename));
+      System.out.printf("%-18s %12s %12s %14s%n", "Representation",
+                        "load (ms)", "bytes/word", "prefix (ns)");
+      for (int pass = 0; pass < 2; pass++) {
+         boolean show = pass == 1;
+         timeTreeSet(filename, prefixes, show);
+         timeLexicon("Lexicon (text)", filename, prefixes, show);
+         timeLexicon("Lexicon (mapped)", binaryName, prefixes, show);
+      }
+   }
+
+/*
+ * Times the TreeSet representation used by LexiconSubclass.  The first
+ * pass warms up the compiler and does not print its results.
+ */
+
+   private void timeTreeSet(String filename, ArrayList<String> prefixes,
+                            boolean show) {
+      double bytes = treeSetBytes(filename);
+      long t0 = System.nanoTime();
+      LexiconSubclass set = new LexiconSubclass(filename);
+      long t1 = System.nanoTime();
+      int found = 0;
+      long t2 = System.nanoTime();
+      for (String prefix : prefixes) {
+         if (set.containsPrefix(prefix)) found++;
+      }
+      long t3 = System.nanoTime();
+      if (show) report("TreeSet", bytes, t0, t1, t2, t3, prefixes.size());
+      check(found == prefixes.size());
+   }
+
+/*
+ * Times a Lexicon loaded from the specified file, which may be either a
+ * text file or a binary file.
+ */
+
+   private void timeLexicon(String label, String filename,
+                            ArrayList<String> prefixes, boolean show) {
+      double bytes = lexiconBytes(filename);
+      long t0 = System.nanoTime();
+      Lexicon lexicon = new Lexicon(filename);
+      long t1 = System.nanoTime();
+      int found = 0;
+      long t2 = System.nanoTime();
+      for (String prefix : prefixes) {
+         if (lexicon.containsPrefix(prefix)) found++;
+      }
+      long t3 = System.nanoTime();
+      if (show) report(label, bytes, t0, t1, t2, t3, prefixes.size());
+      check(found == prefixes.size());
+   }
+
+/*
+ * Prints one line of the table.
+ */
+
+   private void report(String label, double bytes, long t0, long t1,
+                       long t2, long t3, int nPrefixes) {
+      System.out.printf("%-18s %12.1f %12.1f %14.1f%n", label,
+                        (t1 - t0) / 1.0E6, bytes,
+                        (double) (t3 - t2) / nPrefixes);
+   }
+
+/*
+ * Implementation notes: treeSetBytes, lexiconBytes
+ * ------------------------------------------------
+ * These methods return the growth of the heap per word when the file is
+ * loaded.  They are kept separate from the timing loops so that no stale
+ * reference to an earlier set survives in a compiled loop and inflates
+ * the starting measurement.  For the mapped lexicon, the figure excludes
+ * the mapped file itself, which lives in the operating system's page
+ * cache rather than on the heap.
+ */
+
+   private double treeSetBytes(String filename) {
+      long before = usedMemory();
+      LexiconSubclass set = new LexiconSubclass(filename);
+      long after = usedMemory();
+      return (double) (after - before) / set.size();
+   }
+
+   private double lexiconBytes(String filename) {
+      long before = usedMemory();
+      Lexicon lexicon = new Lexicon(filename);
+      long after = usedMemory();
+      return (double) (after - before) / lexicon.size();
+   }
+
+/*
+ * Returns a list of every proper prefix of every word in the lexicon,
+ * which is the kind of query an anagram or word-game search makes.
+ */
+
+   private ArrayList<String> createPrefixes(Lexicon lexicon) {
+      ArrayList<String> prefixes = new ArrayList<String>();
+      for (String word : lexicon) {
+         for (int i = 1; i < word.length(); i++) {
+            prefixes.add(word.substring(0, i));
+         }
+      }
+      return prefixes;
+   }
+
+/*
+ * Returns the number of bytes in use after collecting garbage.
+ */
+
+   private long usedMemory() {
+      Runtime rt = Runtime.getRuntime();
+      for (int i = 0; i < GC_PASSES; i++) {
+         System.gc();
+      }
+      return rt.totalMemory() - rt.freeMemory();
+   }
+
+/*
+ * Throws an exception if a prefix test failed.
+ */
+
+   private void check(boolean ok) {
+      if (!ok) throw new RuntimeException("Prefix test failed");
+   }
+
+/* Constants */
+
+   private static final int GC_PASSES = 3;
+
+/* Main program */
+
+   public static void main(String[] args) {
+      String filename = (args.length > 0) ? args[0] : "EnglishWords.txt";
+      new LexiconTiming().run(filename);
+   }
+
+}
@@ -0,0 +1,381 @@
+/*
+ * File: AnagramSolver.java
+ * ------------------------
+ * This file exports a class that finds the anagrams of a set of letters
+ * in a lexicon.  Instead of generating every permutation of the letters
+ * and then looking each one up, the solver builds the anagrams a letter
+ * at a time and abandons any prefix that does not begin a word.
+ */
+
+package edu.stanford.cs.javacs2.ch9;
+
+import edu.stanford.cs.javacs2.ch8.Lexicon;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class finds single-word and multiword anagrams.  A multiword
+ * anagram is returned as its words separated by single spaces, with the
+ * words in alphabetical order so that each combination of words appears
+ * only once.  The solver only reads the lexicon, so several threads may
+ * share one as long as no words are added while they run.
+ */
+
+public class AnagramSolver {
+
+/**
+ * Creates a solver that finds anagrams among the words in lexicon.
+ *
+ * @param lexicon The lexicon of legal words
+ */
+
+   public AnagramSolver(Lexicon lexicon) {
+      this.lexicon = lexicon;
+   }
+
+/**
+ * Returns the single-word anagrams of the letters.
+ *
+ * @param letters The letters to rearrange
+ * @return An <code>Iterable</code> that generates the anagrams
+ */
+
+   public Iterable<String> anagrams(String letters) {
+      return anagrams(letters, 1);
+   }
+
+/**
+ * Returns the anagrams of the letters that consist of at most maxWords
+ * words.  Characters that are not letters, such as the spaces in a
+ * phrase, are ignored.  The anagrams are generated as the caller
+ * iterates over the result, so none of them is stored and a caller that
+ * stops early does no further work.
+ *
+ * @param letters The letters to rearrange
+ * @param maxWords The maximum number of words in each anagram
+ * @return An <code>Iterable</code> that generates the anagrams
+ * @throws IllegalArgumentException If maxWords is less than 1
+ */
+
+   public Iterable<String> anagrams(String letters, int maxWords) {
+      checkMaxWords(maxWords);
+      return () -> new AnagramIterator(letters, maxWords, -1,
+                                       lexicon.getRoot());
+   }
+
+/*
+ * Implementation notes: parallelAnagrams
+ * --------------------------------------
+ * The search is split according to the first letter of the anagram.
+ * Each distinct letter becomes a separate task in the common fork-join
+ * pool, and each task runs its own AnagramIterator restricted to that
+ * first letter.  The tasks are joined in alphabetical order of their
+ * letters, so the combined list is in the same order as the sequential
+ * results.  The lexicon is brought up to date before the tasks start,
+ * after which they only read it.
+ */
+
+/**
+ * Returns a list of the anagrams of the letters that consist of at most
+ * maxWords words, dividing the work among the available processors.
+ *
+ * @param letters The letters to rearrange
+ * @param maxWords The maximum number of words in each anagram
+ * @return A list of the anagrams
+ * @throws IllegalArgumentException If maxWords is less than 1
+ */
+
+   public ArrayList<String> parallelAnagrams(String letters, int maxWords) {
+      checkMaxWords(maxWords);
+      SearchTask task = new SearchTask(letters, maxWords, -1,
+                                       lexicon.getRoot());
+      return ForkJoinPool.commonPool().invoke(task);
+   }
+
+/*
+ * Checks that maxWords allows at least one word.  The search relies on
+ * this to bound the number of spaces it places in its buffer.
+ */
+
+   private static void checkMaxWords(int maxWords) {
+      if (maxWords < 1) {
+         throw new IllegalArgumentException("Illegal maxWords: " + maxWords);
+      }
+   }
+
+/*
+ * Inner class: SearchTask
+ * -----------------------
+ * The top-level task forks one subtask for each distinct letter; each
+ * subtask collects the anagrams that begin with its letter.
+ */
+
+   private class SearchTask extends RecursiveTask<ArrayList<String>> {
+
+      SearchTask(String letters, int maxWords, int first, int root) {
+         this.letters = letters;
+         this.maxWords = maxWords;
+         this.first = first;
+         this.root = root;
+      }
+
+      @Override
+      protected ArrayList<String> compute() {
+         ArrayList<String> result = new ArrayList<String>();
+         if (first >= 0) {
+            Iterator<String> it = new AnagramIterator(letters, maxWords,
+                                                      first, root);
+            while (it.hasNext()) {
+               result.add(it.next());
+            }
+         } else {
+            int n = distinctLetters(letters).length;
+            ArrayList<SearchTask> tasks = new ArrayList<SearchTask>();
+            for (int i = 0; i < n; i++) {
+               SearchTask task = new SearchTask(letters, maxWords, i,
+                                                root);
+               task.fork();
+               tasks.add(task);
+            }
+            for (SearchTask task : tasks) {
+               result.addAll(task.join());
+            }
+         }
+         return result;
+      }
+
+      private static final long serialVersionUID = 1L;
+
+      private String letters;
+      private int maxWords;
+      private int first;
+      private int root;
+
+   }
+
+/*
+ * Returns the letters in str converted to lower case.  Spaces and other
+ * characters that are not letters are omitted, so that the user can
+ * enter a phrase whose words are separated by spaces.
+ */
+
+   private static char[] lettersOf(String str) {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < str.length(); i++) {
+         char ch = str.charAt(i);
+         if (Character.isLetter(ch)) sb.append(Character.toLowerCase(ch));
+      }
+      return sb.toString().toCharArray();
+   }
+
+/*
+ * Returns the distinct letters in str, converted to lower case and
+ * sorted.
+ */
+
+   private static char[] distinctLetters(String str) {
+      char[] chars = lettersOf(str);
+      Arrays.sort(chars);
+      int n = 0;
+      for (int i = 0; i < chars.length; i++) {
+         if (n == 0 || chars[n - 1] != chars[i]) chars[n++] = chars[i];
+      }
+      return Arrays.copyOf(chars, n);
+   }
+
+/*
+ * Inner class: AnagramIterator
+ * ----------------------------
+ * This class carries out a depth-first search over the characters of
+ * the anagram, using explicit arrays instead of recursion so that the
+ * search can stop after each result and resume on the next call.  The
+ * letters are kept as a multiset in which distinct[i] is a letter and
+ * counts[i] is the number of copies still unused.  At each position,
+ * choice[pos] records the next option to try: SPACE ends the current
+ * word, and a value i >= 0 places distinct[i].
+ *
+ * A letter is placed only if the current word remains a prefix of some
+ * word in the lexicon, which prunes every permutation that begins with
+ * a dead prefix.  A space is placed only if the current word is itself
+ * a word.  Each word in a multiword anagram must also be no smaller
+ * than the one before, which the search checks as each letter is
+ * placed, so that the words of each anagram are found in one order.
+ *
+ * Both checks are made incrementally.  For each position p, node[p] is
+ * the node of the lexicon's word graph reached by the characters of the
+ * current word before p, start[p] is the index at which that word
+ * begins, and order[p] is the result of comparing those characters with
+ * the previous word.  Placing a letter therefore takes one step in the
+ * graph and one comparison, rather than a lookup of the whole word.
+ */
+
+   private class AnagramIterator implements Iterator<String> {
+
+      AnagramIterator(String letters, int maxWords, int first, int root) {
+         this.maxWords = maxWords;
+         char[] chars = lettersOf(letters);
+         distinct = distinctLetters(letters);
+         counts = new int[distinct.length];
+         for (char ch : chars) {
+            counts[Arrays.binarySearch(distinct, ch)]++;
+         }
+         remaining = chars.length;
+         int maxLength = chars.length + maxWords - 1;
+         buffer = new char[maxLength];
+         choice = new int[maxLength + 1];
+         node = new int[maxLength + 1];
+         start = new int[maxLength + 1];
+         order = new int[maxLength + 1];
+         this.root = root;
+         node[0] = root;
+         start[0] = 0;
+         order[0] = 1;
+         nWords = 1;
+         pos = 0;
+         firstChoice = first;
+         choice[0] = (first >= 0) ? first : SPACE;
+         nextResult = null;
+         if (remaining > 0) advance();
+      }
+
+      @Override
+      public boolean hasNext() {
+         return nextResult != null;
+      }
+
+      @Override
+      public String next() {
+         if (nextResult == null) throw new NoSuchElementException();
+         String result = nextResult;
+         advance();
+         return result;
+      }
+
+   /* Continues the search until it finds the next anagram or finishes */
+
+      private void advance() {
+         nextResult = null;
+         while (pos >= 0) {
+            int c = choice[pos]++;
+            if (c >= distinct.length || (pos == 0 && firstChoice >= 0
+                                         && c > firstChoice)) {
+               pos--;
+               if (pos >= 0) undo(pos);
+               continue;
+            }
+            if (!place(pos, c)) continue;
+            pos++;
+            if (remaining == 0) {
+               if (isWord(pos) && endsInOrder(pos)) {
+                  nextResult = new String(buffer, 0, pos);
+               }
+               pos--;
+               undo(pos);
+               if (nextResult != null) return;
+            } else {
+               choice[pos] = SPACE;
+            }
+         }
+      }
+
+   /* Places option c at position p, returning false if it is illegal */
+
+      private boolean place(int p, int c) {
+         if (c == SPACE) {
+            if (p == start[p] || nWords == maxWords) return false;
+            if (!isWord(p) || !endsInOrder(p)) return false;
+            buffer[p] = ' ';
+            nWords++;
+            node[p + 1] = root;
+            start[p + 1] = p + 1;
+            order[p + 1] = 0;
+            return true;
+         }
+         if (counts[c] == 0) return false;
+         char ch = distinct[c];
+         int child = lexicon.getChild(node[p], ch);
+         if (child < 0) return false;
+         int cmp = compareWithPrevious(p, ch);
+         if (cmp < 0) return false;
+         buffer[p] = ch;
+         counts[c]--;
+         remaining--;
+         node[p + 1] = child;
+         start[p + 1] = start[p];
+         order[p + 1] = cmp;
+         return true;
+      }
+
+   /* Removes the character at position p */
+
+      private void undo(int p) {
+         if (buffer[p] == ' ') {
+            nWords--;
+         } else {
+            counts[Arrays.binarySearch(distinct, buffer[p])]++;
+            remaining++;
+         }
+      }
+
+   /* Returns true if the word ending at end is in the lexicon */
+
+      private boolean isWord(int end) {
+         return lexicon.isWordNode(node[end]);
+      }
+
+   /*
+    * Compares the current word, extended by placing ch at position p,
+    * with the previous word over their common length, returning the
+    * difference between the first pair of characters that differ, or 0
+    * if there is none.  Only the character at p needs to be compared,
+    * because order[p] holds the result for the characters before it.
+    * The first word in the anagram has no predecessor, and order[p] is 1
+    * throughout that word.
+    */
+
+      private int compareWithPrevious(int p, char ch) {
+         if (order[p] != 0) return order[p];
+         int i = p - start[p];
+         int prevStart = start[start[p] - 1];
+         if (i >= start[p] - 1 - prevStart) return 0;
+         return ch - buffer[prevStart + i];
+      }
+
+   /* Returns true if the complete word ending at end is in order */
+
+      private boolean endsInOrder(int end) {
+         if (order[end] != 0) return order[end] > 0;
+         int s = start[end];
+         return end - s >= s - 1 - start[s - 1];
+      }
+
+      private char[] distinct;
+      private int[] counts;
+      private int remaining;
+      private char[] buffer;
+      private int[] choice;
+      private int[] node;
+      private int[] start;
+      private int[] order;
+      private int root;
+      private int pos;
+      private int nWords;
+      private int maxWords;
+      private int firstChoice;
+      private String nextResult;
+
+   }
+
+/* Constants */
+
+   private static final int SPACE = -1;
+
+/* Private instance variables */
+
+   private Lexicon lexicon;
+
+}
@@ -0,0 +1,70 @@
+/*
+ * File: AnagramSolverTest.java
+ * ----------------------------
+ * This program tests the AnagramSolver class on a small lexicon, which
+ * makes it possible to check the complete list of anagrams, including
+ * the multiword anagrams of a phrase that contains a space.
+ */
+
+package edu.stanford.cs.javacs2.ch9;
+
+import edu.stanford.cs.javacs2.ch8.Lexicon;
+import java.util.ArrayList;
+
+public class AnagramSolverTest {
+
+   public void run() {
+      Lexicon lexicon = new Lexicon();
+      for (String word : WORDS) {
+         lexicon.add(word);
+      }
+      AnagramSolver solver = new AnagramSolver(lexicon);
+      test(solver, "stop", 1, "opts", "post", "pots", "spot", "stop",
+                              "tops");
+      test(solver, "dormitory", 1, "dormitory");
+      test(solver, "dirty room", 2, "dirty room", "dormitory");
+      test(solver, "Dirty Room", 3, "dirty room", "dormitory",
+                                    "my rod tiro");
+      try {
+         solver.anagrams("ab", 0);
+         System.out.println("anagrams(\"ab\", 0) -> no exception (WRONG)");
+      } catch (IllegalArgumentException ex) {
+         System.out.println("anagrams(\"ab\", 0) -> " + ex.getMessage());
+      }
+   }
+
+/*
+ * Checks that the sequential and parallel anagrams of letters are both
+ * the expected list and displays the result.
+ */
+
+   private void test(AnagramSolver solver, String letters, int maxWords,
+                     String... expected) {
+      ArrayList<String> result = new ArrayList<String>();
+      for (String anagram : solver.anagrams(letters, maxWords)) {
+         result.add(anagram);
+      }
+      ArrayList<String> list = new ArrayList<String>();
+      for (String str : expected) {
+         list.add(str);
+      }
+      boolean ok = result.equals(list)
+                && solver.parallelAnagrams(letters, maxWords).equals(list);
+      System.out.println("anagrams(\"" + letters + "\", " + maxWords
+                         + ") -> " + result + (ok ? "" : " (WRONG)"));
+   }
+
+/* Constants */
+
+   private static final String[] WORDS = {
+      "dirty", "dormitory", "my", "opts", "post", "pots", "rod", "room",
+      "spot", "stop", "tiro", "tops"
+   };
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new AnagramSolverTest().run();
+   }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * File: AnagramTiming.java
+ * ------------------------
+ * This program compares the time required to find anagrams by generating
+ * every permutation, as the original version of Anagrams did, with the
+ * time required by AnagramSolver, both sequentially and in parallel.
+ * The "generated" column checks the permutations produced one at a time
+ * by a parallel PermutationGenerator stream, which needs no memory for
+ * the set but still examines all n! orderings.  The word list is
+ * EnglishWords.txt unless another file is named on the command line.
+ * The permutation methods are skipped beyond MAX_BRUTE_FORCE letters.
+ */
+
+package edu.stanford.cs.javacs2.ch9;
+
+import edu.stanford.cs.javacs2.ch8.Lexicon;
+import java.util.TreeSet;
+
+public class AnagramTiming {
+
+   public void run(String filename) {
+      Lexicon english = new Lexicon(filename);
+      AnagramSolver solver = new AnagramSolver(english);
+      System.out.printf("%8s %12s %12s %12s %12s %12s %12s%n", "Letters",
+                        "brute (ms)", "generated", "pruned (ms)",
+                        "parallel", "2 words", "2 parallel");
+      for (int pass = 0; pass < 2; pass++) {
+         for (int n : SIZES) {
+            timeLetters(LETTERS.substring(0, n), english, solver, pass == 1);
+         }
+      }
+   }
+
+/*
+ * Times each method on the specified letters.  The first pass warms up
+ * the compiler and does not print its results.
+ */
+
+   private void timeLetters(String letters, Lexicon english,
+                            AnagramSolver solver, boolean show) {
+      String brute = "--";
+      String generated = "--";
+      if (letters.length() <= MAX_BRUTE_FORCE) {
+         long t0 = System.nanoTime();
+         int count = 0;
+         for (String word : generatePermutations(letters)) {
+            if (english.contains(word)) count++;
+         }
+         brute = String.format("%.1f", (System.nanoTime() - t0) / 1.0E6);
+         check(count == countOf(solver.anagrams(letters)));
+         t0 = System.nanoTime();
+         PermutationGenerator gen = new PermutationGenerator(letters);
+         count = (int) gen.stream(true).filter(english::contains).count();
+         generated = String.format("%.1f",
+                                   (System.nanoTime() - t0) / 1.0E6);
+         check(count == countOf(solver.anagrams(letters)));
+      }
+      long t0 = System.nanoTime();
+      int count1 = countOf(solver.anagrams(letters));
+      long t1 = System.nanoTime();
+      int count2 = solver.parallelAnagrams(letters, 1).size();
+      long t2 = System.nanoTime();
+      int count3 = countOf(solver.anagrams(letters, 2));
+      long t3 = System.nanoTime();
+      int count4 = solver.parallelAnagrams(letters, 2).size();
+      long t4 = System.nanoTime();
+      check(count1 == count2 && count3 == count4);
+      if (show) {
+         System.out.printf("%8d %12s %12s %12.1f %12.1f %12.1f %12.1f%n",
+                           letters.length(), brute, generated,
+                           (t1 - t0) / 1.0E6,
+                           (t2 - t1) / 1.0E6, (t3 - t2) / 1.0E6,
+                           (t4 - t3) / 1.0E6);
+      }
+   }
+
+/*
+ * Returns the number of values produced by an Iterable.
+ */
+
+   private int countOf(Iterable<String> values) {
+      int count = 0;
+      for (String value : values) {
+         count++;
+      }
+      return count;
+   }
+
+/*
+ * Returns a set consisting of all permutations of the specified string.
+ * This is the method used by the original Anagrams program.
+ */
+
+   private TreeSet<String> generatePermutations(String str) {
+      TreeSet<String> result = new TreeSet<String>();
+      if (str.equals("")) {
+         result.add("");
+      } else {
+         for (int i = 0; i < str.length(); i++) {
+            char ch = str.charAt(i);
+            String rest = str.substring(0, i) + str.substring(i + 1);
+            for (String s : generatePermutations(rest)) {
+               result.add(ch + s);
+            }
+         }
+      }
+      return result;
+   }
+
+/*
+ * Throws an exception if two methods produce different counts.
+ */
+
+   private void check(boolean ok) {
+      if (!ok) throw new RuntimeException("Anagram counts differ");
+   }
+
+/* Constants */
+
+   private static final String LETTERS = "aeilnorstdcu";
+   private static final int[] SIZES = { 8, 10, 12 };
+   private static final int MAX_BRUTE_FORCE = 10;
+
+/* Main program */
+
+   public static void main(String[] args) {
+      String filename = (args.length > 0) ? args[0] : "EnglishWords.txt";
+      new AnagramTiming().run(filename);
+   }
+
+}
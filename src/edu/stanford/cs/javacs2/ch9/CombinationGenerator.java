@@ -0,0 +1,183 @@
+/*
+ * File: CombinationGenerator.java
+ * -------------------------------
+ * This file exports a class that generates the k-combinations of the
+ * characters in a string, one at a time.  Each combination is the
+ * string formed by the chosen characters in their original order.
+ */
+
+package edu.stanford.cs.javacs2.ch9;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * The combinations are generated in lexicographic order of the positions
+ * they select, which is alphabetical order whenever the characters of
+ * the string are distinct and in order.  Characters are chosen by
+ * position, so a string with repeated characters yields some
+ * combinations more than once.
+ */
+
+public class CombinationGenerator implements Iterable<String> {
+
+/**
+ * Creates a generator for the combinations of k characters from str.
+ *
+ * @param str The string from which characters are chosen
+ * @param k The number of characters in each combination
+ */
+
+   public CombinationGenerator(String str, int k) {
+      if (k < 0) throw new IllegalArgumentException("Negative k");
+      chars = str.toCharArray();
+      this.k = k;
+      size = RankedSpliterator.binomial(chars.length, k);
+   }
+
+/**
+ * Returns the number of combinations, which is the binomial coefficient
+ * C(n, k), or -1 if the number is too large to fit in a long.
+ *
+ * @return The number of combinations
+ */
+
+   public long size() {
+      return size;
+   }
+
+/**
+ * Returns an iterator that generates the combinations.
+ */
+
+   @Override
+   public Iterator<String> iterator() {
+      return Spliterators.iterator(spliterator());
+   }
+
+/**
+ * Returns a spliterator over the combinations, which can be divided for
+ * use in a parallel stream.
+ */
+
+   @Override
+   public Spliterator<String> spliterator() {
+      int[] indices = new int[k];
+      for (int i = 0; i < k; i++) {
+         indices[i] = i;
+      }
+      return new CombinationSpliterator(indices, 0, size);
+   }
+
+/**
+ * Returns a stream of the combinations.
+ *
+ * @param parallel True to create a parallel stream
+ * @return A stream of the combinations
+ */
+
+   public Stream<String> stream(boolean parallel) {
+      return StreamSupport.stream(spliterator(), parallel);
+   }
+
+/*
+ * Implementation notes: nextCombination
+ * -------------------------------------
+ * The array holds k increasing indices between 0 and n - 1.  The method
+ * finds the rightmost index that can still be incremented, which is one
+ * that is below its largest possible value n - k + i.  It increments that
+ * index and resets each index after it to one more than its predecessor.
+ * The method works in place and allocates no memory.
+ */
+
+/**
+ * Advances the array of indices to the next k-combination of the
+ * integers from 0 to n - 1 in lexicographic order and returns true, or
+ * returns false if the array holds the last combination.
+ *
+ * @param indices The increasing indices of the current combination
+ * @param n The number of elements from which indices are chosen
+ * @return True if there was a next combination
+ */
+
+   public static boolean nextCombination(int[] indices, int n) {
+      int k = indices.length;
+      int i = k - 1;
+      while (i >= 0 && indices[i] == n - k + i) {
+         i--;
+      }
+      if (i < 0) return false;
+      indices[i]++;
+      for (int j = i + 1; j < k; j++) {
+         indices[j] = indices[j - 1] + 1;
+      }
+      return true;
+   }
+
+/*
+ * Inner class: CombinationSpliterator
+ * -----------------------------------
+ * The state is the array of indices for the combination at rank lo,
+ * together with a buffer into which the chosen characters are copied.
+ * To seek to a rank, the seek method chooses each index in turn.  The
+ * number of combinations whose next index is v is C(n - 1 - v, r), where
+ * r is the number of indices still to be chosen after v, so the method
+ * skips over such blocks until it reaches the one containing the rank.
+ */
+
+   private class CombinationSpliterator extends RankedSpliterator {
+
+      CombinationSpliterator(int[] indices, long lo, long hi) {
+         super(lo, hi);
+         this.indices = indices;
+         buffer = new char[indices.length];
+      }
+
+      @Override
+      String current() {
+         for (int i = 0; i < indices.length; i++) {
+            buffer[i] = chars[indices[i]];
+         }
+         return new String(buffer);
+      }
+
+      @Override
+      boolean step() {
+         return nextCombination(indices, chars.length);
+      }
+
+      @Override
+      void seek(long rank) {
+         int n = chars.length;
+         int v = 0;
+         for (int i = 0; i < k; i++) {
+            while (true) {
+               long block = binomial(n - 1 - v, k - 1 - i);
+               if (rank < block) break;
+               rank -= block;
+               v++;
+            }
+            indices[i] = v++;
+         }
+      }
+
+      @Override
+      RankedSpliterator copy(long mid) {
+         return new CombinationSpliterator(indices.clone(), lo, mid);
+      }
+
+      private int[] indices;
+      private char[] buffer;
+
+   }
+
+/* Private instance variables */
+
+   private char[] chars;         /* The characters of the string   */
+   private int k;                /* The size of each combination   */
+   private long size;            /* The number of combinations     */
+
+}
@@ -0,0 +1,238 @@
+/*
+ * File: PermutationGenerator.java
+ * -------------------------------
+ * This file exports a class that generates the distinct permutations of
+ * a string in alphabetical order, one at a time.  Unlike the recursive
+ * method in Permutations, the generator never stores the permutations,
+ * so its memory use does not depend on how many there are.
+ */
+
+package edu.stanford.cs.javacs2.ch9;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class PermutationGenerator implements Iterable<String> {
+
+/**
+ * Creates a generator for the distinct permutations of str.  If str
+ * contains repeated characters, each distinct arrangement is generated
+ * only once.
+ *
+ * @param str The string whose characters are permuted
+ */
+
+   public PermutationGenerator(String str) {
+      chars = str.toCharArray();
+      Arrays.sort(chars);
+      size = countPermutations(chars);
+   }
+
+/**
+ * Returns the number of distinct permutations, or -1 if the number is
+ * too large to fit in a long.
+ *
+ * @return The number of permutations
+ */
+
+   public long size() {
+      return size;
+   }
+
+/**
+ * Returns an iterator that generates the permutations in alphabetical
+ * order.
+ */
+
+   @Override
+   public Iterator<String> iterator() {
+      return Spliterators.iterator(spliterator());
+   }
+
+/**
+ * Returns a spliterator over the permutations, which can be divided so
+ * that a parallel stream processes different ranges on different
+ * threads.
+ */
+
+   @Override
+   public Spliterator<String> spliterator() {
+      return new PermutationSpliterator(chars.clone(), 0, size);
+   }
+
+/**
+ * Returns a stream of the permutations.
+ *
+ * @param parallel True to create a parallel stream
+ * @return A stream of the permutations in alphabetical order
+ */
+
+   public Stream<String> stream(boolean parallel) {
+      return StreamSupport.stream(spliterator(), parallel);
+   }
+
+/*
+ * Implementation notes: nextPermutation
+ * -------------------------------------
+ * This method uses the classical algorithm for stepping to the next
+ * permutation in lexicographic order.  It finds the longest suffix that
+ * is in descending order, swaps the character just before that suffix
+ * with the smallest larger character in the suffix, and reverses the
+ * suffix.  Because the comparisons are strict, equal characters are
+ * never exchanged, and each distinct permutation appears exactly once.
+ * The method works in place and allocates no memory.
+ */
+
+/**
+ * Rearranges the array into the next permutation in lexicographic order
+ * and returns true, or returns false if the array holds the last one.
+ * Starting from a sorted array, repeated calls visit every distinct
+ * permutation.
+ *
+ * @param array The array to rearrange
+ * @return True if there was a next permutation
+ */
+
+   public static boolean nextPermutation(char[] array) {
+      int i = array.length - 2;
+      while (i >= 0 && array[i] >= array[i + 1]) {
+         i--;
+      }
+      if (i < 0) return false;
+      int j = array.length - 1;
+      while (array[j] <= array[i]) {
+         j--;
+      }
+      char tmp = array[i];
+      array[i] = array[j];
+      array[j] = tmp;
+      for (int lh = i + 1, rh = array.length - 1; lh < rh; lh++, rh--) {
+         tmp = array[lh];
+         array[lh] = array[rh];
+         array[rh] = tmp;
+      }
+      return true;
+   }
+
+/*
+ * Returns the number of distinct permutations of the sorted array, which
+ * is the multinomial coefficient n! / (c1! c2! ... ), or UNSIZED if that
+ * number does not fit in a long.  The result is accumulated as a product
+ * of binomial coefficients, one for each run of equal characters.
+ */
+
+   private static long countPermutations(char[] sorted) {
+      long result = 1;
+      int start = 0;
+      for (int i = 1; i <= sorted.length; i++) {
+         if (i == sorted.length || sorted[i] != sorted[start]) {
+            long c = RankedSpliterator.binomial(i, i - start);
+            if (c == RankedSpliterator.UNSIZED) {
+               return RankedSpliterator.UNSIZED;
+            }
+            try {
+               result = Math.multiplyExact(result, c);
+            } catch (ArithmeticException ex) {
+               return RankedSpliterator.UNSIZED;
+            }
+            start = i;
+         }
+      }
+      return result;
+   }
+
+/*
+ * Inner class: PermutationSpliterator
+ * -----------------------------------
+ * The state is the permutation at rank lo, which step advances with
+ * nextPermutation.  To seek to a rank, the seek method chooses one
+ * character at a time.  Placing the character ch at the front of the
+ * remaining characters leaves count * c(ch) / n permutations of the
+ * rest, where count is the number of permutations of the remaining
+ * characters and c(ch) is the number of copies of ch among them.  The
+ * method skips over those blocks until it reaches the one containing
+ * the rank.  That product may overflow a long, so it is computed with
+ * BigInteger, which is acceptable because seek runs only when a
+ * spliterator is split.
+ */
+
+   private static class PermutationSpliterator extends RankedSpliterator {
+
+      PermutationSpliterator(char[] state, long lo, long hi) {
+         super(lo, hi);
+         this.state = state;
+      }
+
+      @Override
+      String current() {
+         return new String(state);
+      }
+
+      @Override
+      boolean step() {
+         return nextPermutation(state);
+      }
+
+      @Override
+      void seek(long rank) {
+         Arrays.sort(state);
+         char[] rest = state.clone();
+         int n = rest.length;
+         long count = countPermutations(rest);
+         for (int pos = 0; pos < state.length; pos++) {
+            int i = 0;
+            while (true) {
+               int copies = 1;
+               while (i + copies < n && rest[i + copies] == rest[i]) {
+                  copies++;
+               }
+               long block = BigInteger.valueOf(count)
+                                      .multiply(BigInteger.valueOf(copies))
+                                      .divide(BigInteger.valueOf(n))
+                                      .longValue();
+               if (rank < block) {
+                  count = block;
+                  break;
+               }
+               rank -= block;
+               i += copies;
+            }
+            state[pos] = rest[i];
+            System.arraycopy(rest, i + 1, rest, i, n - i - 1);
+            n--;
+         }
+      }
+
+      @Override
+      RankedSpliterator copy(long mid) {
+         return new PermutationSpliterator(state.clone(), lo, mid);
+      }
+
+      @Override
+      public int characteristics() {
+         return super.characteristics() | SORTED | DISTINCT;
+      }
+
+   /* The permutations are in natural String order */
+
+      @Override
+      public Comparator<? super String> getComparator() {
+         return null;
+      }
+
+      private char[] state;
+
+   }
+
+/* Private instance variables */
+
+   private char[] chars;         /* The characters in ascending order   */
+   private long size;            /* The number of distinct permutations */
+
+}
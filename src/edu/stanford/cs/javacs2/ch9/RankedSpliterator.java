@@ -0,0 +1,112 @@
+/*
+ * File: RankedSpliterator.java
+ * ----------------------------
+ * This file defines the abstract class shared by the permutation,
+ * combination, and subset generators.  Each generator produces its
+ * values in a fixed order in which every value has a numeric rank, so a
+ * range of ranks can be handed to another thread by computing the value
+ * at the midpoint of the range directly.
+ */
+
+package edu.stanford.cs.javacs2.ch9;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/*
+ * Implementation notes: RankedSpliterator
+ * ---------------------------------------
+ * A RankedSpliterator covers the ranks from lo up to but not including
+ * hi.  Its subclass keeps the state for the value at rank lo, which the
+ * step method advances in place without allocating memory.  Splitting
+ * gives the first half of the range to a new spliterator, which receives
+ * a copy of the current state, and then moves this spliterator to the
+ * midpoint by calling seek.  If the number of values does not fit in a
+ * long, hi is UNSIZED and the spliterator runs until step reports that
+ * there are no more values, but it cannot be split.
+ */
+
+abstract class RankedSpliterator implements Spliterator<String> {
+
+   RankedSpliterator(long lo, long hi) {
+      this.lo = lo;
+      this.hi = hi;
+      done = (lo >= hi && hi != UNSIZED);
+   }
+
+/*
+ * Methods to be implemented by each subclass
+ * ------------------------------------------
+ * current returns the value at rank lo, step advances the state to the
+ * next rank and returns false if there is none, seek sets the state to
+ * the value at the specified rank, and copy returns a spliterator for
+ * the range from lo to mid that starts from a copy of the current state.
+ */
+
+   abstract String current();
+   abstract boolean step();
+   abstract void seek(long rank);
+   abstract RankedSpliterator copy(long mid);
+
+   @Override
+   public boolean tryAdvance(Consumer<? super String> action) {
+      if (done) return false;
+      action.accept(current());
+      lo++;
+      if ((hi != UNSIZED && lo >= hi) || !step()) done = true;
+      return true;
+   }
+
+   @Override
+   public Spliterator<String> trySplit() {
+      if (done || hi == UNSIZED || hi - lo < 2) return null;
+      long mid = lo + (hi - lo) / 2;
+      RankedSpliterator prefix = copy(mid);
+      lo = mid;
+      seek(mid);
+      return prefix;
+   }
+
+   @Override
+   public long estimateSize() {
+      if (done) return 0;
+      return (hi == UNSIZED) ? Long.MAX_VALUE : hi - lo;
+   }
+
+   @Override
+   public int characteristics() {
+      int flags = ORDERED | NONNULL | IMMUTABLE;
+      return (hi == UNSIZED) ? flags : flags | SIZED | SUBSIZED;
+   }
+
+/*
+ * Returns the binomial coefficient C(n, k), or UNSIZED if it does not
+ * fit in a long.  Each partial product is itself a binomial coefficient,
+ * so every division is exact.
+ */
+
+   static long binomial(int n, int k) {
+      if (k < 0 || k > n) return 0;
+      k = Math.min(k, n - k);
+      long result = 1;
+      try {
+         for (int i = 1; i <= k; i++) {
+            result = Math.multiplyExact(result, n - k + i) / i;
+         }
+      } catch (ArithmeticException ex) {
+         return UNSIZED;
+      }
+      return result;
+   }
+
+/* Constants */
+
+   static final long UNSIZED = -1;
+
+/* Instance variables shared with subclasses */
+
+   long lo;                /* Rank of the current value            */
+   long hi;                /* Rank at which this spliterator stops */
+   boolean done;           /* True when no values remain           */
+
+}
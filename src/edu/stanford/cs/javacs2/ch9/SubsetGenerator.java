@@ -0,0 +1,132 @@
+/*
+ * File: SubsetGenerator.java
+ * --------------------------
+ * This file exports a class that generates the subsets of the characters
+ * in a string, one at a time.  Each subset is the string formed by the
+ * chosen characters in their original order.
+ */
+
+package edu.stanford.cs.javacs2.ch9;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * Each subset corresponds to a binary number in which bit i is 1 if the
+ * subset contains the character at index i.  The subsets are generated
+ * in increasing order of those numbers, so the rank of a subset is its
+ * binary number and stepping to the next subset is a single increment.
+ * Characters are chosen by position, so a string with repeated
+ * characters yields some subsets more than once.
+ */
+
+public class SubsetGenerator implements Iterable<String> {
+
+/**
+ * Creates a generator for the subsets of the characters in str, which
+ * may contain at most 62 characters.
+ *
+ * @param str The string from which characters are chosen
+ */
+
+   public SubsetGenerator(String str) {
+      if (str.length() > MAX_LENGTH) {
+         throw new IllegalArgumentException("String is too long");
+      }
+      chars = str.toCharArray();
+   }
+
+/**
+ * Returns the number of subsets, which is 2 to the power n.
+ *
+ * @return The number of subsets
+ */
+
+   public long size() {
+      return 1L << chars.length;
+   }
+
+/**
+ * Returns an iterator that generates the subsets.
+ */
+
+   @Override
+   public Iterator<String> iterator() {
+      return Spliterators.iterator(spliterator());
+   }
+
+/**
+ * Returns a spliterator over the subsets, which can be divided for use
+ * in a parallel stream.
+ */
+
+   @Override
+   public Spliterator<String> spliterator() {
+      return new SubsetSpliterator(0, size());
+   }
+
+/**
+ * Returns a stream of the subsets.
+ *
+ * @param parallel True to create a parallel stream
+ * @return A stream of the subsets
+ */
+
+   public Stream<String> stream(boolean parallel) {
+      return StreamSupport.stream(spliterator(), parallel);
+   }
+
+/*
+ * Inner class: SubsetSpliterator
+ * ------------------------------
+ * The state is the bit mask of the subset at rank lo, which is equal to
+ * lo itself.  The buffer holds the chosen characters.
+ */
+
+   private class SubsetSpliterator extends RankedSpliterator {
+
+      SubsetSpliterator(long lo, long hi) {
+         super(lo, hi);
+         buffer = new char[chars.length];
+      }
+
+      @Override
+      String current() {
+         int n = 0;
+         for (int i = 0; i < chars.length; i++) {
+            if ((lo & (1L << i)) != 0) buffer[n++] = chars[i];
+         }
+         return new String(buffer, 0, n);
+      }
+
+      @Override
+      boolean step() {
+         return lo < size();
+      }
+
+      @Override
+      void seek(long rank) {
+         /* The rank is the state, which trySplit has already set */
+      }
+
+      @Override
+      RankedSpliterator copy(long mid) {
+         return new SubsetSpliterator(lo, mid);
+      }
+
+      private char[] buffer;
+
+   }
+
+/* Constants */
+
+   private static final int MAX_LENGTH = 62;
+
+/* Private instance variables */
+
+   private char[] chars;         /* The characters of the string */
+
+}
@@ -1,7 +1,10 @@
 /*
  * File: SubsetSum.java
  * --------------------
- * This file tests the subsetSumExists function.
+ * This file tests the subset-sum problem, printing a subset with each
+ * reachable sum.  SubsetSumSolver builds its table of reachable sums
+ * once and answers every target from it.  SubsetSumTest checks its
+ * answers against the original recursive subsetSumExists function.
  */
 
 package edu.stanford.cs.javacs2.ch9;
@@ -13,11 +16,11 @@ public class SubsetSum {
    public void run() {
       TreeSet<Integer> set = createIntSet(-2, 1, 3, 8);
       System.out.println("set = " + toString(set));
-      int min = minSum(set);
-      int max = maxSum(set);
-      for (int i = min; i <= max; i++) {
-         System.out.println("subsetSumExists(set, " + i + ") = " +
-                            subsetSumExists(set, i));
+      SubsetSumSolver solver = new SubsetSumSolver(toArray(set));
+      for (long i = solver.minSum(); i <= solver.maxSum(); i++) {
+         int[] subset = solver.findSubset(i);
+         System.out.print("subsetSumExists(set, " + i + ") = ");
+         System.out.println((subset != null) + witnessString(subset));
       }
    }
 
@@ -29,32 +32,19 @@ public class SubsetSum {
       return set;
    }
 
-   private boolean subsetSumExists(TreeSet<Integer> set, int target) {
-      if (set.isEmpty()) {
-         return target == 0;
-      } else {
-         int element = set.first();
-         TreeSet<Integer> rest = new TreeSet<Integer>(set);
-         rest.remove(element);
-         return subsetSumExists(rest, target)
-             || subsetSumExists(rest, target - element);
-      }
-   }
-
-   private int minSum(TreeSet<Integer> set) {
-      int total = 0;
+   private int[] toArray(TreeSet<Integer> set) {
+      int[] array = new int[set.size()];
+      int i = 0;
       for (int element : set) {
-         if (element < 0) total += element;
+         array[i++] = element;
       }
-      return total;
+      return array;
    }
 
-   private int maxSum(TreeSet<Integer> set) {
-      int total = 0;
-      for (int element : set) {
-         if (element > 0) total += element;
-      }
-      return total;
+   private String witnessString(int[] subset) {
+      if (subset == null) return "";
+      TreeSet<Integer> witness = createIntSet(subset);
+      return " using " + toString(witness);
    }
 
 /**
@@ -0,0 +1,354 @@
+/*
+ * File: SubsetSumSolver.java
+ * --------------------------
+ * This file exports a class that solves the subset-sum problem: given a
+ * collection of integers, find a subset whose elements add up to a
+ * target value.  The class offers three strategies and, by default,
+ * chooses the one best suited to the input.
+ */
+
+package edu.stanford.cs.javacs2.ch9;
+
+import java.util.Arrays;
+
+/**
+ * This class finds subsets of a fixed list of integers that add up to
+ * specified targets.  The values may be negative and may contain
+ * duplicates, each of which can be used once.  Each search returns a
+ * witness, which is an array containing the values in one such subset,
+ * or <code>null</code> if no subset has the target sum.  The tables
+ * used by the dynamic-programming and meet-in-the-middle strategies are
+ * built on the first search and reused for later targets.
+ */
+
+public class SubsetSumSolver {
+
+/**
+ * This type specifies the strategy used by <code>findSubset</code>.
+ * RECURSIVE tries both possibilities for each value and takes O(2^n)
+ * time.  DYNAMIC computes every reachable sum at once using a bit
+ * vector, which requires the range of sums to be small.  MEET_IN_THE_MIDDLE
+ * combines the subset sums of the two halves of the list, which works
+ * for large values as long as there are at most about 40 of them.  AUTO
+ * chooses among the others as described for <code>chooseStrategy</code>.
+ */
+
+   public enum Strategy { AUTO, RECURSIVE, DYNAMIC, MEET_IN_THE_MIDDLE }
+
+/**
+ * Creates a solver for the specified values.
+ *
+ * @param values The values from which subsets are chosen
+ */
+
+   public SubsetSumSolver(int... values) {
+      this.values = values.clone();
+      for (int v : values) {
+         if (v < 0) minSum += v;
+         if (v > 0) maxSum += v;
+      }
+   }
+
+/**
+ * Returns the smallest possible sum, which is the sum of the negative
+ * values.
+ */
+
+   public long minSum() {
+      return minSum;
+   }
+
+/**
+ * Returns the largest possible sum, which is the sum of the positive
+ * values.
+ */
+
+   public long maxSum() {
+      return maxSum;
+   }
+
+/**
+ * Returns the strategy that <code>AUTO</code> selects for these values.
+ * Dynamic programming is used if the range of possible sums is small
+ * enough for its tables, meet-in-the-middle if there are few enough
+ * values, and recursion otherwise.
+ *
+ * @return The strategy that will be used
+ */
+
+   public Strategy chooseStrategy() {
+      if (maxSum - minSum < MAX_DYNAMIC_RANGE) return Strategy.DYNAMIC;
+      if (values.length <= MAX_MEET_IN_THE_MIDDLE) {
+         return Strategy.MEET_IN_THE_MIDDLE;
+      }
+      return Strategy.RECURSIVE;
+   }
+
+/**
+ * Returns true if some subset of the values adds up to target.
+ *
+ * @param target The desired sum
+ * @return True if a subset with that sum exists
+ */
+
+   public boolean subsetSumExists(long target) {
+      return findSubset(target) != null;
+   }
+
+/**
+ * Returns a subset whose sum is target, using the strategy chosen by
+ * <code>chooseStrategy</code>.
+ *
+ * @param target The desired sum
+ * @return The values in the subset, or <code>null</code> if none exists
+ */
+
+   public int[] findSubset(long target) {
+      return findSubset(target, Strategy.AUTO);
+   }
+
+/**
+ * Returns a subset whose sum is target, using the specified strategy.
+ *
+ * @param target The desired sum
+ * @param strategy The strategy to use
+ * @return The values in the subset, or <code>null</code> if none exists
+ */
+
+   public int[] findSubset(long target, Strategy strategy) {
+      if (strategy == Strategy.AUTO) strategy = chooseStrategy();
+      if (target < minSum || target > maxSum) return null;
+      switch (strategy) {
+       case DYNAMIC:
+         return findDynamic(target);
+       case MEET_IN_THE_MIDDLE:
+         return findMeetInTheMiddle(target);
+       default:
+         return findRecursive(target);
+      }
+   }
+
+/*
+ * Implementation notes: findRecursive
+ * -----------------------------------
+ * This strategy uses the same recursive insight as the original
+ * subsetSumExists method: a subset either includes the first value or
+ * it does not.  Instead of copying the rest of the set at each level,
+ * it passes the index of the next value to consider and records the
+ * values it includes in a boolean array, from which the witness is
+ * built when the target is reached.
+ */
+
+   private int[] findRecursive(long target) {
+      boolean[] chosen = new boolean[values.length];
+      if (!findRecursive(0, target, chosen)) return null;
+      return witness(chosen);
+   }
+
+   private boolean findRecursive(int index, long target, boolean[] chosen) {
+      if (index == values.length) return target == 0;
+      if (findRecursive(index + 1, target, chosen)) return true;
+      chosen[index] = true;
+      if (findRecursive(index + 1, target - values[index], chosen)) {
+         return true;
+      }
+      chosen[index] = false;
+      return false;
+   }
+
+/*
+ * Implementation notes: findDynamic
+ * ---------------------------------
+ * The reachable sums are stored as a bit vector in which bit s stands
+ * for the sum minSum + s.  Initially only the sum 0 is reachable.  Each
+ * value v then adds the sums reachable with it, which are the current
+ * sums shifted by v, so the whole table is built with one shift-and-or
+ * pass per value over (maxSum - minSum) / 64 words.  For each sum, the
+ * first array records the index of the value that first made it
+ * reachable.  That sum minus the value was reachable using only earlier
+ * values, so following the first array back to the sum 0 produces a
+ * witness that uses each value at most once.  Once the table is built,
+ * every target in the range is answered without further searching.
+ */
+
+   private int[] findDynamic(long target) {
+      if (reachable == null) buildDynamicTable();
+      int bit = (int) (target - minSum);
+      if ((reachable[bit >>> 6] & (1L << bit)) == 0) return null;
+      boolean[] chosen = new boolean[values.length];
+      int zero = (int) -minSum;
+      while (bit != zero) {
+         int i = first[bit];
+         chosen[i] = true;
+         bit -= values[i];
+      }
+      return witness(chosen);
+   }
+
+   private void buildDynamicTable() {
+      if (maxSum - minSum >= Integer.MAX_VALUE - 64) {
+         throw new IllegalStateException("Range of sums is too large");
+      }
+      int range = (int) (maxSum - minSum + 1);
+      int nWords = (range + 63) >>> 6;
+      reachable = new long[nWords];
+      first = new int[range];
+      int zero = (int) -minSum;
+      reachable[zero >>> 6] |= 1L << zero;
+      for (int i = 0; i < values.length; i++) {
+         int v = values[i];
+         if (v > 0) {
+            shiftUp(v, i, nWords);
+         } else if (v < 0) {
+            shiftDown(-v, i, nWords);
+         }
+      }
+   }
+
+/*
+ * Ors the bit vector shifted toward higher sums by k into itself.  The
+ * words are processed from the top down so that each word is read
+ * before it is changed.  Each newly set bit records value i in first.
+ */
+
+   private void shiftUp(int k, int i, int nWords) {
+      int ws = k >>> 6;
+      int bs = k & 63;
+      for (int w = nWords - 1; w >= ws; w--) {
+         long shifted = reachable[w - ws] << bs;
+         if (bs != 0 && w - ws > 0) {
+            shifted |= reachable[w - ws - 1] >>> (64 - bs);
+         }
+         recordNewBits(w, shifted, i);
+      }
+   }
+
+/*
+ * Ors the bit vector shifted toward lower sums by k into itself, this
+ * time processing the words from the bottom up.
+ */
+
+   private void shiftDown(int k, int i, int nWords) {
+      int ws = k >>> 6;
+      int bs = k & 63;
+      for (int w = 0; w + ws < nWords; w++) {
+         long shifted = reachable[w + ws] >>> bs;
+         if (bs != 0 && w + ws + 1 < nWords) {
+            shifted |= reachable[w + ws + 1] << (64 - bs);
+         }
+         recordNewBits(w, shifted, i);
+      }
+   }
+
+/*
+ * Sets the bits of word w that are in shifted and records value i as the
+ * first value for each bit that was not already set.  Bits beyond the
+ * end of the range are never set by a shift, because no sum can exceed
+ * maxSum or fall below minSum.
+ */
+
+   private void recordNewBits(int w, long shifted, int i) {
+      long added = shifted & ~reachable[w];
+      reachable[w] |= added;
+      while (added != 0) {
+         first[(w << 6) + Long.numberOfTrailingZeros(added)] = i;
+         added &= added - 1;
+      }
+   }
+
+/*
+ * Implementation notes: findMeetInTheMiddle
+ * -----------------------------------------
+ * This strategy splits the values into a low half and a high half and
+ * lists the 2^(n/2) subset sums of each half.  The sum for each mask is
+ * the sum for the mask without its lowest bit plus the value that bit
+ * selects, so each list takes one addition per entry.  The sums of the
+ * high half are also kept in sorted order.  A target is reachable if,
+ * for some sum a of the low half, target - a appears among the sorted
+ * sums of the high half, which binary search finds in O(n) steps.  The
+ * search therefore takes O(2^(n/2) n) time instead of O(2^n).  When a
+ * match is found, the mask for the high half is recovered by scanning
+ * its unsorted list.
+ */
+
+   private int[] findMeetInTheMiddle(long target) {
+      if (lowSums == null) buildMeetInTheMiddleTables();
+      for (int lowMask = 0; lowMask < lowSums.length; lowMask++) {
+         long rest = target - lowSums[lowMask];
+         if (Arrays.binarySearch(sortedHighSums, rest) >= 0) {
+            int highMask = 0;
+            while (highSums[highMask] != rest) {
+               highMask++;
+            }
+            boolean[] chosen = new boolean[values.length];
+            int half = values.length / 2;
+            for (int i = 0; i < values.length; i++) {
+               int mask = (i < half) ? lowMask : highMask;
+               int bit = (i < half) ? i : i - half;
+               chosen[i] = (mask & (1 << bit)) != 0;
+            }
+            return witness(chosen);
+         }
+      }
+      return null;
+   }
+
+   private void buildMeetInTheMiddleTables() {
+      if (values.length > MAX_MEET_IN_THE_MIDDLE) {
+         throw new IllegalStateException("Too many values");
+      }
+      int half = values.length / 2;
+      lowSums = subsetSums(0, half);
+      highSums = subsetSums(half, values.length);
+      sortedHighSums = highSums.clone();
+      Arrays.sort(sortedHighSums);
+   }
+
+/*
+ * Returns an array in which the entry for each mask is the sum of the
+ * values from start to end that the mask selects.
+ */
+
+   private long[] subsetSums(int start, int end) {
+      long[] sums = new long[1 << (end - start)];
+      for (int mask = 1; mask < sums.length; mask++) {
+         int low = Integer.numberOfTrailingZeros(mask);
+         sums[mask] = sums[mask & (mask - 1)] + values[start + low];
+      }
+      return sums;
+   }
+
+/*
+ * Returns an array of the chosen values in their original order.
+ */
+
+   private int[] witness(boolean[] chosen) {
+      int n = 0;
+      for (boolean b : chosen) {
+         if (b) n++;
+      }
+      int[] result = new int[n];
+      n = 0;
+      for (int i = 0; i < values.length; i++) {
+         if (chosen[i]) result[n++] = values[i];
+      }
+      return result;
+   }
+
+/* Constants */
+
+   private static final long MAX_DYNAMIC_RANGE = 1 << 24;
+   private static final int MAX_MEET_IN_THE_MIDDLE = 44;
+
+/* Private instance variables */
+
+   private int[] values;            /* The values, in their original order */
+   private long minSum;             /* Sum of the negative values          */
+   private long maxSum;             /* Sum of the positive values          */
+   private long[] reachable;        /* Bit vector of reachable sums        */
+   private int[] first;             /* Value that first reached each sum   */
+   private long[] lowSums;          /* Subset sums of the low half         */
+   private long[] highSums;         /* Subset sums of the high half        */
+   private long[] sortedHighSums;   /* The high-half sums in order         */
+
+}
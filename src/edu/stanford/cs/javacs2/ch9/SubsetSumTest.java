@@ -0,0 +1,114 @@
+/*
+ * File: SubsetSumTest.java
+ * ------------------------
+ * This program checks every strategy of SubsetSumSolver against the
+ * original recursive subsetSumExists function.  For each target in the
+ * range of possible sums, each strategy must find a subset exactly when
+ * the recursive function says one exists, and the values in the subset
+ * must add up to the target.
+ */
+
+package edu.stanford.cs.javacs2.ch9;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+public class SubsetSumTest {
+
+   public void run() {
+      test(createIntSet(-2, 1, 3, 8));
+      Random rand = new Random(SEED);
+      for (int i = 0; i < N_SETS; i++) {
+         TreeSet<Integer> set = new TreeSet<Integer>();
+         int size = rand.nextInt(MAX_SIZE + 1);
+         while (set.size() < size) {
+            set.add(rand.nextInt(2 * MAX_VALUE + 1) - MAX_VALUE);
+         }
+         test(set);
+      }
+   }
+
+/*
+ * Checks every strategy on every target for the set and reports the
+ * number of reachable sums.
+ */
+
+   private void test(TreeSet<Integer> set) {
+      int[] values = new int[set.size()];
+      int n = 0;
+      for (int element : set) {
+         values[n++] = element;
+      }
+      SubsetSumSolver solver = new SubsetSumSolver(values);
+      int reachable = 0;
+      for (long i = solver.minSum(); i <= solver.maxSum(); i++) {
+         boolean exists = subsetSumExists(set, (int) i);
+         if (exists) reachable++;
+         for (SubsetSumSolver.Strategy strategy :
+                                      SubsetSumSolver.Strategy.values()) {
+            int[] subset = solver.findSubset(i, strategy);
+            if ((subset != null) != exists || !sumsTo(subset, i)) {
+               throw new RuntimeException(strategy + " disagrees for "
+                                          + i + " in " + set);
+            }
+         }
+      }
+      System.out.println(set + ": " + reachable + " reachable sums");
+   }
+
+   private TreeSet<Integer> createIntSet(int... args) {
+      TreeSet<Integer> set = new TreeSet<Integer>();
+      for (int n : args) {
+         set.add(n);
+      }
+      return set;
+   }
+
+/*
+ * Returns true if the subset is null or its values add up to target.
+ */
+
+   private boolean sumsTo(int[] subset, long target) {
+      if (subset == null) return true;
+      long total = 0;
+      for (int value : subset) {
+         total += value;
+      }
+      return total == target;
+   }
+
+/*
+ * Implementation notes: subsetSumExists
+ * -------------------------------------
+ * This is the original recursive formulation, which copies the rest of
+ * the set at each level.  It is too slow to answer every target in a
+ * program like SubsetSum, but its simplicity makes it a good standard
+ * against which to check the solver.
+ */
+
+   private boolean subsetSumExists(TreeSet<Integer> set, int target) {
+      if (set.isEmpty()) {
+         return target == 0;
+      } else {
+         int element = set.first();
+         TreeSet<Integer> rest = new TreeSet<Integer>(set);
+         rest.remove(element);
+         return subsetSumExists(rest, target)
+             || subsetSumExists(rest, target - element);
+      }
+   }
+
+/* Constants */
+
+   private static final int N_SETS = 20;
+   private static final int MAX_SIZE = 8;
+   private static final int MAX_VALUE = 20;
+   private static final long SEED = 20;
+
+/* Main program */
+
+   public static void main(String[] args) {
+      new SubsetSumTest().run();
+   }
+
+}